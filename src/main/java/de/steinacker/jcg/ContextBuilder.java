@@ -39,6 +39,11 @@ public final class ContextBuilder {
         return this;
     }
 
+    public ContextBuilder removeParameter(final String key) {
+        this.parameters.remove(key);
+        return this;
+    }
+
     public Context toContext() {
         return new Context(parameters);
     }
@@ -4,11 +4,16 @@
 
 package de.steinacker.jcg;
 
+import de.steinacker.jcg.exception.JcgException;
 import org.apache.commons.cli.*;
 import org.apache.log4j.xml.DOMConfigurator;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.support.FileSystemXmlApplicationContext;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 /**
  * The main class to verify java files using custom annotation processor. The
  * files to be verified can be supplied to this class as comma-separated
@@ -29,7 +34,12 @@ public class Jcg {
         options.addOption("r", "recursive", false, "Recursively traverse the source directory. Default is false");
         options.addOption("c", "config", true, "The configuration file used to initialize jcg.");
         options.addOption("p", "propertyFile", true, "The property-file used to configure jcg. Properties contained in this file are overwritten by other parameters.");
-        options.addOption("b", "bin", true, "The directory, where output of the compiler (that is, .class files) is written to. By default, this is './bin'");
+        options.addOption("b", "bin", true, "The directory, where output of the compiler (that is, .class files) is written to. By default, this is './bin'. Ignored, if the parser is configured to only analyze the sources.");
+        options.addOption("w", "watch", false, "Watch the source directory and regenerate the code of modified source files, until the process is stopped.");
+        options.addOption("D", "daemon", false, "Start a jcg daemon, processing requests of jcg clients until it is stopped. The daemon only accepts the comma-separated configuration files specified using --config.");
+        options.addOption("C", "client", false, "Forward the request to a running jcg daemon. If no daemon is running, the request is processed by this process.");
+        options.addOption("S", "stop", false, "Stop a running jcg daemon.");
+        options.addOption("P", "port", true, "The loopback port of the jcg daemon. Default is " + JcgDaemon.DEFAULT_PORT);
     }
 
 
@@ -49,8 +59,20 @@ public class Jcg {
             final CommandLineParser cliParser = new PosixParser();
             final CommandLine cli = cliParser.parse(options, args);
 
+            final int port = cli.hasOption('P')
+                    ? Integer.parseInt(cli.getOptionValue('P'))
+                    : JcgDaemon.DEFAULT_PORT;
             if (cli.hasOption('h')) {
                 help();
+            } else if (cli.hasOption('D')) {
+                // the daemon only serves the configurations specified when it is started:
+                final List<String> springConfigs = cli.hasOption('c')
+                        ? Arrays.asList(cli.getOptionValue('c').split(","))
+                        : Collections.singletonList(new JcgParameters().getSpringConfig());
+                new JcgDaemon(port, springConfigs).run();
+            } else if (cli.hasOption('S')) {
+                if (!JcgDaemon.stop(port))
+                    System.err.println("No jcg daemon running on port " + port);
             } else {
                 final JcgParameters params;
                 if (cli.hasOption('p')) {
@@ -74,18 +96,42 @@ public class Jcg {
                 }
                 if (params.getTargetDir() == null || (params.getSourceDir() == null && params.getSourceFile() == null))
                     help();
-                final ApplicationContext context = new FileSystemXmlApplicationContext(params.getSpringConfig());
-                final JcgController controller = context.getBean(JcgController.class);
-                if (params.getSourceFile() != null)
-                    controller.invoke(params.getSelector(), params.getSourceFile(), params.getTargetDir(), params.getBinDir());
-                else
-                    controller.invoke(params.getSelector(), params.getSourceDir(), params.isRecursive(),  params.getTargetDir(), params.getBinDir());
+                if (cli.hasOption('C')) {
+                    params.makePathsAbsolute();
+                    if (JcgDaemon.forward(params, port))
+                        return;
+                    System.err.println("No jcg daemon running on port " + port + ". Processing request locally.");
+                }
+                if (cli.hasOption('w')) {
+                    if (params.getSourceDir() == null)
+                        help();
+                    final ApplicationContext context = new FileSystemXmlApplicationContext(params.getSpringConfig());
+                    context.getBean(JcgController.class).watch(params.getSelector(), params.getSourceDir(),
+                            params.isRecursive(), params.getTargetDir(), params.getBinDir());
+                } else {
+                    generate(params, new FileSystemXmlApplicationContext(params.getSpringConfig()));
+                }
             }
         } catch (Throwable t) {
             t.printStackTrace();
         }
     }
 
+    /**
+     * Generates code using the JcgController of the application context.
+     *
+     * @param params the parameters of the generation.
+     * @param context the Spring application context.
+     * @throws JcgException if generating the code fails.
+     */
+    static void generate(final JcgParameters params, final ApplicationContext context) throws JcgException {
+        final JcgController controller = context.getBean(JcgController.class);
+        if (params.getSourceFile() != null)
+            controller.invoke(params.getSelector(), params.getSourceFile(), params.getTargetDir(), params.getBinDir());
+        else
+            controller.invoke(params.getSelector(), params.getSourceDir(), params.isRecursive(),  params.getTargetDir(), params.getBinDir());
+    }
+
     private static void help() throws ParseException {
         new HelpFormatter().printHelp("jcg -d ./src/main/java -t ./src/generated/java [-r] -s domain-model", options);
         System.exit(42);
@@ -6,14 +6,18 @@ package de.steinacker.jcg;
 
 import de.steinacker.jcg.exception.JcgException;
 import de.steinacker.jcg.generator.Generator;
-import de.steinacker.jcg.model.Model;
+import de.steinacker.jcg.model.*;
 import de.steinacker.jcg.parse.JavaFileParser;
 import de.steinacker.jcg.transform.model.ModelMessage;
+import de.steinacker.jcg.transform.model.ModelSequencer;
 import de.steinacker.jcg.transform.model.ModelTransformer;
+import de.steinacker.jcg.transform.type.TransformationCache;
+import de.steinacker.jcg.util.DigestUtil;
 import org.apache.log4j.Logger;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
 
 /**
  * @author Guido Steinacker
@@ -24,6 +28,14 @@ public final class JcgController {
     private JavaFileParser parser;
     private ModelTransformer transformer;
     private Generator generator;
+    private boolean streaming = false;
+    private int queueSize = 100;
+    private long pollInterval = 1000;
+    private long debounceInterval = 300;
+    private String snapshotFile = null;
+    private List<String> configFiles = Collections.emptyList();
+
+    private static final String SNAPSHOT_FORMAT = "jcg-snapshot-2";
 
     public void setParser(final JavaFileParser parser) {
         this.parser = parser;
@@ -37,19 +49,84 @@ public final class JcgController {
         this.generator = generator;
     }
 
+    /**
+     * If streaming is true, parsing, transformation and generation are running concurrently, and every
+     * type is transformed and generated as soon as it is parsed. Otherwise, the complete model is parsed,
+     * then transformed and finally generated. By default, streaming is disabled.
+     * <p/>
+     * Streaming requires a {@link ModelSequencer}, transforming every type on its own. Using any other
+     * ModelTransformer, the complete model is parsed and transformed, even if streaming is enabled.
+     *
+     * @param streaming true, if types should be streamed through the transformer and generator.
+     */
+    public void setStreaming(final boolean streaming) {
+        this.streaming = streaming;
+    }
+
+    /**
+     * The maximum number of types waiting to be transformed or generated in streaming mode.
+     *
+     * @param queueSize the size of the queues between the stages, must be greater than zero.
+     */
+    public void setQueueSize(final int queueSize) {
+        if (queueSize < 1)
+            throw new IllegalArgumentException("The queue size must be greater than zero.");
+        this.queueSize = queueSize;
+    }
+
+    /**
+     * Enables incremental generation: the parsed model is stored in the snapshot file, and the next
+     * invocation only transforms and generates the types, that have been added or changed since
+     * then. The generated files of removed types are deleted.
+     * <p/>
+     * Together with the model, the snapshot stores the selector, the target directory, the names
+     * of the generated types and a fingerprint of the configuration: the fingerprints of the
+     * transformer and the generator (see {@link de.steinacker.jcg.transform.type.Fingerprinted}),
+     * including templates, glossary and mapping patterns, and the content of the config files. If
+     * any of them differs, or if a generated file is missing, all types are generated again. Changes
+     * of generated files are not detected.
+     * <p/>
+     * Changed types are transformed without the unchanged types of the model. Therefore, incremental
+     * generation is only used if the transformer is a {@link ModelSequencer}, transforming every type
+     * on its own. Other ModelTransformers - for example a DependencySequencer, whose transformations
+     * depend on other types of the model - always transform the complete model.
+     * <p/>
+     * By default, no snapshot is used and every invocation generates all types.
+     *
+     * @param snapshotFile the file used to store the parsed model, or null.
+     */
+    public void setSnapshotFile(final String snapshotFile) {
+        this.snapshotFile = snapshotFile;
+    }
+
+    /**
+     * The files, the generated code depends on besides the sources - for example the Spring
+     * configuration of jcg. If their content changes, the snapshot is not used.
+     *
+     * @param configFiles the paths of the config files.
+     */
+    public void setConfigFiles(final List<String> configFiles) {
+        this.configFiles = new ArrayList<String>(configFiles);
+    }
+
     public void invoke(final String selector,
                        final String sourceFile,
                        final String targetDir,
                        final String binDir) throws JcgException {
+        if (isStreaming()) {
+            LOG.info("Streaming...");
+            new StreamingPipeline(transformer, generator, queueSize).run(new StreamingPipeline.Source() {
+                @Override
+                public void parse(final BlockingQueue<Type> queue) {
+                    parser.parse(sourceFile, binDir, queue);
+                }
+            }, createContext(selector), targetDir);
+            LOG.info("Done.");
+            return;
+        }
         LOG.info("Parsing...");
         final Model model = parser.parse(sourceFile, binDir);
-        LOG.info("Transforming...");
-        final Map<String, Object> parameters = new HashMap<String, Object>();
-        parameters.put("ctx-selector-param", selector);
-        final ModelMessage message = new ModelMessage(model, new Context(parameters));
-        final ModelMessage transformedMessage = transformer.transform(message);
-        LOG.info("Generating...");
-        generator.generate(transformedMessage.getPayload(), targetDir);
+        transformAndGenerate(model, selector, targetDir);
         LOG.info("Done.");
     }
 
@@ -58,16 +135,420 @@ public final class JcgController {
                        final boolean recursive,
                        final String targetDir,
                        final String binDir) throws JcgException {
+        if (isStreaming()) {
+            LOG.info("Streaming...");
+            new StreamingPipeline(transformer, generator, queueSize).run(new StreamingPipeline.Source() {
+                @Override
+                public void parse(final BlockingQueue<Type> queue) {
+                    parser.parse(sourceDir, recursive, binDir, queue);
+                }
+            }, createContext(selector), targetDir);
+            LOG.info("Done.");
+            return;
+        }
         LOG.info("Parsing...");
         final Model model = parser.parse(sourceDir, recursive, binDir);
-        LOG.info("Transforming...");
+        transformAndGenerate(model, selector, targetDir);
+        LOG.info("Done.");
+    }
+
+    /**
+     * Decides, whether the types are streamed through the transformer and generator. Streaming is
+     * only used if the transformer transforms every type on its own.
+     *
+     * @return true, if streaming is enabled and supported by the transformer.
+     */
+    private boolean isStreaming() {
+        if (streaming && !isTransformingTypesOnTheirOwn()) {
+            LOG.warn("Streaming is not supported by the transformer " + transformer.getName()
+                    + ", because it may depend on other types; the complete model is transformed instead.");
+            return false;
+        }
+        return streaming;
+    }
+
+    /**
+     * Checks, whether the transformer transforms every type of a model on its own, so that a
+     * Model containing only some of the types can be transformed without the others.
+     *
+     * @return true, if the transformer is a ModelSequencer.
+     */
+    private boolean isTransformingTypesOnTheirOwn() {
+        return transformer instanceof ModelSequencer;
+    }
+
+    /**
+     * Transforms and generates a parsed model. If a snapshot file is configured, only the types
+     * differing from the snapshot are transformed and generated.
+     *
+     * @param model the parsed model
+     * @param selector the selector used to select the transformations.
+     * @param targetDir the target directory
+     * @throws JcgException if generating the code fails.
+     */
+    private void transformAndGenerate(final Model model,
+                                      final String selector,
+                                      final String targetDir) throws JcgException {
+        final Context context = createContext(selector);
+        final Snapshot current = new Snapshot(selector, new File(targetDir).getAbsolutePath(),
+                snapshotFile != null ? fingerprint() : null);
+        final Snapshot previous = snapshotFile != null ? readSnapshot() : null;
+        if (previous == null || !isIncremental(previous, current)) {
+            LOG.info("Transforming...");
+            final Model transformedModel = transformer.transform(new ModelMessage(model, context)).getPayload();
+            LOG.info("Generating...");
+            generator.generate(transformedModel, targetDir);
+            current.generatedTypeNames.addAll(namesOf(transformedModel));
+        } else {
+            final ModelDiff diff = ModelDiff.between(previous.model, model);
+            LOG.info("Changes since the last run: " + diff);
+            final List<Type> currentTypes = new ArrayList<Type>(diff.getAddedTypes());
+            final List<Type> previousTypes = new ArrayList<Type>(diff.getRemovedTypes());
+            for (final ModelDiff.TypeDiff typeDiff : diff.getChangedTypes()) {
+                currentTypes.add(typeDiff.getCurrent());
+                previousTypes.add(typeDiff.getPrevious());
+            }
+            current.generatedTypeNames.addAll(previous.generatedTypeNames);
+            final Set<QualifiedName> generatedTypeNames = new HashSet<QualifiedName>();
+            if (!currentTypes.isEmpty()) {
+                LOG.info("Transforming...");
+                final Model transformedModel = transformer.transform(
+                        new ModelMessage(new Model(currentTypes), context)).getPayload();
+                LOG.info("Generating...");
+                generator.generate(transformedModel, targetDir);
+                generatedTypeNames.addAll(namesOf(transformedModel));
+            }
+            if (!previousTypes.isEmpty()) {
+                // the previous versions are transformed again, to find out which files were generated from them:
+                final Set<QualifiedName> staleTypeNames = namesOf(transformer.transform(
+                        new ModelMessage(new Model(previousTypes), context)).getPayload());
+                staleTypeNames.removeAll(generatedTypeNames);
+                deleteGeneratedFiles(staleTypeNames, targetDir);
+                current.generatedTypeNames.removeAll(staleTypeNames);
+            }
+            current.generatedTypeNames.addAll(generatedTypeNames);
+        }
+        if (snapshotFile != null)
+            writeSnapshot(current, model);
+    }
+
+    /**
+     * Decides, whether the previous run can be continued incrementally.
+     *
+     * @param previous the snapshot of the previous run.
+     * @param current the configuration of the current run.
+     * @return true, if only the changed types must be generated.
+     */
+    private boolean isIncremental(final Snapshot previous, final Snapshot current) {
+        final String reason;
+        if (!isTransformingTypesOnTheirOwn())
+            reason = "the transformer " + transformer.getName() + " may depend on unchanged types";
+        else if (!equal(previous.selector, current.selector))
+            reason = "the selector has changed";
+        else if (!previous.targetDir.equals(current.targetDir))
+            reason = "the target directory has changed";
+        else if (!previous.fingerprint.equals(current.fingerprint))
+            reason = "the configuration has changed";
+        else
+            reason = missingGeneratedFile(previous.generatedTypeNames, current.targetDir);
+        if (reason != null) {
+            LOG.info("Generating all types, because " + reason + ".");
+            return false;
+        }
+        return true;
+    }
+
+    private String missingGeneratedFile(final Set<QualifiedName> typeNames, final String targetDir) {
+        for (final QualifiedName typeName : typeNames) {
+            for (final File file : generator.getGeneratedFiles(typeName, targetDir)) {
+                if (!file.exists())
+                    return "the generated file " + file + " is missing";
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return a digest of the configuration of the transformer, the generator and the config files.
+     */
+    private String fingerprint() {
+        final StringBuilder sb = new StringBuilder()
+                .append(TransformationCache.fingerprintOf(transformer)).append('\n')
+                .append(TransformationCache.fingerprintOf(generator)).append('\n');
+        for (final String configFile : configFiles) {
+            sb.append(configFile).append('#').append(DigestUtil.digestOfFile(new File(configFile))).append('\n');
+        }
+        return DigestUtil.digestOf(sb.toString());
+    }
+
+    private static boolean equal(final String a, final String b) {
+        return a != null ? a.equals(b) : b == null;
+    }
+
+    private Snapshot readSnapshot() {
+        final File file = new File(snapshotFile);
+        if (!file.exists())
+            return null;
+        try {
+            final InputStream in = new BufferedInputStream(new FileInputStream(file));
+            try {
+                final DataInputStream header = new DataInputStream(in);
+                if (!SNAPSHOT_FORMAT.equals(header.readUTF())) {
+                    LOG.info("Ignoring snapshot " + file + " of an older version.");
+                    return null;
+                }
+                final Snapshot snapshot = new Snapshot(
+                        header.readBoolean() ? header.readUTF() : null, header.readUTF(), header.readUTF());
+                final int numTypeNames = header.readInt();
+                for (int i = 0; i < numTypeNames; ++i) {
+                    snapshot.generatedTypeNames.add(QualifiedName.valueOf(header.readUTF()));
+                }
+                final ModelReader reader = new ModelReader(in);
+                try {
+                    snapshot.model = reader.readModel();
+                } finally {
+                    reader.close();
+                }
+                return snapshot;
+            } finally {
+                in.close();
+            }
+        } catch (final IOException e) {
+            LOG.warn("Ignoring unreadable snapshot " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeSnapshot(final Snapshot snapshot, final Model model) {
+        final File file = new File(snapshotFile);
+        try {
+            final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+            try {
+                out.writeUTF(SNAPSHOT_FORMAT);
+                out.writeBoolean(snapshot.selector != null);
+                if (snapshot.selector != null)
+                    out.writeUTF(snapshot.selector);
+                out.writeUTF(snapshot.targetDir);
+                out.writeUTF(snapshot.fingerprint);
+                out.writeInt(snapshot.generatedTypeNames.size());
+                for (final QualifiedName typeName : snapshot.generatedTypeNames) {
+                    out.writeUTF(typeName.toString());
+                }
+                final ModelWriter writer = new ModelWriter(out);
+                try {
+                    writer.write(model);
+                } finally {
+                    writer.close();
+                }
+            } finally {
+                out.close();
+            }
+        } catch (final IOException e) {
+            LOG.warn("Unable to write snapshot " + file + ": " + e.getMessage());
+            file.delete();
+        }
+    }
+
+    /**
+     * The state of a run, stored in the snapshot file.
+     */
+    private static final class Snapshot {
+        private final String selector;
+        private final String targetDir;
+        private final String fingerprint;
+        private final Set<QualifiedName> generatedTypeNames = new HashSet<QualifiedName>();
+        private Model model;
+
+        private Snapshot(final String selector, final String targetDir, final String fingerprint) {
+            this.selector = selector;
+            this.targetDir = targetDir;
+            this.fingerprint = fingerprint;
+        }
+    }
+
+    private static Set<QualifiedName> namesOf(final Model model) {
+        final Set<QualifiedName> typeNames = new HashSet<QualifiedName>();
+        for (final Type type : model.getAllTypes()) {
+            typeNames.add(type.getName());
+        }
+        return typeNames;
+    }
+
+    /**
+     * The interval used to check the source files for modifications in watch mode.
+     *
+     * @param pollInterval interval in milliseconds.
+     */
+    public void setPollInterval(final long pollInterval) {
+        this.pollInterval = pollInterval;
+    }
+
+    /**
+     * The time the source files must be unchanged, before modifications are processed in watch mode.
+     *
+     * @param debounceInterval interval in milliseconds.
+     */
+    public void setDebounceInterval(final long debounceInterval) {
+        this.debounceInterval = debounceInterval;
+    }
+
+    /**
+     * Generates the code for all source files in the specified directory and then watches the directory,
+     * until the current thread is interrupted.
+     * <p/>
+     * If source files are modified or added, only these files are parsed, transformed and generated again.
+     * If a source file is deleted, or a type is no longer generated from a source file, the generated
+     * file of the type is deleted from the targetDir.
+     * <p/>
+     * Only a {@link ModelSequencer} is able to transform the types of a single source file without the
+     * other types of the model. Using any other ModelTransformer, all source files are parsed, transformed
+     * and generated again after every change, so types depending on a modified type are generated again,
+     * too.
+     *
+     * @param selector the selector used to select the transformations.
+     * @param sourceDir the source directory.
+     * @param recursive specifies whether the directory is traversed recursively.
+     * @param targetDir the directory of the generated files.
+     * @param binDir the output directory of the compiler.
+     * @throws JcgException if the initial generation fails.
+     */
+    public void watch(final String selector,
+                      final String sourceDir,
+                      final boolean recursive,
+                      final String targetDir,
+                      final String binDir) throws JcgException {
+        final SourceWatcher watcher = new SourceWatcher(parser, sourceDir, recursive, pollInterval, debounceInterval);
+        final Context context = createContext(selector);
+        // the names of the types generated from every source file:
+        final Map<File, Set<QualifiedName>> generatedTypes = new HashMap<File, Set<QualifiedName>>();
+        final boolean incremental = isTransformingTypesOnTheirOwn();
+        if (!incremental)
+            LOG.info("All types are generated again after every change, because the transformer "
+                    + transformer.getName() + " may depend on unchanged types.");
+        LOG.info("Generating...");
+        if (incremental)
+            regenerate(watcher.getFiles(), Collections.<File>emptyList(), context, targetDir, binDir, generatedTypes);
+        else
+            regenerateAll(watcher.getFiles(), new File(sourceDir), context, targetDir, binDir, generatedTypes);
+        LOG.info("Watching " + sourceDir + "...");
+        try {
+            watcher.watch(new SourceWatcher.Listener() {
+                @Override
+                public void changed(final List<File> modified, final List<File> deleted) {
+                    LOG.info(modified.size() + " files modified, " + deleted.size() + " files deleted.");
+                    try {
+                        if (incremental)
+                            regenerate(modified, deleted, context, targetDir, binDir, generatedTypes);
+                        else
+                            regenerateAll(watcher.getFiles(), new File(sourceDir), context, targetDir, binDir, generatedTypes);
+                        LOG.info("Done.");
+                    } catch (final Exception e) {
+                        LOG.error("Unable to regenerate modified files: " + e.getMessage(), e);
+                    }
+                }
+            });
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOG.info("Stopped watching " + sourceDir);
+        }
+    }
+
+    /**
+     * Parses, transforms and generates the specified files, one source file after another.
+     * <p/>
+     * Stale files are only deleted after all files of the batch are generated: a type may move from
+     * one source file to another, so a type is only stale if it is no longer generated from any
+     * source file.
+     *
+     * @param files the modified or added source files
+     * @param deletedFiles the deleted source files
+     * @param context the Context used to transform the types.
+     * @param targetDir the target directory
+     * @param binDir the output directory of the compiler.
+     * @param generatedTypes the names of the types generated from every source file; updated by this method.
+     * @throws JcgException if generating the code fails.
+     */
+    private void regenerate(final List<File> files,
+                            final List<File> deletedFiles,
+                            final Context context,
+                            final String targetDir,
+                            final String binDir,
+                            final Map<File, Set<QualifiedName>> generatedTypes) throws JcgException {
+        final Set<QualifiedName> staleTypeNames = new HashSet<QualifiedName>();
+        for (final File file : deletedFiles) {
+            final Set<QualifiedName> previousTypeNames = generatedTypes.remove(file);
+            if (previousTypeNames != null)
+                staleTypeNames.addAll(previousTypeNames);
+        }
+        if (!files.isEmpty()) {
+            for (final Map.Entry<File, List<Type>> entry : parser.parseSourceFiles(files, binDir).entrySet()) {
+                final ModelMessage message = new ModelMessage(new Model(entry.getValue()), context);
+                final Model transformedModel = transformer.transform(message).getPayload();
+                generator.generate(transformedModel, targetDir);
+                final Set<QualifiedName> previousTypeNames = generatedTypes.put(entry.getKey(), namesOf(transformedModel));
+                if (previousTypeNames != null)
+                    staleTypeNames.addAll(previousTypeNames);
+            }
+        }
+        if (!staleTypeNames.isEmpty()) {
+            for (final Set<QualifiedName> typeNames : generatedTypes.values()) {
+                staleTypeNames.removeAll(typeNames);
+            }
+            deleteGeneratedFiles(staleTypeNames, targetDir);
+        }
+    }
+
+    /**
+     * Parses, transforms and generates all source files as one model. Files of types no longer
+     * generated are deleted afterwards.
+     *
+     * @param files all source files
+     * @param sourceDir the source directory, used as the key of the generated types.
+     * @param context the Context used to transform the types.
+     * @param targetDir the target directory
+     * @param binDir the output directory of the compiler.
+     * @param generatedTypes the names of the generated types; replaced by this method.
+     * @throws JcgException if generating the code fails.
+     */
+    private void regenerateAll(final List<File> files,
+                               final File sourceDir,
+                               final Context context,
+                               final String targetDir,
+                               final String binDir,
+                               final Map<File, Set<QualifiedName>> generatedTypes) throws JcgException {
+        final List<Type> types = new ArrayList<Type>();
+        for (final List<Type> typesOfFile : parser.parseSourceFiles(files, binDir).values()) {
+            types.addAll(typesOfFile);
+        }
+        final Model transformedModel = transformer.transform(new ModelMessage(new Model(types), context)).getPayload();
+        generator.generate(transformedModel, targetDir);
+        final Set<QualifiedName> staleTypeNames = new HashSet<QualifiedName>();
+        for (final Set<QualifiedName> typeNames : generatedTypes.values()) {
+            staleTypeNames.addAll(typeNames);
+        }
+        final Set<QualifiedName> typeNames = namesOf(transformedModel);
+        generatedTypes.clear();
+        generatedTypes.put(sourceDir, typeNames);
+        staleTypeNames.removeAll(typeNames);
+        deleteGeneratedFiles(staleTypeNames, targetDir);
+    }
+
+    private void deleteGeneratedFiles(final Set<QualifiedName> typeNames, final String targetDir) {
+        for (final QualifiedName typeName : typeNames) {
+            for (final File file : generator.getGeneratedFiles(typeName, targetDir)) {
+                if (file.exists()) {
+                    LOG.info("Deleting " + file);
+                    if (!file.delete())
+                        LOG.warn("Unable to delete " + file);
+                }
+            }
+        }
+    }
+
+    private Context createContext(final String selector) {
         final Map<String, Object> parameters = new HashMap<String, Object>();
         parameters.put("ctx-selector-param", selector);
-        final ModelMessage message = new ModelMessage(model, new Context(parameters));
-        final ModelMessage transformedMessage = transformer.transform(message);
-        LOG.info("Generating...");
-        generator.generate(transformedMessage.getPayload(), targetDir);
-        LOG.info("Done.");
+        return new Context(parameters);
     }
 
 }
\ No newline at end of file
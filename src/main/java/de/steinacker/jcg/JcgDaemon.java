@@ -0,0 +1,356 @@
+/*
+ * Copyright (c) 2010 by Guido Steinacker
+ */
+
+package de.steinacker.jcg;
+
+import de.steinacker.jcg.exception.JcgException;
+import de.steinacker.jcg.util.DigestUtil;
+import org.apache.log4j.Logger;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.FileSystemXmlApplicationContext;
+
+import java.io.*;
+import java.net.*;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.*;
+
+/**
+ * A long-running jcg process, accepting generation requests on a loopback socket.
+ * <p/>
+ * The Spring application context of every configuration is created on the first request and kept
+ * for subsequent requests, so the JcgController, the compiler infrastructure and the template
+ * engines stay warm between requests.
+ * <p/>
+ * Protocol: the client connects to the daemon, writes the JcgParameters as Properties and shuts down
+ * the output of the socket. The daemon processes the request and answers with a single line, either
+ * <code>OK</code> or <code>ERROR &lt;message&gt;</code>. A request with the property
+ * <code>command=shutdown</code> stops the daemon. Requests are processed one at a time.
+ * <p/>
+ * Every request must contain the property <code>token</code>. The token is generated randomly when the
+ * daemon is started and written to a file in the directory <code>~/.jcg</code>, that is only
+ * accessible by the user running the daemon. This way, other local users are not able to send
+ * requests to the daemon. In addition, the daemon only accepts requests using one of the Spring
+ * configurations specified when it was started.
+ * <p/>
+ * The size of a request is limited to {@link #MAX_REQUEST_SIZE} bytes, and the request must be
+ * received completely within the request timeout. Otherwise, the request is rejected, so a client
+ * can not block the daemon by sending nothing or endless data.
+ * <p/>
+ * Relative resources referenced by a configuration are resolved using the working directory of
+ * the daemon, not the one of the client.
+ *
+ * @author Guido Steinacker
+ * @version %version: 28 %
+ */
+final class JcgDaemon {
+
+    private final static Logger LOG = Logger.getLogger(JcgDaemon.class);
+
+    public static final int DEFAULT_PORT = 4711;
+
+    /**
+     * The maximum size of a request in bytes.
+     */
+    static final int MAX_REQUEST_SIZE = 64 * 1024;
+
+    private static final String COMMAND = "command";
+    private static final String TOKEN = "token";
+    private static final String SHUTDOWN = "shutdown";
+    private static final String OK = "OK";
+    private static final String ERROR = "ERROR";
+
+    private final ServerSocket serverSocket;
+    private final Set<String> springConfigs;
+    private final Map<String, ConfigurableApplicationContext> contexts;
+    private final String token;
+    private final File tokenFile;
+    private int requestTimeout = 10000;
+    private volatile boolean running = true;
+
+    /**
+     * Creates a daemon, listening on the specified port of the loopback interface, and writes
+     * the token of the daemon to its token file.
+     *
+     * @param port          the port, or 0 to use any free port.
+     * @param springConfigs the locations of the Spring configurations, clients may use.
+     * @throws IOException if the port can not be bound or the token file can not be written.
+     */
+    public JcgDaemon(final int port, final Collection<String> springConfigs) throws IOException {
+        this.springConfigs = new HashSet<String>();
+        for (final String springConfig : springConfigs) {
+            this.springConfigs.add(JcgParameters.absoluteSpringConfig(springConfig));
+        }
+        this.serverSocket = new ServerSocket(port, 50, InetAddress.getByName("127.0.0.1"));
+        this.contexts = new HashMap<String, ConfigurableApplicationContext>();
+        final byte[] bytes = new byte[20];
+        new SecureRandom().nextBytes(bytes);
+        this.token = DigestUtil.toHex(bytes);
+        this.tokenFile = tokenFileOf(getPort());
+        try {
+            writeToken(tokenFile, token);
+        } catch (IOException e) {
+            serverSocket.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the port, the daemon is listening on.
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * The time a client may take to send its request. By default, the timeout is ten seconds.
+     *
+     * @param requestTimeout the timeout in milliseconds, must be greater than zero.
+     */
+    public void setRequestTimeout(final int requestTimeout) {
+        if (requestTimeout < 1)
+            throw new IllegalArgumentException("The request timeout must be greater than zero.");
+        this.requestTimeout = requestTimeout;
+    }
+
+    /**
+     * Processes requests until a shutdown request is received.
+     */
+    public void run() {
+        LOG.info("Listening on port " + getPort() + "...");
+        try {
+            while (running) {
+                final Socket socket = serverSocket.accept();
+                try {
+                    socket.setSoTimeout(requestTimeout);
+                    handle(socket);
+                } catch (IOException e) {
+                    LOG.warn("Unable to process request: " + e.getMessage());
+                } finally {
+                    close(socket);
+                }
+            }
+        } catch (IOException e) {
+            if (running)
+                LOG.error("Daemon stopped: " + e.getMessage(), e);
+        } finally {
+            shutdown();
+        }
+    }
+
+    /**
+     * Stops the daemon and closes all application contexts.
+     */
+    public void shutdown() {
+        running = false;
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            // ignore
+        }
+        synchronized (contexts) {
+            for (final ConfigurableApplicationContext context : contexts.values()) {
+                context.close();
+            }
+            contexts.clear();
+        }
+        tokenFile.delete();
+        LOG.info("Daemon stopped.");
+    }
+
+    private void handle(final Socket socket) throws IOException {
+        final PrintWriter writer = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), "UTF-8"));
+        final Properties request;
+        try {
+            request = readRequest(socket.getInputStream());
+        } catch (final IOException e) {
+            LOG.warn("Rejected request: " + e.getMessage());
+            writer.println(ERROR + " " + e.getMessage());
+            writer.flush();
+            return;
+        }
+        try {
+            final String requestToken = (String) request.remove(TOKEN);
+            if (requestToken == null || !MessageDigest.isEqual(token.getBytes("UTF-8"), requestToken.getBytes("UTF-8"))) {
+                LOG.warn("Rejected request without valid token.");
+                writer.println(ERROR + " Invalid token.");
+            } else if (SHUTDOWN.equals(request.getProperty(COMMAND))) {
+                LOG.info("Shutdown requested.");
+                running = false;
+                writer.println(OK);
+            } else {
+                final JcgParameters params = new JcgParameters(request);
+                LOG.info("Generating " + request);
+                Jcg.generate(params, contextFor(params.getSpringConfig()));
+                writer.println(OK);
+            }
+        } catch (final Exception e) {
+            LOG.error("Generation failed: " + e.getMessage(), e);
+            writer.println(ERROR + " " + String.valueOf(e.getMessage()).replace('\n', ' '));
+        } finally {
+            writer.flush();
+        }
+    }
+
+    /**
+     * Reads the Properties of a request, until the client shuts down the output of its socket.
+     *
+     * @param in the input stream of the socket.
+     * @return the request.
+     * @throws IOException if the request is too large, is not received in time or can not be read.
+     */
+    private Properties readRequest(final InputStream in) throws IOException {
+        final long deadline = System.currentTimeMillis() + requestTimeout;
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[4096];
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            if (bytes.size() + n > MAX_REQUEST_SIZE)
+                throw new IOException("Request exceeds " + MAX_REQUEST_SIZE + " bytes.");
+            // the timeout of the socket only limits the time of a single read:
+            if (System.currentTimeMillis() > deadline)
+                throw new SocketTimeoutException("Request not received within " + requestTimeout + "ms.");
+            bytes.write(buffer, 0, n);
+        }
+        final Properties request = new Properties();
+        request.load(new ByteArrayInputStream(bytes.toByteArray()));
+        return request;
+    }
+
+    private ConfigurableApplicationContext contextFor(final String requestedConfig) throws JcgException {
+        final String springConfig = JcgParameters.absoluteSpringConfig(requestedConfig);
+        if (!springConfigs.contains(springConfig))
+            throw new JcgException("Configuration " + requestedConfig + " is not served by this daemon.");
+        synchronized (contexts) {
+            ConfigurableApplicationContext context = contexts.get(springConfig);
+            if (context == null) {
+                LOG.info("Loading configuration " + springConfig);
+                context = new FileSystemXmlApplicationContext(springConfig);
+                contexts.put(springConfig, context);
+            }
+            return context;
+        }
+    }
+
+    /**
+     * Forwards a generation request to a running daemon.
+     *
+     * @param params the parameters of the request. Relative paths must already be resolved.
+     * @param port the port of the daemon.
+     * @return true, if the request was processed by the daemon, false if no daemon is running.
+     * @throws JcgException if the daemon failed to process the request.
+     */
+    public static boolean forward(final JcgParameters params, final int port) throws JcgException {
+        return send(params.toProperties(), port);
+    }
+
+    /**
+     * Requests a running daemon to shut down.
+     *
+     * @param port the port of the daemon.
+     * @return true, if a daemon was running, false otherwise.
+     * @throws JcgException if the daemon could not be stopped.
+     */
+    public static boolean stop(final int port) throws JcgException {
+        final Properties request = new Properties();
+        request.setProperty(COMMAND, SHUTDOWN);
+        return send(request, port);
+    }
+
+    /**
+     * Returns the file containing the token of the daemon listening on the specified port.
+     *
+     * @param port the port of the daemon.
+     * @return token file
+     */
+    static File tokenFileOf(final int port) {
+        return new File(new File(System.getProperty("user.home"), ".jcg"), "daemon-" + port + ".token");
+    }
+
+    /**
+     * Writes the token to a file, only readable and writable by the owner. The permissions are
+     * restricted before the token is written.
+     */
+    private static void writeToken(final File tokenFile, final String token) throws IOException {
+        final File dir = tokenFile.getParentFile();
+        if (!dir.exists() && !dir.mkdirs())
+            throw new IOException("Unable to create directory " + dir);
+        if (!restrictToOwner(dir))
+            throw new IOException("Unable to restrict access to " + dir);
+        if ((tokenFile.exists() && !tokenFile.delete()) || !tokenFile.createNewFile())
+            throw new IOException("Unable to create token file " + tokenFile);
+        if (!restrictToOwner(tokenFile)) {
+            tokenFile.delete();
+            throw new IOException("Unable to restrict access to " + tokenFile);
+        }
+        final Writer writer = new OutputStreamWriter(new FileOutputStream(tokenFile), "UTF-8");
+        try {
+            writer.write(token);
+        } finally {
+            writer.close();
+        }
+    }
+
+    private static boolean restrictToOwner(final File file) {
+        return file.setReadable(false, false) && file.setReadable(true, true)
+                && file.setWritable(false, false) && file.setWritable(true, true)
+                && file.setExecutable(false, false) && (!file.isDirectory() || file.setExecutable(true, true));
+    }
+
+    private static String readToken(final int port) throws JcgException {
+        final File tokenFile = tokenFileOf(port);
+        try {
+            final BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(tokenFile), "UTF-8"));
+            try {
+                final String token = reader.readLine();
+                if (token == null)
+                    throw new JcgException("Token file " + tokenFile + " is empty.");
+                return token.trim();
+            } finally {
+                reader.close();
+            }
+        } catch (IOException e) {
+            throw new JcgException("Unable to read token of jcg daemon from " + tokenFile + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static boolean send(final Properties request, final int port) throws JcgException {
+        final Socket socket;
+        try {
+            socket = new Socket(InetAddress.getByName("127.0.0.1"), port);
+        } catch (ConnectException e) {
+            return false;
+        } catch (IOException e) {
+            throw new JcgException("Unable to connect to jcg daemon: " + e.getMessage(), e);
+        }
+        try {
+            final Properties authenticatedRequest = new Properties();
+            authenticatedRequest.putAll(request);
+            authenticatedRequest.setProperty(TOKEN, readToken(port));
+            final OutputStream out = socket.getOutputStream();
+            authenticatedRequest.store(out, null);
+            out.flush();
+            socket.shutdownOutput();
+            final BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), "UTF-8"));
+            final String response = reader.readLine();
+            if (response == null)
+                throw new JcgException("No response from jcg daemon.");
+            if (!response.equals(OK))
+                throw new JcgException("jcg daemon: " + response);
+            return true;
+        } catch (IOException e) {
+            throw new JcgException("Unable to send request to jcg daemon: " + e.getMessage(), e);
+        } finally {
+            close(socket);
+        }
+    }
+
+    private static void close(final Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // ignore
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package de.steinacker.jcg;
 
+import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
 import java.util.Properties;
@@ -20,8 +21,10 @@ final class JcgParameters {
     }
 
     public JcgParameters(final String propertyFile) throws IOException {
-        final Properties p = new Properties();
-        p.load(new FileReader(propertyFile));
+        this(load(propertyFile));
+    }
+
+    public JcgParameters(final Properties p) {
         selector = p.getProperty("selector");
         sourceFile = p.getProperty("sourceFile");
         sourceDir = p.getProperty("sourceDir");
@@ -34,6 +37,68 @@ final class JcgParameters {
         springConfig = p.getProperty("config", springConfig);
     }
 
+    /**
+     * Returns the parameters as Properties, using the same keys as a property file.
+     *
+     * @return Properties
+     */
+    public Properties toProperties() {
+        final Properties p = new Properties();
+        setProperty(p, "sourceFile", sourceFile);
+        setProperty(p, "sourceDir", sourceDir);
+        setProperty(p, "targetDir", targetDir);
+        setProperty(p, "selector", selector);
+        setProperty(p, "binDir", binDir);
+        setProperty(p, "config", springConfig);
+        p.setProperty("recursive", String.valueOf(recursive));
+        return p;
+    }
+
+    /**
+     * Replaces all relative paths by absolute paths, so the parameters can be used by
+     * a process running in a different working directory.
+     */
+    public void makePathsAbsolute() {
+        sourceFile = absolutePath(sourceFile);
+        sourceDir = absolutePath(sourceDir);
+        targetDir = absolutePath(targetDir);
+        binDir = absolutePath(binDir);
+        springConfig = absoluteSpringConfig(springConfig);
+    }
+
+    /**
+     * Resolves the location of a Spring configuration against the working directory, unless it
+     * already is a classpath or file URL.
+     *
+     * @param springConfig the location of a Spring configuration.
+     * @return absolute location of the configuration.
+     */
+    public static String absoluteSpringConfig(final String springConfig) {
+        if (springConfig != null && !springConfig.startsWith("classpath:") && !springConfig.startsWith("file:"))
+            return "file:" + absolutePath(springConfig);
+        return springConfig;
+    }
+
+    private static Properties load(final String propertyFile) throws IOException {
+        final Properties p = new Properties();
+        final FileReader reader = new FileReader(propertyFile);
+        try {
+            p.load(reader);
+        } finally {
+            reader.close();
+        }
+        return p;
+    }
+
+    private static void setProperty(final Properties p, final String key, final String value) {
+        if (value != null)
+            p.setProperty(key, value);
+    }
+
+    private static String absolutePath(final String path) {
+        return path != null ? new File(path).getAbsolutePath() : null;
+    }
+
     public String getSourceFile() {
         return sourceFile;
     }
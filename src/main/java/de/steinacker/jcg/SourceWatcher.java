@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2010 by Guido Steinacker
+ */
+
+package de.steinacker.jcg;
+
+import de.steinacker.jcg.exception.JcgException;
+import de.steinacker.jcg.parse.JavaFileParser;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Watches the source files of a directory by polling their timestamps and sizes.
+ * <p/>
+ * After a change is detected, the watcher waits until the files are stable for the debounce
+ * interval, so a burst of changes (for example, saving several files or checking out a branch)
+ * is reported as a single change.
+ *
+ * @author Guido Steinacker
+ * @version %version: 28 %
+ */
+final class SourceWatcher {
+
+    /**
+     * Listener notified about modified and deleted source files.
+     */
+    interface Listener {
+        /**
+         * @param modified new or modified source files.
+         * @param deleted deleted source files.
+         * @throws JcgException if processing the changes fails.
+         */
+        void changed(List<File> modified, List<File> deleted) throws JcgException;
+    }
+
+    private final JavaFileParser parser;
+    private final String sourceDir;
+    private final boolean recursive;
+    private final long pollInterval;
+    private final long debounceInterval;
+    private Map<File, String> snapshot;
+
+    SourceWatcher(final JavaFileParser parser,
+                  final String sourceDir,
+                  final boolean recursive,
+                  final long pollInterval,
+                  final long debounceInterval) {
+        this.parser = parser;
+        this.sourceDir = sourceDir;
+        this.recursive = recursive;
+        this.pollInterval = pollInterval;
+        this.debounceInterval = debounceInterval;
+        this.snapshot = takeSnapshot();
+    }
+
+    /**
+     * @return the source files found by the last check.
+     */
+    List<File> getFiles() {
+        return new ArrayList<File>(snapshot.keySet());
+    }
+
+    /**
+     * Polls the source directory and notifies the listener about changes, until the current thread
+     * is interrupted.
+     *
+     * @param listener the Listener
+     * @throws JcgException if the listener fails.
+     * @throws InterruptedException if the current thread is interrupted.
+     */
+    void watch(final Listener listener) throws JcgException, InterruptedException {
+        while (!Thread.currentThread().isInterrupted()) {
+            Thread.sleep(pollInterval);
+            Map<File, String> current = takeSnapshot();
+            if (!current.equals(snapshot)) {
+                // wait until the files are stable:
+                Map<File, String> next;
+                while (true) {
+                    Thread.sleep(debounceInterval);
+                    next = takeSnapshot();
+                    if (next.equals(current))
+                        break;
+                    current = next;
+                }
+                final List<File> modified = new ArrayList<File>();
+                final List<File> deleted = new ArrayList<File>();
+                for (final Map.Entry<File, String> entry : current.entrySet()) {
+                    if (!entry.getValue().equals(snapshot.get(entry.getKey())))
+                        modified.add(entry.getKey());
+                }
+                for (final File file : snapshot.keySet()) {
+                    if (!current.containsKey(file))
+                        deleted.add(file);
+                }
+                snapshot = current;
+                listener.changed(modified, deleted);
+            }
+        }
+        throw new InterruptedException();
+    }
+
+    private Map<File, String> takeSnapshot() {
+        final Map<File, String> files = new LinkedHashMap<File, String>();
+        for (final File file : parser.findSourceFiles(sourceDir, recursive)) {
+            files.put(file, file.lastModified() + ":" + file.length());
+        }
+        return files;
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2010 by Guido Steinacker
+ */
+
+package de.steinacker.jcg;
+
+import de.steinacker.jcg.exception.JcgException;
+import de.steinacker.jcg.generator.Generator;
+import de.steinacker.jcg.model.Model;
+import de.steinacker.jcg.model.ModelBuilder;
+import de.steinacker.jcg.model.Type;
+import de.steinacker.jcg.transform.model.ModelMessage;
+import de.steinacker.jcg.transform.model.ModelTransformer;
+import org.apache.log4j.Logger;
+
+import java.util.concurrent.*;
+
+/**
+ * Runs parsing, transformation and generation as three concurrent stages, connected by bounded
+ * queues:
+ * <ol>
+ * <li>the parser puts every parsed Type into the first queue,</li>
+ * <li>the transformer takes the types one by one and transforms a Model containing only this
+ * single type,</li>
+ * <li>the generator generates the code of every transformed Model as soon as it is available.</li>
+ * </ol>
+ * The number of types held in memory at the same time is therefore limited by the size of the queues,
+ * instead of the size of the whole model.
+ * <p/>
+ * Because the transformer only sees a single type at a time, model transformers relying on other
+ * types of the model can not be used in streaming mode: the JcgController only uses the pipeline
+ * together with a {@link de.steinacker.jcg.transform.model.ModelSequencer}.
+ *
+ * @author Guido Steinacker
+ * @version %version: 28 %
+ */
+final class StreamingPipeline {
+
+    private final static Logger LOG = Logger.getLogger(StreamingPipeline.class);
+
+    private static final long POLL_TIMEOUT_MILLIS = 100;
+
+    /**
+     * The source of the pipeline, putting the parsed types into a queue.
+     */
+    interface Source {
+        void parse(BlockingQueue<Type> queue);
+    }
+
+    private final ModelTransformer transformer;
+    private final Generator generator;
+    private final int queueSize;
+
+    StreamingPipeline(final ModelTransformer transformer, final Generator generator, final int queueSize) {
+        this.transformer = transformer;
+        this.generator = generator;
+        this.queueSize = queueSize;
+    }
+
+    /**
+     * Runs the pipeline and returns after all types of the source are generated.
+     *
+     * @param source the source of the parsed types.
+     * @param context the Context used to transform the types.
+     * @param targetDir the target directory of the generator.
+     * @throws JcgException if one of the stages fails.
+     */
+    void run(final Source source, final Context context, final String targetDir) throws JcgException {
+        final BlockingQueue<Type> parsedTypes = new ArrayBlockingQueue<Type>(queueSize);
+        final BlockingQueue<Model> transformedModels = new ArrayBlockingQueue<Model>(queueSize);
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final Future<?> parsing = executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    source.parse(parsedTypes);
+                }
+            });
+            final Future<?> transforming = executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    Type type;
+                    while ((type = next(parsedTypes, parsing)) != null) {
+                        LOG.info("Transforming " + type.getName());
+                        final Model model = new ModelBuilder().addType(type).toModel();
+                        transformedModels.put(transformer.transform(new ModelMessage(model, context)).getPayload());
+                    }
+                    return null;
+                }
+            });
+            Model model;
+            while ((model = next(transformedModels, transforming)) != null) {
+                generator.generate(model, targetDir);
+            }
+            // propagate exceptions of the stages, starting with the last one:
+            transforming.get();
+            parsing.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JcgException("Interrupted while generating code.", e);
+        } catch (final ExecutionException e) {
+            throw new JcgException(e.getCause().getMessage(), e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Takes the next element from the queue, waiting until an element is available or the producer of the
+     * queue is done.
+     *
+     * @param queue the queue
+     * @param producer the Future of the producer, putting elements into the queue.
+     * @return the next element, or null if the producer is done and all elements are taken.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    private static <T> T next(final BlockingQueue<T> queue, final Future<?> producer) throws InterruptedException {
+        while (true) {
+            final T element = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            if (element != null)
+                return element;
+            if (producer.isDone())
+                return queue.poll();
+        }
+    }
+}
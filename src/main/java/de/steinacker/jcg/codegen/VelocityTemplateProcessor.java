@@ -24,11 +24,13 @@ public final class VelocityTemplateProcessor implements TemplateProcessor {
 
     private static final Logger logger = Logger.getLogger(VelocityTemplateProcessor.class);
 
-    public final VelocityEngine ve = new VelocityEngine();
+    private final VelocityEngine ve = new VelocityEngine();
 
     public VelocityTemplateProcessor() {
         try {
             ve.setProperty("file.resource.loader.class", "org.apache.velocity.runtime.resource.loader.ClasspathResourceLoader");
+            // parsed templates are immutable and shared by concurrent threads, instead of parsing them on every call:
+            ve.setProperty("file.resource.loader.cache", "true");
             ve.init();
         } catch (final Exception e) {
             logger.error(e.getMessage(), e);
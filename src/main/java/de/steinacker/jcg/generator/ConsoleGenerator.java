@@ -6,13 +6,20 @@ package de.steinacker.jcg.generator;
 
 import de.steinacker.jcg.exception.JcgException;
 import de.steinacker.jcg.model.Model;
+import de.steinacker.jcg.model.QualifiedName;
 import de.steinacker.jcg.model.Type;
+import de.steinacker.jcg.transform.type.Fingerprinted;
+import de.steinacker.jcg.transform.type.TransformationCache;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * @author Guido Steinacker
  * @version %version: 28 %
  */
-public final class ConsoleGenerator implements Generator {
+public final class ConsoleGenerator implements Generator, Fingerprinted {
 
     private TypeSerializer serializer;
 
@@ -26,4 +33,14 @@ public final class ConsoleGenerator implements Generator {
             serializer.serializeType(type, System.out);
         }
     }
+
+    @Override
+    public String getFingerprint() {
+        return "serializer=" + TransformationCache.fingerprintOf(serializer);
+    }
+
+    @Override
+    public List<File> getGeneratedFiles(final QualifiedName typeName, final String targetDir) {
+        return Collections.emptyList();
+    }
 }
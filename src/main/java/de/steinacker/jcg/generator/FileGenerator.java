@@ -6,18 +6,23 @@ package de.steinacker.jcg.generator;
 
 import de.steinacker.jcg.exception.JcgException;
 import de.steinacker.jcg.model.Model;
+import de.steinacker.jcg.model.QualifiedName;
 import de.steinacker.jcg.model.Type;
+import de.steinacker.jcg.transform.type.Fingerprinted;
+import de.steinacker.jcg.transform.type.TransformationCache;
 
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.Writer;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * @author Guido Steinacker
  * @version %version: 28 %
  */
-public final class FileGenerator implements Generator {
+public final class FileGenerator implements Generator, Fingerprinted {
 
     private TypeSerializer serializer;
 
@@ -37,11 +42,7 @@ public final class FileGenerator implements Generator {
             if (!dir.isDirectory()) {
                 throw new IllegalArgumentException("Directory " + packagePath + " is not a directory!");
             }
-            final String fileName = new StringBuilder()
-                    .append(packagePath)
-                    .append("/")
-                    .append(type.getName().getSimpleName().toString())
-                    .append(".java").toString();
+            final String fileName = getFileForType(targetDir, type.getName()).getPath();
             Writer writer = null;
             try {
                 writer = new FileWriter(fileName);
@@ -60,8 +61,30 @@ public final class FileGenerator implements Generator {
         }
     }
 
+    @Override
+    public String getFingerprint() {
+        return "serializer=" + TransformationCache.fingerprintOf(serializer);
+    }
+
+    @Override
+    public List<File> getGeneratedFiles(final QualifiedName typeName, final String targetDir) {
+        return Collections.singletonList(getFileForType(targetDir, typeName));
+    }
+
+    private static File getFileForType(final String targetDir, final QualifiedName typeName) {
+        return new File(new StringBuilder()
+                .append(getPathForPackage(targetDir, typeName))
+                .append("/")
+                .append(typeName.getSimpleName().toString())
+                .append(".java").toString());
+    }
+
     private String getPathForType(final String targetDir, final Type type) {
-        final String relativePath = type.getName().getPackage().replaceAll("\\.", "/");
+        return getPathForPackage(targetDir, type.getName());
+    }
+
+    private static String getPathForPackage(final String targetDir, final QualifiedName typeName) {
+        final String relativePath = typeName.getPackage().replaceAll("\\.", "/");
         return targetDir + "/" + relativePath;
     }
 }
\ No newline at end of file
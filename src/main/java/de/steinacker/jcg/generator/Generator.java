@@ -6,6 +6,10 @@ package de.steinacker.jcg.generator;
 
 import de.steinacker.jcg.exception.JcgException;
 import de.steinacker.jcg.model.Model;
+import de.steinacker.jcg.model.QualifiedName;
+
+import java.io.File;
+import java.util.List;
 
 /**
  * @author Guido Steinacker
@@ -15,4 +19,13 @@ public interface Generator {
 
     public void generate(final Model model, final String targetDir) throws JcgException;
 
+    /**
+     * Returns the files, the code of a type is written to by this generator.
+     *
+     * @param typeName the name of a generated type.
+     * @param targetDir the target directory of the generator.
+     * @return list of files, or an empty list if the generator does not write files.
+     */
+    public List<File> getGeneratedFiles(final QualifiedName typeName, final String targetDir);
+
 }
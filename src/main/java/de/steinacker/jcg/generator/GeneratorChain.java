@@ -6,7 +6,11 @@ package de.steinacker.jcg.generator;
 
 import de.steinacker.jcg.exception.JcgException;
 import de.steinacker.jcg.model.Model;
+import de.steinacker.jcg.model.QualifiedName;
+import de.steinacker.jcg.transform.type.Fingerprinted;
+import de.steinacker.jcg.transform.type.TransformationCache;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -14,7 +18,7 @@ import java.util.List;
  * @author Guido Steinacker
  * @version %version: 28 %
  */
-public final class GeneratorChain implements Generator {
+public final class GeneratorChain implements Generator, Fingerprinted {
     private final List<Generator> chain;
 
     public GeneratorChain(final List<? extends Generator> chain) {
@@ -27,4 +31,22 @@ public final class GeneratorChain implements Generator {
             generator.generate(model, targetDir);
         }
     }
+
+    @Override
+    public String getFingerprint() {
+        final StringBuilder sb = new StringBuilder();
+        for (final Generator generator : chain) {
+            sb.append('[').append(TransformationCache.fingerprintOf(generator)).append(']');
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public List<File> getGeneratedFiles(final QualifiedName typeName, final String targetDir) {
+        final List<File> files = new ArrayList<File>();
+        for (final Generator generator : chain) {
+            files.addAll(generator.getGeneratedFiles(typeName, targetDir));
+        }
+        return files;
+    }
 }
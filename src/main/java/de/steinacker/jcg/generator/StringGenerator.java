@@ -8,10 +8,13 @@ import de.steinacker.jcg.exception.JcgException;
 import de.steinacker.jcg.model.Model;
 import de.steinacker.jcg.model.QualifiedName;
 import de.steinacker.jcg.model.Type;
+import de.steinacker.jcg.transform.type.Fingerprinted;
+import de.steinacker.jcg.transform.type.TransformationCache;
 
 import java.io.*;
 import java.util.Collections;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -20,7 +23,7 @@ import java.util.Map;
  * @author Guido Steinacker
  * @version %version: 28 %
  */
-public final class StringGenerator implements Generator {
+public final class StringGenerator implements Generator, Fingerprinted {
 
     private TypeSerializer serializer;
     private final Map<QualifiedName, String> generatedCode = new LinkedHashMap<QualifiedName, String>();
@@ -51,4 +54,14 @@ public final class StringGenerator implements Generator {
         }
     }
 
+    @Override
+    public String getFingerprint() {
+        return "serializer=" + TransformationCache.fingerprintOf(serializer);
+    }
+
+    @Override
+    public List<File> getGeneratedFiles(final QualifiedName typeName, final String targetDir) {
+        return Collections.emptyList();
+    }
+
 }
\ No newline at end of file
@@ -8,8 +8,11 @@ import de.steinacker.jcg.exception.JcgException;
 import de.steinacker.jcg.exception.ParseErrorException;
 import de.steinacker.jcg.exception.TemplateNotFoundException;
 import de.steinacker.jcg.model.Type;
+import de.steinacker.jcg.transform.type.Fingerprinted;
+import de.steinacker.jcg.transform.type.TransformationCache;
 import de.steinacker.jcg.util.CodeUtil;
 import de.steinacker.jcg.util.DateUtil;
+import de.steinacker.jcg.util.DigestUtil;
 import org.apache.log4j.Logger;
 import org.apache.velocity.Template;
 import org.apache.velocity.VelocityContext;
@@ -20,23 +23,27 @@ import org.springframework.beans.factory.annotation.Required;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.util.Set;
+import java.util.TreeSet;
 
 
 /**
  * @author Guido Steinacker
  * @version %version: 28 %
  */
-final class VelocityTypeSerializer implements TypeSerializer {
+final class VelocityTypeSerializer implements TypeSerializer, Fingerprinted {
 
     private static final Logger logger = Logger.getLogger(VelocityTypeSerializer.class);
 
-    public final VelocityEngine ve = new VelocityEngine();
-    public Set<String> templates;
-    public TemplateSelector templateSelector;
+    private final VelocityEngine ve = new VelocityEngine();
+    private Set<String> templates;
+    private TemplateSelector templateSelector;
+    private String templatesDigest;
 
     VelocityTypeSerializer() {
         try {
             ve.setProperty("file.resource.loader.class", "org.apache.velocity.runtime.resource.loader.ClasspathResourceLoader");
+            // parsed templates are immutable and shared by concurrent threads, instead of parsing them on every call:
+            ve.setProperty("file.resource.loader.cache", "true");
             ve.init();
         } catch (final Exception e) {
             logger.error(e.getMessage(), e);
@@ -47,6 +54,11 @@ final class VelocityTypeSerializer implements TypeSerializer {
     @Required
     public void setTemplates(final Set<String> templates) {
         this.templates = templates;
+        final StringBuilder sb = new StringBuilder();
+        for (final String template : new TreeSet<String>(templates)) {
+            sb.append(template).append('#').append(DigestUtil.digestOfResource(template)).append(',');
+        }
+        this.templatesDigest = sb.toString();
     }
 
     @Required
@@ -55,6 +67,11 @@ final class VelocityTypeSerializer implements TypeSerializer {
     }
 
 
+    @Override
+    public String getFingerprint() {
+        return "templates=" + templatesDigest + " selector=" + TransformationCache.fingerprintOf(templateSelector);
+    }
+
     @Override
     public void serializeType(final Type type, final Appendable appendable) throws JcgException {
         final VelocityContext vc = new VelocityContext();
@@ -6,6 +6,7 @@ package de.steinacker.jcg.model;
 
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
@@ -16,7 +17,12 @@ import java.util.List;
  *
  * @author Guido Steinacker
  */
-public final class Annotation {
+public final class Annotation implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /** The hash code, computed on first use. */
+    private transient int hash;
 
     @NotNull
     @Valid
@@ -28,20 +34,45 @@ public final class Annotation {
     @Valid
     private final List<AnnotationParameter> defaults;
 
-    public Annotation(final QualifiedName name) {
-        this.name = name;
-        this.parameters = Collections.emptyList();
-        this.defaults = Collections.emptyList();
-    }
+    private static final NodePool<Annotation> POOL = new NodePool<Annotation>();
 
-    public Annotation(final QualifiedName name,
-                      final List<AnnotationParameter> parameters,
-                      final List<AnnotationParameter> defaults) {
+    /**
+     * Annotations are created using valueOf(), so there is only a single instance of equal Annotations.
+     */
+    private Annotation(final QualifiedName name,
+                       final List<AnnotationParameter> parameters,
+                       final List<AnnotationParameter> defaults) {
         this.name = name;
         this.parameters = new ArrayList<AnnotationParameter>(parameters);
         this.defaults = new ArrayList<AnnotationParameter>(defaults);
     }
 
+    /**
+     * Returns the canonical Annotation without any parameters.
+     *
+     * @param name the qualified name of the annotation type.
+     * @return Annotation
+     */
+    public static Annotation valueOf(final QualifiedName name) {
+        return valueOf(name, Collections.<AnnotationParameter>emptyList(), Collections.<AnnotationParameter>emptyList());
+    }
+
+    /**
+     * Returns the canonical Annotation with the specified parameters. Equal Annotations returned by
+     * valueOf() are the same instance. As with equals(), the defaults are not compared: they are
+     * determined by the annotation type.
+     *
+     * @param name the qualified name of the annotation type.
+     * @param parameters the parameters of the annotation.
+     * @param defaults the parameters of the annotation, including default parameters.
+     * @return Annotation
+     */
+    public static Annotation valueOf(final QualifiedName name,
+                                     final List<AnnotationParameter> parameters,
+                                     final List<AnnotationParameter> defaults) {
+        return POOL.intern(new Annotation(name, parameters, defaults));
+    }
+
     public QualifiedName getName() {
         return name;
     }
@@ -82,10 +113,20 @@ public final class Annotation {
         return null;
     }
 
+    /**
+     * Deserialized Annotations are replaced by the canonical instance.
+     *
+     * @return the canonical Annotation
+     */
+    private Object readResolve() {
+        return POOL.intern(this);
+    }
+
     @Override
     public boolean equals(final Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
+        if (hashCode() != o.hashCode()) return false;
 
         final Annotation that = (Annotation) o;
 
@@ -97,8 +138,12 @@ public final class Annotation {
 
     @Override
     public int hashCode() {
-        int result = name.hashCode();
-        result = 31 * result + parameters.hashCode();
+        int result = hash;
+        if (result == 0) {
+            result = name.hashCode();
+            result = 31 * result + parameters.hashCode();
+            hash = result;
+        }
         return result;
     }
 
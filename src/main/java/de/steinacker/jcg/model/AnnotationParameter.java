@@ -6,6 +6,7 @@ package de.steinacker.jcg.model;
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
@@ -14,7 +15,10 @@ import java.util.List;
 /**
  * A parameter of an Annotation.
  */
-public final class AnnotationParameter {
+public final class AnnotationParameter implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
     /** The parameter name. */
     @NotNull
     @Size(min = 1)
@@ -5,6 +5,7 @@ package de.steinacker.jcg.model;
 
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
+import java.io.Serializable;
 
 /**
  * The value of an AnnotationParameter.
@@ -17,7 +18,10 @@ import javax.validation.constraints.Size;
  * <li>Wrapper (like Integer), if the parameter is a primitive type
  * </ul>
  */
-public final class AnnotationValue {
+public final class AnnotationValue implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
     /** The parameter value. */
     @NotNull
     private final Object value;
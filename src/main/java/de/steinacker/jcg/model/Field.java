@@ -6,7 +6,9 @@ package de.steinacker.jcg.model;
 
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
+import java.io.Serializable;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Set;
 
@@ -15,7 +17,13 @@ import java.util.Set;
  *
  * @author Guido Steinacker
  */
-public final class Field implements Annotatable {
+public final class Field implements Annotatable, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /** The hash code, computed on first use. */
+    private transient int hash;
+
     @NotNull
     @Valid
     private final SimpleName name;
@@ -23,7 +31,7 @@ public final class Field implements Annotatable {
     @Valid
     private final TypeSymbol type;
     @NotNull
-    private final String initString;
+    private final CharSequence initString;
     @NotNull
     @Valid
     private final List<Annotation> annotations;
@@ -34,15 +42,15 @@ public final class Field implements Annotatable {
 
     public Field(final SimpleName name,
                  final TypeSymbol type,
-                 final String initString,
+                 final CharSequence initString,
                  final List<Annotation> annotations,
                  final Set<FieldModifier> modifiers,
                  final String comment) {
         this.name = name;
         this.type = type;
         this.initString = initString != null ? initString : "";
-        this.annotations = annotations;
-        this.modifiers = modifiers;
+        this.annotations = PersistentList.copyOf(annotations);
+        this.modifiers = modifiers.isEmpty() ? EnumSet.noneOf(FieldModifier.class) : EnumSet.copyOf(modifiers);
         this.comment = comment != null ? comment : "";
     }
 
@@ -54,12 +62,25 @@ public final class Field implements Annotatable {
         return type;
     }
 
+    /**
+     * Returns the initializer of the field. If the initializer is a slice of the parsed source code,
+     * it is materialized by this call.
+     *
+     * @return initializer expression, or an empty String.
+     */
     public String getInitString() {
+        return initString.toString();
+    }
+
+    /**
+     * @return the initializer, as it was passed to the constructor.
+     */
+    CharSequence getInitStringSource() {
         return initString;
     }
 
     public List<Annotation> getAnnotations() {
-        return Collections.unmodifiableList(annotations);
+        return annotations;
     }
 
     public Set<FieldModifier> getModifiers() {
@@ -78,12 +99,13 @@ public final class Field implements Annotatable {
     public boolean equals(final Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
+        if (hashCode() != o.hashCode()) return false;
 
         final Field field = (Field) o;
 
         if (!annotations.equals(field.annotations)) return false;
-        if (!comment.equals(field.comment)) return false;
-        if (!initString.equals(field.initString)) return false;
+        if (comment != null ? !comment.equals(field.comment) : field.comment != null) return false;
+        if (!SourceSlice.contentEquals(initString, field.initString)) return false;
         if (!modifiers.equals(field.modifiers)) return false;
         if (!name.equals(field.name)) return false;
         if (!type.equals(field.type)) return false;
@@ -93,12 +115,16 @@ public final class Field implements Annotatable {
 
     @Override
     public int hashCode() {
-        int result = name.hashCode();
-        result = 31 * result + type.hashCode();
-        result = 31 * result + initString.hashCode();
-        result = 31 * result + annotations.hashCode();
-        result = 31 * result + modifiers.hashCode();
-        result = 31 * result + comment.hashCode();
+        int result = hash;
+        if (result == 0) {
+            result = name.hashCode();
+            result = 31 * result + type.hashCode();
+            result = 31 * result + SourceSlice.contentHashOf(initString);
+            result = 31 * result + annotations.hashCode();
+            result = 31 * result + modifiers.hashCode();
+            result = 31 * result + (comment != null ? comment.hashCode() : 0);
+            hash = result;
+        }
         return result;
     }
 
@@ -132,7 +158,7 @@ public final class Field implements Annotatable {
         sigBuilder.append(getType().toString())
                 .append(" ")
                 .append(getName());
-        if (!initString.isEmpty()) {
+        if (initString.length() > 0) {
             sigBuilder.append(" = ").append(initString);
         }
         return sigBuilder.toString();
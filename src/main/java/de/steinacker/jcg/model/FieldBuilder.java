@@ -9,13 +9,13 @@ import java.util.*;
 public final class FieldBuilder {
     private SimpleName name;
     private TypeSymbol type;
-    private String initString;
-    private List<Annotation> annotations;
+    private CharSequence initString;
+    private PersistentList<Annotation> annotations;
     private Set<FieldModifier> modifiers;
     private String comment;
 
     public FieldBuilder() {
-        annotations = new ArrayList<Annotation>();
+        annotations = PersistentList.empty();
         modifiers = new LinkedHashSet<FieldModifier>();
         comment = "";
         initString = "";
@@ -24,8 +24,8 @@ public final class FieldBuilder {
     public FieldBuilder(final Field prototype) {
         name = prototype.getName();
         type = prototype.getType();
-        initString = prototype.getInitString();
-        annotations = new ArrayList<Annotation>(prototype.getAnnotations());
+        initString = prototype.getInitStringSource();
+        annotations = PersistentList.copyOf(prototype.getAnnotations());
         modifiers = prototype.getModifiers().isEmpty()
                 ? EnumSet.noneOf(FieldModifier.class)
                 : EnumSet.copyOf(prototype.getModifiers());
@@ -42,13 +42,13 @@ public final class FieldBuilder {
         return this;
     }
 
-    public FieldBuilder setInitString(final String initString) {
+    public FieldBuilder setInitString(final CharSequence initString) {
         this.initString = initString;
         return this;
     }
 
     public FieldBuilder setAnnotations(final List<Annotation> annotations) {
-        this.annotations = annotations;
+        this.annotations = PersistentList.copyOf(annotations);
         return this;
     }
 
@@ -5,6 +5,7 @@ package de.steinacker.jcg.model;
 
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
+import java.io.Serializable;
 
 /**
  * Represents an import statement.
@@ -12,7 +13,10 @@ import javax.validation.constraints.NotNull;
  * @author Guido Steinacker
  * @since 22.07.2010
  */
-public class Import {
+public class Import implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
     @NotNull
     @Valid
     // TODO: @ScriptAssert: keine primitive, type-var oder wildcard
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2010 by Guido Steinacker
+ */
+
+package de.steinacker.jcg.model;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A thread-safe pool of canonical instances of immutable names, like QualifiedName and SimpleName.
+ * <p/>
+ * The instances are weakly referenced, so names, that are no longer used by any Model, can be
+ * garbage collected. Interning a name, that is already in the pool, only requires a single lookup
+ * in a ConcurrentHashMap and does not acquire a lock. Entries of collected names are removed,
+ * whenever a new name is added to the pool.
+ * <p/>
+ * As long as an interned name is reachable, interning an equal name returns the same instance.
+ *
+ * @author Guido Steinacker
+ * @version %version: 28 %
+ */
+public final class Interner<T> {
+
+    /**
+     * Creates the canonical instance of a name, that is not yet in the pool.
+     */
+    public interface Factory<T> {
+        /**
+         * @param name the name, possibly already an instance of T.
+         * @param key the String representation of the name.
+         * @return a new instance of T, or name itself, if it is already an instance of T.
+         */
+        T create(CharSequence name, String key);
+    }
+
+    private final Factory<T> factory;
+    private final ConcurrentMap<String, Entry<T>> entries;
+    private final ReferenceQueue<T> collected;
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+
+    public Interner(final Factory<T> factory) {
+        this.factory = factory;
+        this.entries = new ConcurrentHashMap<String, Entry<T>>(256, 0.75f, 16);
+        this.collected = new ReferenceQueue<T>();
+        this.hits = new AtomicLong();
+        this.misses = new AtomicLong();
+    }
+
+    /**
+     * Returns the canonical instance of a name.
+     *
+     * @param name the name
+     * @return the canonical instance.
+     */
+    public T intern(final CharSequence name) {
+        final String key = name.toString();
+        final Entry<T> entry = entries.get(key);
+        if (entry != null) {
+            final T instance = entry.get();
+            if (instance != null) {
+                hits.incrementAndGet();
+                return instance;
+            }
+        }
+        misses.incrementAndGet();
+        return add(name, key);
+    }
+
+    private T add(final CharSequence name, final String key) {
+        expungeCollectedEntries();
+        final T candidate = factory.create(name, key);
+        final Entry<T> newEntry = new Entry<T>(key, candidate, collected);
+        while (true) {
+            final Entry<T> entry = entries.putIfAbsent(key, newEntry);
+            if (entry == null)
+                return candidate;
+            final T instance = entry.get();
+            if (instance != null)
+                return instance;
+            // the entry of a collected name is replaced:
+            if (entries.replace(key, entry, newEntry))
+                return candidate;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void expungeCollectedEntries() {
+        Entry<T> entry;
+        while ((entry = (Entry<T>) collected.poll()) != null) {
+            entries.remove(entry.key, entry);
+        }
+    }
+
+    /**
+     * @return number of calls of intern(), that returned an instance from the pool.
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return number of calls of intern(), that added a new instance to the pool.
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return the number of entries in the pool, including entries of names, that were collected
+     *         since the last name was added.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public String toString() {
+        return "Interner{hits=" + getHits() + ", misses=" + getMisses() + ", size=" + size() + '}';
+    }
+
+    private static final class Entry<T> extends WeakReference<T> {
+        private final String key;
+
+        private Entry(final String key, final T instance, final ReferenceQueue<T> queue) {
+            super(instance, queue);
+            this.key = key;
+        }
+    }
+}
@@ -6,8 +6,9 @@ package de.steinacker.jcg.model;
 
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
-import java.util.ArrayList;
+import java.io.Serializable;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Set;
 
@@ -18,7 +19,12 @@ import static de.steinacker.jcg.model.MethodModifier.*;
  *
  * @author Guido Steinacker
  */
-public final class Method implements Annotatable {
+public final class Method implements Annotatable, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /** The hash code, computed on first use. */
+    private transient int hash;
 
     public enum Kind { METHOD, CONSTRUCTOR }
 
@@ -43,7 +49,7 @@ public final class Method implements Annotatable {
     @NotNull
     private final String comment;
     @NotNull
-    private final String methodBody;
+    private final CharSequence methodBody;
     @NotNull
     private final Kind kind;
 
@@ -56,15 +62,15 @@ public final class Method implements Annotatable {
                   final TypeSymbol returnType,
                   final List<Parameter> parameters,
                   final String comment,
-                  final String methodBody) {
+                  final CharSequence methodBody) {
         this.name = name;
         this.kind = kind;
-        this.annotations = Collections.unmodifiableList(new ArrayList<Annotation>(annotations));
-        this.modifiers = modifiers;
-        this.exceptions = exceptions;
-        this.typeParameters = Collections.unmodifiableList(new ArrayList<TypeParameter>(typeParameters));
+        this.annotations = PersistentList.copyOf(annotations);
+        this.modifiers = modifiers.isEmpty() ? EnumSet.noneOf(MethodModifier.class) : EnumSet.copyOf(modifiers);
+        this.exceptions = PersistentList.copyOf(exceptions);
+        this.typeParameters = PersistentList.copyOf(typeParameters);
         this.returnType = returnType;
-        this.parameters = parameters;
+        this.parameters = PersistentList.copyOf(parameters);
         this.comment = comment;
         this.methodBody = methodBody;
     }
@@ -79,7 +85,7 @@ public final class Method implements Annotatable {
 
     @Override
     public List<Annotation> getAnnotations() {
-        return Collections.unmodifiableList(annotations);
+        return annotations;
     }
 
     public Set<MethodModifier> getModifiers() {
@@ -87,7 +93,7 @@ public final class Method implements Annotatable {
     }
 
     public List<QualifiedName> getExceptions() {
-        return Collections.unmodifiableList(exceptions);
+        return exceptions;
     }
 
     public List<TypeParameter> getTypeParameters() {
@@ -99,7 +105,7 @@ public final class Method implements Annotatable {
     }
 
     public List<Parameter> getParameters() {
-        return Collections.unmodifiableList(parameters);
+        return parameters;
     }
 
     public boolean isConstructor() {
@@ -114,7 +120,20 @@ public final class Method implements Annotatable {
         return comment;
     }
 
+    /**
+     * Returns the body of the method. If the body is a slice of the parsed source code, it is
+     * materialized by this call.
+     *
+     * @return method body, without the enclosing braces.
+     */
     public String getMethodBody() {
+        return methodBody != null ? methodBody.toString() : null;
+    }
+
+    /**
+     * @return the method body, as it was passed to the constructor.
+     */
+    CharSequence getMethodBodySource() {
         return methodBody;
     }
 
@@ -122,15 +141,16 @@ public final class Method implements Annotatable {
     public boolean equals(final Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
+        if (hashCode() != o.hashCode()) return false;
 
         final Method method = (Method) o;
 
         if (!kind.equals(method.kind)) return false;
         if (!annotations.equals(method.annotations)) return false;
-        if (!comment.equals(method.comment)) return false;
+        if (comment != null ? !comment.equals(method.comment) : method.comment != null) return false;
         if (!exceptions.equals(method.exceptions)) return false;
         if (!typeParameters.equals(method.typeParameters)) return false;
-        if (!methodBody.equals(method.methodBody)) return false;
+        if (!SourceSlice.contentEquals(methodBody, method.methodBody)) return false;
         if (!modifiers.equals(method.modifiers)) return false;
         if (!name.equals(method.name)) return false;
         if (!parameters.equals(method.parameters)) return false;
@@ -142,16 +162,20 @@ public final class Method implements Annotatable {
 
     @Override
     public int hashCode() {
-        int result = name.hashCode();
-        result = 31 * result + kind.hashCode();
-        result = 31 * result + annotations.hashCode();
-        result = 31 * result + modifiers.hashCode();
-        result = 31 * result + exceptions.hashCode();
-        result = 31 * result + typeParameters.hashCode();
-        result = 31 * result + (returnType != null ? returnType.hashCode() : 0);
-        result = 31 * result + parameters.hashCode();
-        result = 31 * result + comment.hashCode();
-        result = 31 * result + methodBody.hashCode();
+        int result = hash;
+        if (result == 0) {
+            result = name.hashCode();
+            result = 31 * result + kind.hashCode();
+            result = 31 * result + annotations.hashCode();
+            result = 31 * result + modifiers.hashCode();
+            result = 31 * result + exceptions.hashCode();
+            result = 31 * result + typeParameters.hashCode();
+            result = 31 * result + (returnType != null ? returnType.hashCode() : 0);
+            result = 31 * result + parameters.hashCode();
+            result = 31 * result + (comment != null ? comment.hashCode() : 0);
+            result = 31 * result + (methodBody != null ? SourceSlice.contentHashOf(methodBody) : 0);
+            hash = result;
+        }
         return result;
     }
 
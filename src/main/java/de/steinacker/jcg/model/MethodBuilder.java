@@ -4,7 +4,6 @@
 
 package de.steinacker.jcg.model;
 
-import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Set;
@@ -13,24 +12,24 @@ public final class MethodBuilder {
     private SimpleName name;
     private Method.Kind kind;
     private String comment;
-    private List<Annotation> annotations;
+    private PersistentList<Annotation> annotations;
     private Set<MethodModifier> modifiers;
-    private List<QualifiedName> exceptions;
-    private List<TypeParameter> typeParameters;
+    private PersistentList<QualifiedName> exceptions;
+    private PersistentList<TypeParameter> typeParameters;
     private TypeSymbol returnType;
-    private List<Parameter> parameters;
-    private String methodBody;
+    private PersistentList<Parameter> parameters;
+    private CharSequence methodBody;
 
     public MethodBuilder() {
         name = null;
         kind = null;
         comment = "";
-        annotations = new ArrayList<Annotation>();
+        annotations = PersistentList.empty();
         modifiers = EnumSet.noneOf(MethodModifier.class);
-        exceptions = new ArrayList<QualifiedName>();
-        typeParameters = new ArrayList<TypeParameter>();
-        returnType = new TypeSymbol(QualifiedName.valueOf("void"));
-        parameters = new ArrayList<Parameter>();
+        exceptions = PersistentList.empty();
+        typeParameters = PersistentList.empty();
+        returnType = TypeSymbol.valueOf(QualifiedName.valueOf("void"));
+        parameters = PersistentList.empty();
         methodBody = "";
     }
 
@@ -38,13 +37,13 @@ public final class MethodBuilder {
         this.name = prototype.getName();
         this.kind = prototype.getKind();
         this.comment = prototype.getComment();
-        this.annotations = new ArrayList<Annotation>(prototype.getAnnotations());
+        this.annotations = PersistentList.copyOf(prototype.getAnnotations());
         this.modifiers = prototype.getModifiers().isEmpty() ? EnumSet.noneOf(MethodModifier.class) : EnumSet.copyOf(prototype.getModifiers());
-        this.exceptions = new ArrayList<QualifiedName>(prototype.getExceptions());
-        this.typeParameters = new ArrayList<TypeParameter>(prototype.getTypeParameters());
+        this.exceptions = PersistentList.copyOf(prototype.getExceptions());
+        this.typeParameters = PersistentList.copyOf(prototype.getTypeParameters());
         this.returnType = prototype.getReturnType();
-        this.parameters = new ArrayList<Parameter>(prototype.getParameters());
-        this.methodBody = prototype.getMethodBody();
+        this.parameters = PersistentList.copyOf(prototype.getParameters());
+        this.methodBody = prototype.getMethodBodySource();
     }
 
     public MethodBuilder setName(final SimpleName name) {
@@ -63,12 +62,12 @@ public final class MethodBuilder {
     }
 
     public MethodBuilder setAnnotations(final List<Annotation> annotations) {
-        this.annotations = new ArrayList<Annotation>(annotations);
+        this.annotations = PersistentList.copyOf(annotations);
         return this;
     }
 
     public MethodBuilder addAnnotation(final Annotation annotation) {
-        this.annotations.add(annotation);
+        this.annotations = annotations.plus(annotation);
         return this;
     }
 
@@ -83,22 +82,22 @@ public final class MethodBuilder {
     }
 
     public MethodBuilder setExceptions(final List<QualifiedName> exceptions) {
-        this.exceptions = new ArrayList<QualifiedName>(exceptions);
+        this.exceptions = PersistentList.copyOf(exceptions);
         return this;
     }
 
     public MethodBuilder addException(final QualifiedName exception) {
-        this.exceptions.add(exception);
+        this.exceptions = exceptions.plus(exception);
         return this;
     }
 
     public MethodBuilder setTypeParameters(final List<TypeParameter> typeParameters) {
-        this.typeParameters = new ArrayList<TypeParameter>(typeParameters);
+        this.typeParameters = PersistentList.copyOf(typeParameters);
         return this;
     }
     
     public MethodBuilder addTypeParameter(final TypeParameter typeParameter) {
-        this.typeParameters.add(typeParameter);
+        this.typeParameters = typeParameters.plus(typeParameter);
         return this;
     }
 
@@ -108,16 +107,16 @@ public final class MethodBuilder {
     }
 
     public MethodBuilder setParameters(final List<Parameter> parameters) {
-        this.parameters = new ArrayList<Parameter>(parameters);
+        this.parameters = PersistentList.copyOf(parameters);
         return this;
     }
 
     public MethodBuilder addParameter(final Parameter parameter) {
-        this.parameters.add(parameter);
+        this.parameters = parameters.plus(parameter);
         return this;
     }
 
-    public MethodBuilder setMethodBody(final String methodBody) {
+    public MethodBuilder setMethodBody(final CharSequence methodBody) {
         this.methodBody = methodBody;
         return this;
     }
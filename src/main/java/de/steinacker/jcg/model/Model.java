@@ -17,6 +17,8 @@ public final class Model implements Iterable<Type> {
     @NotNull
     @Valid
     private final Map<QualifiedName, Type> model;
+    // secondary indexes, built on first use:
+    private volatile ModelIndex index;
 
     public Model(final Collection<Type> types) {
         final Map<QualifiedName, Type> tempModel = new LinkedHashMap<QualifiedName, Type>(types.size());
@@ -34,6 +36,54 @@ public final class Model implements Iterable<Type> {
         return model.values();
     }
 
+    /**
+     * @param packageName the name of a package.
+     * @return the types of the package.
+     */
+    public List<Type> getTypesInPackage(final CharSequence packageName) {
+        return getIndex().get(ModelIndex.Key.PACKAGE, packageName.toString());
+    }
+
+    /**
+     * @param annotationName the qualified name of an annotation.
+     * @return the types annotated with the annotation.
+     */
+    public List<Type> getTypesAnnotatedWith(final CharSequence annotationName) {
+        return getIndex().get(ModelIndex.Key.ANNOTATION, annotationName.toString());
+    }
+
+    /**
+     * @param supertype the qualified name of a class or interface.
+     * @return the types directly extending or implementing the supertype.
+     */
+    public List<Type> getDirectSubtypesOf(final CharSequence supertype) {
+        return getIndex().get(ModelIndex.Key.SUPERTYPE, supertype.toString());
+    }
+
+    /**
+     * @param fieldType the qualified name of a type.
+     * @return the types with a field referencing the type.
+     */
+    public List<Type> getTypesWithFieldOfType(final CharSequence fieldType) {
+        return getIndex().get(ModelIndex.Key.FIELD_TYPE, fieldType.toString());
+    }
+
+    /**
+     * @return a new query, selecting types of this Model.
+     */
+    public ModelQuery query() {
+        return new ModelQuery(this);
+    }
+
+    ModelIndex getIndex() {
+        ModelIndex result = index;
+        if (result == null) {
+            result = new ModelIndex(model.values());
+            index = result;
+        }
+        return result;
+    }
+
     @Override
     public Iterator<Type> iterator() {
         return model.values().iterator();
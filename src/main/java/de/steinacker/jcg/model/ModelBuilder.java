@@ -30,6 +30,20 @@ public final class ModelBuilder {
         return this;
     }
 
+    /**
+     * Adds all types of the specified model. Types having the same name as an already added type
+     * are replacing the existing type.
+     *
+     * @param model the model containing the types to add.
+     * @return this
+     */
+    public ModelBuilder addModel(final Model model) {
+        for (final Type type : model.getAllTypes()) {
+            typeMap.put(type.getName(), type);
+        }
+        return this;
+    }
+
     public Model toModel() {
         return new Model(typeMap.values());
     }
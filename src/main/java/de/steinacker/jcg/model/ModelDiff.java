@@ -0,0 +1,268 @@
+/*
+ * Copyright (c) 2010 by Guido Steinacker
+ */
+
+package de.steinacker.jcg.model;
+
+import java.util.*;
+
+/**
+ * The structural differences between two models, for example between the model parsed by the
+ * previous run of jcg and the current model.
+ * <p/>
+ * Types are matched by their qualified name. A type is changed, if it is not equal to the type of the
+ * previous model; the members of changed types are matched by name (fields and annotations) or
+ * signature (methods) to find out which members have been added, removed or changed. As all model
+ * nodes cache their hash codes and equal TypeSymbols and Annotations are shared, unchanged types
+ * are usually skipped by comparing their hash codes.
+ *
+ * @author Guido Steinacker
+ * @version %version: 28 %
+ */
+public final class ModelDiff {
+
+    private final List<Type> addedTypes;
+    private final List<Type> removedTypes;
+    private final List<TypeDiff> changedTypes;
+    private final int unchangedTypes;
+
+    private ModelDiff(final List<Type> addedTypes,
+                      final List<Type> removedTypes,
+                      final List<TypeDiff> changedTypes,
+                      final int unchangedTypes) {
+        this.addedTypes = Collections.unmodifiableList(addedTypes);
+        this.removedTypes = Collections.unmodifiableList(removedTypes);
+        this.changedTypes = Collections.unmodifiableList(changedTypes);
+        this.unchangedTypes = unchangedTypes;
+    }
+
+    /**
+     * Computes the differences between two models.
+     *
+     * @param previous the previous model
+     * @param current the current model
+     * @return ModelDiff
+     */
+    public static ModelDiff between(final Model previous, final Model current) {
+        final List<Type> added = new ArrayList<Type>();
+        final List<Type> removed = new ArrayList<Type>();
+        final List<TypeDiff> changed = new ArrayList<TypeDiff>();
+        int unchanged = 0;
+        for (final Type currentType : current) {
+            final Type previousType = previous.getType(currentType.getName());
+            if (previousType == null)
+                added.add(currentType);
+            else if (previousType.equals(currentType))
+                ++unchanged;
+            else
+                changed.add(new TypeDiff(previousType, currentType));
+        }
+        for (final Type previousType : previous) {
+            if (current.getType(previousType.getName()) == null)
+                removed.add(previousType);
+        }
+        return new ModelDiff(added, removed, changed, unchanged);
+    }
+
+    /**
+     * @return the types of the current model, that are not part of the previous model.
+     */
+    public List<Type> getAddedTypes() {
+        return addedTypes;
+    }
+
+    /**
+     * @return the types of the previous model, that are not part of the current model.
+     */
+    public List<Type> getRemovedTypes() {
+        return removedTypes;
+    }
+
+    /**
+     * @return the differences of the types, that are part of both models, but are not equal.
+     */
+    public List<TypeDiff> getChangedTypes() {
+        return changedTypes;
+    }
+
+    /**
+     * @return the number of types, that are equal in both models.
+     */
+    public int getNumberOfUnchangedTypes() {
+        return unchangedTypes;
+    }
+
+    /**
+     * @return true, if both models are equal.
+     */
+    public boolean isEmpty() {
+        return addedTypes.isEmpty() && removedTypes.isEmpty() && changedTypes.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return addedTypes.size() + " types added, " + removedTypes.size() + " removed, "
+                + changedTypes.size() + " changed, " + unchangedTypes + " unchanged";
+    }
+
+    /**
+     * The differences between two versions of a type.
+     */
+    public static final class TypeDiff {
+
+        private final Type previous;
+        private final Type current;
+        private final Changes<Field> fieldChanges;
+        private final Changes<Method> methodChanges;
+        private final Changes<Annotation> annotationChanges;
+
+        private TypeDiff(final Type previous, final Type current) {
+            this.previous = previous;
+            this.current = current;
+            this.fieldChanges = Changes.between(previous.getFields(), current.getFields(), new Key<Field>() {
+                @Override
+                public Object keyOf(final Field field) {
+                    return field.getName();
+                }
+            });
+            this.methodChanges = Changes.between(previous.getMethods(), current.getMethods(), new Key<Method>() {
+                @Override
+                public Object keyOf(final Method method) {
+                    return signatureOf(method);
+                }
+            });
+            this.annotationChanges = Changes.between(previous.getAnnotations(), current.getAnnotations(), new Key<Annotation>() {
+                @Override
+                public Object keyOf(final Annotation annotation) {
+                    return annotation.getName();
+                }
+            });
+        }
+
+        public QualifiedName getName() {
+            return current.getName();
+        }
+
+        public Type getPrevious() {
+            return previous;
+        }
+
+        public Type getCurrent() {
+            return current;
+        }
+
+        public Changes<Field> getFieldChanges() {
+            return fieldChanges;
+        }
+
+        public Changes<Method> getMethodChanges() {
+            return methodChanges;
+        }
+
+        public Changes<Annotation> getAnnotationChanges() {
+            return annotationChanges;
+        }
+
+        /**
+         * @return true, if the declaration of the type (kind, modifiers, comment, super types, type
+         *         parameters or imports) has been changed.
+         */
+        public boolean isDeclarationChanged() {
+            return previous.getKind() != current.getKind()
+                    || !previous.getModifiers().equals(current.getModifiers())
+                    || !equal(previous.getComment(), current.getComment())
+                    || !equal(previous.getSuperClass(), current.getSuperClass())
+                    || !previous.getImplementedInterfaces().equals(current.getImplementedInterfaces())
+                    || !previous.getTypeParameters().equals(current.getTypeParameters())
+                    || !previous.getAdditionalImports().equals(current.getAdditionalImports());
+        }
+
+        @Override
+        public String toString() {
+            return getName() + ": fields " + fieldChanges + ", methods " + methodChanges
+                    + ", annotations " + annotationChanges
+                    + (isDeclarationChanged() ? ", declaration changed" : "");
+        }
+
+        private static String signatureOf(final Method method) {
+            final StringBuilder sb = new StringBuilder(method.getName()).append('(');
+            for (final Parameter parameter : method.getParameters()) {
+                if (sb.charAt(sb.length() - 1) != '(')
+                    sb.append(',');
+                sb.append(parameter.getType());
+            }
+            return sb.append(')').toString();
+        }
+
+        private static boolean equal(final Object o1, final Object o2) {
+            return o1 == null ? o2 == null : o1.equals(o2);
+        }
+    }
+
+    /**
+     * The added, removed and changed members of a type. Changed members are contained in the
+     * current version.
+     */
+    public static final class Changes<T> {
+
+        private final List<T> added;
+        private final List<T> removed;
+        private final List<T> changed;
+
+        private Changes(final List<T> added, final List<T> removed, final List<T> changed) {
+            this.added = Collections.unmodifiableList(added);
+            this.removed = Collections.unmodifiableList(removed);
+            this.changed = Collections.unmodifiableList(changed);
+        }
+
+        private static <T> Changes<T> between(final List<T> previous, final List<T> current, final Key<T> key) {
+            final List<T> added = new ArrayList<T>();
+            final List<T> removed = new ArrayList<T>();
+            final List<T> changed = new ArrayList<T>();
+            if (!previous.equals(current)) {
+                final Map<Object, T> previousByKey = new LinkedHashMap<Object, T>(previous.size() * 2);
+                for (final T element : previous) {
+                    previousByKey.put(key.keyOf(element), element);
+                }
+                for (final T element : current) {
+                    final T previousElement = previousByKey.remove(key.keyOf(element));
+                    if (previousElement == null)
+                        added.add(element);
+                    else if (!previousElement.equals(element))
+                        changed.add(element);
+                }
+                removed.addAll(previousByKey.values());
+            }
+            return new Changes<T>(added, removed, changed);
+        }
+
+        public List<T> getAdded() {
+            return added;
+        }
+
+        public List<T> getRemoved() {
+            return removed;
+        }
+
+        public List<T> getChanged() {
+            return changed;
+        }
+
+        /**
+         * @return true, if no member has been added, removed or changed. The order of the members
+         *         may nevertheless have changed.
+         */
+        public boolean isEmpty() {
+            return added.isEmpty() && removed.isEmpty() && changed.isEmpty();
+        }
+
+        @Override
+        public String toString() {
+            return "+" + added.size() + "/-" + removed.size() + "/~" + changed.size();
+        }
+    }
+
+    private interface Key<T> {
+        Object keyOf(T element);
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2010 by Guido Steinacker
+ */
+
+package de.steinacker.jcg.model;
+
+/**
+ * Constants of the binary format written by the ModelWriter and read by the ModelReader.
+ * <p/>
+ * A stream starts with the magic bytes and the format version, followed by a sequence of types.
+ * Every type is preceded by TYPE and the stream is terminated by END. Within a type:
+ * <ul>
+ * <li>counts and lengths are written as unsigned varints (7 bits per byte),</li>
+ * <li>kinds are written as varint of their ordinal + 1, or 0 if there is no kind,</li>
+ * <li>sets of modifiers are written as a varint bit mask of the ordinals,</li>
+ * <li>strings and names are written as a reference into a string table shared by the whole stream:
+ * 0 is null, 1 is followed by a new UTF-8 string, which is appended to the table, and n &gt; 1
+ * refers to the (n-2)th string of the table.</li>
+ * </ul>
+ *
+ * @author Guido Steinacker
+ * @version %version: 28 %
+ */
+final class ModelFormat {
+
+    static final byte[] MAGIC = {'J', 'C', 'G', 'M'};
+    static final int VERSION = 1;
+
+    static final int END = 0;
+    static final int TYPE = 1;
+
+    static final int NULL_STRING = 0;
+    static final int NEW_STRING = 1;
+    static final int STRING_REF = 2;
+
+    // tags of the values of AnnotationValues:
+    static final int VALUE_NULL = 0;
+    static final int VALUE_STRING = 1;
+    static final int VALUE_NAME = 2;
+    static final int VALUE_ANNOTATION = 3;
+    static final int VALUE_INTEGER = 4;
+    static final int VALUE_LONG = 5;
+    static final int VALUE_SHORT = 6;
+    static final int VALUE_BYTE = 7;
+    static final int VALUE_CHARACTER = 8;
+    static final int VALUE_BOOLEAN = 9;
+    static final int VALUE_FLOAT = 10;
+    static final int VALUE_DOUBLE = 11;
+    static final int VALUE_SERIALIZED = 12;
+
+    private ModelFormat() {
+    }
+}
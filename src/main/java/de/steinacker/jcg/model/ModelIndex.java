@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2010 by Guido Steinacker
+ */
+
+package de.steinacker.jcg.model;
+
+import java.util.*;
+
+/**
+ * Secondary indexes of the types of a Model.
+ * <p/>
+ * The types are indexed by package, by the names of their type-level annotations, by their
+ * direct supertypes (super class and implemented interfaces), and by the types referenced by
+ * their fields, including type arguments like the Foo in List&lt;Foo&gt;.
+ *
+ * @author Guido Steinacker
+ * @version %version: 28 %
+ */
+final class ModelIndex {
+
+    enum Key { PACKAGE, ANNOTATION, SUPERTYPE, FIELD_TYPE }
+
+    private final Map<Key, Map<String, List<Type>>> indexes;
+
+    ModelIndex(final Collection<Type> types) {
+        indexes = new EnumMap<Key, Map<String, List<Type>>>(Key.class);
+        for (final Key key : Key.values()) {
+            indexes.put(key, new HashMap<String, List<Type>>());
+        }
+        for (final Type type : types) {
+            for (final Key key : Key.values()) {
+                final Map<String, List<Type>> index = indexes.get(key);
+                for (final String value : valuesOf(type, key)) {
+                    List<Type> indexedTypes = index.get(value);
+                    if (indexedTypes == null) {
+                        indexedTypes = new ArrayList<Type>(2);
+                        index.put(value, indexedTypes);
+                    }
+                    indexedTypes.add(type);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param key the kind of index.
+     * @param value the indexed value, for example a package or an annotation name.
+     * @return the types having the specified value, possibly empty.
+     */
+    List<Type> get(final Key key, final String value) {
+        final List<Type> types = indexes.get(key).get(value);
+        return types != null ? Collections.unmodifiableList(types) : Collections.<Type>emptyList();
+    }
+
+    /**
+     * Returns the values of a type, that are indexed by the specified key.
+     *
+     * @param type the type
+     * @param key the kind of index.
+     * @return set of values
+     */
+    static Set<String> valuesOf(final Type type, final Key key) {
+        switch (key) {
+            case PACKAGE:
+                return Collections.singleton(type.getName().getPackage());
+            case ANNOTATION:
+                final Set<String> annotations = new HashSet<String>();
+                for (final Annotation annotation : type.getAnnotations()) {
+                    annotations.add(annotation.getName().toString());
+                }
+                return annotations;
+            case SUPERTYPE:
+                final Set<String> supertypes = new HashSet<String>();
+                if (type.getSuperClass() != null)
+                    supertypes.add(type.getSuperClass().getQualifiedName().toString());
+                for (final TypeSymbol implementedInterface : type.getImplementedInterfaces()) {
+                    supertypes.add(implementedInterface.getQualifiedName().toString());
+                }
+                return supertypes;
+            case FIELD_TYPE:
+                final Set<String> fieldTypes = new HashSet<String>();
+                for (final Field field : type.getFields()) {
+                    addReferencedTypes(field.getType(), fieldTypes);
+                }
+                return fieldTypes;
+            default:
+                throw new IllegalArgumentException("Unknown index " + key);
+        }
+    }
+
+    private static void addReferencedTypes(final TypeSymbol typeSymbol, final Set<String> referencedTypes) {
+        referencedTypes.add(typeSymbol.getQualifiedName().toString());
+        for (final TypeParameter typeParameter : typeSymbol.getTypeParameters()) {
+            referencedTypes.add(typeParameter.getParamName().toString());
+            for (final QualifiedName boundedType : typeParameter.getBoundedTypes()) {
+                referencedTypes.add(boundedType.toString());
+            }
+        }
+    }
+}
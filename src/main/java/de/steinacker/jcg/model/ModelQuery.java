@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2010 by Guido Steinacker
+ */
+
+package de.steinacker.jcg.model;
+
+import java.util.*;
+
+/**
+ * A query selecting the types of a Model, that match all of the specified criteria.
+ * <p/>
+ * Example: all types annotated with Immutable in package com.example:
+ * <pre>
+ *     model.query()
+ *          .inPackage("com.example")
+ *          .annotatedWith("de.steinacker.jcg.annotation.Immutable")
+ *          .list();
+ * </pre>
+ * The candidates are taken from the smallest index matching one of the criteria, and only these
+ * candidates are checked against the remaining criteria. A query without criteria returns all types.
+ *
+ * @author Guido Steinacker
+ * @version %version: 28 %
+ */
+public final class ModelQuery {
+
+    private final Model model;
+    private final Map<ModelIndex.Key, String> criteria;
+
+    ModelQuery(final Model model) {
+        this.model = model;
+        this.criteria = new EnumMap<ModelIndex.Key, String>(ModelIndex.Key.class);
+    }
+
+    /**
+     * @param packageName the package of the types.
+     * @return this
+     */
+    public ModelQuery inPackage(final CharSequence packageName) {
+        criteria.put(ModelIndex.Key.PACKAGE, packageName.toString());
+        return this;
+    }
+
+    /**
+     * @param annotationName the qualified name of a type-level annotation of the types.
+     * @return this
+     */
+    public ModelQuery annotatedWith(final CharSequence annotationName) {
+        criteria.put(ModelIndex.Key.ANNOTATION, annotationName.toString());
+        return this;
+    }
+
+    /**
+     * @param supertype the qualified name of the super class or of an implemented interface of the types.
+     * @return this
+     */
+    public ModelQuery subtypeOf(final CharSequence supertype) {
+        criteria.put(ModelIndex.Key.SUPERTYPE, supertype.toString());
+        return this;
+    }
+
+    /**
+     * @param fieldType the qualified name of a type referenced by a field of the types.
+     * @return this
+     */
+    public ModelQuery withFieldOfType(final CharSequence fieldType) {
+        criteria.put(ModelIndex.Key.FIELD_TYPE, fieldType.toString());
+        return this;
+    }
+
+    /**
+     * @return the matching types, in no particular order.
+     */
+    public List<Type> list() {
+        if (criteria.isEmpty())
+            return new ArrayList<Type>(model.getAllTypes());
+        final ModelIndex index = model.getIndex();
+        List<Type> candidates = null;
+        ModelIndex.Key candidateKey = null;
+        for (final Map.Entry<ModelIndex.Key, String> criterion : criteria.entrySet()) {
+            final List<Type> types = index.get(criterion.getKey(), criterion.getValue());
+            if (candidates == null || types.size() < candidates.size()) {
+                candidates = types;
+                candidateKey = criterion.getKey();
+            }
+        }
+        final List<Type> result = new ArrayList<Type>(candidates.size());
+        for (final Type type : candidates) {
+            if (matches(type, candidateKey))
+                result.add(type);
+        }
+        return result;
+    }
+
+    private boolean matches(final Type type, final ModelIndex.Key matchedKey) {
+        for (final Map.Entry<ModelIndex.Key, String> criterion : criteria.entrySet()) {
+            if (criterion.getKey() != matchedKey
+                    && !ModelIndex.valuesOf(type, criterion.getKey()).contains(criterion.getValue()))
+                return false;
+        }
+        return true;
+    }
+}
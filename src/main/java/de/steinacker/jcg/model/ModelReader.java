@@ -0,0 +1,323 @@
+/*
+ * Copyright (c) 2010 by Guido Steinacker
+ */
+
+package de.steinacker.jcg.model;
+
+import java.io.*;
+import java.util.*;
+
+import static de.steinacker.jcg.model.ModelFormat.*;
+
+/**
+ * Reads types written by a {@link ModelWriter}.
+ * <p/>
+ * The types are read one at a time, so a stream of types can be processed without materializing
+ * the whole model:
+ * <pre>
+ *     final ModelReader reader = new ModelReader(new FileInputStream(file));
+ *     try {
+ *         Type type;
+ *         while ((type = reader.read()) != null) {
+ *             ...
+ *         }
+ *     } finally {
+ *         reader.close();
+ *     }
+ * </pre>
+ * Names are interned, TypeSymbols and Annotations are replaced by their canonical instances.
+ *
+ * @author Guido Steinacker
+ * @version %version: 28 %
+ * @see ModelWriter
+ */
+public final class ModelReader implements Closeable {
+
+    private static final Type.Kind[] TYPE_KINDS = Type.Kind.values();
+    private static final Method.Kind[] METHOD_KINDS = Method.Kind.values();
+
+    private final DataInputStream in;
+    private final List<String> strings;
+    private boolean atEnd = false;
+
+    /**
+     * Creates a ModelReader and checks the header of the stream.
+     *
+     * @param in the stream, the types are read from.
+     * @throws IOException if the stream is not a model stream or the version is not supported.
+     */
+    public ModelReader(final InputStream in) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(in));
+        this.strings = new ArrayList<String>();
+        final byte[] magic = new byte[MAGIC.length];
+        this.in.readFully(magic);
+        if (!Arrays.equals(magic, MAGIC))
+            throw new IOException("Not a model stream");
+        final int version = readVarInt();
+        if (version != VERSION)
+            throw new IOException("Unsupported model stream version " + version);
+    }
+
+    /**
+     * Reads the next type of the stream.
+     *
+     * @return the Type, or null if the end of the stream is reached.
+     * @throws IOException if reading fails or the stream is corrupt.
+     */
+    public Type read() throws IOException {
+        if (atEnd)
+            return null;
+        final int tag = readVarInt();
+        if (tag == END) {
+            atEnd = true;
+            return null;
+        }
+        if (tag != TYPE)
+            throw new IOException("Unexpected tag " + tag);
+        final QualifiedName name = readQualifiedName();
+        final Type.Kind kind = readKind(TYPE_KINDS);
+        final List<Annotation> annotations = readAnnotations();
+        final Set<TypeModifier> modifiers = readModifiers(TypeModifier.class);
+        final String comment = readString();
+        final TypeSymbol superClass = readNullableTypeSymbol();
+        final int numInterfaces = readVarInt();
+        final List<TypeSymbol> implementedInterfaces = new ArrayList<TypeSymbol>(numInterfaces);
+        for (int i = 0; i < numInterfaces; ++i) {
+            implementedInterfaces.add(readTypeSymbol());
+        }
+        final List<TypeParameter> typeParameters = readTypeParameters();
+        final int numMethods = readVarInt();
+        final List<Method> methods = new ArrayList<Method>(numMethods);
+        for (int i = 0; i < numMethods; ++i) {
+            methods.add(readMethod());
+        }
+        final int numFields = readVarInt();
+        final List<Field> fields = new ArrayList<Field>(numFields);
+        for (int i = 0; i < numFields; ++i) {
+            fields.add(readField());
+        }
+        final int numImports = readVarInt();
+        final Set<Import> imports = new HashSet<Import>();
+        for (int i = 0; i < numImports; ++i) {
+            imports.add(new Import(readQualifiedName(), in.readBoolean()));
+        }
+        return new Type(name, kind, annotations, modifiers, comment, superClass,
+                implementedInterfaces, typeParameters, methods, fields, imports);
+    }
+
+    /**
+     * Reads all remaining types of the stream.
+     *
+     * @return Model
+     * @throws IOException if reading fails or the stream is corrupt.
+     */
+    public Model readModel() throws IOException {
+        final List<Type> types = new ArrayList<Type>();
+        Type type;
+        while ((type = read()) != null) {
+            types.add(type);
+        }
+        return new Model(types);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private Method readMethod() throws IOException {
+        final SimpleName name = readSimpleName();
+        final Method.Kind kind = readKind(METHOD_KINDS);
+        final List<Annotation> annotations = readAnnotations();
+        final Set<MethodModifier> modifiers = readModifiers(MethodModifier.class);
+        final int numExceptions = readVarInt();
+        final List<QualifiedName> exceptions = new ArrayList<QualifiedName>(numExceptions);
+        for (int i = 0; i < numExceptions; ++i) {
+            exceptions.add(readQualifiedName());
+        }
+        final List<TypeParameter> typeParameters = readTypeParameters();
+        final TypeSymbol returnType = readNullableTypeSymbol();
+        final int numParameters = readVarInt();
+        final List<Parameter> parameters = new ArrayList<Parameter>(numParameters);
+        for (int i = 0; i < numParameters; ++i) {
+            final TypeSymbol type = readTypeSymbol();
+            final SimpleName parameterName = readSimpleName();
+            final List<Annotation> parameterAnnotations = readAnnotations();
+            final boolean isFinal = in.readBoolean();
+            parameters.add(new Parameter(type, parameterName, parameterAnnotations, isFinal, readString()));
+        }
+        final String comment = readString();
+        final String methodBody = readString();
+        return new Method(name, kind, annotations, modifiers, exceptions, typeParameters,
+                returnType, parameters, comment, methodBody);
+    }
+
+    private Field readField() throws IOException {
+        final SimpleName name = readSimpleName();
+        final TypeSymbol type = readTypeSymbol();
+        final String initString = readString();
+        final List<Annotation> annotations = readAnnotations();
+        final Set<FieldModifier> modifiers = readModifiers(FieldModifier.class);
+        return new Field(name, type, initString, annotations, modifiers, readString());
+    }
+
+    private TypeSymbol readNullableTypeSymbol() throws IOException {
+        return in.readBoolean() ? readTypeSymbol() : null;
+    }
+
+    private TypeSymbol readTypeSymbol() throws IOException {
+        final QualifiedName name = readQualifiedName();
+        final List<TypeParameter> typeParameters = readTypeParameters();
+        return TypeSymbol.valueOf(name, typeParameters);
+    }
+
+    private List<TypeParameter> readTypeParameters() throws IOException {
+        final int size = readVarInt();
+        if (size == 0)
+            return Collections.emptyList();
+        final List<TypeParameter> typeParameters = new ArrayList<TypeParameter>(size);
+        for (int i = 0; i < size; ++i) {
+            final QualifiedName paramName = readQualifiedName();
+            final int numBoundedTypes = readVarInt();
+            final List<QualifiedName> boundedTypes = new ArrayList<QualifiedName>(numBoundedTypes);
+            for (int j = 0; j < numBoundedTypes; ++j) {
+                boundedTypes.add(readQualifiedName());
+            }
+            typeParameters.add(new TypeParameter(paramName, boundedTypes));
+        }
+        return typeParameters;
+    }
+
+    private List<Annotation> readAnnotations() throws IOException {
+        final int size = readVarInt();
+        if (size == 0)
+            return Collections.emptyList();
+        final List<Annotation> annotations = new ArrayList<Annotation>(size);
+        for (int i = 0; i < size; ++i) {
+            annotations.add(readAnnotation());
+        }
+        return annotations;
+    }
+
+    private Annotation readAnnotation() throws IOException {
+        final QualifiedName name = readQualifiedName();
+        final List<AnnotationParameter> parameters = readAnnotationParameters();
+        final List<AnnotationParameter> defaults = readAnnotationParameters();
+        return Annotation.valueOf(name, parameters, defaults);
+    }
+
+    private List<AnnotationParameter> readAnnotationParameters() throws IOException {
+        final int size = readVarInt();
+        final List<AnnotationParameter> parameters = new ArrayList<AnnotationParameter>(size);
+        for (int i = 0; i < size; ++i) {
+            final String name = readString();
+            final boolean defaultValued = in.readBoolean();
+            final int numValues = readVarInt();
+            final List<AnnotationValue> values = new ArrayList<AnnotationValue>(numValues);
+            for (int j = 0; j < numValues; ++j) {
+                final Object value = readValue();
+                values.add(new AnnotationValue(value, readString()));
+            }
+            parameters.add(new AnnotationParameter(name, defaultValued, values));
+        }
+        return parameters;
+    }
+
+    private Object readValue() throws IOException {
+        final int tag = readVarInt();
+        switch (tag) {
+            case VALUE_NULL:
+                return null;
+            case VALUE_STRING:
+                return readString();
+            case VALUE_NAME:
+                return readQualifiedName();
+            case VALUE_ANNOTATION:
+                return readAnnotation();
+            case VALUE_INTEGER:
+                return in.readInt();
+            case VALUE_LONG:
+                return in.readLong();
+            case VALUE_SHORT:
+                return in.readShort();
+            case VALUE_BYTE:
+                return in.readByte();
+            case VALUE_CHARACTER:
+                return in.readChar();
+            case VALUE_BOOLEAN:
+                return in.readBoolean();
+            case VALUE_FLOAT:
+                return in.readFloat();
+            case VALUE_DOUBLE:
+                return in.readDouble();
+            case VALUE_SERIALIZED:
+                final byte[] bytes = new byte[readVarInt()];
+                in.readFully(bytes);
+                final ObjectInputStream objectIn = new ObjectInputStream(new ByteArrayInputStream(bytes));
+                try {
+                    return objectIn.readObject();
+                } catch (ClassNotFoundException e) {
+                    throw new IOException("Unable to read annotation value: " + e.getMessage());
+                } finally {
+                    objectIn.close();
+                }
+            default:
+                throw new IOException("Unexpected value tag " + tag);
+        }
+    }
+
+    private <E extends Enum<E>> E readKind(final E[] kinds) throws IOException {
+        final int kind = readVarInt();
+        if (kind > kinds.length)
+            throw new IOException("Unexpected kind " + kind);
+        return kind != 0 ? kinds[kind - 1] : null;
+    }
+
+    private <E extends Enum<E>> Set<E> readModifiers(final Class<E> enumType) throws IOException {
+        final int mask = readVarInt();
+        final Set<E> modifiers = EnumSet.noneOf(enumType);
+        for (final E modifier : enumType.getEnumConstants()) {
+            if ((mask & (1 << modifier.ordinal())) != 0)
+                modifiers.add(modifier);
+        }
+        return modifiers;
+    }
+
+    private QualifiedName readQualifiedName() throws IOException {
+        final String s = readString();
+        return s != null ? QualifiedName.valueOf(s) : null;
+    }
+
+    private SimpleName readSimpleName() throws IOException {
+        final String s = readString();
+        return s != null ? SimpleName.valueOf(s) : null;
+    }
+
+    private String readString() throws IOException {
+        final int ref = readVarInt();
+        if (ref == NULL_STRING)
+            return null;
+        if (ref == NEW_STRING) {
+            final byte[] bytes = new byte[readVarInt()];
+            in.readFully(bytes);
+            final String s = new String(bytes, "UTF-8");
+            strings.add(s);
+            return s;
+        }
+        final int index = ref - STRING_REF;
+        if (index >= strings.size())
+            throw new IOException("Invalid string reference " + ref);
+        return strings.get(index);
+    }
+
+    private int readVarInt() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            final int b = in.readUnsignedByte();
+            value |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0)
+                return value;
+        }
+        throw new IOException("Malformed varint");
+    }
+}
@@ -0,0 +1,284 @@
+/*
+ * Copyright (c) 2010 by Guido Steinacker
+ */
+
+package de.steinacker.jcg.model;
+
+import java.io.*;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static de.steinacker.jcg.model.ModelFormat.*;
+
+/**
+ * Writes types in the compact binary format described by {@link ModelFormat}.
+ * <p/>
+ * Qualified and simple names, comments and other strings are written only once per stream and
+ * are referenced by their index afterwards. The stream is terminated by close().
+ * <p/>
+ * Usage:
+ * <pre>
+ *     final ModelWriter writer = new ModelWriter(new FileOutputStream(file));
+ *     try {
+ *         writer.write(model);
+ *     } finally {
+ *         writer.close();
+ *     }
+ * </pre>
+ *
+ * @author Guido Steinacker
+ * @version %version: 28 %
+ * @see ModelReader
+ */
+public final class ModelWriter implements Closeable {
+
+    private final DataOutputStream out;
+    private final Map<String, Integer> strings;
+    private boolean closed = false;
+
+    /**
+     * Creates a ModelWriter and writes the header of the stream.
+     *
+     * @param out the stream, the types are written to.
+     * @throws IOException if writing the header fails.
+     */
+    public ModelWriter(final OutputStream out) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(out));
+        this.strings = new HashMap<String, Integer>();
+        this.out.write(MAGIC);
+        writeVarInt(VERSION);
+    }
+
+    /**
+     * Writes all types of a model.
+     *
+     * @param model the Model
+     * @throws IOException if writing fails.
+     */
+    public void write(final Model model) throws IOException {
+        for (final Type type : model) {
+            write(type);
+        }
+    }
+
+    /**
+     * Writes a single type.
+     *
+     * @param type the Type
+     * @throws IOException if writing fails.
+     */
+    public void write(final Type type) throws IOException {
+        writeVarInt(TYPE);
+        writeString(type.getName());
+        writeKind(type.getKind());
+        writeAnnotations(type.getAnnotations());
+        writeModifiers(type.getModifiers());
+        writeString(type.getComment());
+        writeNullableTypeSymbol(type.getSuperClass());
+        writeVarInt(type.getImplementedInterfaces().size());
+        for (final TypeSymbol implementedInterface : type.getImplementedInterfaces()) {
+            writeTypeSymbol(implementedInterface);
+        }
+        writeTypeParameters(type.getTypeParameters());
+        writeVarInt(type.getMethods().size());
+        for (final Method method : type.getMethods()) {
+            writeMethod(method);
+        }
+        writeVarInt(type.getFields().size());
+        for (final Field field : type.getFields()) {
+            writeField(field);
+        }
+        final Set<Import> imports = type.getAdditionalImports();
+        writeVarInt(imports.size());
+        for (final Import i : imports) {
+            writeString(i.getQualifiedName());
+            out.writeBoolean(i.isStatic());
+        }
+    }
+
+    /**
+     * Terminates the stream and closes the underlying OutputStream.
+     *
+     * @throws IOException if writing fails.
+     */
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            try {
+                writeVarInt(END);
+                out.flush();
+            } finally {
+                out.close();
+            }
+        }
+    }
+
+    private void writeMethod(final Method method) throws IOException {
+        writeString(method.getName());
+        writeKind(method.getKind());
+        writeAnnotations(method.getAnnotations());
+        writeModifiers(method.getModifiers());
+        writeVarInt(method.getExceptions().size());
+        for (final QualifiedName exception : method.getExceptions()) {
+            writeString(exception);
+        }
+        writeTypeParameters(method.getTypeParameters());
+        writeNullableTypeSymbol(method.getReturnType());
+        writeVarInt(method.getParameters().size());
+        for (final Parameter parameter : method.getParameters()) {
+            writeTypeSymbol(parameter.getType());
+            writeString(parameter.getName());
+            writeAnnotations(parameter.getAnnotations());
+            out.writeBoolean(parameter.isFinal());
+            writeString(parameter.getComment());
+        }
+        writeString(method.getComment());
+        writeString(method.getMethodBody());
+    }
+
+    private void writeField(final Field field) throws IOException {
+        writeString(field.getName());
+        writeTypeSymbol(field.getType());
+        writeString(field.getInitString());
+        writeAnnotations(field.getAnnotations());
+        writeModifiers(field.getModifiers());
+        writeString(field.getComment());
+    }
+
+    private void writeNullableTypeSymbol(final TypeSymbol typeSymbol) throws IOException {
+        out.writeBoolean(typeSymbol != null);
+        if (typeSymbol != null)
+            writeTypeSymbol(typeSymbol);
+    }
+
+    private void writeTypeSymbol(final TypeSymbol typeSymbol) throws IOException {
+        writeString(typeSymbol.getQualifiedName());
+        writeTypeParameters(typeSymbol.getTypeParameters());
+    }
+
+    private void writeTypeParameters(final List<TypeParameter> typeParameters) throws IOException {
+        writeVarInt(typeParameters.size());
+        for (final TypeParameter typeParameter : typeParameters) {
+            writeString(typeParameter.getParamName());
+            writeVarInt(typeParameter.getBoundedTypes().size());
+            for (final QualifiedName boundedType : typeParameter.getBoundedTypes()) {
+                writeString(boundedType);
+            }
+        }
+    }
+
+    private void writeAnnotations(final List<Annotation> annotations) throws IOException {
+        writeVarInt(annotations.size());
+        for (final Annotation annotation : annotations) {
+            writeAnnotation(annotation);
+        }
+    }
+
+    private void writeAnnotation(final Annotation annotation) throws IOException {
+        writeString(annotation.getName());
+        writeAnnotationParameters(annotation.getParameters(false));
+        writeAnnotationParameters(annotation.getParameters(true));
+    }
+
+    private void writeAnnotationParameters(final List<AnnotationParameter> parameters) throws IOException {
+        writeVarInt(parameters.size());
+        for (final AnnotationParameter parameter : parameters) {
+            writeString(parameter.getName());
+            out.writeBoolean(parameter.isDefaultValued());
+            writeVarInt(parameter.getValues().size());
+            for (final AnnotationValue value : parameter.getValues()) {
+                writeValue(value.getValue());
+                writeString(value.getValueAsString());
+            }
+        }
+    }
+
+    private void writeValue(final Object value) throws IOException {
+        if (value == null) {
+            writeVarInt(VALUE_NULL);
+        } else if (value instanceof String) {
+            writeVarInt(VALUE_STRING);
+            writeString((String) value);
+        } else if (value instanceof QualifiedName) {
+            writeVarInt(VALUE_NAME);
+            writeString((QualifiedName) value);
+        } else if (value instanceof Annotation) {
+            writeVarInt(VALUE_ANNOTATION);
+            writeAnnotation((Annotation) value);
+        } else if (value instanceof Integer) {
+            writeVarInt(VALUE_INTEGER);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            writeVarInt(VALUE_LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Short) {
+            writeVarInt(VALUE_SHORT);
+            out.writeShort((Short) value);
+        } else if (value instanceof Byte) {
+            writeVarInt(VALUE_BYTE);
+            out.writeByte((Byte) value);
+        } else if (value instanceof Character) {
+            writeVarInt(VALUE_CHARACTER);
+            out.writeChar((Character) value);
+        } else if (value instanceof Boolean) {
+            writeVarInt(VALUE_BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof Float) {
+            writeVarInt(VALUE_FLOAT);
+            out.writeFloat((Float) value);
+        } else if (value instanceof Double) {
+            writeVarInt(VALUE_DOUBLE);
+            out.writeDouble((Double) value);
+        } else {
+            writeVarInt(VALUE_SERIALIZED);
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            final ObjectOutputStream objectOut = new ObjectOutputStream(bytes);
+            objectOut.writeObject(value);
+            objectOut.close();
+            writeVarInt(bytes.size());
+            bytes.writeTo(out);
+        }
+    }
+
+    private void writeKind(final Enum<?> kind) throws IOException {
+        writeVarInt(kind != null ? kind.ordinal() + 1 : 0);
+    }
+
+    private void writeModifiers(final Collection<? extends Enum<?>> modifiers) throws IOException {
+        int mask = 0;
+        for (final Enum<?> modifier : modifiers) {
+            mask |= 1 << modifier.ordinal();
+        }
+        writeVarInt(mask);
+    }
+
+    private void writeString(final CharSequence s) throws IOException {
+        if (s == null) {
+            writeVarInt(NULL_STRING);
+            return;
+        }
+        final String key = s.toString();
+        final Integer index = strings.get(key);
+        if (index != null) {
+            writeVarInt(STRING_REF + index);
+        } else {
+            strings.put(key, strings.size());
+            writeVarInt(NEW_STRING);
+            final byte[] bytes = key.getBytes("UTF-8");
+            writeVarInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private void writeVarInt(int value) throws IOException {
+        while ((value & ~0x7f) != 0) {
+            out.writeByte((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+}
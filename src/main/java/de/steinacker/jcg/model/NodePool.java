@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2010 by Guido Steinacker
+ */
+
+package de.steinacker.jcg.model;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A pool of canonical instances of immutable model nodes, like TypeSymbols and Annotations
+ * (hash-consing).
+ * <p/>
+ * Structurally equal nodes are replaced by a single canonical instance, so equal nodes used all
+ * over the model share their memory, and comparing them is reduced to a reference check. The
+ * canonical instances are weakly referenced and can be garbage collected, if they are no longer
+ * used.
+ *
+ * @author Guido Steinacker
+ * @version %version: 28 %
+ */
+final class NodePool<T> {
+
+    private final ConcurrentMap<Ref<T>, Ref<T>> refs = new ConcurrentHashMap<Ref<T>, Ref<T>>();
+    private final ReferenceQueue<T> collected = new ReferenceQueue<T>();
+
+    /**
+     * Returns the canonical instance of a node. If there is no node equal to the specified node,
+     * the node itself becomes the canonical instance.
+     *
+     * @param node the node
+     * @return the canonical node.
+     */
+    T intern(final T node) {
+        final Ref<T> ref = refs.get(new Ref<T>(node, null));
+        if (ref != null) {
+            final T canonical = ref.get();
+            if (canonical != null)
+                return canonical;
+        }
+        expungeCollectedRefs();
+        final Ref<T> newRef = new Ref<T>(node, collected);
+        final Ref<T> existing = refs.putIfAbsent(newRef, newRef);
+        if (existing != null) {
+            final T canonical = existing.get();
+            if (canonical != null)
+                return canonical;
+        }
+        return node;
+    }
+
+    /**
+     * @return number of nodes in the pool, including collected nodes not yet removed.
+     */
+    int size() {
+        return refs.size();
+    }
+
+    private void expungeCollectedRefs() {
+        Object ref;
+        while ((ref = collected.poll()) != null) {
+            refs.remove(ref);
+        }
+    }
+
+    /**
+     * A weak reference, that is equal to other references to equal nodes. A cleared reference is
+     * only equal to itself.
+     */
+    private static final class Ref<T> extends WeakReference<T> {
+        private final int hash;
+
+        private Ref(final T node, final ReferenceQueue<T> queue) {
+            super(node, queue);
+            this.hash = node.hashCode();
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Ref)) return false;
+            final Ref<?> that = (Ref<?>) o;
+            if (hash != that.hash) return false;
+            final T node = get();
+            return node != null && node.equals(that.get());
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -6,6 +6,7 @@ package de.steinacker.jcg.model;
 
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -16,7 +17,13 @@ import java.util.List;
  * @author Guido Steinacker
  * @version %version: 28 %
  */
-public final class Parameter implements Annotatable {
+public final class Parameter implements Annotatable, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /** The hash code, computed on first use. */
+    private transient int hash;
+
     /** The TypeSymbol representing the parameter's type. */
     @NotNull
     @Valid
@@ -72,12 +79,13 @@ public final class Parameter implements Annotatable {
     public boolean equals(final Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
+        if (hashCode() != o.hashCode()) return false;
 
         final Parameter parameter = (Parameter) o;
 
         if (isFinal != parameter.isFinal) return false;
         if (!annotations.equals(parameter.annotations)) return false;
-        if (!comment.equals(parameter.comment)) return false;
+        if (comment != null ? !comment.equals(parameter.comment) : parameter.comment != null) return false;
         if (!name.equals(parameter.name)) return false;
         if (!type.equals(parameter.type)) return false;
 
@@ -86,11 +94,15 @@ public final class Parameter implements Annotatable {
 
     @Override
     public int hashCode() {
-        int result = type.hashCode();
-        result = 31 * result + name.hashCode();
-        result = 31 * result + annotations.hashCode();
-        result = 31 * result + (isFinal ? 1 : 0);
-        result = 31 * result + comment.hashCode();
+        int result = hash;
+        if (result == 0) {
+            result = type.hashCode();
+            result = 31 * result + name.hashCode();
+            result = 31 * result + annotations.hashCode();
+            result = 31 * result + (isFinal ? 1 : 0);
+            result = 31 * result + (comment != null ? comment.hashCode() : 0);
+            hash = result;
+        }
         return result;
     }
 
@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2010 by Guido Steinacker
+ */
+
+package de.steinacker.jcg.model;
+
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * An immutable List, sharing its structure with the lists it was derived from.
+ * <p/>
+ * The elements are stored in a trie of arrays with 32 entries each, plus a tail array holding the
+ * last elements. Appending an element or replacing the element at an index only copies the path
+ * from the root to the modified array, that is O(log32(n)), and the new list shares all other arrays
+ * with the original list. Removing an element copies the list.
+ * <p/>
+ * The members of the model (methods, fields, annotations and so on) are kept in PersistentLists, so
+ * a transformer adding a single method to a type does not copy the other member lists, and the
+ * method list itself is not copied either.
+ *
+ * @author Guido Steinacker
+ * @version %version: 28 %
+ */
+public final class PersistentList<E> extends AbstractList<E> implements RandomAccess, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+    private static final Object[] EMPTY_NODE = new Object[WIDTH];
+    private static final PersistentList<Object> EMPTY = new PersistentList<Object>(0, BITS, EMPTY_NODE, new Object[0]);
+
+    private final int size;
+    private final int shift;
+    private final Object[] root;
+    private final Object[] tail;
+
+    private PersistentList(final int size, final int shift, final Object[] root, final Object[] tail) {
+        this.size = size;
+        this.shift = shift;
+        this.root = root;
+        this.tail = tail;
+    }
+
+    /**
+     * @return the empty list.
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentList<E> empty() {
+        return (PersistentList<E>) EMPTY;
+    }
+
+    /**
+     * Returns a PersistentList containing the elements of a collection. If the collection already
+     * is a PersistentList, it is returned without copying it.
+     *
+     * @param elements the elements of the list.
+     * @return PersistentList
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentList<E> copyOf(final Collection<? extends E> elements) {
+        if (elements instanceof PersistentList)
+            return (PersistentList<E>) elements;
+        final Object[] array = elements.toArray();
+        if (array.length == 0)
+            return empty();
+        PersistentList<E> list = new PersistentList<E>(
+                Math.min(WIDTH, array.length), BITS, EMPTY_NODE, Arrays.copyOfRange(array, 0, Math.min(WIDTH, array.length)));
+        for (int i = WIDTH; i < array.length; i += WIDTH) {
+            list = list.pushTail(Arrays.copyOfRange(array, i, Math.min(i + WIDTH, array.length)));
+        }
+        return list;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(final int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        return (E) arrayFor(index)[index & MASK];
+    }
+
+    /**
+     * @param element the element to append.
+     * @return a new list with the element appended to the elements of this list.
+     */
+    public PersistentList<E> plus(final E element) {
+        if (size - tailOffset() < WIDTH) {
+            final Object[] newTail = Arrays.copyOf(tail, tail.length + 1);
+            newTail[tail.length] = element;
+            return new PersistentList<E>(size + 1, shift, root, newTail);
+        }
+        return pushTail(new Object[]{element});
+    }
+
+    /**
+     * @param index the index of the element to replace.
+     * @param element the new element.
+     * @return a new list with the element at the index replaced.
+     */
+    public PersistentList<E> with(final int index, final E element) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        if (index >= tailOffset()) {
+            final Object[] newTail = tail.clone();
+            newTail[index & MASK] = element;
+            return new PersistentList<E>(size, shift, root, newTail);
+        }
+        return new PersistentList<E>(size, shift, replace(shift, root, index, element), tail);
+    }
+
+    /**
+     * @param index the index of the element to remove.
+     * @return a new list without the element at the index.
+     */
+    public PersistentList<E> minus(final int index) {
+        final List<E> elements = new ArrayList<E>(this);
+        elements.remove(index);
+        return copyOf(elements);
+    }
+
+    private int tailOffset() {
+        return size < WIDTH ? 0 : ((size - 1) >>> BITS) << BITS;
+    }
+
+    private Object[] arrayFor(final int index) {
+        if (index >= tailOffset())
+            return tail;
+        Object[] node = root;
+        for (int level = shift; level > 0; level -= BITS) {
+            node = (Object[]) node[(index >>> level) & MASK];
+        }
+        return node;
+    }
+
+    /**
+     * Moves the full tail of this list into the trie and uses newTail as the new tail.
+     */
+    private PersistentList<E> pushTail(final Object[] newTail) {
+        final Object[] newRoot;
+        int newShift = shift;
+        if ((size >>> BITS) > (1 << shift)) {
+            // the trie is full, add a new level:
+            newRoot = new Object[WIDTH];
+            newRoot[0] = root;
+            newRoot[1] = newPath(shift, tail);
+            newShift += BITS;
+        } else {
+            newRoot = pushTail(shift, root, tail);
+        }
+        return new PersistentList<E>(size + newTail.length, newShift, newRoot, newTail);
+    }
+
+    private Object[] pushTail(final int level, final Object[] parent, final Object[] tailNode) {
+        final int index = ((size - 1) >>> level) & MASK;
+        final Object[] result = parent.clone();
+        final Object nodeToInsert;
+        if (level == BITS) {
+            nodeToInsert = tailNode;
+        } else {
+            final Object[] child = (Object[]) parent[index];
+            nodeToInsert = child != null
+                    ? pushTail(level - BITS, child, tailNode)
+                    : newPath(level - BITS, tailNode);
+        }
+        result[index] = nodeToInsert;
+        return result;
+    }
+
+    private static Object[] newPath(final int level, final Object[] node) {
+        if (level == 0)
+            return node;
+        final Object[] result = new Object[WIDTH];
+        result[0] = newPath(level - BITS, node);
+        return result;
+    }
+
+    private static Object[] replace(final int level, final Object[] node, final int index, final Object element) {
+        final Object[] result = node.clone();
+        if (level == 0) {
+            result[index & MASK] = element;
+        } else {
+            final int subIndex = (index >>> level) & MASK;
+            result[subIndex] = replace(level - BITS, (Object[]) node[subIndex], index, element);
+        }
+        return result;
+    }
+
+    /**
+     * Serialized lists are written as a plain array of their elements.
+     *
+     * @return the serialized form of the list.
+     */
+    private Object writeReplace() {
+        return new SerializedForm(toArray());
+    }
+
+    private static final class SerializedForm implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final Object[] elements;
+
+        private SerializedForm(final Object[] elements) {
+            this.elements = elements;
+        }
+
+        private Object readResolve() {
+            return copyOf(Arrays.asList(elements));
+        }
+    }
+}
@@ -6,6 +6,7 @@ package de.steinacker.jcg.model;
 
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Pattern;
+import java.io.Serializable;
 import java.util.*;
 
 
@@ -17,9 +18,16 @@ import java.util.*;
  * @author Guido Steinacker
  * @version %version: 28 %
  */
-public final class QualifiedName implements CharSequence, Comparable<QualifiedName> {
-    private static final Map<CharSequence, QualifiedName> INSTANCES
-            = Collections.synchronizedMap(new HashMap<CharSequence, QualifiedName>());
+public final class QualifiedName implements CharSequence, Comparable<QualifiedName>, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Interner<QualifiedName> INSTANCES = new Interner<QualifiedName>(new Interner.Factory<QualifiedName>() {
+        @Override
+        public QualifiedName create(final CharSequence name, final String key) {
+            return name instanceof QualifiedName ? (QualifiedName) name : new QualifiedName(key);
+        }
+    });
     private static final Collection<String> PRIMITIVE_TYPES = Arrays.asList(
             "byte",
             "short",
@@ -32,9 +40,12 @@ public final class QualifiedName implements CharSequence, Comparable<QualifiedNa
             "void"
     );
 
+    // The names of the primitive types are never collected:
+    private static final List<QualifiedName> PRIMITIVE_NAMES = new ArrayList<QualifiedName>();
+
     static {
         for (final String primitiveType : PRIMITIVE_TYPES) {
-            INSTANCES.put(primitiveType, new QualifiedName(primitiveType));
+            PRIMITIVE_NAMES.add(INSTANCES.intern(primitiveType));
         }
     }
 
@@ -49,14 +60,14 @@ public final class QualifiedName implements CharSequence, Comparable<QualifiedNa
     public static QualifiedName valueOf(final CharSequence qualifiedName) {
         if (qualifiedName == null)
             throw new NullPointerException("Parameter must not be null!");
-        final String key = qualifiedName.toString();
-        if (!INSTANCES.containsKey(key)) {
-            if (qualifiedName instanceof QualifiedName)
-                INSTANCES.put(key, (QualifiedName)qualifiedName);
-            else
-                INSTANCES.put(key, new QualifiedName(qualifiedName));
-        }
-        return INSTANCES.get(key);
+        return INSTANCES.intern(qualifiedName);
+    }
+
+    /**
+     * @return the pool of interned QualifiedNames, providing statistics about its usage.
+     */
+    public static Interner<QualifiedName> getInterner() {
+        return INSTANCES;
     }
 
     public static QualifiedName valueOf(final CharSequence packageName, final CharSequence simpleName) {
@@ -134,6 +145,15 @@ public final class QualifiedName implements CharSequence, Comparable<QualifiedNa
         return qualifiedName.equals("?");
     }
 
+    /**
+     * Deserialized names are replaced by the interned instance.
+     *
+     * @return the interned QualifiedName
+     */
+    private Object readResolve() {
+        return valueOf(qualifiedName);
+    }
+
     @Override
     public boolean equals(final Object o) {
         if (this == o) return true;
@@ -6,6 +6,7 @@ package de.steinacker.jcg.model;
 
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Pattern;
+import java.io.Serializable;
 import java.util.*;
 
 /**
@@ -15,10 +16,16 @@ import java.util.*;
  * @author Guido Steinacker
  * @version %version: 28 %
  */
-public final class SimpleName implements CharSequence, Comparable<SimpleName> {
+public final class SimpleName implements CharSequence, Comparable<SimpleName>, Serializable {
 
-    private static final Map<CharSequence, SimpleName> INSTANCES
-            = Collections.synchronizedMap(new HashMap<CharSequence, SimpleName>());
+    private static final long serialVersionUID = 1L;
+
+    private static final Interner<SimpleName> INSTANCES = new Interner<SimpleName>(new Interner.Factory<SimpleName>() {
+        @Override
+        public SimpleName create(final CharSequence name, final String key) {
+            return name instanceof SimpleName ? (SimpleName) name : new SimpleName(key);
+        }
+    });
 
     @NotNull
     @Pattern(regexp = "[a-zA-Z_][a-zA-Z_0-9]*")
@@ -27,14 +34,14 @@ public final class SimpleName implements CharSequence, Comparable<SimpleName> {
     public static SimpleName valueOf(final CharSequence name) {
         if (name == null)
             throw new NullPointerException("Parameter must not be null!");
-        final String key = name.toString();
-        if (!INSTANCES.containsKey(key)) {
-            if (name instanceof SimpleName)
-                INSTANCES.put(key, (SimpleName)name);
-            else
-                INSTANCES.put(key, new SimpleName(name));
-        }
-        return INSTANCES.get(key);
+        return INSTANCES.intern(name);
+    }
+
+    /**
+     * @return the pool of interned SimpleNames, providing statistics about its usage.
+     */
+    public static Interner<SimpleName> getInterner() {
+        return INSTANCES;
     }
 
     private SimpleName(final CharSequence name) {
@@ -61,6 +68,15 @@ public final class SimpleName implements CharSequence, Comparable<SimpleName> {
         return name;
     }
 
+    /**
+     * Deserialized names are replaced by the interned instance.
+     *
+     * @return the interned SimpleName
+     */
+    private Object readResolve() {
+        return valueOf(name);
+    }
+
     @Override
     public boolean equals(final Object o) {
         if (this == o) return true;
@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2010 by Guido Steinacker
+ */
+
+package de.steinacker.jcg.model;
+
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+
+/**
+ * A lazily materialized part of a source file, like the body of a method or the initializer of
+ * a field.
+ * <p/>
+ * The slice only references the source code of the compilation unit and the positions of the
+ * part. The String is created by the first call of toString(), so code that is never emitted by
+ * a template is never copied. The original formatting of the code is preserved.
+ * <p/>
+ * A serialized slice is replaced by its String, so the source code of the compilation unit is
+ * not written to the stream.
+ * <p/>
+ * Fields and methods compare and hash their slices using {@link #contentEquals} and
+ * {@link #contentHashOf}: slices of the same source and range are equal without creating their
+ * Strings, and the hash is computed from the source code. Only slices of different sources (or
+ * a slice and a String) with equal hashes are compared by their Strings.
+ *
+ * @author Guido Steinacker
+ * @version %version: 28 %
+ */
+public final class SourceSlice implements CharSequence, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String source;
+    private final int start;
+    private final int end;
+    private final boolean block;
+    private transient volatile String value;
+    private transient volatile int contentHash;
+
+    private SourceSlice(final String source, final int start, final int end, final boolean block) {
+        if (start < 0 || end > source.length() || start > end)
+            throw new IndexOutOfBoundsException("Illegal source range " + start + ".." + end);
+        this.source = source;
+        this.start = start;
+        this.end = end;
+        this.block = block;
+    }
+
+    /**
+     * Creates a slice of the source code, from start (inclusive) to end (exclusive).
+     *
+     * @param source the source code of the compilation unit.
+     * @param start the start position.
+     * @param end the end position.
+     * @return SourceSlice
+     */
+    public static SourceSlice of(final String source, final int start, final int end) {
+        return new SourceSlice(source, start, end, false);
+    }
+
+    /**
+     * Creates a slice of the statements of a block. Start and end are the positions of the block,
+     * including the braces. The braces, leading and trailing blank lines and the indentation, all
+     * lines have in common, are removed from the slice.
+     *
+     * @param source the source code of the compilation unit.
+     * @param start the position of the opening brace.
+     * @param end the position after the closing brace.
+     * @return SourceSlice
+     */
+    public static SourceSlice ofBlock(final String source, final int start, final int end) {
+        return new SourceSlice(source, start + 1, end - 1, true);
+    }
+
+    @Override
+    public int length() {
+        return toString().length();
+    }
+
+    @Override
+    public char charAt(final int index) {
+        return toString().charAt(index);
+    }
+
+    @Override
+    public CharSequence subSequence(final int start, final int end) {
+        return toString().subSequence(start, end);
+    }
+
+    @Override
+    public String toString() {
+        String s = value;
+        if (s == null) {
+            s = block ? unindent(source.substring(start, end)) : source.substring(start, end).trim();
+            value = s;
+        }
+        return s;
+    }
+
+    /**
+     * Returns a hash of the content of a CharSequence, ignoring all whitespace. A slice only differs
+     * from its part of the source code by whitespace, so the hash of a slice is computed from the
+     * source code without creating its String, and is equal to the hash of a String having the
+     * same content.
+     *
+     * @param text a SourceSlice or any other CharSequence.
+     * @return hash
+     */
+    public static int contentHashOf(final CharSequence text) {
+        if (text instanceof SourceSlice) {
+            final SourceSlice slice = (SourceSlice) text;
+            int h = slice.contentHash;
+            if (h == 0) {
+                h = hashIgnoringWhitespace(slice.source, slice.start, slice.end);
+                slice.contentHash = h;
+            }
+            return h;
+        }
+        return hashIgnoringWhitespace(text, 0, text.length());
+    }
+
+    /**
+     * Compares the content of two CharSequences, one or both of them may be slices.
+     *
+     * @param a a CharSequence, or null.
+     * @param b a CharSequence, or null.
+     * @return true, if both are null or have the same content.
+     */
+    public static boolean contentEquals(final CharSequence a, final CharSequence b) {
+        if (a == b)
+            return true;
+        if (a == null || b == null)
+            return false;
+        if (a instanceof SourceSlice && b instanceof SourceSlice && ((SourceSlice) a).hasSameRange((SourceSlice) b))
+            return true;
+        return contentHashOf(a) == contentHashOf(b) && a.toString().equals(b.toString());
+    }
+
+    /**
+     * @return true, if the String of the slice has been created.
+     */
+    boolean isMaterialized() {
+        return value != null;
+    }
+
+    private boolean hasSameRange(final SourceSlice other) {
+        return source == other.source && start == other.start && end == other.end && block == other.block;
+    }
+
+    private static int hashIgnoringWhitespace(final CharSequence text, final int start, final int end) {
+        int h = 0;
+        for (int i = start; i < end; ++i) {
+            final char c = text.charAt(i);
+            // trim() removes all characters up to the space, the others use isWhitespace():
+            if (c > ' ' && !Character.isWhitespace(c))
+                h = 31 * h + c;
+        }
+        return h;
+    }
+
+    private Object writeReplace() throws ObjectStreamException {
+        return toString();
+    }
+
+    private static String unindent(final String text) {
+        final String[] lines = text.replaceAll("\r", "").split("\n", -1);
+        int first = 0;
+        int last = lines.length - 1;
+        while (first <= last && lines[first].trim().length() == 0)
+            ++first;
+        while (last >= first && lines[last].trim().length() == 0)
+            --last;
+        int indent = Integer.MAX_VALUE;
+        for (int i = first; i <= last; ++i) {
+            final String line = lines[i];
+            if (line.trim().length() > 0) {
+                int pos = 0;
+                while (pos < line.length() && Character.isWhitespace(line.charAt(pos)))
+                    ++pos;
+                indent = Math.min(indent, pos);
+            }
+        }
+        final StringBuilder sb = new StringBuilder();
+        for (int i = first; i <= last; ++i) {
+            if (i > first)
+                sb.append('\n');
+            final String line = lines[i];
+            sb.append(line.length() > indent ? line.substring(indent) : line.trim());
+        }
+        return sb.toString().trim().length() == 0 ? "" : trimEnd(sb);
+    }
+
+    private static String trimEnd(final StringBuilder sb) {
+        int len = sb.length();
+        while (len > 0 && Character.isWhitespace(sb.charAt(len - 1)))
+            --len;
+        return sb.substring(0, len);
+    }
+}
@@ -6,6 +6,7 @@ package de.steinacker.jcg.model;
 
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
+import java.io.Serializable;
 import java.util.*;
 
 /**
@@ -14,7 +15,12 @@ import java.util.*;
  * @author Guido Steinacker
  * @version %version: 28 %
  */
-public final class Type implements Annotatable {
+public final class Type implements Annotatable, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /** The hash code, computed on first use. */
+    private transient int hash;
 
     public enum Kind { CLASS, INTERFACE, ENUM, ANNOTATION;
     }
@@ -62,6 +68,8 @@ public final class Type implements Annotatable {
     @NotNull
     @Valid
     private final Set<Import> additionalImports;
+    /** The imports, computed by the first call of getImports(). */
+    private transient volatile SortedSet<Import> imports;
 
     private static class ImportComparator implements Comparator<Import> {
         @Override
@@ -102,17 +110,17 @@ public final class Type implements Annotatable {
                 final List<Method> methods,
                 final List<Field> fields,
                 final Set<Import> additionalImports) {
-        this.implementedInterfaces = Collections.unmodifiableList(new ArrayList<TypeSymbol>(implementedInterfaces));
+        this.implementedInterfaces = PersistentList.copyOf(implementedInterfaces);
         this.kind = kind;
-        this.methods = Collections.unmodifiableList(new ArrayList<Method>(methods));
-        this.annotations = Collections.unmodifiableList(new ArrayList<Annotation>(annotations));
+        this.methods = PersistentList.copyOf(methods);
+        this.annotations = PersistentList.copyOf(annotations);
         this.name = name;
         this.modifiers = modifiers.isEmpty() ? EnumSet.noneOf(TypeModifier.class) : EnumSet.copyOf(modifiers);
         this.superClass = superClass;
-        this.typeParameters = Collections.unmodifiableList(new ArrayList<TypeParameter>(typeParameters));
-        this.fields = Collections.unmodifiableList(new ArrayList<Field>(fields));
+        this.typeParameters = PersistentList.copyOf(typeParameters);
+        this.fields = PersistentList.copyOf(fields);
         this.comment = comment;
-        this.additionalImports = Collections.unmodifiableSet(additionalImports);
+        this.additionalImports = Collections.unmodifiableSet(new HashSet<Import>(additionalImports));
     }
 
     /**
@@ -230,10 +238,22 @@ public final class Type implements Annotatable {
 
     /**
      * Returns a list containing all imports of this type.
+     * <p/>
+     * The imports are computed on the first call and returned by subsequent calls, because a Type
+     * is immutable.
      *
-     * @return list of imports of this Type.
+     * @return unmodifiable list of imports of this Type.
      */
     public SortedSet<Import> getImports() {
+        SortedSet<Import> result = imports;
+        if (result == null) {
+            result = Collections.unmodifiableSortedSet(computeImports());
+            imports = result;
+        }
+        return result;
+    }
+
+    private SortedSet<Import> computeImports() {
         final Set<Import> allImports = new HashSet<Import>();
         
         // Die Oberklasse:
@@ -350,18 +370,19 @@ public final class Type implements Annotatable {
     public boolean equals(final Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
+        if (hashCode() != o.hashCode()) return false;
 
         final Type type = (Type) o;
 
         if (!annotations.equals(type.annotations)) return false;
-        if (!comment.equals(type.comment)) return false;
+        if (comment != null ? !comment.equals(type.comment) : type.comment != null) return false;
         if (!fields.equals(type.fields)) return false;
         if (kind != type.kind) return false;
         if (!methods.equals(type.methods)) return false;
         if (!modifiers.equals(type.modifiers)) return false;
         if (!name.equals(type.name)) return false;
         if (!implementedInterfaces.equals(type.implementedInterfaces)) return false;
-        if (!superClass.equals(type.superClass)) return false;
+        if (superClass != null ? !superClass.equals(type.superClass) : type.superClass != null) return false;
         if (!additionalImports.equals(type.additionalImports)) return false;
 
         return true;
@@ -370,16 +391,20 @@ public final class Type implements Annotatable {
     /** {@inheritDoc} */
     @Override
     public int hashCode() {
-        int result = name.hashCode();
-        result = 31 * result + kind.hashCode();
-        result = 31 * result + (comment.hashCode());
-        result = 31 * result + annotations.hashCode();
-        result = 31 * result + superClass.hashCode();
-        result = 31 * result + implementedInterfaces.hashCode();
-        result = 31 * result + methods.hashCode();
-        result = 31 * result + modifiers.hashCode();
-        result = 31 * result + fields.hashCode();
-        result = 31 * result + additionalImports.hashCode();
+        int result = hash;
+        if (result == 0) {
+            result = name.hashCode();
+            result = 31 * result + kind.hashCode();
+            result = 31 * result + (comment != null ? comment.hashCode() : 0);
+            result = 31 * result + annotations.hashCode();
+            result = 31 * result + (superClass != null ? superClass.hashCode() : 0);
+            result = 31 * result + implementedInterfaces.hashCode();
+            result = 31 * result + methods.hashCode();
+            result = 31 * result + modifiers.hashCode();
+            result = 31 * result + fields.hashCode();
+            result = 31 * result + additionalImports.hashCode();
+            hash = result;
+        }
         return result;
     }
 
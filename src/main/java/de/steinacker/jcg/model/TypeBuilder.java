@@ -13,14 +13,14 @@ import java.util.*;
 public final class TypeBuilder {
     private QualifiedName name;
     private Type.Kind kind = Type.Kind.CLASS;
-    private List<Annotation> annotations = new ArrayList<Annotation>();
+    private PersistentList<Annotation> annotations = PersistentList.empty();
     private EnumSet<TypeModifier> modifiers = EnumSet.noneOf(TypeModifier.class);
     private String comment = "";
-    private TypeSymbol superClass = new TypeSymbol(QualifiedName.valueOf("java.lang.Object"));
-    private List<TypeSymbol> implementedInterfaces = new ArrayList<TypeSymbol>();
-    private List<TypeParameter> typeParameters = new ArrayList<TypeParameter>();
-    private List<Method> methods = new ArrayList<Method>();
-    private List<Field> fields = new ArrayList<Field>();
+    private TypeSymbol superClass = TypeSymbol.valueOf(QualifiedName.valueOf("java.lang.Object"));
+    private PersistentList<TypeSymbol> implementedInterfaces = PersistentList.empty();
+    private PersistentList<TypeParameter> typeParameters = PersistentList.empty();
+    private PersistentList<Method> methods = PersistentList.empty();
+    private PersistentList<Field> fields = PersistentList.empty();
     private Set<Import> addedImports = new HashSet<Import>();
 
     public TypeBuilder() {
@@ -28,13 +28,13 @@ public final class TypeBuilder {
 
     public TypeBuilder(final Type prototype) {
         name = prototype.getName();
-        annotations.addAll(prototype.getAnnotations());
+        annotations = PersistentList.copyOf(prototype.getAnnotations());
         modifiers.addAll(prototype.getModifiers());
         comment = prototype.getComment();
         superClass = prototype.getSuperClass();
-        implementedInterfaces.addAll(prototype.getImplementedInterfaces());
-        methods.addAll(prototype.getMethods());
-        fields.addAll(prototype.getFields());
+        implementedInterfaces = PersistentList.copyOf(prototype.getImplementedInterfaces());
+        methods = PersistentList.copyOf(prototype.getMethods());
+        fields = PersistentList.copyOf(prototype.getFields());
         kind = prototype.getKind();
         addedImports.addAll(prototype.getAdditionalImports());
     }
@@ -50,42 +50,42 @@ public final class TypeBuilder {
     }
     
     public TypeBuilder setAnnotations(final List<Annotation> annotations) {
-        this.annotations = new ArrayList<Annotation>(annotations);
+        this.annotations = PersistentList.copyOf(annotations);
         return this;
     }
 
     public TypeBuilder addAnnotation(final Annotation annotation) {
-        this.annotations.add(annotation);
+        this.annotations = annotations.plus(annotation);
         return this;
     }
 
     public TypeBuilder setImplementedInterfaces(final List<TypeSymbol> implementedInterfaces) {
-        this.implementedInterfaces = new ArrayList<TypeSymbol>(implementedInterfaces);
+        this.implementedInterfaces = PersistentList.copyOf(implementedInterfaces);
         return this;
     }
 
     public TypeBuilder addImplementedInterface(final TypeSymbol implementedInterface) {
-        this.implementedInterfaces.add(implementedInterface);
+        this.implementedInterfaces = implementedInterfaces.plus(implementedInterface);
         return this;
     }
 
     public TypeBuilder setTypeParameters(final List<TypeParameter> typeParameters) {
-        this.typeParameters = new ArrayList<TypeParameter>(typeParameters);
+        this.typeParameters = PersistentList.copyOf(typeParameters);
         return this;
     }
 
     public TypeBuilder addTypeParameter(final TypeParameter typeParameter) {
-        this.typeParameters.add(typeParameter);
+        this.typeParameters = typeParameters.plus(typeParameter);
         return this;
     }
 
     public TypeBuilder setMethods(final List<Method> methods) {
-        this.methods = new ArrayList<Method>(methods);
+        this.methods = PersistentList.copyOf(methods);
         return this;
     }
 
     public TypeBuilder addMethod(final Method method) {
-        methods.add(method);
+        methods = methods.plus(method);
         return this;
     }
 
@@ -110,12 +110,12 @@ public final class TypeBuilder {
     }
 
     public TypeBuilder setFields(final List<Field> fields) {
-        this.fields = new ArrayList<Field>(fields);
+        this.fields = PersistentList.copyOf(fields);
         return this;
     }
 
     public TypeBuilder addField(final Field field) {
-        fields.add(field);
+        fields = fields.plus(field);
         return this;
     }
 
@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2010 by Guido Steinacker
+ */
+
+package de.steinacker.jcg.model;
+
+import java.util.*;
+
+/**
+ * The dependencies between the types of a Model.
+ * <p/>
+ * A type depends on the types of the model it extends or implements, and on the types of the model
+ * referenced by its fields, including type arguments like the Foo in List&lt;Foo&gt;. Types outside
+ * the model and references of a type to itself are ignored.
+ * <p/>
+ * Types depending on each other, directly or indirectly, form a strongly connected component. The
+ * components are ordered topologically and grouped into waves: the types of a wave only depend on
+ * types of earlier waves or of their own component, so the types of a wave can be processed
+ * independently of each other, as soon as all earlier waves are processed.
+ *
+ * @author Guido Steinacker
+ * @version %version: 28 %
+ */
+public final class TypeDependencyGraph {
+
+    private final List<Type> types;
+    private final Map<QualifiedName, Integer> indexes;
+    // the indexes of the types, every type depends on:
+    private final int[][] dependencies;
+    // the strongly connected components, dependencies first:
+    private final List<List<Type>> components = new ArrayList<List<Type>>();
+    private final List<List<Type>> waves = new ArrayList<List<Type>>();
+
+    /**
+     * Creates the dependency graph of the types of a model.
+     *
+     * @param model the Model
+     */
+    public TypeDependencyGraph(final Model model) {
+        types = new ArrayList<Type>(model.getAllTypes());
+        final int n = types.size();
+        indexes = new HashMap<QualifiedName, Integer>(n * 2);
+        final Map<String, Integer> indexesByName = new HashMap<String, Integer>(n * 2);
+        for (int i = 0; i < n; ++i) {
+            indexes.put(types.get(i).getName(), i);
+            indexesByName.put(types.get(i).getName().toString(), i);
+        }
+        dependencies = new int[n][];
+        for (int i = 0; i < n; ++i) {
+            final Set<Integer> typeDependencies = new TreeSet<Integer>();
+            for (final ModelIndex.Key key : EnumSet.of(ModelIndex.Key.SUPERTYPE, ModelIndex.Key.FIELD_TYPE)) {
+                for (final String name : ModelIndex.valuesOf(types.get(i), key)) {
+                    final Integer dependency = indexesByName.get(name);
+                    if (dependency != null && dependency != i)
+                        typeDependencies.add(dependency);
+                }
+            }
+            dependencies[i] = new int[typeDependencies.size()];
+            int j = 0;
+            for (final Integer dependency : typeDependencies) {
+                dependencies[i][j++] = dependency;
+            }
+        }
+        final int[] componentOf = findComponents();
+        groupIntoWaves(componentOf);
+    }
+
+    /**
+     * @param typeName the name of a type of the model.
+     * @return the names of the types of the model, the type directly depends on.
+     * @throws IllegalArgumentException if the type is not part of the model.
+     */
+    public Set<QualifiedName> getDependencies(final QualifiedName typeName) {
+        final Integer index = indexes.get(typeName);
+        if (index == null)
+            throw new IllegalArgumentException(typeName + " is not part of the model.");
+        final Set<QualifiedName> result = new LinkedHashSet<QualifiedName>();
+        for (final int dependency : dependencies[index]) {
+            result.add(types.get(dependency).getName());
+        }
+        return result;
+    }
+
+    /**
+     * @return the strongly connected components of the graph, ordered topologically: every component
+     * only depends on earlier components.
+     */
+    public List<List<Type>> getComponents() {
+        return Collections.unmodifiableList(components);
+    }
+
+    /**
+     * @return the components consisting of more than one type.
+     */
+    public List<List<Type>> getCycles() {
+        final List<List<Type>> cycles = new ArrayList<List<Type>>();
+        for (final List<Type> component : components) {
+            if (component.size() > 1)
+                cycles.add(component);
+        }
+        return cycles;
+    }
+
+    /**
+     * @return the waves of types, in the order of the types in the model.
+     */
+    public List<List<Type>> getWaves() {
+        return Collections.unmodifiableList(waves);
+    }
+
+    /**
+     * Finds the strongly connected components using Tarjan's algorithm. The depth-first search is
+     * iterative, so long chains of dependencies do not overflow the stack.
+     *
+     * @return the index of the component of every type.
+     */
+    private int[] findComponents() {
+        final int n = types.size();
+        final int[] number = new int[n];
+        Arrays.fill(number, -1);
+        final int[] low = new int[n];
+        final int[] componentOf = new int[n];
+        final boolean[] onStack = new boolean[n];
+        final int[] stack = new int[n];
+        final int[] path = new int[n];
+        final int[] nextDependency = new int[n];
+        int stackSize = 0;
+        int counter = 0;
+        for (int root = 0; root < n; ++root) {
+            if (number[root] != -1)
+                continue;
+            int pathLength = 0;
+            number[root] = low[root] = counter++;
+            stack[stackSize++] = root;
+            onStack[root] = true;
+            path[pathLength++] = root;
+            while (pathLength > 0) {
+                final int v = path[pathLength - 1];
+                if (nextDependency[v] < dependencies[v].length) {
+                    final int w = dependencies[v][nextDependency[v]++];
+                    if (number[w] == -1) {
+                        number[w] = low[w] = counter++;
+                        stack[stackSize++] = w;
+                        onStack[w] = true;
+                        path[pathLength++] = w;
+                    } else if (onStack[w]) {
+                        low[v] = Math.min(low[v], number[w]);
+                    }
+                } else {
+                    --pathLength;
+                    if (pathLength > 0) {
+                        final int u = path[pathLength - 1];
+                        low[u] = Math.min(low[u], low[v]);
+                    }
+                    if (low[v] == number[v]) {
+                        // v is the root of a component; all dependencies of the component are already found:
+                        final List<Integer> members = new ArrayList<Integer>();
+                        int w;
+                        do {
+                            w = stack[--stackSize];
+                            onStack[w] = false;
+                            componentOf[w] = components.size();
+                            members.add(w);
+                        } while (w != v);
+                        Collections.sort(members);
+                        final List<Type> component = new ArrayList<Type>(members.size());
+                        for (final Integer member : members) {
+                            component.add(types.get(member));
+                        }
+                        components.add(Collections.unmodifiableList(component));
+                    }
+                }
+            }
+        }
+        return componentOf;
+    }
+
+    private void groupIntoWaves(final int[] componentOf) {
+        final int n = types.size();
+        // the wave of every component is one after the latest wave of its dependencies:
+        final int[] waveOf = new int[components.size()];
+        final List<List<Integer>> membersOf = new ArrayList<List<Integer>>(components.size());
+        for (int c = 0; c < components.size(); ++c) {
+            membersOf.add(new ArrayList<Integer>());
+        }
+        for (int i = 0; i < n; ++i) {
+            membersOf.get(componentOf[i]).add(i);
+        }
+        int numWaves = 0;
+        for (int c = 0; c < components.size(); ++c) {
+            int wave = 0;
+            for (final Integer member : membersOf.get(c)) {
+                for (final int dependency : dependencies[member]) {
+                    if (componentOf[dependency] != c)
+                        wave = Math.max(wave, waveOf[componentOf[dependency]] + 1);
+                }
+            }
+            waveOf[c] = wave;
+            numWaves = Math.max(numWaves, wave + 1);
+        }
+        for (int w = 0; w < numWaves; ++w) {
+            waves.add(new ArrayList<Type>());
+        }
+        for (int i = 0; i < n; ++i) {
+            waves.get(waveOf[componentOf[i]]).add(types.get(i));
+        }
+        for (int w = 0; w < numWaves; ++w) {
+            waves.set(w, Collections.unmodifiableList(waves.get(w)));
+        }
+    }
+}
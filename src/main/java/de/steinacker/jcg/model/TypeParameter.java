@@ -2,6 +2,7 @@ package de.steinacker.jcg.model;
 
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -10,7 +11,13 @@ import java.util.List;
  * TypeParameters specify the generic type parameters and the bounded types of a method or type.
  *
  */
-public final class TypeParameter {
+public final class TypeParameter implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /** The hash code, computed on first use. */
+    private transient int hash;
+
     @NotNull
     @Valid
     private final QualifiedName paramName;
@@ -42,6 +49,31 @@ public final class TypeParameter {
         return boundedTypes;
     }
 
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        if (hashCode() != o.hashCode()) return false;
+
+        final TypeParameter that = (TypeParameter) o;
+
+        if (!paramName.equals(that.paramName)) return false;
+        if (!boundedTypes.equals(that.boundedTypes)) return false;
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = hash;
+        if (result == 0) {
+            result = paramName.hashCode();
+            result = 31 * result + boundedTypes.hashCode();
+            hash = result;
+        }
+        return result;
+    }
+
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder();
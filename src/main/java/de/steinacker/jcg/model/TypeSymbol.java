@@ -5,6 +5,7 @@ package de.steinacker.jcg.model;
 
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -30,7 +31,12 @@ import java.util.List;
  *
  *
  */
-public final class TypeSymbol {
+public final class TypeSymbol implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /** The hash code, computed on first use. */
+    private transient int hash;
 
     @NotNull
     @Valid
@@ -39,11 +45,14 @@ public final class TypeSymbol {
     @Valid
     private final List<TypeParameter> typeParameters;
 
+    private static final NodePool<TypeSymbol> POOL = new NodePool<TypeSymbol>();
+
     /**
-     * Creates a new TypeSymbol without any TypeParameters.
+     * Creates a new TypeSymbol without any TypeParameters. TypeSymbols are created using valueOf(),
+     * so there is only a single instance of equal TypeSymbols.
      * @param qualifiedName the QualifiedName of the Type.
      */
-    public TypeSymbol(final QualifiedName qualifiedName) {
+    private TypeSymbol(final QualifiedName qualifiedName) {
         this.qualifiedName = qualifiedName;
         this.typeParameters = Collections.emptyList();
     }
@@ -53,11 +62,34 @@ public final class TypeSymbol {
      * @param qualifiedName the QualifiedName of the Type
      * @param typeParameters the list of TypeParameters.
      */
-    public TypeSymbol(final QualifiedName qualifiedName, final List<TypeParameter> typeParameters) {
+    private TypeSymbol(final QualifiedName qualifiedName, final List<TypeParameter> typeParameters) {
         this.qualifiedName = qualifiedName;
         this.typeParameters = Collections.unmodifiableList(new ArrayList<TypeParameter>(typeParameters));
     }
 
+    /**
+     * Returns the canonical TypeSymbol without any TypeParameters. Equal TypeSymbols returned by
+     * valueOf() are the same instance.
+     *
+     * @param qualifiedName the QualifiedName of the Type.
+     * @return TypeSymbol
+     */
+    public static TypeSymbol valueOf(final QualifiedName qualifiedName) {
+        return POOL.intern(new TypeSymbol(qualifiedName));
+    }
+
+    /**
+     * Returns the canonical TypeSymbol with zero or more TypeParameters. Equal TypeSymbols returned
+     * by valueOf() are the same instance.
+     *
+     * @param qualifiedName the QualifiedName of the Type
+     * @param typeParameters the list of TypeParameters.
+     * @return TypeSymbol
+     */
+    public static TypeSymbol valueOf(final QualifiedName qualifiedName, final List<TypeParameter> typeParameters) {
+        return POOL.intern(new TypeSymbol(qualifiedName, typeParameters));
+    }
+
     /**
      * Returns the fully qualified name of the TypeSymbol.
      * @return QualifiedName
@@ -83,10 +115,20 @@ public final class TypeSymbol {
         return typeParameters.size() > 0;
     }
 
+    /**
+     * Deserialized TypeSymbols are replaced by the canonical instance.
+     *
+     * @return the canonical TypeSymbol
+     */
+    private Object readResolve() {
+        return POOL.intern(this);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
+        if (hashCode() != o.hashCode()) return false;
 
         TypeSymbol typeSymbol = (TypeSymbol) o;
 
@@ -98,8 +140,12 @@ public final class TypeSymbol {
 
     @Override
     public int hashCode() {
-        int result = qualifiedName.hashCode();
-        result = 31 * result + typeParameters.hashCode();
+        int result = hash;
+        if (result == 0) {
+            result = qualifiedName.hashCode();
+            result = 31 * result + typeParameters.hashCode();
+            hash = result;
+        }
         return result;
     }
 
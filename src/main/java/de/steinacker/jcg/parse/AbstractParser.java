@@ -7,9 +7,7 @@ package de.steinacker.jcg.parse;
 import org.apache.log4j.Logger;
 
 import java.io.File;
-import java.io.FileFilter;
-import java.io.FilenameFilter;
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -20,11 +18,52 @@ abstract class AbstractParser implements Parser {
 
     private final static Logger LOG = Logger.getLogger(AbstractParser.class);
 
+    private List<String> includes = Collections.singletonList("**/*.java");
+    private List<String> excludes = Collections.emptyList();
+    private int threads = 1;
+
+    /**
+     * Sets the glob patterns of the source files to include, relative to the source directory.
+     * By default, all Java files are included.
+     *
+     * @param includes list of glob patterns like "&#42;&#42;/*.java".
+     */
+    public void setIncludes(final List<String> includes) {
+        this.includes = includes;
+    }
+
     /**
-     * This method accepts one or more file names.
-     * A list of valid file objects will be created and
-     * returned to main method.
+     * Sets the glob patterns of the source files and directories to exclude, relative to the
+     * source directory. Excluded directories are not traversed. By default, nothing is excluded.
      *
+     * @param excludes list of glob patterns like "&#42;&#42;/generated/&#42;&#42;".
+     */
+    public void setExcludes(final List<String> excludes) {
+        this.excludes = excludes;
+    }
+
+    /**
+     * The number of threads used to find and parse the source files. By default, a single
+     * thread is used.
+     *
+     * @param threads number of threads, must be greater than zero.
+     */
+    public void setThreads(final int threads) {
+        if (threads < 1)
+            throw new IllegalArgumentException("The number of threads must be greater than zero.");
+        this.threads = threads;
+    }
+
+    protected final int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Returns the sorted list of all readable source files in the specified directory,
+     * that are matching the include and exclude patterns.
+     *
+     * @param dir the source directory
+     * @param recursive specifies whether the directory is traversed recursively.
      * @return List of valid source file objects
      */
     protected final List<File> getFilesAsList(final String dir, final boolean recursive) {
@@ -33,36 +72,6 @@ abstract class AbstractParser implements Parser {
             LOG.warn(dir + " is not a directory.");
         if (!sourceDir.canRead())
             LOG.warn(dir + " is not readable.");
-
-        // read all java files from directory:
-        final String[] fileNames = sourceDir.list(new FilenameFilter() {
-            @Override
-            public boolean accept(final File dir, final String name) {
-                return name.endsWith(".java");
-            }
-        });
-        // addParameter all readable files to the result list:
-        final List<File> result = new ArrayList<File>(fileNames.length);
-        for (final String fileName : fileNames) {
-            final File sourceFile = new File(dir + '/' + fileName);
-            if (sourceFile.exists() && sourceFile.canRead()) {
-                result.add(sourceFile);
-            } else {
-                LOG.warn(fileName + " is not readable. Ignoring the file. ");
-            }
-        }
-        // if recursive is true, recursively read all subdirectories:
-        if (recursive) {
-            final File[] subDirectories = sourceDir.listFiles(new FileFilter() {
-                @Override
-                public boolean accept(File pathname) {
-                    return pathname.isDirectory();
-                }
-            });
-            for (final File subDirectory : subDirectories) {
-                result.addAll(getFilesAsList(subDirectory.getPath(), true));
-            }
-        }
-        return result;
+        return new SourceFileScanner(includes, excludes, threads).scan(sourceDir, recursive);
     }
 }
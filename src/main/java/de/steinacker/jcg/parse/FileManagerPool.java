@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2010 by Guido Steinacker
+ */
+
+package de.steinacker.jcg.parse;
+
+import org.apache.log4j.Logger;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * A pool of StandardJavaFileManagers, that are reused by subsequent compilation tasks.
+ * <p/>
+ * A file manager keeps the archives of the classpath open and indexed, so reusing it saves
+ * the costs of re-reading the classpath for every task. Every file manager remembers the
+ * timestamps of the classpath entries at the time it was created. If one of the entries was
+ * modified since then, the file manager is closed and replaced by a new one.
+ * <p/>
+ * Released file managers are flushed, so the content of modified source files is read again by
+ * the next task.
+ *
+ * @author Guido Steinacker
+ * @version %version: 28 %
+ */
+final class FileManagerPool {
+
+    private final static Logger LOG = Logger.getLogger(FileManagerPool.class);
+
+    private final JavaCompiler compiler;
+    private final ConcurrentLinkedQueue<StandardJavaFileManager> idle;
+    private final Map<StandardJavaFileManager, String> fingerprints;
+
+    FileManagerPool(final JavaCompiler compiler) {
+        this.compiler = compiler;
+        this.idle = new ConcurrentLinkedQueue<StandardJavaFileManager>();
+        this.fingerprints = Collections.synchronizedMap(new IdentityHashMap<StandardJavaFileManager, String>());
+    }
+
+    /**
+     * Returns an idle file manager with an up-to-date classpath, or a new file manager.
+     *
+     * @return StandardJavaFileManager
+     */
+    StandardJavaFileManager acquire() {
+        StandardJavaFileManager fileManager;
+        while ((fileManager = idle.poll()) != null) {
+            if (fingerprints.get(fileManager).equals(fingerprintOf(fileManager)))
+                return fileManager;
+            LOG.info("Classpath modified. Discarding file manager.");
+            close(fileManager);
+        }
+        fileManager = compiler.getStandardFileManager(null, null, null);
+        fingerprints.put(fileManager, fingerprintOf(fileManager));
+        return fileManager;
+    }
+
+    /**
+     * Returns a file manager into the pool. The locations set by the previous user are reset.
+     *
+     * @param fileManager the file manager, previously returned by acquire().
+     */
+    void release(final StandardJavaFileManager fileManager) {
+        try {
+            fileManager.flush();
+            fileManager.setLocation(StandardLocation.SOURCE_PATH, null);
+            fileManager.setLocation(StandardLocation.CLASS_OUTPUT, null);
+            idle.add(fileManager);
+        } catch (IOException e) {
+            LOG.warn("Unable to reset file manager: " + e.getMessage());
+            close(fileManager);
+        }
+    }
+
+    /**
+     * Closes all idle file managers.
+     */
+    void close() {
+        StandardJavaFileManager fileManager;
+        while ((fileManager = idle.poll()) != null) {
+            close(fileManager);
+        }
+    }
+
+    private void close(final StandardJavaFileManager fileManager) {
+        fingerprints.remove(fileManager);
+        try {
+            fileManager.close();
+        } catch (IOException e) {
+            LOG.warn("Unable to close file manager: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Computes a fingerprint of the platform classpath and the classpath, containing the paths,
+     * sizes and timestamps of all entries.
+     *
+     * @param fileManager the file manager
+     * @return fingerprint
+     */
+    private static String fingerprintOf(final StandardJavaFileManager fileManager) {
+        final StringBuilder sb = new StringBuilder();
+        appendFingerprint(sb, fileManager, StandardLocation.PLATFORM_CLASS_PATH);
+        appendFingerprint(sb, fileManager, StandardLocation.CLASS_PATH);
+        return sb.toString();
+    }
+
+    private static void appendFingerprint(final StringBuilder sb,
+                                          final StandardJavaFileManager fileManager,
+                                          final JavaFileManager.Location location) {
+        final Iterable<? extends File> files = fileManager.getLocation(location);
+        if (files != null) {
+            for (final File file : files) {
+                sb.append(file.getPath())
+                        .append(':').append(file.length())
+                        .append(':').append(file.lastModified())
+                        .append(File.pathSeparatorChar);
+            }
+        }
+    }
+}
@@ -4,30 +4,105 @@
 
 package de.steinacker.jcg.parse;
 
+import com.sun.source.util.JavacTask;
 import de.steinacker.jcg.model.Model;
+import de.steinacker.jcg.model.ModelBuilder;
 import de.steinacker.jcg.model.Type;
 import org.apache.log4j.Logger;
 
 import javax.tools.*;
+import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileReader;
 import java.io.IOException;
-import java.util.Collections;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * A JavaParser using the Java compiler API and annotation processors to parse Java
  * files.
+ * <p/>
+ * If more than one thread is configured, the files of a source directory are split into
+ * several shards (one or more packages per shard), and every shard is parsed by a separate
+ * compilation task. References to types contained in other shards are resolved using
+ * the source roots of the packages as the sourcepath of the compiler.
  */
 public final class JavaFileParser extends AbstractParser {
 
     private final static Logger LOG = Logger.getLogger(JavaFileParser.class);
 
+    private final static Pattern PACKAGE_PATTERN = Pattern.compile("^\\s*package\\s+([\\w\\.]+)\\s*;");
+
     // Gets the Java programming language compiler
     final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    // File managers reused by subsequent compilation tasks
+    private final FileManagerPool fileManagerPool = new FileManagerPool(compiler);
+
+    private boolean analyzeOnly = false;
+    private ParseCache cache = null;
+    private boolean reuseFileManagers = true;
+    private ScanPolicy scanPolicy = new ScanPolicy();
 
     public JavaFileParser() {
     }
 
+    /**
+     * If analyzeOnly is true, the compiler is stopped after the sources are analyzed (that is, after
+     * annotation processing and attribution). No byte code is generated and nothing is written to the
+     * binDir, which is ignored in this case.
+     * <p/>
+     * By default, the sources are fully compiled into the binDir.
+     *
+     * @param analyzeOnly true, if the parser should only analyze the sources.
+     */
+    public void setAnalyzeOnly(final boolean analyzeOnly) {
+        this.analyzeOnly = analyzeOnly;
+    }
+
+    /**
+     * Sets the cache of already parsed source files. Files found in the cache are not parsed
+     * (or compiled) again, only the remaining files are passed to the compiler. By default,
+     * no cache is used.
+     *
+     * @param cache the ParseCache, or null.
+     */
+    public void setCache(final ParseCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * If reuseFileManagers is true, the file managers of the compiler are kept open and reused
+     * by subsequent parse calls, so the archives of the classpath are not opened and indexed again.
+     * File managers are replaced, if an entry of the classpath is modified. By default, file managers
+     * are reused.
+     *
+     * @param reuseFileManagers true, if file managers should be reused.
+     */
+    public void setReuseFileManagers(final boolean reuseFileManagers) {
+        this.reuseFileManagers = reuseFileManagers;
+        if (!reuseFileManagers)
+            fileManagerPool.close();
+    }
+
+    /**
+     * Sets the policy selecting the types, that are scanned and added to the Model. By default,
+     * all types are scanned.
+     *
+     * @param scanPolicy the ScanPolicy
+     */
+    public void setScanPolicy(final ScanPolicy scanPolicy) {
+        this.scanPolicy = scanPolicy;
+    }
+
+    /**
+     * Closes the file managers kept open for subsequent parse calls.
+     */
+    public void close() {
+        fileManagerPool.close();
+    }
+
     /**
      * Parses the specified Java source file, and returns a Model, representing the Java type.
      *
@@ -37,7 +112,7 @@ public final class JavaFileParser extends AbstractParser {
     @Override
     public Model parse(final String sourceFile, final String binDir) {
         LOG.info("Parsing sourceFile " + sourceFile + "...");
-        final Model model = parseFiles(Collections.singletonList(new File(sourceFile)), binDir);
+        final Model model = parseFiles(Collections.singletonList(new File(sourceFile)), binDir, null);
         LOG.info("Done.");
         return model;
     }
@@ -53,52 +128,459 @@ public final class JavaFileParser extends AbstractParser {
     @Override
     public Model parse(final String sourceDir, final boolean recursive, final String binDir) {
         LOG.info((recursive ? "Recursively parsing directory " : "Parsing directory ") + sourceDir);
-        final Model model = parseFiles(getFilesAsList(sourceDir, recursive), binDir);
+        final Model model = parseFiles(getFilesAsList(sourceDir, recursive), binDir, null);
 
         return model;
     }
 
+    /**
+     * Parses the specified Java source file and puts the parsed types into the queue, as soon
+     * as they are available. The method returns after all types were put into the queue.
+     *
+     * @param sourceFile the source file.
+     * @param binDir the output directory of the compiler.
+     * @param queue the queue receiving the parsed types.
+     */
+    public void parse(final String sourceFile, final String binDir, final BlockingQueue<Type> queue) {
+        LOG.info("Streaming sourceFile " + sourceFile + "...");
+        parseFiles(Collections.singletonList(new File(sourceFile)), binDir, queue);
+    }
+
+    /**
+     * Parses all Java files in the specified directory and puts the parsed types into the queue, as soon
+     * as they are available. The method returns after all types were put into the queue.
+     *
+     * @param sourceDir the source directory where Java files are read from.
+     * @param recursive specifies whether the directory is traversed recursively.
+     * @param binDir the output directory of the compiler.
+     * @param queue the queue receiving the parsed types.
+     */
+    public void parse(final String sourceDir,
+                      final boolean recursive,
+                      final String binDir,
+                      final BlockingQueue<Type> queue) {
+        LOG.info((recursive ? "Recursively streaming directory " : "Streaming directory ") + sourceDir);
+        parseFiles(getFilesAsList(sourceDir, recursive), binDir, queue);
+    }
+
+    /**
+     * Returns the sorted list of all source files in the specified directory, that would be parsed by
+     * parse(sourceDir, recursive, binDir).
+     *
+     * @param sourceDir the source directory where Java files are read from.
+     * @param recursive specifies whether the directory is traversed recursively.
+     * @return list of source files
+     */
+    public List<File> findSourceFiles(final String sourceDir, final boolean recursive) {
+        return getFilesAsList(sourceDir, recursive);
+    }
+
+    /**
+     * Parses the specified Java files and returns the types of every file. Types referenced by the
+     * files are resolved using the source roots of the files, but they are not parsed.
+     *
+     * @param files the Java source files.
+     * @param binDir the output directory of the compiler.
+     * @return map containing the types of every file, in the order of the files.
+     */
+    public Map<File, List<Type>> parseSourceFiles(final List<File> files, final String binDir) {
+        final Map<File, List<Type>> typesOfFiles = new LinkedHashMap<File, List<Type>>();
+        if (!files.isEmpty()) {
+            final JcgProcessor processor = compile(files, binDir, findSourceRoots(groupByDirectory(files)),
+                    null, Collections.<File, String>emptyMap(), true);
+            for (final File file : files) {
+                typesOfFiles.put(file, processor.getTypesOfSourceFile(file.toURI()));
+            }
+        }
+        return typesOfFiles;
+    }
+
     /**
      * Parses the specified Java files, and returns a Model, representing the Java types.
+     * If a queue is specified, the types are put into the queue and the returned Model is empty.
      *
      * @param files Java source code
+     * @param binDir the output directory of the compiler.
+     * @param queue the queue receiving the parsed types, or null.
      * @return Model
      */
-    private Model parseFiles(final List<File> files, final String binDir) {
+    private Model parseFiles(final List<File> files, final String binDir, final BlockingQueue<Type> queue) {
         LOG.info(files.size() + " files found.");
         final Model model;
         if (files.size() > 0) {
-            // Get a new instance of the standard file manager implementation
-            final StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null);
-            // Set the output directory of the compiler
+            final ModelBuilder modelBuilder = new ModelBuilder();
+            final Map<File, String> cacheKeys = new HashMap<File, String>();
+            final List<File> filesToParse = cache != null
+                    ? lookupCache(files, modelBuilder, queue, cacheKeys)
+                    : files;
+            if (!filesToParse.isEmpty()) {
+                final List<List<File>> shards = getThreads() > 1
+                        ? split(filesToParse, groupByDirectory(filesToParse), getThreads())
+                        : Collections.singletonList(filesToParse);
+                // If only a part of the files is parsed, other types are resolved using the sourcepath:
+                final Collection<File> sourcePath = shards.size() > 1 || filesToParse.size() < files.size()
+                        ? findSourceRoots(groupByDirectory(files))
+                        : null;
+                if (shards.size() > 1) {
+                    modelBuilder.addModel(parseShards(shards, binDir, sourcePath, queue, cacheKeys));
+                } else {
+                    modelBuilder.addModel(parseShard(filesToParse, binDir, sourcePath, queue, cacheKeys));
+                }
+            }
+            model = modelBuilder.toModel();
+        } else {
+            LOG.warn("No valid source files to process.  Exiting from the program");
+            model = new Model(Collections.<Type>emptyList());
+        }
+        LOG.info("Done.");
+        return model;
+    }
+
+    /**
+     * Adds the cached types of the specified files to the modelBuilder and returns the
+     * files, that must be parsed.
+     *
+     * @param files the source files.
+     * @param modelBuilder the builder used to collect the cached types.
+     * @param queue the queue receiving the cached types instead of the modelBuilder, or null.
+     * @param cacheKeys is filled with the cache keys of the files, that must be parsed.
+     * @return list of files missing in the cache.
+     */
+    private List<File> lookupCache(final List<File> files,
+                                   final ModelBuilder modelBuilder,
+                                   final BlockingQueue<Type> queue,
+                                   final Map<File, String> cacheKeys) {
+        final List<File> filesToParse = new ArrayList<File>();
+        for (final File file : files) {
+            try {
+                final String key = cache.keyOf(file, scanPolicy.fingerprint());
+                final List<Type> types = cache.get(key);
+                if (types != null) {
+                    for (final Type type : types) {
+                        if (queue != null)
+                            put(queue, type);
+                        else
+                            modelBuilder.addType(type);
+                    }
+                } else {
+                    cacheKeys.put(file, key);
+                    filesToParse.add(file);
+                }
+            } catch (IOException e) {
+                LOG.warn("Unable to compute cache key of " + file + ": " + e.getMessage());
+                filesToParse.add(file);
+            }
+        }
+        LOG.info((files.size() - filesToParse.size()) + " files found in cache.");
+        return filesToParse;
+    }
+
+    /**
+     * Parses several shards of source files in parallel and merges the resulting models.
+     *
+     * @param shards the shards of source files.
+     * @param binDir the output directory of the compiler.
+     * @param sourcePath the sourcepath used to resolve types of other shards.
+     * @param queue the queue receiving the parsed types, or null.
+     * @param cacheKeys the cache keys of the files.
+     * @return Model containing the types of all shards.
+     */
+    private Model parseShards(final List<List<File>> shards,
+                              final String binDir,
+                              final Collection<File> sourcePath,
+                              final BlockingQueue<Type> queue,
+                              final Map<File, String> cacheKeys) {
+        LOG.info("Parsing " + shards.size() + " shards using " + getThreads() + " threads.");
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.min(getThreads(), shards.size()));
+        try {
+            final List<Future<Model>> results = new ArrayList<Future<Model>>(shards.size());
+            for (final List<File> shard : shards) {
+                results.add(executor.submit(new Callable<Model>() {
+                    @Override
+                    public Model call() throws Exception {
+                        return parseShard(shard, binDir, sourcePath, queue, cacheKeys);
+                    }
+                }));
+            }
+            final ModelBuilder modelBuilder = new ModelBuilder();
+            for (final Future<Model> result : results) {
+                modelBuilder.addModel(result.get());
+            }
+            return modelBuilder.toModel();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while parsing source files.", e);
+        } catch (final ExecutionException e) {
+            throw new IllegalStateException("Unable to parse source files: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Parses a single shard of Java files using one compilation task.
+     *
+     * @param files the Java source files of the shard.
+     * @param binDir the output directory of the compiler.
+     * @param sourcePath the sourcepath used to resolve types of other shards, or null.
+     * @param queue the queue receiving the parsed types, or null.
+     * @param cacheKeys the cache keys of the files.
+     * @return Model of the shard.
+     */
+    private Model parseShard(final List<File> files,
+                             final String binDir,
+                             final Collection<File> sourcePath,
+                             final BlockingQueue<Type> queue,
+                             final Map<File, String> cacheKeys) {
+        return compile(files, binDir, sourcePath, queue, cacheKeys, cache != null).getModel();
+    }
+
+    /**
+     * Compiles the Java files using one compilation task and a pooled or new file manager.
+     *
+     * @param files the Java source files.
+     * @param binDir the output directory of the compiler.
+     * @param sourcePath the sourcepath used to resolve types of other files, or null.
+     * @param queue the queue receiving the parsed types, or null.
+     * @param cacheKeys the cache keys of the files.
+     * @param recordSourceFiles true, if the processor should record the types of every source file.
+     * @return the JcgProcessor used to parse the files.
+     */
+    private JcgProcessor compile(final List<File> files,
+                                 final String binDir,
+                                 final Collection<File> sourcePath,
+                                 final BlockingQueue<Type> queue,
+                                 final Map<File, String> cacheKeys,
+                                 final boolean recordSourceFiles) {
+        // Get a pooled or a new instance of the standard file manager implementation
+        final StandardJavaFileManager fileManager = reuseFileManagers
+                ? fileManagerPool.acquire()
+                : compiler.getStandardFileManager(null, null, null);
+        try {
+            return compile(fileManager, files, binDir, sourcePath, queue, cacheKeys, recordSourceFiles);
+        } finally {
+            if (reuseFileManagers) {
+                fileManagerPool.release(fileManager);
+            } else {
+                try {
+                    fileManager.close();
+                } catch (IOException e) {
+                    System.out.println(e.getLocalizedMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Compiles the Java files using one compilation task and the specified file manager.
+     *
+     * @param fileManager the file manager used by the compilation task.
+     * @param files the Java source files.
+     * @param binDir the output directory of the compiler.
+     * @param sourcePath the sourcepath used to resolve types of other files, or null.
+     * @param queue the queue receiving the parsed types, or null.
+     * @param cacheKeys the cache keys of the files.
+     * @param recordSourceFiles true, if the processor should record the types of every source file.
+     * @return the JcgProcessor used to parse the files.
+     */
+    private JcgProcessor compile(final StandardJavaFileManager fileManager,
+                                 final List<File> files,
+                                 final String binDir,
+                                 final Collection<File> sourcePath,
+                                 final BlockingQueue<Type> queue,
+                                 final Map<File, String> cacheKeys,
+                                 final boolean recordSourceFiles) {
+        // Set the output directory of the compiler, if class files are generated:
+        if (!analyzeOnly) {
             try {
                 fileManager.setLocation(StandardLocation.CLASS_OUTPUT, Collections.singleton(new File(binDir)));
             } catch (IOException e) {
                 throw new IllegalArgumentException("Illegal parameter binDir: " + e.getMessage(), e);
             }
-            // Get the list of java file objects
-            Iterable<? extends JavaFileObject> compilationUnits1 = fileManager
-                    .getJavaFileObjectsFromFiles(files);
-            // Create the compilation task
-            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, null,
-                    null, null, compilationUnits1);
-            // Set the annotation processor
-            final JcgProcessor processor = new JcgProcessor();
-            task.setProcessors(Collections.singletonList(processor));
-            // Perform the compilation task.
-            task.call();
+        }
+        // Types of other shards are resolved using the sourcepath, but they are not compiled:
+        final List<String> options = new ArrayList<String>();
+        if (sourcePath != null) {
+            try {
+                fileManager.setLocation(StandardLocation.SOURCE_PATH, sourcePath);
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Illegal sourcepath: " + e.getMessage(), e);
+            }
+            options.add("-implicit:none");
+        }
+        // Get the list of java file objects
+        Iterable<? extends JavaFileObject> compilationUnits1 = fileManager
+                .getJavaFileObjectsFromFiles(files);
+        // Count the errors, so types of erroneous shards are not cached:
+        final DiagnosticCounter diagnostics = new DiagnosticCounter();
+        // Create the compilation task
+        final JavacTask task = (JavacTask) compiler.getTask(null, fileManager, cache != null ? diagnostics : null,
+                options, null, compilationUnits1);
+        // Set the annotation processor
+        final JcgProcessor processor = new JcgProcessor(queue, recordSourceFiles, scanPolicy);
+        task.setProcessors(Collections.singletonList(processor));
+        // Perform the compilation task, or only analyze the sources without generating class files:
+        if (analyzeOnly) {
             try {
-                fileManager.close();
+                task.analyze();
             } catch (IOException e) {
-                System.out.println(e.getLocalizedMessage());
+                throw new IllegalStateException("Unable to analyze source files: " + e.getMessage(), e);
             }
-            model = processor.getModel();
         } else {
-            LOG.warn("No valid source files to process.  Exiting from the program");
-            model = new Model(Collections.<Type>emptyList());
+            task.call();
+        }
+        if (cache != null && diagnostics.getErrors() == 0) {
+            for (final File file : files) {
+                final String key = cacheKeys.get(file);
+                if (key != null)
+                    cache.put(key, processor.getTypesOfSourceFile(file.toURI()));
+            }
+        }
+        return processor;
+    }
+
+    private static void put(final BlockingQueue<Type> queue, final Type type) {
+        try {
+            queue.put(type);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while streaming " + type.getName(), e);
+        }
+    }
+
+    /**
+     * Splits the files into (at most) the specified number of shards. Files of the same package are
+     * assigned to the same shard, as long as there are enough packages to fill all shards.
+     *
+     * @param files the source files.
+     * @param packages the source files, grouped by directory.
+     * @param numberOfShards the maximum number of shards.
+     * @return list of shards
+     */
+    private static List<List<File>> split(final List<File> files,
+                                          final Map<File, List<File>> packages,
+                                          final int numberOfShards) {
+        final int n = Math.min(numberOfShards, files.size());
+        final List<List<File>> shards = new ArrayList<List<File>>(n);
+        for (int i = 0; i < n; ++i) {
+            shards.add(new ArrayList<File>());
+        }
+        if (packages.size() >= n) {
+            // largest packages first, always assigned to the smallest shard:
+            final List<List<File>> groups = new ArrayList<List<File>>(packages.values());
+            Collections.sort(groups, new Comparator<List<File>>() {
+                @Override
+                public int compare(final List<File> l1, final List<File> l2) {
+                    return l2.size() - l1.size();
+                }
+            });
+            for (final List<File> group : groups) {
+                List<File> smallestShard = shards.get(0);
+                for (final List<File> shard : shards) {
+                    if (shard.size() < smallestShard.size())
+                        smallestShard = shard;
+                }
+                smallestShard.addAll(group);
+            }
+        } else {
+            // not enough packages: distribute the files evenly.
+            int i = 0;
+            for (final File file : files) {
+                shards.get(i++ % n).add(file);
+            }
+        }
+        return shards;
+    }
+
+    /**
+     * Groups the files by package (that is, by directory).
+     *
+     * @param files the source files.
+     * @return map containing the files per directory.
+     */
+    private static Map<File, List<File>> groupByDirectory(final List<File> files) {
+        final Map<File, List<File>> packages = new LinkedHashMap<File, List<File>>();
+        for (final File file : files) {
+            final File dir = file.getAbsoluteFile().getParentFile();
+            List<File> filesOfPackage = packages.get(dir);
+            if (filesOfPackage == null) {
+                filesOfPackage = new ArrayList<File>();
+                packages.put(dir, filesOfPackage);
+            }
+            filesOfPackage.add(file);
+        }
+        return packages;
+    }
+
+    /**
+     * Determines the source roots of the packages, using the package declaration of the first file
+     * of every directory.
+     *
+     * @param packages the source files, grouped by directory.
+     * @return the set of source roots.
+     */
+    private static Set<File> findSourceRoots(final Map<File, List<File>> packages) {
+        final Set<File> roots = new LinkedHashSet<File>();
+        for (final Map.Entry<File, List<File>> entry : packages.entrySet()) {
+            final String packageName = readPackageName(entry.getValue().get(0));
+            File root = entry.getKey();
+            if (packageName.length() > 0) {
+                for (int i = packageName.split("\\.").length; i > 0 && root != null; --i) {
+                    root = root.getParentFile();
+                }
+            }
+            if (root != null)
+                roots.add(root);
+        }
+        return roots;
+    }
+
+    /**
+     * Reads the name of the package declared in a source file.
+     *
+     * @param file the Java source file.
+     * @return package name, or an empty String for the default package.
+     */
+    private static String readPackageName(final File file) {
+        BufferedReader reader = null;
+        try {
+            reader = new BufferedReader(new FileReader(file));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                final Matcher matcher = PACKAGE_PATTERN.matcher(line);
+                if (matcher.find())
+                    return matcher.group(1);
+            }
+        } catch (IOException e) {
+            LOG.warn("Unable to read package declaration of " + file + ": " + e.getMessage());
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (IOException e) {
+                    // ignore
+                }
+            }
+        }
+        return "";
+    }
+
+    /**
+     * A DiagnosticListener printing all diagnostics to System.err and counting the errors.
+     */
+    private static final class DiagnosticCounter implements DiagnosticListener<JavaFileObject> {
+        private int errors = 0;
+
+        @Override
+        public void report(final Diagnostic<? extends JavaFileObject> diagnostic) {
+            if (diagnostic.getKind() == Diagnostic.Kind.ERROR)
+                ++errors;
+            System.err.println(diagnostic);
+        }
+
+        public int getErrors() {
+            return errors;
         }
-        LOG.info("Done.");
-        return model;
     }
 
-}
\ No newline at end of file
+}
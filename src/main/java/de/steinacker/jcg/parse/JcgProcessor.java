@@ -4,8 +4,11 @@
 
 package de.steinacker.jcg.parse;
 
+import com.sun.source.util.TreePath;
+import com.sun.source.util.Trees;
 import de.steinacker.jcg.model.Model;
 import de.steinacker.jcg.model.ModelBuilder;
+import de.steinacker.jcg.model.Type;
 import de.steinacker.jcg.model.TypeBuilder;
 import org.apache.log4j.Logger;
 
@@ -13,7 +16,9 @@ import javax.annotation.processing.*;
 import javax.lang.model.SourceVersion;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.TypeElement;
-import java.util.Set;
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
 
 /**
  * An Annotation Processor used by the JavaFileParser in order to parse Java code and build a Model.
@@ -26,10 +31,37 @@ final class JcgProcessor extends AbstractProcessor {
 
     //private NameCheckScanner nameCheckScanner;
     private final ModelBuilder modelBuilder;
+    private final Map<URI, List<Type>> typesBySourceFile;
+    private final BlockingQueue<Type> queue;
+    private final boolean recordSourceFiles;
+    private final ScanPolicy scanPolicy;
     private TypeBuildingScanner typeBuildingScanner;
+    private Trees trees;
 
+    /**
+     * Creates a JcgProcessor collecting all types in a Model.
+     */
     public JcgProcessor() {
+        this(null, true, new ScanPolicy());
+    }
+
+    /**
+     * Creates a JcgProcessor, putting every parsed type into the specified queue instead of collecting
+     * the types in a Model. If the queue is full, the compiler is blocked until the consumer of the
+     * queue has taken the next type.
+     *
+     * @param queue the queue receiving the parsed types, or null if the types should be collected in a Model.
+     * @param recordSourceFiles true, if the types should be available via getTypesOfSourceFile().
+     * @param scanPolicy the policy selecting the types to scan.
+     */
+    public JcgProcessor(final BlockingQueue<Type> queue,
+                        final boolean recordSourceFiles,
+                        final ScanPolicy scanPolicy) {
         this.modelBuilder = new ModelBuilder();
+        this.typesBySourceFile = new HashMap<URI, List<Type>>();
+        this.queue = queue;
+        this.recordSourceFiles = recordSourceFiles;
+        this.scanPolicy = scanPolicy;
     }
 
     @Override
@@ -37,6 +69,7 @@ final class JcgProcessor extends AbstractProcessor {
         super.init(processingEnv);
         //this.nameCheckScanner = new NameCheckScanner(messager, typeUtils);
         typeBuildingScanner = new TypeBuildingScanner(processingEnv);
+        trees = Trees.instance(processingEnv);
     }
 
     /**
@@ -55,10 +88,20 @@ final class JcgProcessor extends AbstractProcessor {
                            final RoundEnvironment roundEnv) {
         if (!roundEnv.processingOver()) {
             for (Element element : roundEnv.getRootElements()) {
+                if (!scanPolicy.isSelected(element)) {
+                    LOG.debug("Skipping " + element.getSimpleName().toString());
+                    continue;
+                }
                 LOG.info("Processing " + element.getSimpleName().toString());
                 try {
                     final TypeBuilder typeBuilder = typeBuildingScanner.scan(element, new TypeBuilder());
-                    modelBuilder.addType(typeBuilder.toType());
+                    final Type type = typeBuilder.toType();
+                    if (recordSourceFiles)
+                        addTypeOfSourceFile(element, type);
+                    if (queue != null)
+                        put(type);
+                    else
+                        modelBuilder.addType(type);
                 } catch (final UnsupportedOperationException e) {
                     LOG.warn("Ignoring type " + element.getSimpleName().toString() + ": " + e.getMessage());
                 }
@@ -70,4 +113,37 @@ final class JcgProcessor extends AbstractProcessor {
     public Model getModel() {
         return modelBuilder.toModel();
     }
+
+    /**
+     * Returns the types, that were built from the specified source file.
+     *
+     * @param sourceFile the URI of the source file.
+     * @return list of types, possibly empty.
+     */
+    public List<Type> getTypesOfSourceFile(final URI sourceFile) {
+        final List<Type> types = typesBySourceFile.get(sourceFile.normalize());
+        return types != null ? types : Collections.<Type>emptyList();
+    }
+
+    private void put(final Type type) {
+        try {
+            queue.put(type);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while processing " + type.getName(), e);
+        }
+    }
+
+    private void addTypeOfSourceFile(final Element element, final Type type) {
+        final TreePath treePath = trees.getPath(element);
+        if (treePath != null) {
+            final URI sourceFile = treePath.getCompilationUnit().getSourceFile().toUri().normalize();
+            List<Type> types = typesBySourceFile.get(sourceFile);
+            if (types == null) {
+                types = new ArrayList<Type>();
+                typesBySourceFile.put(sourceFile, types);
+            }
+            types.add(type);
+        }
+    }
 }
\ No newline at end of file
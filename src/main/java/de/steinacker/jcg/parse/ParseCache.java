@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2010 by Guido Steinacker
+ */
+
+package de.steinacker.jcg.parse;
+
+import de.steinacker.jcg.model.ModelReader;
+import de.steinacker.jcg.model.ModelWriter;
+import de.steinacker.jcg.model.Type;
+import org.apache.log4j.Logger;
+
+import java.io.*;
+import java.net.URL;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An on-disk cache of the Types parsed from a single source file.
+ * <p/>
+ * Entries are keyed by a hash of the content of the source file and the version of jcg, so
+ * changing either the source file or the parser invalidates the entry. Types of unchanged
+ * source files must therefore not be parsed again by the JavaFileParser.
+ * <p/>
+ * The cache only knows about single source files: if a source file depends on types, whose
+ * resolution changes without changing the content of the file itself (for example, by moving
+ * a type imported using a wildcard import), the cache directory must be cleared.
+ * <p/>
+ * The types are stored using the binary format of the ModelWriter.
+ *
+ * @author Guido Steinacker
+ * @version %version: 28 %
+ */
+public final class ParseCache {
+
+    private final static Logger LOG = Logger.getLogger(ParseCache.class);
+
+    private static final String SUFFIX = ".jcgm";
+
+    private final File cacheDir;
+    private final String version;
+
+    /**
+     * Creates a ParseCache, storing the entries in the specified directory. The directory
+     * is created, if it does not exist.
+     *
+     * @param cacheDir the directory used to store the cached types.
+     */
+    public ParseCache(final String cacheDir) {
+        this.cacheDir = new File(cacheDir);
+        if (!this.cacheDir.exists() && !this.cacheDir.mkdirs())
+            throw new IllegalArgumentException("Unable to create cache directory " + cacheDir);
+        this.version = jcgVersion();
+    }
+
+    /**
+     * Computes the key of the cache entry of a source file.
+     *
+     * @param sourceFile the Java source file
+     * @return the hex-encoded hash of the file's content and the jcg version.
+     * @throws IOException if the source file can not be read.
+     */
+    public String keyOf(final File sourceFile) throws IOException {
+        return keyOf(sourceFile, "");
+    }
+
+    /**
+     * Computes the key of the cache entry of a source file, parsed using the specified options.
+     * Parsing the same file using different options results in different keys.
+     *
+     * @param sourceFile the Java source file
+     * @param options a description of the options, that influence the parsed types.
+     * @return the hex-encoded hash of the file's content, the options and the jcg version.
+     * @throws IOException if the source file can not be read.
+     */
+    public String keyOf(final File sourceFile, final String options) throws IOException {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+        digest.update(version.getBytes("UTF-8"));
+        digest.update(options.getBytes("UTF-8"));
+        final InputStream in = new FileInputStream(sourceFile);
+        try {
+            final byte[] buffer = new byte[8192];
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, n);
+            }
+        } finally {
+            in.close();
+        }
+        final StringBuilder sb = new StringBuilder(40);
+        for (final byte b : digest.digest()) {
+            sb.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns the cached types of the entry with the specified key.
+     *
+     * @param key the key of the cache entry.
+     * @return list of types, or null if there is no (readable) entry.
+     */
+    public List<Type> get(final String key) {
+        final File file = fileOf(key);
+        if (!file.exists())
+            return null;
+        try {
+            final ModelReader in = new ModelReader(new FileInputStream(file));
+            try {
+                final List<Type> types = new ArrayList<Type>();
+                Type type;
+                while ((type = in.read()) != null) {
+                    types.add(type);
+                }
+                return types;
+            } finally {
+                in.close();
+            }
+        } catch (final Exception e) {
+            LOG.warn("Ignoring unreadable cache entry " + file + ": " + e.getMessage());
+            file.delete();
+            return null;
+        }
+    }
+
+    /**
+     * Stores the types of a source file. The entry is first written to a temporary file, so
+     * concurrent readers never see a partially written entry.
+     *
+     * @param key the key of the cache entry.
+     * @param types the types parsed from the source file.
+     */
+    public void put(final String key, final List<Type> types) {
+        final File file = fileOf(key);
+        try {
+            final File tmpFile = File.createTempFile(key, ".tmp", cacheDir);
+            final ModelWriter out = new ModelWriter(new FileOutputStream(tmpFile));
+            try {
+                for (final Type type : types) {
+                    out.write(type);
+                }
+            } finally {
+                out.close();
+            }
+            if (!tmpFile.renameTo(file)) {
+                // the entry may have been written by another thread or process:
+                tmpFile.delete();
+            }
+        } catch (final IOException e) {
+            LOG.warn("Unable to write cache entry " + file + ": " + e.getMessage());
+        }
+    }
+
+    private File fileOf(final String key) {
+        return new File(cacheDir, key + SUFFIX);
+    }
+
+    /**
+     * Returns the version of jcg, including the timestamp of the parser classes. This way,
+     * the cache is invalidated by development builds, too.
+     *
+     * @return version String
+     */
+    private static String jcgVersion() {
+        final String implementationVersion = ParseCache.class.getPackage() != null
+                ? ParseCache.class.getPackage().getImplementationVersion()
+                : null;
+        long timestamp = 0;
+        final URL scannerClass = TypeBuildingScanner.class.getResource(TypeBuildingScanner.class.getSimpleName() + ".class");
+        if (scannerClass != null) {
+            try {
+                timestamp = scannerClass.openConnection().getLastModified();
+            } catch (IOException e) {
+                LOG.warn("Unable to determine timestamp of the parser: " + e.getMessage());
+            }
+        }
+        return (implementationVersion != null ? implementationVersion : "dev") + "-" + timestamp;
+    }
+
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2010 by Guido Steinacker
+ */
+
+package de.steinacker.jcg.parse;
+
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Decides which types are scanned by the JcgProcessor.
+ * <p/>
+ * Only the type-level annotations of a type are checked, before the fields, methods and method
+ * bodies of the type are scanned. If annotation names are configured, types without one of these
+ * annotations are skipped and are not part of the parsed Model. Usually, the names are the same as
+ * the annotation names of the AnnotationSelector, for example de.steinacker.jcg.annotation.Immutable.
+ * <p/>
+ * Without annotation names, all types are scanned.
+ *
+ * @author Guido Steinacker
+ * @version %version: 28 %
+ */
+public final class ScanPolicy {
+
+    private Set<String> annotationNames = Collections.emptySet();
+
+    /**
+     * @param annotationNames the fully qualified names of the annotations, selecting the types to scan.
+     */
+    public void setAnnotationNames(final List<String> annotationNames) {
+        this.annotationNames = new TreeSet<String>(annotationNames);
+    }
+
+    /**
+     * Checks, whether an element must be scanned.
+     *
+     * @param element the root element of a compilation unit.
+     * @return true, if the element is annotated with one of the annotations or no annotations are configured.
+     */
+    boolean isSelected(final Element element) {
+        if (annotationNames.isEmpty())
+            return true;
+        for (final AnnotationMirror annotationMirror : element.getAnnotationMirrors()) {
+            final Element annotationType = annotationMirror.getAnnotationType().asElement();
+            if (annotationNames.contains(((TypeElement) annotationType).getQualifiedName().toString()))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return a description of the policy, used to distinguish cache entries parsed using different
+     *         policies. Empty, if all types are scanned.
+     */
+    String fingerprint() {
+        return annotationNames.isEmpty() ? "" : annotationNames.toString();
+    }
+
+    @Override
+    public String toString() {
+        return "ScanPolicy{annotationNames=" + annotationNames + '}';
+    }
+}
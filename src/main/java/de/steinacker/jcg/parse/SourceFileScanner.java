@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 2010 by Guido Steinacker
+ */
+
+package de.steinacker.jcg.parse;
+
+import org.apache.log4j.Logger;
+
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.regex.Pattern;
+
+/**
+ * Scans a source directory for files matching a set of include patterns and not matching any
+ * of the exclude patterns.
+ * <p/>
+ * Patterns are Ant-style globs relative to the scanned directory, using '/' as separator:
+ * <ul>
+ * <li><code>*</code> matches zero or more characters within a path segment,</li>
+ * <li><code>?</code> matches a single character within a path segment,</li>
+ * <li><code>**</code> matches zero or more directories.</li>
+ * </ul>
+ * Directories matching an exclude pattern are not traversed at all. The directories of a level
+ * of the tree are listed in parallel, if more than one thread is used. The resulting files are
+ * sorted by their path, so the result does not depend on the order of the file system or the
+ * number of threads.
+ *
+ * @author Guido Steinacker
+ * @version %version: 28 %
+ */
+final class SourceFileScanner {
+
+    private final static Logger LOG = Logger.getLogger(SourceFileScanner.class);
+
+    private final List<Pattern> includes;
+    private final List<Pattern> excludes;
+    private final int threads;
+
+    /**
+     * Creates a SourceFileScanner.
+     *
+     * @param includes glob patterns of the files to include.
+     * @param excludes glob patterns of the files and directories to exclude.
+     * @param threads the number of threads used to list the directories.
+     */
+    public SourceFileScanner(final Collection<String> includes, final Collection<String> excludes, final int threads) {
+        this.includes = toPatterns(includes);
+        this.excludes = toPatterns(excludes);
+        this.threads = threads;
+    }
+
+    /**
+     * Scans the specified directory and returns the sorted list of matching, readable files.
+     *
+     * @param dir the source directory.
+     * @param recursive specifies whether the directory is traversed recursively.
+     * @return sorted list of files.
+     */
+    public List<File> scan(final File dir, final boolean recursive) {
+        final List<File> result = new ArrayList<File>();
+        List<Directory> level = Collections.singletonList(new Directory(dir, ""));
+        final ExecutorService executor = threads > 1 ? Executors.newFixedThreadPool(threads) : null;
+        try {
+            while (!level.isEmpty()) {
+                final List<Directory> nextLevel = new ArrayList<Directory>();
+                for (final Listing listing : list(level, executor)) {
+                    result.addAll(listing.files);
+                    if (recursive)
+                        nextLevel.addAll(listing.subDirectories);
+                }
+                level = nextLevel;
+            }
+        } finally {
+            if (executor != null)
+                executor.shutdownNow();
+        }
+        Collections.sort(result);
+        return result;
+    }
+
+    /**
+     * Returns true, if the relative path matches one of the include patterns and none of the exclude patterns.
+     *
+     * @param relativePath the path of a file, relative to the scanned directory, using '/' as separator.
+     * @return boolean
+     */
+    boolean isIncluded(final String relativePath) {
+        return matches(includes, relativePath) && !matches(excludes, relativePath);
+    }
+
+    /**
+     * Returns true, if the directory and all its content is excluded.
+     *
+     * @param relativePath the path of the directory, relative to the scanned directory, using '/' as separator.
+     * @return boolean
+     */
+    boolean isExcludedDirectory(final String relativePath) {
+        return matches(excludes, relativePath) || matches(excludes, relativePath + "/");
+    }
+
+    private List<Listing> list(final List<Directory> directories, final ExecutorService executor) {
+        final List<Listing> listings = new ArrayList<Listing>(directories.size());
+        if (executor == null || directories.size() == 1) {
+            for (final Directory directory : directories) {
+                listings.add(list(directory));
+            }
+        } else {
+            final List<Callable<Listing>> tasks = new ArrayList<Callable<Listing>>(directories.size());
+            for (final Directory directory : directories) {
+                tasks.add(new Callable<Listing>() {
+                    @Override
+                    public Listing call() throws Exception {
+                        return list(directory);
+                    }
+                });
+            }
+            try {
+                for (final Future<Listing> future : executor.invokeAll(tasks)) {
+                    listings.add(future.get());
+                }
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while scanning source directories.", e);
+            } catch (final ExecutionException e) {
+                throw new IllegalStateException("Unable to scan source directories: " + e.getCause().getMessage(), e.getCause());
+            }
+        }
+        return listings;
+    }
+
+    private Listing list(final Directory directory) {
+        final Listing listing = new Listing();
+        final File[] entries = directory.file.listFiles();
+        if (entries == null) {
+            LOG.warn(directory.file + " is not a readable directory.");
+            return listing;
+        }
+        for (final File entry : entries) {
+            final String relativePath = directory.relativePath + entry.getName();
+            if (entry.isDirectory()) {
+                if (!isExcludedDirectory(relativePath))
+                    listing.subDirectories.add(new Directory(entry, relativePath + '/'));
+            } else if (isIncluded(relativePath)) {
+                if (entry.canRead())
+                    listing.files.add(entry);
+                else
+                    LOG.warn(entry + " is not readable. Ignoring the file. ");
+            }
+        }
+        return listing;
+    }
+
+    private static boolean matches(final List<Pattern> patterns, final String relativePath) {
+        for (final Pattern pattern : patterns) {
+            if (pattern.matcher(relativePath).matches())
+                return true;
+        }
+        return false;
+    }
+
+    private static List<Pattern> toPatterns(final Collection<String> globs) {
+        final List<Pattern> patterns = new ArrayList<Pattern>(globs.size());
+        for (final String glob : globs) {
+            patterns.add(Pattern.compile(toRegex(glob)));
+        }
+        return patterns;
+    }
+
+    /**
+     * Converts a glob pattern into a regular expression.
+     *
+     * @param glob the glob
+     * @return regular expression
+     */
+    static String toRegex(final String glob) {
+        final StringBuilder regex = new StringBuilder();
+        final int length = glob.length();
+        for (int i = 0; i < length; ++i) {
+            final char c = glob.charAt(i);
+            if (c == '*') {
+                if (i + 1 < length && glob.charAt(i + 1) == '*') {
+                    if (i + 2 < length && glob.charAt(i + 2) == '/') {
+                        // '**/' matches zero or more directories:
+                        regex.append("(?:.*/)?");
+                        i += 2;
+                    } else {
+                        regex.append(".*");
+                        ++i;
+                    }
+                } else {
+                    regex.append("[^/]*");
+                }
+            } else if (c == '?') {
+                regex.append("[^/]");
+            } else if ("\\.[]{}()+-^$|".indexOf(c) != -1) {
+                regex.append('\\').append(c);
+            } else {
+                regex.append(c);
+            }
+        }
+        return regex.toString();
+    }
+
+    /**
+     * A directory to list, together with its path relative to the scanned directory.
+     */
+    private static final class Directory {
+        private final File file;
+        private final String relativePath;
+
+        private Directory(final File file, final String relativePath) {
+            this.file = file;
+            this.relativePath = relativePath;
+        }
+    }
+
+    /**
+     * The files and subdirectories found in a single directory.
+     */
+    private static final class Listing {
+        private final List<File> files = new ArrayList<File>();
+        private final List<Directory> subDirectories = new ArrayList<Directory>();
+    }
+}
@@ -7,6 +7,7 @@ package de.steinacker.jcg.parse;
 import com.sun.source.tree.CompilationUnitTree;
 import com.sun.source.tree.ImportTree;
 import com.sun.source.tree.Tree;
+import com.sun.source.util.SourcePositions;
 import com.sun.source.util.TreePath;
 import com.sun.source.util.Trees;
 import com.sun.tools.javac.code.Symbol;
@@ -24,6 +25,7 @@ import javax.lang.model.util.ElementScanner6;
 import javax.lang.model.util.Elements;
 import javax.lang.model.util.Types;
 import javax.tools.Diagnostic;
+import java.io.IOException;
 import java.util.*;
 
 import static javax.lang.model.element.ElementKind.*;
@@ -57,6 +59,8 @@ final class TypeBuildingScanner extends ElementScanner6<TypeBuilder, TypeBuilder
     private final Messager messager;
     private final Trees trees;
     private final Elements elementUtils;
+    private CompilationUnitTree sourceUnit;
+    private String source;
 
     public TypeBuildingScanner(final ProcessingEnvironment processingEnv) {
         this.trees = Trees.instance(processingEnv);
@@ -220,7 +224,9 @@ final class TypeBuildingScanner extends ElementScanner6<TypeBuilder, TypeBuilder
                 final JCTree.JCVariableDecl jcTree = (JCTree.JCVariableDecl)tree;
                 final TypeSymbol fieldType = mapToTypeSymbol(jcTree.vartype.type, jcTree.vartype.getKind());
                 final JCTree.JCExpression initializerExpression = jcTree.getInitializer();
-                final String initString = (initializerExpression != null) ? initializerExpression.toString() : null;
+                final CharSequence initString = (initializerExpression != null)
+                        ? sliceOf(treePath.getCompilationUnit(), initializerExpression, false)
+                        : null;
                 typeBuilder.addField(new FieldBuilder()
                         .setName(name)
                         .setType(fieldType)
@@ -432,7 +438,7 @@ final class TypeBuildingScanner extends ElementScanner6<TypeBuilder, TypeBuilder
         // 3. All the parameters (including default parameters) of the Annotation:
         final List<AnnotationParameter> defaults = mapToAnnotationParameters(javaxAnnotationMirror, true);
 
-        return new Annotation(annotationName, parameters, defaults);
+        return Annotation.valueOf(annotationName, parameters, defaults);
     }
 
     /**
@@ -527,11 +533,8 @@ final class TypeBuildingScanner extends ElementScanner6<TypeBuilder, TypeBuilder
 
         final MethodBuilder methodBuilder = new MethodBuilder();
 
-        final Tree tree = trees.getPath(e).getLeaf();
-        final JCTree.JCMethodDecl jcMethodDecl = (JCTree.JCMethodDecl)tree;
-        //final SourcePositions sourcePosition = trees.getSourcePositions();
-        //final CompilationUnitTree compilationUnit = treePath.getCompilationUnit();
-        //System.out.println("SourcePosition" + sourcePosition.getStartPosition(compilationUnit, tree));
+        final TreePath treePath = trees.getPath(e);
+        final JCTree.JCMethodDecl jcMethodDecl = (JCTree.JCMethodDecl)treePath.getLeaf();
 
         // METHOD or CONSTRUCTOR?
         if (e.getKind() == METHOD) {
@@ -548,12 +551,11 @@ final class TypeBuildingScanner extends ElementScanner6<TypeBuilder, TypeBuilder
             for (com.sun.tools.javac.code.Type typeParam : type.getTypeArguments()) {
                 typeParameters.add(new TypeParameter(QualifiedName.valueOf(typeParam.toString())));
             }
-            methodBuilder.setReturnType(new TypeSymbol(returnType, typeParameters));
+            methodBuilder.setReturnType(TypeSymbol.valueOf(returnType, typeParameters));
             // method body:
             final JCTree.JCBlock block = jcMethodDecl.getBody();
             if (block != null) {
-                final String b = block.toString();
-                methodBuilder.setMethodBody(b.substring(b.indexOf('{')+1, b.lastIndexOf('}')).trim());
+                methodBuilder.setMethodBody(sliceOf(treePath.getCompilationUnit(), block, true));
             }
         } else {
             // method name:
@@ -629,7 +631,7 @@ final class TypeBuildingScanner extends ElementScanner6<TypeBuilder, TypeBuilder
             case PRIMITIVE_TYPE:
             case MEMBER_SELECT:
                 final QualifiedName primitiveQN = QualifiedName.valueOf(type.tsym.getQualifiedName().toString());
-                typeSymbol = new TypeSymbol(primitiveQN);
+                typeSymbol = TypeSymbol.valueOf(primitiveQN);
                 break;
             case PARAMETERIZED_TYPE:
             case IDENTIFIER:
@@ -648,7 +650,7 @@ final class TypeBuildingScanner extends ElementScanner6<TypeBuilder, TypeBuilder
                             throw new IllegalStateException("Unexpected TypeKind " + kind + " while determining type parameters.");
                     }
                 }
-                typeSymbol = new TypeSymbol(interfaceQN, typeParameters);
+                typeSymbol = TypeSymbol.valueOf(interfaceQN, typeParameters);
                 break;
             }
             default:
@@ -673,4 +675,41 @@ final class TypeBuildingScanner extends ElementScanner6<TypeBuilder, TypeBuilder
         return result;
     }
 
+    /**
+     * Returns the source code of a tree as a lazy slice of the compilation unit. The source code of
+     * the compilation unit is read once and shared by all slices of the unit.
+     * <p/>
+     * Trees without source positions, like the ones generated by the compiler, are pretty-printed.
+     *
+     * @param compilationUnit the compilation unit, containing the tree.
+     * @param tree the tree.
+     * @param block true, if the tree is a block, whose statements should be returned.
+     * @return CharSequence
+     */
+    private CharSequence sliceOf(final CompilationUnitTree compilationUnit, final Tree tree, final boolean block) {
+        final SourcePositions sourcePositions = trees.getSourcePositions();
+        final long start = sourcePositions.getStartPosition(compilationUnit, tree);
+        final long end = sourcePositions.getEndPosition(compilationUnit, tree);
+        final String code = sourceOf(compilationUnit);
+        if (code == null || start == Diagnostic.NOPOS || end == Diagnostic.NOPOS || end > code.length()) {
+            final String s = tree.toString();
+            return block ? s.substring(s.indexOf('{') + 1, s.lastIndexOf('}')).trim() : s;
+        }
+        return block
+                ? SourceSlice.ofBlock(code, (int) start, (int) end)
+                : SourceSlice.of(code, (int) start, (int) end);
+    }
+
+    private String sourceOf(final CompilationUnitTree compilationUnit) {
+        if (compilationUnit != sourceUnit) {
+            sourceUnit = compilationUnit;
+            try {
+                source = compilationUnit.getSourceFile().getCharContent(true).toString();
+            } catch (IOException e) {
+                messager.printMessage(WARNING, "Unable to read source: " + e.getMessage());
+                source = null;
+            }
+        }
+        return source;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2010 by Guido Steinacker
+ */
+
+package de.steinacker.jcg.transform.model;
+
+import de.steinacker.jcg.Context;
+import de.steinacker.jcg.ContextBuilder;
+import de.steinacker.jcg.model.*;
+import de.steinacker.jcg.transform.type.Fingerprinted;
+import de.steinacker.jcg.transform.type.TransformationCache;
+import de.steinacker.jcg.transform.type.TypeMessage;
+import de.steinacker.jcg.transform.type.TypeTransformer;
+import org.apache.log4j.Logger;
+
+import java.util.*;
+
+/**
+ * Like the {@link ModelSequencer}, the DependencySequencer splits ModelMessages into several
+ * TypeMessages, calls the TypeTransformer for every message and merges the results into one Model.
+ * <p/>
+ * The types are transformed in waves, ordered by the {@link TypeDependencyGraph} of the model: a
+ * type is transformed after the types it extends, implements or references by its fields. The
+ * transformed dependencies of a type are passed to the TypeTransformer using the context parameter
+ * {@link #CTX_PARAM_TRANSFORMED_TYPES}, so transformations depending on other types of the model
+ * are able to see them. Only the direct dependencies of the type are passed, so the context - and
+ * the key of a {@link de.steinacker.jcg.transform.type.TransformationCache} - does not change with
+ * unrelated types. Types depending on each other are transformed in the same wave and do not see
+ * each other's results.
+ * <p/>
+ * If more than one thread is configured, the types of a wave are transformed concurrently. The
+ * results are merged in the order of the types in the original model.
+ *
+ * @author Guido Steinacker
+ * @version %version: 28 %
+ */
+public final class DependencySequencer implements ModelTransformer, Fingerprinted {
+
+    /**
+     * The context parameter containing the transformed dependencies of a type: an unmodifiable
+     * Map&lt;QualifiedName, List&lt;Type&gt;&gt;, mapping the names of the original types to the
+     * types returned by the TypeTransformer.
+     */
+    public static final String CTX_PARAM_TRANSFORMED_TYPES = "transformedTypes";
+
+    private static final Logger LOG = Logger.getLogger(DependencySequencer.class);
+    private TypeTransformer typeTransformer;
+    private int threads = 1;
+
+    /**
+     * Injects the TypeTransformer used to transform the types of the model.
+     *
+     * @param typeTransformer The TypeTransformer used to transform the TypeMessages.
+     */
+    public void setTypeTransformer(final TypeTransformer typeTransformer) {
+        this.typeTransformer = typeTransformer;
+    }
+
+    /**
+     * The number of threads used to transform the types of a wave. By default, the types are
+     * transformed sequentially by the calling thread.
+     *
+     * @param threads the number of threads, must be greater than zero.
+     */
+    public void setThreads(final int threads) {
+        if (threads < 1)
+            throw new IllegalArgumentException("The number of threads must be greater than zero.");
+        this.threads = threads;
+    }
+
+    @Override
+    public String getName() {
+        return "DependencySequencer";
+    }
+
+    @Override
+    public String getFingerprint() {
+        return TransformationCache.fingerprintOf(typeTransformer);
+    }
+
+    @Override
+    public ModelMessage transform(final ModelMessage message) {
+        final Model model = message.getPayload();
+        final TypeDependencyGraph graph = new TypeDependencyGraph(model);
+        for (final List<Type> cycle : graph.getCycles()) {
+            LOG.info("Cyclic dependencies between " + namesOf(cycle) + "; the types are transformed in the same wave.");
+        }
+        final Map<QualifiedName, List<TypeMessage>> results = new HashMap<QualifiedName, List<TypeMessage>>();
+        final Map<QualifiedName, List<Type>> transformedTypes = new HashMap<QualifiedName, List<Type>>();
+        final TypeTransformationExecutor executor = new TypeTransformationExecutor(typeTransformer, threads);
+        try {
+            for (final List<Type> wave : graph.getWaves()) {
+                final List<TypeMessage> typeMessages = new ArrayList<TypeMessage>(wave.size());
+                for (final Type type : wave) {
+                    final Map<QualifiedName, List<Type>> dependencies = new HashMap<QualifiedName, List<Type>>();
+                    for (final QualifiedName dependency : graph.getDependencies(type.getName())) {
+                        // dependencies of the same component are not yet transformed:
+                        if (transformedTypes.containsKey(dependency))
+                            dependencies.put(dependency, transformedTypes.get(dependency));
+                    }
+                    final Context context = new ContextBuilder(message.getContext())
+                            .addParameter(CTX_PARAM_TRANSFORMED_TYPES, Collections.unmodifiableMap(dependencies))
+                            .toContext();
+                    typeMessages.add(new TypeMessage(type, context));
+                }
+                final List<List<TypeMessage>> waveResults = executor.transformAll(typeMessages);
+                for (int i = 0; i < wave.size(); ++i) {
+                    final List<TypeMessage> result = waveResults.get(i);
+                    final List<Type> types = new ArrayList<Type>(result.size());
+                    for (final TypeMessage typeMessage : result) {
+                        types.add(typeMessage.getPayload());
+                    }
+                    results.put(wave.get(i).getName(), result);
+                    transformedTypes.put(wave.get(i).getName(), Collections.unmodifiableList(types));
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+        return aggregate(model, results);
+    }
+
+    /**
+     * Aggregates the results into one ModelMessage, in the order of the types in the original model.
+     * The context parameter containing the transformed types is removed from the merged context.
+     *
+     * @param model   the original model.
+     * @param results the results of the transformations, by name of the original type.
+     * @return ModelMessage
+     */
+    private ModelMessage aggregate(final Model model, final Map<QualifiedName, List<TypeMessage>> results) {
+        final ModelBuilder modelBuilder = new ModelBuilder();
+        final ContextBuilder ctxBuilder = new ContextBuilder();
+        for (final Type type : model.getAllTypes()) {
+            for (final TypeMessage typeMessage : results.get(type.getName())) {
+                modelBuilder.addType(typeMessage.getPayload());
+                ctxBuilder.mergeWith(typeMessage.getContext());
+            }
+        }
+        ctxBuilder.removeParameter(CTX_PARAM_TRANSFORMED_TYPES);
+        return new ModelMessage(modelBuilder.toModel(), ctxBuilder.toContext());
+    }
+
+    private static List<QualifiedName> namesOf(final List<Type> types) {
+        final List<QualifiedName> names = new ArrayList<QualifiedName>(types.size());
+        for (final Type type : types) {
+            names.add(type.getName());
+        }
+        return names;
+    }
+}
@@ -8,9 +8,10 @@ import de.steinacker.jcg.Context;
 import de.steinacker.jcg.ContextBuilder;
 import de.steinacker.jcg.model.ModelBuilder;
 import de.steinacker.jcg.model.Type;
+import de.steinacker.jcg.transform.type.Fingerprinted;
+import de.steinacker.jcg.transform.type.TransformationCache;
 import de.steinacker.jcg.transform.type.TypeMessage;
 import de.steinacker.jcg.transform.type.TypeTransformer;
-import org.apache.log4j.Logger;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -19,14 +20,19 @@ import java.util.List;
  * Splits ModelMessages into several TypeMessages, iterates over these messages and calls
  * the TypeTransformer for every message.
  * After this, all returned TypeMessages are merged into one Model.
+ * <p/>
+ * If more than one thread is configured, the types are transformed concurrently. The results are
+ * nevertheless merged in the order of the types in the original model, so the transformed model does
+ * not depend on the number of threads. The TypeTransformer must be thread-safe in this case (see
+ * {@link TypeTransformer}).
  *
  * @author Guido Steinacker
  * @version %version: 28 %
  */
-public final class ModelSequencer implements ModelTransformer {
+public final class ModelSequencer implements ModelTransformer, Fingerprinted {
 
-    private static final Logger LOG = Logger.getLogger(ModelSequencer.class);
     private TypeTransformer typeTransformer;
+    private int threads = 1;
 
     /**
      * Injects the TypeTransformer used to transform the types of the model.
@@ -37,17 +43,40 @@ public final class ModelSequencer implements ModelTransformer {
         this.typeTransformer = typeTransformer;
     }
 
+    /**
+     * The number of threads used to transform the types of a model. By default, the types are
+     * transformed sequentially by the calling thread.
+     *
+     * @param threads the number of threads, must be greater than zero.
+     */
+    public void setThreads(final int threads) {
+        if (threads < 1)
+            throw new IllegalArgumentException("The number of threads must be greater than zero.");
+        this.threads = threads;
+    }
+
     @Override
     public String getName() {
         return "ModelSequencer";
     }
 
+    @Override
+    public String getFingerprint() {
+        return TransformationCache.fingerprintOf(typeTransformer);
+    }
+
     @Override
     public ModelMessage transform(ModelMessage message) {
+        final List<TypeMessage> typeMessages = split(message);
         final List<TypeMessage> transformedMessages = new ArrayList<TypeMessage>();
-        for (final TypeMessage typeMessage : split(message)) {
-            LOG.info("Transforming " + typeMessage.getPayload().getName());
-            transformedMessages.addAll(typeTransformer.transform(typeMessage));
+        final TypeTransformationExecutor executor = new TypeTransformationExecutor(
+                typeTransformer, Math.min(threads, Math.max(typeMessages.size(), 1)));
+        try {
+            for (final List<TypeMessage> result : executor.transformAll(typeMessages)) {
+                transformedMessages.addAll(result);
+            }
+        } finally {
+            executor.shutdown();
         }
         return aggregate(transformedMessages);
     }
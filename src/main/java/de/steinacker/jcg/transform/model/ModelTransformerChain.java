@@ -4,6 +4,8 @@
 
 package de.steinacker.jcg.transform.model;
 
+import de.steinacker.jcg.transform.type.Fingerprinted;
+import de.steinacker.jcg.transform.type.TransformationCache;
 import org.apache.log4j.Logger;
 
 import java.util.ArrayList;
@@ -17,7 +19,7 @@ import java.util.List;
  * @author Guido Steinacker
  * @version %version: 28 %
  */
-public final class ModelTransformerChain implements ModelTransformer {
+public final class ModelTransformerChain implements ModelTransformer, Fingerprinted {
     private static final Logger LOG = Logger.getLogger(ModelTransformerChain.class);
 
     private final List<ModelTransformer> chain;
@@ -34,6 +36,15 @@ public final class ModelTransformerChain implements ModelTransformer {
         return "ModelTransformerChain";
     }
 
+    @Override
+    public String getFingerprint() {
+        final StringBuilder sb = new StringBuilder();
+        for (final ModelTransformer modelTransformer : chain) {
+            sb.append('[').append(TransformationCache.fingerprintOf(modelTransformer)).append(']');
+        }
+        return sb.toString();
+    }
+
     @Override
     public ModelMessage transform(final ModelMessage inputMessage) {
         ModelMessage msg = inputMessage;
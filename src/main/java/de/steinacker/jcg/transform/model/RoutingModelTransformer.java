@@ -5,17 +5,20 @@
 package de.steinacker.jcg.transform.model;
 
 import de.steinacker.jcg.transform.rule.ModelTransformerSelector;
+import de.steinacker.jcg.transform.type.Fingerprinted;
+import de.steinacker.jcg.transform.type.TransformationCache;
 import org.apache.log4j.Logger;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 
 /**
  * @author Guido Steinacker
  * @version %version: 28 %
  */
-public final class RoutingModelTransformer implements ModelTransformer {
+public final class RoutingModelTransformer implements ModelTransformer, Fingerprinted {
     private final static Logger LOG = Logger.getLogger(RoutingModelTransformer.class);
 
     private final ModelTransformerSelector selector;
@@ -45,6 +48,15 @@ public final class RoutingModelTransformer implements ModelTransformer {
         return name;
     }
 
+    @Override
+    public String getFingerprint() {
+        final StringBuilder sb = new StringBuilder("selector=").append(TransformationCache.fingerprintOf(selector));
+        for (final ModelTransformer transformer : new TreeMap<String, ModelTransformer>(transformers).values()) {
+            sb.append('[').append(TransformationCache.fingerprintOf(transformer)).append(']');
+        }
+        return sb.toString();
+    }
+
     /**
      * Transforms the ModelMessage into another ModelMessage,
      *
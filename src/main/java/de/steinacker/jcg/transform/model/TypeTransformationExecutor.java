@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2010 by Guido Steinacker
+ */
+
+package de.steinacker.jcg.transform.model;
+
+import de.steinacker.jcg.transform.type.TypeMessage;
+import de.steinacker.jcg.transform.type.TypeTransformer;
+import org.apache.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Calls a TypeTransformer for several TypeMessages, either sequentially by the calling thread or
+ * concurrently, using a pool of threads. The pool is created when it is needed for the first time
+ * and reused until the executor is shut down.
+ *
+ * @author Guido Steinacker
+ * @version %version: 28 %
+ */
+final class TypeTransformationExecutor {
+
+    private static final Logger LOG = Logger.getLogger(TypeTransformationExecutor.class);
+
+    private final TypeTransformer typeTransformer;
+    private final int threads;
+    private ExecutorService executor;
+
+    /**
+     * @param typeTransformer the TypeTransformer used to transform the messages.
+     * @param threads         the maximum number of threads.
+     */
+    TypeTransformationExecutor(final TypeTransformer typeTransformer, final int threads) {
+        this.typeTransformer = typeTransformer;
+        this.threads = threads;
+    }
+
+    /**
+     * Transforms the messages. Exceptions of the TypeTransformer are rethrown, as if it was called
+     * by this thread.
+     *
+     * @param typeMessages the messages to transform.
+     * @return the results of the transformations, in the order of the messages.
+     */
+    List<List<TypeMessage>> transformAll(final List<TypeMessage> typeMessages) {
+        final List<List<TypeMessage>> results = new ArrayList<List<TypeMessage>>(typeMessages.size());
+        if (threads == 1 || typeMessages.size() < 2) {
+            for (final TypeMessage typeMessage : typeMessages) {
+                results.add(transform(typeMessage));
+            }
+            return results;
+        }
+        if (executor == null)
+            executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<List<TypeMessage>>> futures = new ArrayList<Future<List<TypeMessage>>>(typeMessages.size());
+            for (final TypeMessage typeMessage : typeMessages) {
+                futures.add(executor.submit(new Callable<List<TypeMessage>>() {
+                    @Override
+                    public List<TypeMessage> call() {
+                        return transform(typeMessage);
+                    }
+                }));
+            }
+            for (final Future<List<TypeMessage>> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while transforming types.", e);
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            if (cause instanceof Error)
+                throw (Error) cause;
+            throw new IllegalStateException("Unable to transform types: " + cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * Stops the threads of the pool, if any. Transformations still running are interrupted.
+     */
+    void shutdown() {
+        if (executor != null)
+            executor.shutdownNow();
+    }
+
+    private List<TypeMessage> transform(final TypeMessage typeMessage) {
+        LOG.info("Transforming " + typeMessage.getPayload().getName());
+        return typeTransformer.transform(typeMessage);
+    }
+}
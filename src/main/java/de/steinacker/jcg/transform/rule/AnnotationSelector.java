@@ -21,7 +21,7 @@ import java.util.List;
  * @author Guido Steinacker
  * @version %version: 28 %
  */
-public final class AnnotationSelector implements TypeTransformerSelector {
+public final class AnnotationSelector implements CacheableSelector {
 
     private List<CharSequence> annotationNames;
     private List<String> defaultValue = Collections.emptyList();
@@ -38,6 +38,24 @@ public final class AnnotationSelector implements TypeTransformerSelector {
         this.defaultValue = defaultValue;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * The routing key is the list of annotations of the type, that are selected by their name.
+     */
+    @Override
+    public Object routingKeyOf(final TypeMessage message) {
+        List<Annotation> result = Collections.emptyList();
+        for (final Annotation annotation : message.getPayload().getAnnotations()) {
+            if (annotationNames.contains(annotation.getName().toString())) {
+                if (result.isEmpty())
+                    result = new ArrayList<Annotation>(2);
+                result.add(annotation);
+            }
+        }
+        return result;
+    }
+
     @Override
     public List<String> apply(final TypeMessage param) {
         for (final Annotation annotation : param.getPayload().getAnnotations()) {
@@ -0,0 +1,29 @@
+/*
+ * Copyright (c) 2010 by Guido Steinacker
+ */
+
+package de.steinacker.jcg.transform.rule;
+
+import de.steinacker.jcg.transform.type.TypeMessage;
+
+/**
+ * A TypeTransformerSelector, whose selections can be cached by the TypeTransformerRouter.
+ * <p/>
+ * The routing key of a message consists of the parts of the message, the selection depends on -
+ * for example the values of some annotations or of a context parameter. Messages with equal routing
+ * keys must result in equal selections, so the router only applies the selector to the first message
+ * with a new routing key.
+ *
+ * @author Guido Steinacker
+ * @version %version: 28 %
+ */
+public interface CacheableSelector extends TypeTransformerSelector {
+
+    /**
+     * Returns the routing key of a message. Routing keys must implement equals() and hashCode().
+     *
+     * @param message the TypeMessage
+     * @return the routing key, or null if the selection for this message must not be cached.
+     */
+    public Object routingKeyOf(TypeMessage message);
+}
@@ -20,7 +20,7 @@ import java.util.List;
  * @author Guido Steinacker
  * @version %version: 28 %
  */
-public final class ContextParamSelector implements TypeTransformerSelector {
+public final class ContextParamSelector implements CacheableSelector {
 
     private String ctxParam;
 
@@ -32,6 +32,16 @@ public final class ContextParamSelector implements TypeTransformerSelector {
         this.ctxParam = ctxParam;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * The routing key is the value of the context parameter.
+     */
+    @Override
+    public Object routingKeyOf(final TypeMessage message) {
+        return ctxParam != null ? message.getContext().getParameter(ctxParam, String.class) : null;
+    }
+
     @Override
     public List<String> apply(final TypeMessage message) {
         final Context context = message.getContext();
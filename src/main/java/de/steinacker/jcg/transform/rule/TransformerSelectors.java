@@ -6,6 +6,7 @@ package de.steinacker.jcg.transform.rule;
 
 import de.steinacker.jcg.transform.type.TypeMessage;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
@@ -15,7 +16,7 @@ import java.util.List;
  * @author Guido Steinacker
  * @version %version: 28 %
  */
-public final class TransformerSelectors implements TypeTransformerSelector {
+public final class TransformerSelectors implements CacheableSelector {
 
     private List<Rule<TypeMessage, List<String>>> rules;
 
@@ -23,6 +24,25 @@ public final class TransformerSelectors implements TypeTransformerSelector {
         this.rules = rules;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * The routing key is the list of the routing keys of all rules, if all rules are cacheable.
+     */
+    @Override
+    public Object routingKeyOf(final TypeMessage message) {
+        final List<Object> result = new ArrayList<Object>(rules.size());
+        for (final Rule<TypeMessage, List<String>> rule : rules) {
+            final Object key = rule instanceof CacheableSelector
+                    ? ((CacheableSelector) rule).routingKeyOf(message)
+                    : null;
+            if (key == null)
+                return null;
+            result.add(key);
+        }
+        return result;
+    }
+
     @Override
     public List<String> apply(final TypeMessage message) {
         for (final Rule<TypeMessage, List<String>> rule : rules) {
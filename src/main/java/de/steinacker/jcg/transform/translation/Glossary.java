@@ -4,14 +4,10 @@
 
 package de.steinacker.jcg.transform.translation;
 
-import de.steinacker.jcg.util.NameUtil;
+import de.steinacker.jcg.util.DigestUtil;
 
-import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
-import java.util.Collection;
-import java.util.HashMap;
-import java.util.Locale;
-import java.util.Map;
+import java.util.*;
 
 /**
  * A glossary contains terms, optional translations and descriptive texts in at least one language.
@@ -67,6 +63,30 @@ public final class Glossary {
             this.longDescription = longDescription;
         }
 
+        public String getSingularTerm() {
+            return singularTerm;
+        }
+
+        public String getPluralTerm() {
+            return pluralTerm;
+        }
+
+        public String getSingularTranslation() {
+            return singularTranslation;
+        }
+
+        public String getPluralTranslation() {
+            return pluralTranslation;
+        }
+
+        public String getShortDescription() {
+            return shortDescription;
+        }
+
+        public String getLongDescription() {
+            return longDescription;
+        }
+
         @Override
         public boolean equals(final Object o) {
             if (this == o) return true;
@@ -96,13 +116,102 @@ public final class Glossary {
         }
     }
 
+    /**
+     * A term of the glossary, referring to the entry of the term.
+     */
+    static final class Term {
+        private final Entry entry;
+        private final boolean singular;
+
+        /**
+         * @param entry    the entry of the term
+         * @param singular true, if the term is the singular term of the entry.
+         */
+        Term(final Entry entry, final boolean singular) {
+            this.entry = entry;
+            this.singular = singular;
+        }
+
+        private String getTranslation() {
+            return singular ? entry.singularTranslation : entry.pluralTranslation;
+        }
+    }
+
+    /**
+     * Looks up the terms of a glossary.
+     */
+    interface Terms {
+
+        /**
+         * @param text     a text in the specified language
+         * @param start    the index of the first character of the term
+         * @param end      the index after the last character of the term
+         * @param language the language of the specified text.
+         * @return the term, or null if the glossary has no such term.
+         */
+        Term find(CharSequence text, int start, int end, Locale language);
+
+        /**
+         * @return all entries of the glossary.
+         */
+        Collection<Entry> getEntries();
+    }
+
+    /**
+     * The terms of a glossary held in memory, indexed by the language of the term.
+     */
+    private static final class IndexedTerms implements Terms {
+        private final Map<String, TermIndex<Term>> terms = new HashMap<String, TermIndex<Term>>(4);
+        private final Collection<Entry> entries;
+
+        private IndexedTerms(final Locale sourceLanguage,
+                             final Locale targetLanguage,
+                             final Collection<Entry> glossaryEntries) {
+            this.entries = new ArrayList<Entry>(glossaryEntries);
+            final TermIndex<Term> sourceTerms = termsOf(sourceLanguage, true);
+            final TermIndex<Term> targetTerms = termsOf(targetLanguage, true);
+            for (final Entry entry : glossaryEntries) {
+                addTerm(sourceTerms, entry.singularTerm, entry);
+                addTerm(sourceTerms, entry.pluralTerm, entry);
+                if (!entry.singularTranslation.isEmpty()) {
+                    addTerm(targetTerms, entry.singularTranslation, entry);
+                    addTerm(targetTerms, entry.pluralTranslation, entry);
+                }
+            }
+        }
+
+        @Override
+        public Term find(final CharSequence text, final int start, final int end, final Locale language) {
+            final TermIndex<Term> index = termsOf(language, false);
+            return index != null ? index.get(text, start, end) : null;
+        }
+
+        @Override
+        public Collection<Entry> getEntries() {
+            return Collections.unmodifiableCollection(entries);
+        }
+
+        private TermIndex<Term> termsOf(final Locale language, final boolean create) {
+            TermIndex<Term> index = terms.get(language.getLanguage());
+            if (index == null && create) {
+                index = new TermIndex<Term>();
+                terms.put(language.getLanguage(), index);
+            }
+            return index;
+        }
+
+        private static void addTerm(final TermIndex<Term> index, final String term, final Entry entry) {
+            index.put(term, new Term(entry, isSingularTerm(term, entry)));
+        }
+    }
+
     @NotNull
-    @Valid
-    private final Map<String, Entry> glossary;
+    private final Terms terms;
     @NotNull
     private final Locale sourceLanguage;
     @NotNull
     private final Locale targetLanguage;
+    private volatile String version;
 
     /**
      * Creates a new Glossary.
@@ -114,17 +223,22 @@ public final class Glossary {
     public Glossary(final Locale sourceLanguage,
                     final Locale targetLanguage,
                     final Collection<Entry> glossaryEntries) {
+        this(sourceLanguage, targetLanguage, new IndexedTerms(sourceLanguage, targetLanguage, glossaryEntries));
+    }
+
+    /**
+     * Creates a new Glossary, looking up the terms using the specified Terms.
+     *
+     * @param sourceLanguage the source language of the glossary.
+     * @param targetLanguage the target language of the glossary.
+     * @param terms          the terms of the glossary.
+     */
+    Glossary(final Locale sourceLanguage,
+             final Locale targetLanguage,
+             final Terms terms) {
         this.sourceLanguage = sourceLanguage;
         this.targetLanguage = targetLanguage;
-        this.glossary = new HashMap<String, Entry>(glossaryEntries.size());
-        for (final Entry entry : glossaryEntries) {
-            glossary.put(buildKey(entry.singularTerm, sourceLanguage), entry);
-            glossary.put(buildKey(entry.pluralTerm, sourceLanguage), entry);
-            if (!entry.singularTranslation.isEmpty()) {
-                glossary.put(buildKey(entry.singularTranslation, targetLanguage), entry);
-                glossary.put(buildKey(entry.pluralTranslation, targetLanguage), entry);
-            }
-        }
+        this.terms = terms;
     }
 
     public Locale getSourceLanguage() {
@@ -135,6 +249,32 @@ public final class Glossary {
         return targetLanguage;
     }
 
+    /**
+     * Returns the version of the glossary: a digest of its languages and entries, that does not depend
+     * on the order of the entries or on the way the glossary was loaded.
+     *
+     * @return the hex-encoded version
+     */
+    public String getVersion() {
+        if (version == null) {
+            final List<String> entries = new ArrayList<String>();
+            for (final Entry entry : terms.getEntries()) {
+                entries.add(entry.singularTerm + '\0' + entry.pluralTerm + '\0'
+                        + entry.singularTranslation + '\0' + entry.pluralTranslation + '\0'
+                        + entry.shortDescription + '\0' + entry.longDescription);
+            }
+            Collections.sort(entries);
+            final StringBuilder sb = new StringBuilder()
+                    .append(sourceLanguage).append('\n')
+                    .append(targetLanguage).append('\n');
+            for (final String entry : entries) {
+                sb.append(entry).append('\n');
+            }
+            version = DigestUtil.digestOf(sb.toString());
+        }
+        return version;
+    }
+
     /**
      * Returns true, if the glossary has an entry for the specified term and language.
      *
@@ -143,7 +283,7 @@ public final class Glossary {
      * @return true if there is a translation for the term.
      */
     public boolean hasEntry(final CharSequence term, final Locale language) {
-        return glossary.containsKey(buildKey(term, language));
+        return findTerm(term, 0, term.length(), language) != null;
     }
 
     /**
@@ -155,8 +295,7 @@ public final class Glossary {
      * @return true if there is a translation for the term.
      */
     public boolean hasTranslation(final CharSequence term, final Locale language) {
-        final Entry entry = glossary.get(buildKey(term, language));
-        return entry != null && !entry.singularTranslation.isEmpty();
+        return findTranslation(term, 0, term.length(), language) != null;
     }
 
     /**
@@ -168,16 +307,10 @@ public final class Glossary {
      * @throws IllegalArgumentException if there is no entry for the specified term.
      */
     public String getTranslation(final CharSequence term, final Locale language) {
-        final String key = buildKey(term, language);
-        final Entry entry = glossary.get(key);
-        if (entry == null || entry.singularTranslation.isEmpty())
+        final String translation = findTranslation(term, 0, term.length(), language);
+        if (translation == null)
             throw new IllegalArgumentException("No translation found for '" + term + "'.");
-        final boolean isSingular = key.equals(buildKey(entry.singularTerm, language));
-        if (isSingular) {
-            return entry.singularTranslation;
-        } else {
-            return entry.pluralTranslation;
-        }
+        return translation;
     }
 
     /**
@@ -189,10 +322,10 @@ public final class Glossary {
      * @throws IllegalArgumentException if there is no entry for the specified term.
      */
     public String getShortDescription(final CharSequence term, final Locale language) {
-        final Entry entry = glossary.get(buildKey(term, language));
-        if (entry == null)
+        final Term found = findTerm(term, 0, term.length(), language);
+        if (found == null)
             throw new IllegalArgumentException("No entry found for '" + term + "'.");
-        return entry.shortDescription;
+        return found.entry.shortDescription;
     }
 
     /**
@@ -204,18 +337,39 @@ public final class Glossary {
      * @throws IllegalArgumentException if there is no entry for the specified term.
      */
     public String getLongDescription(final CharSequence term, final Locale language) {
-        final Entry entry = glossary.get(buildKey(term, language));
-        if (entry == null)
+        final Term found = findTerm(term, 0, term.length(), language);
+        if (found == null)
             throw new IllegalArgumentException("No entry found for '" + term + "'.");
-        return entry.shortDescription;
+        return found.entry.shortDescription;
     }
 
-    private static String buildKey(final CharSequence text, final Locale language) {
-        return new StringBuilder()
-                .append(language.getLanguage())
-                .append('#')
-                .append(NameUtil.toCamelHumpName(text.toString(), false).toLowerCase())
-                .toString();
+    /**
+     * Returns the translation of a part of a text, for example of a single part of a camel-hump name.
+     *
+     * @param text     a text in the specified language
+     * @param start    the index of the first character of the term
+     * @param end      the index after the last character of the term
+     * @param language the language of the specified text.
+     * @return the translation, or null if there is no translation for the term.
+     */
+    String findTranslation(final CharSequence text, final int start, final int end, final Locale language) {
+        final Term found = findTerm(text, start, end, language);
+        return found != null && !found.entry.singularTranslation.isEmpty()
+                ? found.getTranslation()
+                : null;
+    }
+
+    private Term findTerm(final CharSequence text, final int start, final int end, final Locale language) {
+        return terms.find(text, start, end, language);
+    }
+
+    /**
+     * @param term  a term of the entry
+     * @param entry the entry
+     * @return true, if the term is the singular term of the entry.
+     */
+    static boolean isSingularTerm(final String term, final Entry entry) {
+        return TermIndex.normalize(term).equals(TermIndex.normalize(entry.singularTerm));
     }
 
 }
@@ -51,6 +51,18 @@ public final class GlossaryBuilder {
         return this;
     }
 
+    Locale getSourceLanguage() {
+        return sourceLanguage;
+    }
+
+    Locale getTargetLanguage() {
+        return targetLanguage;
+    }
+
+    Collection<Glossary.Entry> getEntries() {
+        return glossary;
+    }
+
     public Glossary toGlossary() {
         return new Glossary(sourceLanguage, targetLanguage, glossary);
     }
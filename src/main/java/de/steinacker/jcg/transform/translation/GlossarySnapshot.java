@@ -0,0 +1,365 @@
+/*
+ * Copyright (c) 2010 by Guido Steinacker
+ */
+
+package de.steinacker.jcg.transform.translation;
+
+import de.steinacker.jcg.util.DigestUtil;
+import org.apache.log4j.Logger;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A precompiled, binary snapshot of a glossary.
+ * <p/>
+ * The snapshot is created at build time from the glossary xml (see main()) and memory-mapped at
+ * runtime, so the glossary is neither parsed nor held in memory. Terms are looked up by a binary
+ * search in the sorted index of their language, entries are only decoded if they are found.
+ * <p/>
+ * All numbers are 32 bit big-endian ints; references to strings are the offsets of the strings
+ * in the snapshot, 0 is null. The snapshot consists of:
+ * <ul>
+ * <li>the magic bytes and the format version,</li>
+ * <li>the references to the source and target language,</li>
+ * <li>the reference to the digest of the glossary xml, the snapshot was compiled from,</li>
+ * <li>the number of entries, followed by the six references of every entry (singular term, plural
+ * term, singular translation, plural translation, short description, long description),</li>
+ * <li>the number of languages, followed by the reference to the language, the number of terms and
+ * the terms of every language. The terms are sorted by their normalized text (see TermIndex); every
+ * term is a reference to the normalized text and the index of the entry shifted left by one, with
+ * the lowest bit set if the term is the singular term of the entry,</li>
+ * <li>the string table: every string is written as its length, followed by its UTF-16 chars.</li>
+ * </ul>
+ *
+ * @author Guido Steinacker
+ * @version %version: 28 %
+ */
+public final class GlossarySnapshot {
+
+    private final static Logger LOG = Logger.getLogger(GlossarySnapshot.class);
+
+    private static final byte[] MAGIC = {'J', 'C', 'G', 'G'};
+    private static final int VERSION = 2;
+    private static final int NULL_STRING = 0;
+    private static final int STRINGS_PER_ENTRY = 6;
+
+    private GlossarySnapshot() {
+    }
+
+    /**
+     * Compiles a glossary xml into a snapshot.
+     *
+     * @param args the glossary xml file and the snapshot file.
+     * @throws Exception if the glossary can not be read or the snapshot can not be written.
+     */
+    public static void main(final String[] args) throws Exception {
+        if (args.length != 2) {
+            System.err.println("Usage: GlossarySnapshot <glossary.xml> <snapshot>");
+            System.exit(1);
+        }
+        final File glossaryFile = new File(args[0]);
+        final GlossaryBuilder glossary = JaxbGlossaryFactory.read(glossaryFile.toURI().toURL());
+        final File snapshotFile = new File(args[1]);
+        final OutputStream out = new BufferedOutputStream(new FileOutputStream(snapshotFile));
+        try {
+            write(glossary, DigestUtil.digestOfFile(glossaryFile), out);
+        } finally {
+            out.close();
+        }
+        LOG.info("Wrote glossary snapshot " + snapshotFile + " (" + snapshotFile.length() + " bytes)");
+    }
+
+    /**
+     * Writes a snapshot of a glossary, that was not compiled from a glossary xml.
+     *
+     * @param glossary the entries and languages of the glossary.
+     * @param out      the stream the snapshot is written to.
+     * @throws IOException if writing the snapshot fails.
+     */
+    public static void write(final GlossaryBuilder glossary, final OutputStream out) throws IOException {
+        write(glossary, null, out);
+    }
+
+    /**
+     * Writes a snapshot of a glossary.
+     *
+     * @param glossary     the entries and languages of the glossary.
+     * @param sourceDigest the digest of the glossary xml, the glossary was read from, or null.
+     * @param out          the stream the snapshot is written to.
+     * @throws IOException if writing the snapshot fails.
+     */
+    public static void write(final GlossaryBuilder glossary,
+                             final String sourceDigest,
+                             final OutputStream out) throws IOException {
+        final Locale sourceLanguage = glossary.getSourceLanguage();
+        final Locale targetLanguage = glossary.getTargetLanguage();
+        final List<Glossary.Entry> entries = new ArrayList<Glossary.Entry>(glossary.getEntries());
+
+        // the terms of every language, in the same order as they are added to an in-memory Glossary:
+        final Map<String, SortedMap<String, Integer>> terms = new LinkedHashMap<String, SortedMap<String, Integer>>();
+        final SortedMap<String, Integer> sourceTerms = termsOf(terms, sourceLanguage);
+        final SortedMap<String, Integer> targetTerms = termsOf(terms, targetLanguage);
+        for (int i = 0; i < entries.size(); ++i) {
+            final Glossary.Entry entry = entries.get(i);
+            addTerm(sourceTerms, entry.getSingularTerm(), entry, i);
+            addTerm(sourceTerms, entry.getPluralTerm(), entry, i);
+            if (!entry.getSingularTranslation().isEmpty()) {
+                addTerm(targetTerms, entry.getSingularTranslation(), entry, i);
+                addTerm(targetTerms, entry.getPluralTranslation(), entry, i);
+            }
+        }
+
+        int stringTableOffset = MAGIC.length + 4 + 12 + 4 + entries.size() * STRINGS_PER_ENTRY * 4 + 4;
+        for (final SortedMap<String, Integer> languageTerms : terms.values()) {
+            stringTableOffset += 8 + languageTerms.size() * 8;
+        }
+        final StringTable strings = new StringTable(stringTableOffset);
+
+        final DataOutputStream dataOut = new DataOutputStream(out);
+        dataOut.write(MAGIC);
+        dataOut.writeInt(VERSION);
+        dataOut.writeInt(strings.add(sourceLanguage.getLanguage()));
+        dataOut.writeInt(strings.add(targetLanguage.getLanguage()));
+        dataOut.writeInt(strings.add(sourceDigest));
+        dataOut.writeInt(entries.size());
+        for (final Glossary.Entry entry : entries) {
+            dataOut.writeInt(strings.add(entry.getSingularTerm()));
+            dataOut.writeInt(strings.add(entry.getPluralTerm()));
+            dataOut.writeInt(strings.add(entry.getSingularTranslation()));
+            dataOut.writeInt(strings.add(entry.getPluralTranslation()));
+            dataOut.writeInt(strings.add(entry.getShortDescription()));
+            dataOut.writeInt(strings.add(entry.getLongDescription()));
+        }
+        dataOut.writeInt(terms.size());
+        for (final Map.Entry<String, SortedMap<String, Integer>> language : terms.entrySet()) {
+            dataOut.writeInt(strings.add(language.getKey()));
+            dataOut.writeInt(language.getValue().size());
+            for (final Map.Entry<String, Integer> term : language.getValue().entrySet()) {
+                dataOut.writeInt(strings.add(term.getKey()));
+                dataOut.writeInt(term.getValue());
+            }
+        }
+        strings.writeTo(dataOut);
+        dataOut.flush();
+    }
+
+    /**
+     * Memory-maps a snapshot.
+     *
+     * @param snapshotFile the file containing the snapshot.
+     * @return Glossary backed by the snapshot.
+     * @throws IOException if the file can not be mapped or does not contain a snapshot.
+     */
+    public static Glossary map(final File snapshotFile) throws IOException {
+        return read(mapFile(snapshotFile));
+    }
+
+    /**
+     * Memory-maps a snapshot, if it was compiled from the glossary xml with the specified digest.
+     *
+     * @param snapshotFile the file containing the snapshot.
+     * @param sourceDigest the digest of the current glossary xml.
+     * @return Glossary backed by the snapshot, or null if the snapshot was compiled from a different xml.
+     * @throws IOException if the file can not be mapped or does not contain a snapshot.
+     */
+    public static Glossary map(final File snapshotFile, final String sourceDigest) throws IOException {
+        final MappedByteBuffer buffer = mapFile(snapshotFile);
+        final MappedTerms terms = new MappedTerms(buffer);
+        if (!sourceDigest.equals(terms.readString(buffer.getInt(MAGIC.length + 12))))
+            return null;
+        return read(buffer, terms);
+    }
+
+    private static MappedByteBuffer mapFile(final File snapshotFile) throws IOException {
+        final FileInputStream in = new FileInputStream(snapshotFile);
+        try {
+            final FileChannel channel = in.getChannel();
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Reads a snapshot from a buffer. The buffer must not be modified afterwards.
+     *
+     * @param buffer the buffer containing the snapshot.
+     * @return Glossary backed by the snapshot.
+     * @throws IOException if the buffer does not contain a snapshot.
+     */
+    static Glossary read(final ByteBuffer buffer) throws IOException {
+        return read(buffer, new MappedTerms(buffer));
+    }
+
+    private static Glossary read(final ByteBuffer buffer, final MappedTerms terms) {
+        return new Glossary(
+                new Locale(terms.readString(buffer.getInt(MAGIC.length + 4))),
+                new Locale(terms.readString(buffer.getInt(MAGIC.length + 8))),
+                terms);
+    }
+
+    private static SortedMap<String, Integer> termsOf(final Map<String, SortedMap<String, Integer>> terms,
+                                                      final Locale language) {
+        SortedMap<String, Integer> languageTerms = terms.get(language.getLanguage());
+        if (languageTerms == null) {
+            languageTerms = new TreeMap<String, Integer>();
+            terms.put(language.getLanguage(), languageTerms);
+        }
+        return languageTerms;
+    }
+
+    private static void addTerm(final SortedMap<String, Integer> terms,
+                                final String term,
+                                final Glossary.Entry entry,
+                                final int entryIndex) {
+        terms.put(TermIndex.normalize(term), entryIndex << 1 | (Glossary.isSingularTerm(term, entry) ? 1 : 0));
+    }
+
+    /**
+     * The string table of a snapshot, written after the entries and terms.
+     */
+    private static final class StringTable {
+        private final Map<String, Integer> offsets = new HashMap<String, Integer>();
+        private final List<String> strings = new ArrayList<String>();
+        private int nextOffset;
+
+        private StringTable(final int offset) {
+            this.nextOffset = offset;
+        }
+
+        private int add(final String s) {
+            if (s == null)
+                return NULL_STRING;
+            Integer offset = offsets.get(s);
+            if (offset == null) {
+                offset = nextOffset;
+                offsets.put(s, offset);
+                strings.add(s);
+                nextOffset += 4 + 2 * s.length();
+            }
+            return offset;
+        }
+
+        private void writeTo(final DataOutputStream out) throws IOException {
+            for (final String s : strings) {
+                out.writeInt(s.length());
+                out.writeChars(s);
+            }
+        }
+    }
+
+    /**
+     * The terms of a snapshot. The entries are decoded on first use.
+     */
+    private static final class MappedTerms implements Glossary.Terms {
+        private final ByteBuffer buffer;
+        private final AtomicReferenceArray<Glossary.Entry> entries;
+        /** The offsets of the terms of every language. */
+        private final Map<String, Integer> languages = new HashMap<String, Integer>(4);
+
+        private MappedTerms(final ByteBuffer buffer) throws IOException {
+            this.buffer = buffer;
+            final byte[] magic = new byte[MAGIC.length];
+            for (int i = 0; i < magic.length; ++i) {
+                magic[i] = buffer.get(i);
+            }
+            if (!Arrays.equals(magic, MAGIC))
+                throw new IOException("Not a glossary snapshot.");
+            final int version = buffer.getInt(MAGIC.length);
+            if (version != VERSION)
+                throw new IOException("Unsupported glossary snapshot version " + version);
+            final int numEntries = buffer.getInt(MAGIC.length + 16);
+            this.entries = new AtomicReferenceArray<Glossary.Entry>(numEntries);
+            int offset = MAGIC.length + 20 + numEntries * STRINGS_PER_ENTRY * 4;
+            final int numLanguages = buffer.getInt(offset);
+            offset += 4;
+            for (int i = 0; i < numLanguages; ++i) {
+                languages.put(readString(buffer.getInt(offset)), offset + 4);
+                offset += 8 + buffer.getInt(offset + 4) * 8;
+            }
+        }
+
+        @Override
+        public Glossary.Term find(final CharSequence text, final int start, final int end, final Locale language) {
+            final Integer termsOffset = languages.get(language.getLanguage());
+            if (termsOffset == null)
+                return null;
+            int low = 0;
+            int high = buffer.getInt(termsOffset) - 1;
+            while (low <= high) {
+                final int mid = (low + high) >>> 1;
+                final int termOffset = termsOffset + 4 + mid * 8;
+                final int cmp = compare(text, start, end, buffer.getInt(termOffset));
+                if (cmp > 0) {
+                    low = mid + 1;
+                } else if (cmp < 0) {
+                    high = mid - 1;
+                } else {
+                    final int value = buffer.getInt(termOffset + 4);
+                    return new Glossary.Term(entry(value >>> 1), (value & 1) != 0);
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Compares the normalized part of a text with a normalized term of the snapshot.
+         */
+        private int compare(final CharSequence text, final int start, final int end, final int termRef) {
+            final int length = buffer.getInt(termRef);
+            int k = 0;
+            for (int i = start; i < end; ++i) {
+                final char c = text.charAt(i);
+                if (Character.isWhitespace(c))
+                    continue;
+                if (k == length)
+                    return 1;
+                final int diff = Character.toLowerCase(c) - buffer.getChar(termRef + 4 + 2 * k);
+                if (diff != 0)
+                    return diff;
+                ++k;
+            }
+            return k == length ? 0 : -1;
+        }
+
+        @Override
+        public Collection<Glossary.Entry> getEntries() {
+            final List<Glossary.Entry> result = new ArrayList<Glossary.Entry>(entries.length());
+            for (int i = 0; i < entries.length(); ++i) {
+                result.add(entry(i));
+            }
+            return result;
+        }
+
+        private Glossary.Entry entry(final int index) {
+            Glossary.Entry entry = entries.get(index);
+            if (entry == null) {
+                final int offset = MAGIC.length + 20 + index * STRINGS_PER_ENTRY * 4;
+                entry = new Glossary.Entry(
+                        readString(buffer.getInt(offset)),
+                        readString(buffer.getInt(offset + 4)),
+                        readString(buffer.getInt(offset + 8)),
+                        readString(buffer.getInt(offset + 12)),
+                        readString(buffer.getInt(offset + 16)),
+                        readString(buffer.getInt(offset + 20)));
+                entries.compareAndSet(index, null, entry);
+            }
+            return entry;
+        }
+
+        private String readString(final int ref) {
+            if (ref == NULL_STRING)
+                return null;
+            final char[] chars = new char[buffer.getInt(ref)];
+            for (int i = 0; i < chars.length; ++i) {
+                chars[i] = buffer.getChar(ref + 4 + 2 * i);
+            }
+            return new String(chars);
+        }
+    }
+}
@@ -10,6 +10,7 @@ import org.apache.log4j.Logger;
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.Unmarshaller;
 import java.io.InputStream;
+import java.net.URL;
 import java.util.Locale;
 
 /**
@@ -19,30 +20,52 @@ import java.util.Locale;
 public final class JaxbGlossaryFactory implements GlossaryFactory {
 
     private static final Logger LOG = Logger.getLogger(JaxbGlossaryFactory.class);
-    private static final String GLOSSARY_FILE = "glossary/glossary.xml";
+    static final String GLOSSARY_FILE = "glossary/glossary.xml";
     private final Glossary glossary;
 
     public JaxbGlossaryFactory() {
+        this(JaxbGlossaryFactory.class.getClassLoader().getResource(GLOSSARY_FILE));
+    }
+
+    /**
+     * Creates a JaxbGlossaryFactory loading the glossary from the specified URL.
+     *
+     * @param glossaryUrl the URL of the glossary xml.
+     */
+    public JaxbGlossaryFactory(final URL glossaryUrl) {
         try {
-            LOG.info("Loading glossary " + GLOSSARY_FILE);
-            final JAXBContext jc = JAXBContext.newInstance(
-                    de.steinacker.jcg.transform.translation.binding.Glossary.class.getPackage().getName(),
-                    JaxbGlossaryFactory.class.getClassLoader());
+            glossary = read(glossaryUrl).toGlossary();
+        } catch (Exception e) {
+            throw new IllegalStateException("Unable to load glossary: " + e.getMessage(), e);
+        }
+    }
 
-            final Unmarshaller unmarshaller = jc.createUnmarshaller();
-            // Load glossary.xml file
-            final InputStream inStream = JaxbGlossaryFactory.class.getClassLoader().
-                    getResourceAsStream(GLOSSARY_FILE);
+    /**
+     * Reads the entries of a glossary xml.
+     *
+     * @param glossaryUrl the URL of the glossary xml.
+     * @return GlossaryBuilder containing the entries of the glossary.
+     * @throws Exception if the glossary can not be read.
+     */
+    static GlossaryBuilder read(final URL glossaryUrl) throws Exception {
+        LOG.info("Loading glossary " + glossaryUrl);
+        final JAXBContext jc = JAXBContext.newInstance(
+                de.steinacker.jcg.transform.translation.binding.Glossary.class.getPackage().getName(),
+                JaxbGlossaryFactory.class.getClassLoader());
+
+        final Unmarshaller unmarshaller = jc.createUnmarshaller();
+        // Load glossary.xml file
+        final InputStream inStream = glossaryUrl.openStream();
+        try {
             // Get the root element
             de.steinacker.jcg.transform.translation.binding.Glossary jaxbGlossary
                     = (de.steinacker.jcg.transform.translation.binding.Glossary) unmarshaller.unmarshal(inStream);
-
-            glossary = mapToGlossary(jaxbGlossary);
             LOG.info("Source language is " + jaxbGlossary.getLanguage().getSource());
             LOG.info("Target language is " + jaxbGlossary.getLanguage().getTarget());
             LOG.info("Found " + jaxbGlossary.getEntry().size() + " entries.");
-        } catch (Exception e) {
-            throw new IllegalStateException("Unable to load glossary: " + e.getMessage(), e);
+            return mapToGlossary(jaxbGlossary);
+        } finally {
+            inStream.close();
         }
     }
 
@@ -51,7 +74,7 @@ public final class JaxbGlossaryFactory implements GlossaryFactory {
         return glossary;
     }
 
-    private static Glossary mapToGlossary(final de.steinacker.jcg.transform.translation.binding.Glossary jaxbGlossary) {
+    private static GlossaryBuilder mapToGlossary(final de.steinacker.jcg.transform.translation.binding.Glossary jaxbGlossary) {
         final Locale sourceLang = new Locale(jaxbGlossary.getLanguage().getSource());
         final Locale targetLang = new Locale(jaxbGlossary.getLanguage().getTarget());
         final GlossaryBuilder gb = new GlossaryBuilder(sourceLang, targetLang);
@@ -64,6 +87,6 @@ public final class JaxbGlossaryFactory implements GlossaryFactory {
                     entry.getShortDescription(),
                     entry.getLongDescription());
         }
-        return gb.toGlossary();
+        return gb;
     }
 }
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2010 by Guido Steinacker
+ */
+
+package de.steinacker.jcg.transform.translation;
+
+import de.steinacker.jcg.util.DigestUtil;
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Required;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.security.CodeSource;
+
+/**
+ * A GlossaryFactory memory-mapping a GlossarySnapshot.
+ * <p/>
+ * The snapshot contains the digest of the glossary xml it was compiled from. If the snapshot does not
+ * exist, or if the digest of the current glossary xml differs, the glossary is loaded from the xml using
+ * a JaxbGlossaryFactory. Digests are used instead of modification times, because the glossary xml is
+ * usually contained in the jar of jcg, whose modification time is unrelated to the glossary.
+ *
+ * @author Guido Steinacker
+ * @version %version: 28 %
+ */
+public final class MappedGlossaryFactory implements GlossaryFactory {
+
+    private final static Logger LOG = Logger.getLogger(MappedGlossaryFactory.class);
+
+    private File snapshotFile;
+    private URL glossaryUrl = MappedGlossaryFactory.class.getClassLoader().getResource(JaxbGlossaryFactory.GLOSSARY_FILE);
+    private Glossary glossary;
+
+    /**
+     * Injects the file containing the glossary snapshot. A relative name, that does not exist in the
+     * working directory, is resolved against the installation directory of jcg: the directory
+     * containing the jar of jcg, or the build directory containing its classes.
+     *
+     * @param snapshotFile the name of the snapshot file.
+     */
+    @Required
+    public void setSnapshotFile(final String snapshotFile) {
+        final File file = new File(snapshotFile);
+        final File installDir = installDir();
+        this.snapshotFile = file.isAbsolute() || file.exists() || installDir == null
+                ? file
+                : new File(installDir, snapshotFile);
+    }
+
+    /**
+     * Injects the file containing the glossary xml. By default, the glossary is loaded from
+     * the classpath resource glossary/glossary.xml.
+     *
+     * @param glossaryFile the name of the glossary xml file.
+     * @throws MalformedURLException if the name can not be converted into an URL.
+     */
+    public void setGlossaryFile(final String glossaryFile) throws MalformedURLException {
+        this.glossaryUrl = new File(glossaryFile).toURI().toURL();
+    }
+
+    @Override
+    public synchronized Glossary glossary() {
+        if (glossary == null) {
+            if (snapshotFile.isFile()) {
+                try {
+                    LOG.info("Mapping glossary snapshot " + snapshotFile);
+                    glossary = glossaryUrl != null
+                            ? GlossarySnapshot.map(snapshotFile, DigestUtil.digestOfUrl(glossaryUrl))
+                            : GlossarySnapshot.map(snapshotFile);
+                    if (glossary == null)
+                        LOG.info("Glossary snapshot " + snapshotFile + " is out of date.");
+                } catch (IOException e) {
+                    LOG.warn("Unable to map glossary snapshot " + snapshotFile + ": " + e.getMessage());
+                }
+            } else {
+                LOG.info("Glossary snapshot " + snapshotFile + " is missing.");
+            }
+            if (glossary == null)
+                glossary = new JaxbGlossaryFactory(glossaryUrl).glossary();
+        }
+        return glossary;
+    }
+
+    /**
+     * @return the parent directory of the jar or classes directory of jcg, or null if it is unknown.
+     */
+    private static File installDir() {
+        try {
+            final CodeSource codeSource = MappedGlossaryFactory.class.getProtectionDomain().getCodeSource();
+            if (codeSource == null || codeSource.getLocation() == null)
+                return null;
+            return new File(codeSource.getLocation().toURI()).getParentFile();
+        } catch (Exception e) {
+            LOG.warn("Unable to determine the installation directory of jcg: " + e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2010 by Guido Steinacker
+ */
+
+package de.steinacker.jcg.transform.translation;
+
+import java.util.Arrays;
+
+/**
+ * A trie of the terms of a glossary in a single language.
+ * <p/>
+ * Terms are normalized by removing all whitespace and converting them to lower case, so "Order Item",
+ * "orderItem" and "OrderItem" are the same term. The normalization is done while walking the trie,
+ * so looking up a term or a part of a camel-hump name does not create any objects.
+ *
+ * @author Guido Steinacker
+ * @version %version: 28 %
+ */
+final class TermIndex<T> {
+
+    private static final char[] NO_KEYS = new char[0];
+    private static final TermIndex<?>[] NO_CHILDREN = new TermIndex<?>[0];
+
+    private char[] keys = NO_KEYS;
+    @SuppressWarnings("unchecked")
+    private TermIndex<T>[] children = (TermIndex<T>[]) NO_CHILDREN;
+    private T value;
+
+    /**
+     * Adds a term to the index, replacing the value of an equal term.
+     *
+     * @param term the term
+     * @param value the value associated with the term.
+     */
+    void put(final CharSequence term, final T value) {
+        TermIndex<T> node = this;
+        for (int i = 0, n = term.length(); i < n; ++i) {
+            final char c = term.charAt(i);
+            if (!Character.isWhitespace(c))
+                node = node.childOrCreate(Character.toLowerCase(c));
+        }
+        node.value = value;
+    }
+
+    /**
+     * @param term the term
+     * @return the value associated with the term, or null.
+     */
+    T get(final CharSequence term) {
+        return get(term, 0, term.length());
+    }
+
+    /**
+     * Returns the value associated with a part of a text.
+     *
+     * @param text  a text, for example a camel-hump name
+     * @param start the index of the first character of the term
+     * @param end   the index after the last character of the term
+     * @return the value associated with the term, or null.
+     */
+    T get(final CharSequence text, final int start, final int end) {
+        TermIndex<T> node = this;
+        for (int i = start; i < end && node != null; ++i) {
+            final char c = text.charAt(i);
+            if (!Character.isWhitespace(c))
+                node = node.child(Character.toLowerCase(c));
+        }
+        return node != null ? node.value : null;
+    }
+
+    /**
+     * @param term a term
+     * @return the normalized term: without whitespace and in lower case.
+     */
+    static String normalize(final CharSequence term) {
+        final StringBuilder sb = new StringBuilder(term.length());
+        for (int i = 0, n = term.length(); i < n; ++i) {
+            final char c = term.charAt(i);
+            if (!Character.isWhitespace(c))
+                sb.append(Character.toLowerCase(c));
+        }
+        return sb.toString();
+    }
+
+    private TermIndex<T> child(final char c) {
+        final int pos = Arrays.binarySearch(keys, c);
+        return pos >= 0 ? children[pos] : null;
+    }
+
+    private TermIndex<T> childOrCreate(final char c) {
+        int pos = Arrays.binarySearch(keys, c);
+        if (pos < 0) {
+            pos = -pos - 1;
+            final char[] newKeys = new char[keys.length + 1];
+            final TermIndex<T>[] newChildren = newArray(children.length + 1);
+            System.arraycopy(keys, 0, newKeys, 0, pos);
+            System.arraycopy(children, 0, newChildren, 0, pos);
+            newKeys[pos] = c;
+            newChildren[pos] = new TermIndex<T>();
+            System.arraycopy(keys, pos, newKeys, pos + 1, keys.length - pos);
+            System.arraycopy(children, pos, newChildren, pos + 1, children.length - pos);
+            keys = newKeys;
+            children = newChildren;
+        }
+        return children[pos];
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> TermIndex<T>[] newArray(final int length) {
+        return (TermIndex<T>[]) new TermIndex<?>[length];
+    }
+}
@@ -7,11 +7,15 @@ package de.steinacker.jcg.transform.translation;
 import de.steinacker.jcg.model.QualifiedName;
 import de.steinacker.jcg.model.SimpleName;
 import de.steinacker.jcg.transform.type.AbstractTypeTranslator;
+import de.steinacker.jcg.transform.type.Fingerprinted;
 import de.steinacker.jcg.util.NameUtil;
 import org.springframework.beans.factory.annotation.Required;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Translates types from one language into another language, using a Glossary.
@@ -19,7 +23,7 @@ import java.util.List;
  * @author Guido Steinacker
  * @version %version: 28 %
  */
-public final class TypeTranslator extends AbstractTypeTranslator {
+public final class TypeTranslator extends AbstractTypeTranslator implements Fingerprinted {
 
     /** A list of possible prefixes of method names, where the remaining part of the
      * method name may be translatable.
@@ -31,6 +35,9 @@ public final class TypeTranslator extends AbstractTypeTranslator {
 
     private String name;
     private Glossary glossary;
+    /** The translated names, per source name. Names are translated over and over, so they are cached. */
+    private final ConcurrentMap<SimpleName, SimpleName> translatedSimpleNames = new ConcurrentHashMap<SimpleName, SimpleName>();
+    private final ConcurrentMap<SimpleName, SimpleName> translatedCamelHumpNames = new ConcurrentHashMap<SimpleName, SimpleName>();
 
     /**
      * Injects the Glossary used to translate the names.
@@ -39,6 +46,8 @@ public final class TypeTranslator extends AbstractTypeTranslator {
     @Required
     public void setGlossary(final Glossary glossary) {
         this.glossary = glossary;
+        translatedSimpleNames.clear();
+        translatedCamelHumpNames.clear();
     }
 
     /**
@@ -55,15 +64,24 @@ public final class TypeTranslator extends AbstractTypeTranslator {
         return name;
     }
 
+    @Override
+    public String getFingerprint() {
+        return "glossary=" + glossary.getVersion();
+    }
+
     @Override
     protected SimpleName translateSimpleName(final CharSequence sourceName) {
-        if (glossary.hasTranslation(sourceName, glossary.getSourceLanguage())) {
-            final String translation = glossary.getTranslation(sourceName, glossary.getSourceLanguage());
-            final boolean firstUpperCase = NameUtil.isFirstUpperCase(sourceName);
-            return SimpleName.valueOf(NameUtil.toCamelHumpName(translation, firstUpperCase));
-        } else {
-            return SimpleName.valueOf(sourceName);
+        final SimpleName simpleName = SimpleName.valueOf(sourceName);
+        SimpleName result = translatedSimpleNames.get(simpleName);
+        if (result == null) {
+            final String translation = glossary.findTranslation(
+                    sourceName, 0, sourceName.length(), glossary.getSourceLanguage());
+            result = translation != null
+                    ? SimpleName.valueOf(NameUtil.toCamelHumpName(translation, NameUtil.isFirstUpperCase(sourceName)))
+                    : simpleName;
+            translatedSimpleNames.put(simpleName, result);
         }
+        return result;
     }
 
     @Override
@@ -74,24 +92,48 @@ public final class TypeTranslator extends AbstractTypeTranslator {
 
     @Override
     protected SimpleName translateCamelHumpName(final CharSequence name) {
-        String[] parts = null;
-        final String s = name.toString();
-        String methodPrefix = "";
-        for (final String prefix : translatableNamePrefixes) {
-            if (s.startsWith(prefix) && prefix.length() < s.length()) {
-                methodPrefix = prefix;
-                parts = NameUtil.splitCamelHumpName(s.substring(prefix.length()));
-            }
+        final SimpleName simpleName = SimpleName.valueOf(name);
+        SimpleName result = translatedCamelHumpNames.get(simpleName);
+        if (result == null) {
+            result = translateCamelHumpParts(simpleName.toString());
+            translatedCamelHumpNames.put(simpleName, result);
         }
-        if (parts != null) {
-            final StringBuilder camelHumpName = new StringBuilder();
-            for (String part : parts) {
-                camelHumpName.append(translateSimpleName(part));
-            }
-            return SimpleName.valueOf(methodPrefix + NameUtil.toCamelHumpName(camelHumpName.toString(), true));
-        } else {
+        return result;
+    }
+
+    /**
+     * Translates a name starting with one of the translatable name prefixes part by part. The
+     * parts of the name are separated by upper-case characters: "getOrderItem" is translated
+     * as "get" + translation("Order") + translation("Item").
+     */
+    private SimpleName translateCamelHumpParts(final String name) {
+        final String methodPrefix = translatablePrefixOf(name);
+        if (methodPrefix == null)
             return translateSimpleName(name);
+        final Locale sourceLanguage = glossary.getSourceLanguage();
+        final StringBuilder camelHumpName = new StringBuilder(name.length() * 2);
+        int start = methodPrefix.length();
+        for (int i = start + 1, n = name.length(); i <= n; ++i) {
+            if (i == n || Character.isUpperCase(name.charAt(i))) {
+                final String translation = glossary.findTranslation(name, start, i, sourceLanguage);
+                if (translation != null) {
+                    final boolean firstUpperCase = NameUtil.isFirstUpperCase(name.subSequence(start, i));
+                    camelHumpName.append(NameUtil.toCamelHumpName(translation, firstUpperCase));
+                } else {
+                    camelHumpName.append(name, start, i);
+                }
+                start = i;
+            }
+        }
+        return SimpleName.valueOf(methodPrefix + NameUtil.toCamelHumpName(camelHumpName.toString(), true));
+    }
+
+    private static String translatablePrefixOf(final String name) {
+        for (final String prefix : translatableNamePrefixes) {
+            if (name.startsWith(prefix) && prefix.length() < name.length())
+                return prefix;
         }
+        return null;
     }
 
     @Override
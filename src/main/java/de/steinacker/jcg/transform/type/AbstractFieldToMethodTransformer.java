@@ -7,10 +7,15 @@ package de.steinacker.jcg.transform.type;
 import de.steinacker.jcg.Context;
 import de.steinacker.jcg.model.Field;
 import de.steinacker.jcg.model.Method;
+import de.steinacker.jcg.model.Type;
 import org.apache.log4j.Logger;
 
 /**
  * Abstract implementation of a ModelTransformer used to add Methods for every Field of a Type.
+ * <p/>
+ * Consecutive field transformers in a TypeTransformerChain are applied in a single pass over the
+ * fields (see FusedFieldTransformer). transformFieldToMethod() must therefore only depend on the
+ * field and the declaration of the type returned by getType().
  *
  * @author Guido Steinacker
  * @version %version: 28 %
@@ -19,6 +24,15 @@ public abstract class AbstractFieldToMethodTransformer extends AbstractTypeTrans
 
     private final static Logger LOG = Logger.getLogger(AbstractFieldToMethodTransformer.class);
 
+    @Override
+    public final void visit(final Type type, final Context context) {
+        super.visit(type, context);
+    }
+
+    @Override
+    public final void visit(final Method method, final Context context) {
+    }
+
     @Override
     public final void visit(final Field field, final Context context) {
         final Method method = transformFieldToMethod(field, context);
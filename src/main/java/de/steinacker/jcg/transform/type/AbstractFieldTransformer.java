@@ -6,6 +6,7 @@ package de.steinacker.jcg.transform.type;
 
 import de.steinacker.jcg.Context;
 import de.steinacker.jcg.model.Field;
+import de.steinacker.jcg.model.Method;
 import de.steinacker.jcg.model.Type;
 import de.steinacker.jcg.model.TypeBuilder;
 
@@ -13,6 +14,10 @@ import java.util.ArrayList;
 
 /**
  * An abstract TypeTransformer that is used to replace all Fields with transformed Field instances.
+ * <p/>
+ * Consecutive field transformers in a TypeTransformerChain are applied in a single pass over the
+ * fields (see FusedFieldTransformer). transformField() must therefore only depend on the field and
+ * the declaration of the type returned by getType().
  *
  * @author Guido Steinacker
  * @version %version: 28 %
@@ -25,6 +30,10 @@ public abstract class AbstractFieldTransformer extends AbstractTypeTransformer i
         super.visit(type, context);
     }
 
+    @Override
+    public final void visit(final Method method, final Context context) {
+    }
+
     @Override
     public final void visit(final Field field, final Context context) {
         final TypeBuilder builder = context.getParameter(CTX_PARAM_TYPEBUILDER, TypeBuilder.class);
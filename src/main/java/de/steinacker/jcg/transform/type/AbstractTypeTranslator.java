@@ -72,7 +72,7 @@ public abstract class AbstractTypeTranslator implements TypeTransformer {
         } else {
             final TypeSymbol returnType = method.getReturnType();
             final QualifiedName translatedType = translateQualifiedName(returnType.getQualifiedName());
-            mb.setReturnType(new TypeSymbol(translatedType, returnType.getTypeParameters()));
+            mb.setReturnType(TypeSymbol.valueOf(translatedType, returnType.getTypeParameters()));
             mb.setName(translateCamelHumpName(methodName));
         }
         mb.setParameters(new ArrayList<Parameter>());
@@ -89,20 +89,16 @@ public abstract class AbstractTypeTranslator implements TypeTransformer {
     }
 
     private Field translateField(final Field field) {
-        return new FieldBuilder()
+        return new FieldBuilder(field)
                 .setName(translateSimpleName(field.getName()))
                 .setType(translateTypeSymbol(field.getType()))
-                .setInitString(field.getInitString())
-                .setAnnotations(field.getAnnotations())
-                .setModifiers(field.getModifiers())
-                .setComment(field.getComment())
                 .toField();
     }
 
     private TypeSymbol translateTypeSymbol(final TypeSymbol typeSymbol) {
         final QualifiedName translatedClassName = translateQualifiedName(typeSymbol.getQualifiedName());
         final List<TypeParameter> translatedTypeParams = translateTypeParameters(typeSymbol.getTypeParameters());
-        return new TypeSymbol(translatedClassName, translatedTypeParams);
+        return TypeSymbol.valueOf(translatedClassName, translatedTypeParams);
     }
 
     private List<TypeParameter> translateTypeParameters(final List<TypeParameter> typeParameters) {
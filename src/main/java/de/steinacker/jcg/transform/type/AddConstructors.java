@@ -7,6 +7,7 @@ package de.steinacker.jcg.transform.type;
 import de.steinacker.jcg.codegen.ProcessingContext;
 import de.steinacker.jcg.codegen.TemplateProcessor;
 import de.steinacker.jcg.model.*;
+import de.steinacker.jcg.util.DigestUtil;
 import org.apache.commons.lang.builder.ToStringBuilder;
 import org.apache.commons.lang.builder.ToStringStyle;
 import org.springframework.beans.factory.annotation.Required;
@@ -36,9 +37,10 @@ import java.util.Map;
  * @author Guido Steinacker
  * @version %version: 28 %
  */
-public final class AddConstructors implements TypeTransformer {
+public final class AddConstructors implements TypeTransformer, Fingerprinted {
 
     private String templateName;
+    private String templateDigest;
     private TemplateProcessor processor;
     private boolean onlyFinalFields = false;
     private boolean finalAndNonFinalFields;
@@ -61,6 +63,7 @@ public final class AddConstructors implements TypeTransformer {
     @Required
     public void setTemplateName(final String templateName) {
         this.templateName = templateName;
+        this.templateDigest = DigestUtil.digestOfResource(templateName);
     }
 
     /**
@@ -116,6 +119,14 @@ public final class AddConstructors implements TypeTransformer {
         return name;
     }
 
+    @Override
+    public String getFingerprint() {
+        return "template=" + templateName + "#" + templateDigest
+                + ", onlyFinalFields=" + onlyFinalFields
+                + ", finalAndNonFinalFields=" + finalAndNonFinalFields
+                + ", generateDefaultConstructor=" + generateDefaultConstructor;
+    }
+
     @Override
     public List<TypeMessage> transform(final TypeMessage message) {
         final Type type = message.getPayload();
@@ -20,7 +20,7 @@ import java.util.List;
  * @author Guido Steinacker
  * @version %version: 28 %
  */
-public final class AddGeneratedAnnotation implements TypeTransformer {
+public final class AddGeneratedAnnotation implements TypeTransformer, Fingerprinted {
 
     private final static Logger LOG = Logger.getLogger(AddGeneratedAnnotation.class);
     private final static QualifiedName GENERATED_ANNOTATION_NAME = QualifiedName.valueOf("javax.annotation.Generated");
@@ -60,6 +60,17 @@ public final class AddGeneratedAnnotation implements TypeTransformer {
         return name;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The fingerprint does not contain the current date, so types taken from the TransformationCache
+     * keep the date of the run that generated them first.
+     */
+    @Override
+    public String getFingerprint() {
+        return "comments=" + comments + ", dateFormat=" + dateFormat;
+    }
+
     private boolean hasAnnotation(final Type type, final QualifiedName name) {
         for (final Annotation a : type.getAnnotations()) {
             if (a.getName().equals(name))
@@ -98,7 +109,7 @@ public final class AddGeneratedAnnotation implements TypeTransformer {
             defaults.add(new AnnotationParameter("comments", true, new AnnotationValue(comments, "\"" + comments + "\"")));
             // create the new Type from the old one and add the @Generated annotation:
             final Type annotatedType = new TypeBuilder(type)
-                    .addAnnotation(new Annotation(GENERATED_ANNOTATION_NAME, params, defaults))
+                    .addAnnotation(Annotation.valueOf(GENERATED_ANNOTATION_NAME, params, defaults))
                     .toType();
             // return a new TypeMessage:
             return Collections.singletonList(new TypeMessage(annotatedType, message.getContext()));
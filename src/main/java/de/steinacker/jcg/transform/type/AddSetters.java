@@ -8,6 +8,7 @@ import de.steinacker.jcg.Context;
 import de.steinacker.jcg.codegen.ProcessingContext;
 import de.steinacker.jcg.codegen.TemplateProcessor;
 import de.steinacker.jcg.model.*;
+import de.steinacker.jcg.util.DigestUtil;
 import de.steinacker.jcg.util.NameUtil;
 import org.springframework.beans.factory.annotation.Required;
 
@@ -21,10 +22,11 @@ import java.util.Map;
  * @author Guido Steinacker
  * @version %version: 28 %
  */
-public final class AddSetters extends AbstractFieldToMethodTransformer implements TypeTransformer {
+public final class AddSetters extends AbstractFieldToMethodTransformer implements TypeTransformer, Fingerprinted {
 
     private String name;
     private String templateName;
+    private String templateDigest;
     private TemplateProcessor processor;
 
     /**
@@ -34,6 +36,7 @@ public final class AddSetters extends AbstractFieldToMethodTransformer implement
     @Required
     public void setTemplateName(final String templateName) {
         this.templateName = templateName;
+        this.templateDigest = DigestUtil.digestOfResource(templateName);
     }
 
     /**
@@ -61,6 +64,11 @@ public final class AddSetters extends AbstractFieldToMethodTransformer implement
         return name;
     }
 
+    @Override
+    public String getFingerprint() {
+        return "template=" + templateName + "#" + templateDigest;
+    }
+
     @Override
     protected Method transformFieldToMethod(final Field field, final Context context) {
         // no setters for final or static fields:
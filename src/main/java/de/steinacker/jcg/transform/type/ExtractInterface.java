@@ -18,7 +18,7 @@ import java.util.*;
  * @author Guido Steinacker
  * @version %version: 28 %
  */
-public final class ExtractInterface implements TypeTransformer {
+public final class ExtractInterface implements TypeTransformer, Fingerprinted {
 
     private String name = "ExtractInterface";
     private String interfacePrefix = "";
@@ -124,6 +124,18 @@ public final class ExtractInterface implements TypeTransformer {
         return name;
     }
 
+    @Override
+    public String getFingerprint() {
+        return "interfacePrefix=" + interfacePrefix
+                + ", classPrefix=" + classPrefix
+                + ", classSuffix=" + classSuffix
+                + ", interfaceRelativePackage=" + interfaceRelativePackage
+                + ", interfaceAbsolutePackage=" + interfaceAbsolutePackage
+                + ", classRelativePackage=" + classRelativePackage
+                + ", classAbsolutePackage=" + classAbsolutePackage
+                + ", addOverrideAnnotation=" + addOverrideAnnotation;
+    }
+
     /**
      * {@inheritDoc}
      * <p>
@@ -172,7 +184,7 @@ public final class ExtractInterface implements TypeTransformer {
                     } else {
                         if (addOverrideAnnotation && isInterfaceMethodCandidate(method)) {
                             methods.add(new MethodBuilder(method)
-                                    .addAnnotation(new Annotation(QualifiedName.valueOf("java.lang.Override")))
+                                    .addAnnotation(Annotation.valueOf(QualifiedName.valueOf("java.lang.Override")))
                                     .toMethod()
                             );
                         } else {
@@ -257,7 +269,7 @@ public final class ExtractInterface implements TypeTransformer {
         final QualifiedName typeName = type.getName();
         final CharSequence packageName = buildPackageName(typeName.getPackage(), interfaceAbsolutePackage, interfaceRelativePackage);
         final String interfaceName = interfacePrefix + typeName.getSimpleName();
-        return new TypeSymbol(QualifiedName.valueOf(packageName, interfaceName), type.getTypeParameters());
+        return TypeSymbol.valueOf(QualifiedName.valueOf(packageName, interfaceName), type.getTypeParameters());
     }
 
     /**
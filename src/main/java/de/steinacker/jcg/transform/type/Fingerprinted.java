@@ -0,0 +1,30 @@
+/*
+ * Copyright (c) 2010 by Guido Steinacker
+ */
+
+package de.steinacker.jcg.transform.type;
+
+/**
+ * A TypeTransformer, whose results depend on its configuration - for example on mapping
+ * patterns, a glossary or templates.
+ * <p/>
+ * The fingerprint is used by the TransformationCache to decide, whether the cached result of a
+ * transformation is still valid. Transformers not implementing this interface are identified by their
+ * class and name only.
+ * <p/>
+ * ModelTransformers and Generators implement this interface, too: the JcgController uses their
+ * fingerprints to decide, whether the snapshot of an incremental generation is still valid.
+ *
+ * @author Guido Steinacker
+ * @version %version: 28 %
+ */
+public interface Fingerprinted {
+
+    /**
+     * Returns a fingerprint of the configuration of the transformer. The fingerprint must be stable
+     * across runs: it must change if, and should only change if, the configuration changes.
+     *
+     * @return fingerprint
+     */
+    public String getFingerprint();
+}
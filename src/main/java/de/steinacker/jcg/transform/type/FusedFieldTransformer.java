@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2010 by Guido Steinacker
+ */
+
+package de.steinacker.jcg.transform.type;
+
+import de.steinacker.jcg.Context;
+import de.steinacker.jcg.model.Field;
+import de.steinacker.jcg.model.Method;
+import de.steinacker.jcg.model.Type;
+import de.steinacker.jcg.model.TypeBuilder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Applies a sequence of AbstractFieldTransformers and AbstractFieldToMethodTransformers in a single
+ * pass over the fields of a type, using a single TypeBuilder.
+ * <p/>
+ * Every field is passed through the transformers in their order: field transformers replace the
+ * field, field-to-method transformers create a method from the current version of the field. The
+ * created methods are added to the type grouped by transformer, so the result is the same as if the
+ * transformers were applied one after another - except that getType() returns the type at the start
+ * of the sequence to all transformers. As the transformers only modify fields, methods and imports,
+ * the declaration of this type is the same.
+ *
+ * @author Guido Steinacker
+ * @version %version: 28 %
+ */
+final class FusedFieldTransformer implements TypeTransformer {
+
+    private final List<AbstractTypeTransformer> transformers;
+
+    /**
+     * @param transformers the transformers; each must be fusible.
+     */
+    FusedFieldTransformer(final List<AbstractTypeTransformer> transformers) {
+        for (final AbstractTypeTransformer transformer : transformers) {
+            if (!isFusible(transformer))
+                throw new IllegalArgumentException(transformer + " can not be fused.");
+        }
+        this.transformers = new ArrayList<AbstractTypeTransformer>(transformers);
+    }
+
+    /**
+     * @param transformer a TypeTransformer
+     * @return true, if the transformer only transforms the fields of a type, or adds methods for them.
+     */
+    static boolean isFusible(final TypeTransformer transformer) {
+        return transformer instanceof AbstractFieldTransformer
+                || transformer instanceof AbstractFieldToMethodTransformer;
+    }
+
+    @Override
+    public String getName() {
+        return "Fused" + transformers;
+    }
+
+    @Override
+    public List<TypeMessage> transform(final TypeMessage message) {
+        final Type type = message.getPayload();
+        final TypeBuilder builder = new TypeBuilder(type);
+        final int numTransformers = transformers.size();
+        final List<Context> contexts = new ArrayList<Context>(numTransformers);
+        final List<List<Method>> methods = new ArrayList<List<Method>>(numTransformers);
+        boolean transformsFields = false;
+        for (final AbstractTypeTransformer transformer : transformers) {
+            contexts.add(transformer.createTransformerContext(message)
+                    .addParameter(AbstractTypeTransformer.CTX_PARAM_TYPEBUILDER, builder)
+                    .toContext());
+            methods.add(new ArrayList<Method>());
+            transformsFields |= transformer instanceof AbstractFieldTransformer;
+        }
+        final List<Field> fields = new ArrayList<Field>(type.getFields().size());
+        for (final Field field : type.getFields()) {
+            Field current = field;
+            for (int i = 0; i < numTransformers; ++i) {
+                final AbstractTypeTransformer transformer = transformers.get(i);
+                if (transformer instanceof AbstractFieldTransformer) {
+                    current = ((AbstractFieldTransformer) transformer).transformField(current, contexts.get(i));
+                } else {
+                    final Method method = ((AbstractFieldToMethodTransformer) transformer)
+                            .transformFieldToMethod(current, contexts.get(i));
+                    if (method != null)
+                        methods.get(i).add(method);
+                }
+            }
+            fields.add(current);
+        }
+        if (transformsFields)
+            builder.setFields(fields);
+        for (final List<Method> methodsOfTransformer : methods) {
+            for (final Method method : methodsOfTransformer) {
+                builder.addMethod(method);
+            }
+        }
+        return Collections.singletonList(new TypeMessage(builder.toType(), message.getContext()));
+    }
+
+    @Override
+    public String toString() {
+        return getName();
+    }
+}
@@ -23,7 +23,7 @@ import java.util.List;
  * @author Guido Steinacker
  * @version %version: 28 %
  */
-public final class RemoveAnnotations implements TypeTransformer {
+public final class RemoveAnnotations implements TypeTransformer, Fingerprinted {
 
     private final static Logger LOG = Logger.getLogger(RemoveAnnotations.class);
     private String name;
@@ -50,6 +50,11 @@ public final class RemoveAnnotations implements TypeTransformer {
         return name;
     }
 
+    @Override
+    public String getFingerprint() {
+        return "classNames=" + classNames + ", packageNames=" + packageNames;
+    }
+
     /**
      * Returns true if the specified annotation should be removed from the type.
      *
@@ -0,0 +1,338 @@
+/*
+ * Copyright (c) 2010 by Guido Steinacker
+ */
+
+package de.steinacker.jcg.transform.type;
+
+import de.steinacker.jcg.model.ModelReader;
+import de.steinacker.jcg.model.ModelWriter;
+import de.steinacker.jcg.model.Type;
+import de.steinacker.jcg.util.DigestUtil;
+import org.apache.log4j.Logger;
+
+import java.io.*;
+import java.net.URL;
+import java.security.MessageDigest;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An on-disk cache of the results of transformations, surviving several runs of jcg.
+ * <p/>
+ * Entries are keyed by a fingerprint of the transformed type, the parameters of the context and the
+ * transformers applied to the type. The fingerprint of a transformer consists of its class, the timestamp
+ * of the class file, its name and - if it implements {@link Fingerprinted} - its configuration. Changing
+ * the type, the selected transformers or their configuration therefore invalidates the entry.
+ * <p/>
+ * The transformed types are stored using the binary format of the ModelWriter. Only the types are
+ * cached: the transformers are expected to return the context of the transformed message unchanged.
+ * <p/>
+ * If the size of all entries exceeds the maximum size, the least recently used entries are deleted.
+ *
+ * @author Guido Steinacker
+ * @version %version: 28 %
+ */
+public final class TransformationCache {
+
+    private final static Logger LOG = Logger.getLogger(TransformationCache.class);
+
+    private static final String SUFFIX = ".jcgm";
+    private static final long DEFAULT_MAX_SIZE = 64L * 1024 * 1024;
+
+    private static final ConcurrentMap<Class<?>, Long> CLASS_TIMESTAMPS = new ConcurrentHashMap<Class<?>, Long>();
+
+    private final File cacheDir;
+    private final long maxSize;
+    private final AtomicLong size = new AtomicLong();
+
+    /**
+     * Creates a TransformationCache with a maximum size of 64MB, storing the entries in the specified
+     * directory. The directory is created, if it does not exist.
+     *
+     * @param cacheDir the directory used to store the transformed types.
+     */
+    public TransformationCache(final String cacheDir) {
+        this(cacheDir, DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Creates a TransformationCache, storing the entries in the specified directory. The directory
+     * is created, if it does not exist.
+     *
+     * @param cacheDir the directory used to store the transformed types.
+     * @param maxSize  the maximum size of all entries in bytes.
+     */
+    public TransformationCache(final String cacheDir, final long maxSize) {
+        if (maxSize < 1)
+            throw new IllegalArgumentException("The maximum size must be greater than zero.");
+        this.cacheDir = new File(cacheDir);
+        if (!this.cacheDir.exists() && !this.cacheDir.mkdirs())
+            throw new IllegalArgumentException("Unable to create cache directory " + cacheDir);
+        this.maxSize = maxSize;
+        for (final File file : entries()) {
+            size.addAndGet(file.length());
+        }
+    }
+
+    /**
+     * Computes the key of the cache entry for the transformation of a message.
+     * <p/>
+     * The parameters of the context are part of the key. Strings, names, numbers, booleans, characters,
+     * enums and Types - also contained in Collections or Maps - are supported; Types are encoded by the
+     * ModelWriter, just like the transformed type. If the context contains any other parameter, the
+     * transformation depends on a value without a stable encoding and can not be cached.
+     *
+     * @param message      the transformed message.
+     * @param transformers the transformers applied to the message, in the order of their application.
+     * @return the hex-encoded hash of the type, the context and the transformers, or null if the
+     *         context contains a parameter, that can not be encoded.
+     */
+    public String keyOf(final TypeMessage message, final List<? extends TypeTransformer> transformers) {
+        final MessageDigest digest = DigestUtil.sha1();
+        final StringBuilder sb = new StringBuilder();
+        for (final TypeTransformer transformer : transformers) {
+            sb.append(fingerprintOf(transformer)).append('\n');
+        }
+        try {
+            for (final Map.Entry<String, Object> parameter
+                    : new TreeMap<String, Object>(message.getContext().getParameters()).entrySet()) {
+                sb.append(parameter.getKey()).append('=');
+                if (!encode(parameter.getValue(), sb)) {
+                    LOG.debug("Not caching the transformation of " + message.getPayload().getName()
+                            + ": unable to encode the context parameter " + parameter.getKey());
+                    return null;
+                }
+                sb.append('\n');
+            }
+            digest.update(sb.toString().getBytes("UTF-8"));
+            digest.update(bytesOf(message.getPayload()));
+        } catch (IOException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+        return DigestUtil.toHex(digest.digest());
+    }
+
+    /**
+     * Appends a stable encoding of a parameter value. Strings are prefixed by their length, so the
+     * encoding is unambiguous; elements of Sets and entries of Maps are sorted by their encoding.
+     *
+     * @param value the parameter value.
+     * @param sb    the StringBuilder, the encoding is appended to.
+     * @return false, if the value (or one of its elements) can not be encoded.
+     * @throws IOException if writing a Type fails.
+     */
+    private static boolean encode(final Object value, final StringBuilder sb) throws IOException {
+        if (value == null) {
+            sb.append('0');
+        } else if (value instanceof CharSequence) {
+            final String s = value.toString();
+            sb.append('s').append(s.length()).append(':').append(s);
+        } else if (value instanceof Number || value instanceof Boolean || value instanceof Character) {
+            sb.append(value.getClass().getSimpleName()).append(':').append(value);
+        } else if (value instanceof Enum) {
+            sb.append('e').append(((Enum<?>) value).getDeclaringClass().getName()).append('.').append(((Enum<?>) value).name());
+        } else if (value instanceof Type) {
+            sb.append('t').append(DigestUtil.toHex(DigestUtil.sha1().digest(bytesOf((Type) value))));
+        } else if (value instanceof Collection) {
+            final List<String> elements = new ArrayList<String>();
+            for (final Object element : (Collection<?>) value) {
+                final StringBuilder encoded = new StringBuilder();
+                if (!encode(element, encoded))
+                    return false;
+                elements.add(encoded.toString());
+            }
+            if (value instanceof Set)
+                Collections.sort(elements);
+            sb.append(value instanceof Set ? "S" : "L").append(elements);
+        } else if (value instanceof Map) {
+            final SortedMap<String, String> entries = new TreeMap<String, String>();
+            for (final Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                final StringBuilder encodedKey = new StringBuilder();
+                final StringBuilder encodedValue = new StringBuilder();
+                if (!encode(entry.getKey(), encodedKey) || !encode(entry.getValue(), encodedValue))
+                    return false;
+                entries.put(encodedKey.toString(), encodedValue.toString());
+            }
+            sb.append('M').append(entries);
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    private static byte[] bytesOf(final Type type) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final ModelWriter out = new ModelWriter(bytes);
+        out.write(type);
+        out.close();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Returns the fingerprint of a transformer, or of any other component like a generator.
+     *
+     * @param component the TypeTransformer or other component.
+     * @return fingerprint of the component's class, name (of a TypeTransformer) and configuration.
+     */
+    public static String fingerprintOf(final Object component) {
+        final StringBuilder sb = new StringBuilder()
+                .append(component.getClass().getName())
+                .append('@').append(timestampOf(component.getClass()));
+        if (component instanceof TypeTransformer)
+            sb.append(':').append(((TypeTransformer) component).getName());
+        if (component instanceof Fingerprinted)
+            sb.append('{').append(((Fingerprinted) component).getFingerprint()).append('}');
+        return sb.toString();
+    }
+
+    /**
+     * Returns the cached types of the entry with the specified key.
+     *
+     * @param key the key of the cache entry.
+     * @return list of types, or null if there is no (readable) entry.
+     */
+    public List<Type> get(final String key) {
+        final File file = fileOf(key);
+        if (!file.exists())
+            return null;
+        try {
+            final ModelReader in = new ModelReader(new FileInputStream(file));
+            try {
+                final List<Type> types = new ArrayList<Type>();
+                Type type;
+                while ((type = in.read()) != null) {
+                    types.add(type);
+                }
+                // the timestamp of the entry is used to evict the least recently used entries:
+                file.setLastModified(System.currentTimeMillis());
+                return types;
+            } finally {
+                in.close();
+            }
+        } catch (final Exception e) {
+            LOG.warn("Ignoring unreadable cache entry " + file + ": " + e.getMessage());
+            delete(file);
+            return null;
+        }
+    }
+
+    /**
+     * Stores the transformed types. The entry is first written to a temporary file, so
+     * concurrent readers never see a partially written entry.
+     *
+     * @param key   the key of the cache entry.
+     * @param types the transformed types.
+     */
+    public void put(final String key, final List<Type> types) {
+        final File file = fileOf(key);
+        try {
+            final File tmpFile = File.createTempFile(key, ".tmp", cacheDir);
+            final ModelWriter out = new ModelWriter(new FileOutputStream(tmpFile));
+            try {
+                for (final Type type : types) {
+                    out.write(type);
+                }
+            } finally {
+                out.close();
+            }
+            final long length = tmpFile.length();
+            // an existing entry is replaced by the new one:
+            final long replacedLength = file.length();
+            if (tmpFile.renameTo(file)) {
+                if (size.addAndGet(length - replacedLength) > maxSize)
+                    evict(file);
+            } else {
+                // the entry may have been written by another thread or process:
+                tmpFile.delete();
+            }
+        } catch (final IOException e) {
+            LOG.warn("Unable to write cache entry " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return the size of all entries in bytes.
+     */
+    public long getSize() {
+        return size.get();
+    }
+
+    /**
+     * Deletes the least recently used entries, until the size of the cache is below 3/4 of the maximum size.
+     *
+     * @param newEntry the entry written last, which is not deleted.
+     */
+    private synchronized void evict(final File newEntry) {
+        if (size.get() <= maxSize)
+            return;
+        final File[] files = entries();
+        final long[] lastModified = new long[files.length];
+        final Integer[] order = new Integer[files.length];
+        for (int i = 0; i < files.length; ++i) {
+            lastModified[i] = files[i].lastModified();
+            order[i] = i;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(final Integer i, final Integer j) {
+                return lastModified[i] < lastModified[j] ? -1 : (lastModified[i] == lastModified[j] ? 0 : 1);
+            }
+        });
+        final long targetSize = maxSize / 4 * 3;
+        int evicted = 0;
+        for (int i = 0; i < order.length && size.get() > targetSize; ++i) {
+            if (!files[order[i]].equals(newEntry)) {
+                delete(files[order[i]]);
+                ++evicted;
+            }
+        }
+        LOG.info("Evicted " + evicted + " entries from " + cacheDir);
+    }
+
+    private void delete(final File file) {
+        final long length = file.length();
+        if (file.delete())
+            size.addAndGet(-length);
+    }
+
+    private File[] entries() {
+        final File[] files = cacheDir.listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(final File dir, final String name) {
+                return name.endsWith(SUFFIX);
+            }
+        });
+        return files != null ? files : new File[0];
+    }
+
+    private File fileOf(final String key) {
+        return new File(cacheDir, key + SUFFIX);
+    }
+
+    /**
+     * Returns the timestamp of the class file of a transformer. This way, the cache is
+     * invalidated by changes of the transformer's implementation, too.
+     *
+     * @param type the class of the transformer.
+     * @return timestamp, or 0 if it can not be determined.
+     */
+    private static long timestampOf(final Class<?> type) {
+        Long timestamp = CLASS_TIMESTAMPS.get(type);
+        if (timestamp == null) {
+            timestamp = 0L;
+            final String className = type.getName();
+            final URL classFile = type.getResource(className.substring(className.lastIndexOf('.') + 1) + ".class");
+            if (classFile != null) {
+                try {
+                    timestamp = classFile.openConnection().getLastModified();
+                } catch (IOException e) {
+                    LOG.warn("Unable to determine timestamp of " + type.getName() + ": " + e.getMessage());
+                }
+            }
+            CLASS_TIMESTAMPS.put(type, timestamp);
+        }
+        return timestamp;
+    }
+}
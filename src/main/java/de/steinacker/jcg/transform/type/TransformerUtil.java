@@ -30,8 +30,10 @@ final class TransformerUtil {
             for (int i=0, n= existingMethodParameters.size(); i<n; ++i) {
                 final Parameter p1 = existingMethodParameters.get(i);
                 final Parameter p2 = methodParameters.get(i);
-                if (!p1.getType().equals(p2.getType()))
+                if (!p1.getType().equals(p2.getType())) {
                     differentParams = true;
+                    break;
+                }
             }
             if (!differentParams)
                 return true;
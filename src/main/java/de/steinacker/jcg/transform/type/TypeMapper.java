@@ -7,20 +7,31 @@ import de.steinacker.jcg.model.QualifiedName;
 import de.steinacker.jcg.model.SimpleName;
 import org.springframework.beans.factory.annotation.Required;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Properties;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
+ * Maps qualified names using a set of mapping patterns. The keys of the patterns are regular
+ * expressions matching the complete qualified name, the values are format strings (see
+ * String.format()) receiving the groups of the expression as arguments.
+ * <p/>
+ * The patterns are compiled once. If several patterns match a name, the pattern with the longest
+ * literal prefix (for example "com\\.example\\." in "com\\.example\\.(.*)") is used; patterns with
+ * the same prefix are tried in the lexical order of the expressions. Only patterns whose literal
+ * prefix is a prefix of the name are tried at all, and the results are cached per name.
+ *
  * @author Guido Steinacker
  * @since 28.07.2010
  */
-public final class TypeMapper extends AbstractTypeTranslator implements TypeTransformer {
+public final class TypeMapper extends AbstractTypeTranslator implements TypeTransformer, Fingerprinted {
 
     private String name;
-    private Map<String,String> mappingPatterns;
+    private PrefixTrie mappings = new PrefixTrie();
+    private String fingerprint = "";
+    private final ConcurrentMap<QualifiedName, QualifiedName> mappedNames = new ConcurrentHashMap<QualifiedName, QualifiedName>();
 
     /**
      * Injects the name of the TypeMapper transformer instance.
@@ -37,10 +48,20 @@ public final class TypeMapper extends AbstractTypeTranslator implements TypeTran
 
     @Required
     public void setMappingPatterns(final Properties mappingPatterns) {
-        this.mappingPatterns = new HashMap<String,String>();
-        for (final Object key : mappingPatterns.keySet()) {
-            this.mappingPatterns.put(key.toString(), mappingPatterns.getProperty((String)key));
+        final PrefixTrie trie = new PrefixTrie();
+        final SortedMap<String, String> patterns = new TreeMap<String, String>();
+        for (final String sourceRegExp : mappingPatterns.stringPropertyNames()) {
+            trie.add(new Mapping(sourceRegExp, mappingPatterns.getProperty(sourceRegExp)));
+            patterns.put(sourceRegExp, mappingPatterns.getProperty(sourceRegExp));
         }
+        this.mappings = trie;
+        this.fingerprint = patterns.toString();
+        mappedNames.clear();
+    }
+
+    @Override
+    public String getFingerprint() {
+        return fingerprint;
     }
 
     @Override
@@ -52,30 +73,30 @@ public final class TypeMapper extends AbstractTypeTranslator implements TypeTran
 
     @Override
     protected QualifiedName translateQualifiedName(final QualifiedName sourceName) {
-        final QualifiedName result;
-        if (!sourceName.isPrimitive() && !sourceName.isTypeVariable() && !sourceName.isWildcard()) {
-            String targetName = null;
-            for (final String sourceRegExp : mappingPatterns.keySet()) {
-                final String fromName = sourceName.toString();
-                if (fromName.matches(sourceRegExp)) {
-                    final Pattern pattern = Pattern.compile(sourceRegExp);
-                    final Matcher matcher = pattern.matcher(fromName);
-                    final int groupCount = matcher.groupCount();
-                    final Object[] args = new String[groupCount];
-                    if (matcher.find()) {
-                        for (int i=0; i<groupCount; ++i) {
-                            args[i] = matcher.group(i+1);
-                        }
-                    }
-                    targetName = String.format(mappingPatterns.get(sourceRegExp), args);
-                    break;
+        if (sourceName.isPrimitive() || sourceName.isTypeVariable() || sourceName.isWildcard())
+            return sourceName;
+        QualifiedName result = mappedNames.get(sourceName);
+        if (result == null) {
+            result = map(sourceName);
+            mappedNames.put(sourceName, result);
+        }
+        return result;
+    }
+
+    private QualifiedName map(final QualifiedName sourceName) {
+        final String fromName = sourceName.toString();
+        for (final Mapping mapping : mappings.candidatesFor(fromName)) {
+            final Matcher matcher = mapping.pattern.matcher(fromName);
+            if (matcher.matches()) {
+                final int groupCount = matcher.groupCount();
+                final Object[] args = new String[groupCount];
+                for (int i=0; i<groupCount; ++i) {
+                    args[i] = matcher.group(i+1);
                 }
+                return QualifiedName.valueOf(String.format(mapping.format, args));
             }
-            result = targetName != null ? QualifiedName.valueOf(targetName) : sourceName;
-        } else {
-            result = sourceName;
         }
-        return result;
+        return sourceName;
     }
 
     @Override
@@ -89,4 +110,119 @@ public final class TypeMapper extends AbstractTypeTranslator implements TypeTran
     public String toString() {
         return name;
     }
+
+    /**
+     * A compiled mapping pattern.
+     */
+    private static final class Mapping implements Comparable<Mapping> {
+        private final Pattern pattern;
+        private final String format;
+        private final String prefix;
+
+        private Mapping(final String regExp, final String format) {
+            this.pattern = Pattern.compile(regExp);
+            this.format = format;
+            this.prefix = literalPrefixOf(regExp);
+        }
+
+        @Override
+        public int compareTo(final Mapping other) {
+            return pattern.pattern().compareTo(other.pattern.pattern());
+        }
+    }
+
+    /**
+     * A trie of the mappings, keyed by their literal prefixes.
+     */
+    private static final class PrefixTrie {
+        private final Map<Character, PrefixTrie> children = new HashMap<Character, PrefixTrie>();
+        private final List<Mapping> mappings = new ArrayList<Mapping>();
+
+        private void add(final Mapping mapping) {
+            PrefixTrie node = this;
+            for (int i = 0; i < mapping.prefix.length(); ++i) {
+                final Character c = mapping.prefix.charAt(i);
+                PrefixTrie child = node.children.get(c);
+                if (child == null) {
+                    child = new PrefixTrie();
+                    node.children.put(c, child);
+                }
+                node = child;
+            }
+            node.mappings.add(mapping);
+            Collections.sort(node.mappings);
+        }
+
+        /**
+         * @param name a qualified name
+         * @return the mappings whose literal prefix is a prefix of the name, longest prefix first.
+         */
+        private List<Mapping> candidatesFor(final String name) {
+            final List<PrefixTrie> path = new ArrayList<PrefixTrie>();
+            PrefixTrie node = this;
+            for (int i = 0; node != null; ++i) {
+                path.add(node);
+                node = i < name.length() ? node.children.get(name.charAt(i)) : null;
+            }
+            final List<Mapping> result = new ArrayList<Mapping>();
+            for (int i = path.size() - 1; i >= 0; --i) {
+                result.addAll(path.get(i).mappings);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Returns the literal text every match of a regular expression starts with. The prefix is
+     * empty, if the expression contains alternatives on the top level.
+     *
+     * @param regExp the regular expression
+     * @return literal prefix
+     */
+    static String literalPrefixOf(final String regExp) {
+        if (hasTopLevelAlternative(regExp))
+            return "";
+        final StringBuilder prefix = new StringBuilder();
+        for (int i = 0; i < regExp.length(); ++i) {
+            final char c = regExp.charAt(i);
+            final char literal;
+            if (c == '\\' && i + 1 < regExp.length() && !Character.isLetterOrDigit(regExp.charAt(i + 1))) {
+                literal = regExp.charAt(++i);
+            } else if (Character.isLetterOrDigit(c) || c == '_' || c == '-' || c == '/') {
+                literal = c;
+            } else {
+                if ((c == '?' || c == '*' || c == '{') && prefix.length() > 0) {
+                    // the last character is optional:
+                    prefix.setLength(prefix.length() - 1);
+                }
+                break;
+            }
+            final char next = i + 1 < regExp.length() ? regExp.charAt(i + 1) : 0;
+            if (next == '?' || next == '*' || next == '{')
+                break;
+            prefix.append(literal);
+        }
+        return prefix.toString();
+    }
+
+    private static boolean hasTopLevelAlternative(final String regExp) {
+        int depth = 0;
+        boolean inClass = false;
+        for (int i = 0; i < regExp.length(); ++i) {
+            final char c = regExp.charAt(i);
+            if (c == '\\')
+                ++i;
+            else if (inClass)
+                inClass = c != ']';
+            else if (c == '[')
+                inClass = true;
+            else if (c == '(')
+                ++depth;
+            else if (c == ')')
+                --depth;
+            else if (c == '|' && depth == 0)
+                return true;
+        }
+        return false;
+    }
 }
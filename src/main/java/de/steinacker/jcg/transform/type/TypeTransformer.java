@@ -10,6 +10,11 @@ import java.util.List;
 
 /**
  * A Transformer used to transform a single Type into a Type.
+ * <p/>
+ * TypeTransformers may be called concurrently by several threads (see ModelSequencer.setThreads()).
+ * Implementations must therefore be thread-safe: they are configured before the first call of
+ * transform(), and transform() must not modify the state of the transformer or of other shared
+ * objects, except for thread-safe ones like the interned names of the model.
  *
  * @author Guido Steinacker
  * @version %version: 28 %
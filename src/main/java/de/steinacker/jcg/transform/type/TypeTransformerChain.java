@@ -14,19 +14,26 @@ import java.util.List;
 /**
  * This TypeTransformer transforms TypeMessages by delegating the incoming message to
  * a chain of other TypeTransformers.
+ * <p/>
+ * Consecutive transformers, that only transform fields or add methods for fields (subclasses of
+ * AbstractFieldTransformer and AbstractFieldToMethodTransformer), are fused into a single
+ * transformer, that transforms the type in a single pass over its fields.
  *
  * @author Guido Steinacker
  * @version %version: 28 %
  */
-public final class TypeTransformerChain implements TypeTransformer {
+public final class TypeTransformerChain implements TypeTransformer, Fingerprinted {
     private static final Logger LOG = Logger.getLogger(TypeTransformerChain.class);
 
     private String name;
     private List<TypeTransformer> chain;
+    // the chain with fused field transformers:
+    private List<TypeTransformer> fusedChain;
 
     @Required
     public void setTransformerChain(final List<TypeTransformer> transformerChain) {
         chain = transformerChain;
+        fusedChain = fuse(transformerChain);
     }
 
     @Required
@@ -38,10 +45,19 @@ public final class TypeTransformerChain implements TypeTransformer {
         return name;
     }
 
+    @Override
+    public String getFingerprint() {
+        final StringBuilder sb = new StringBuilder();
+        for (final TypeTransformer transformer : chain) {
+            sb.append('[').append(TransformationCache.fingerprintOf(transformer)).append(']');
+        }
+        return sb.toString();
+    }
+
     @Override
     public List<TypeMessage> transform(final TypeMessage inputMessage) {
         List<TypeMessage> result = Collections.singletonList(inputMessage);
-        for (final TypeTransformer transformer : chain) {
+        for (final TypeTransformer transformer : fusedChain) {
             LOG.info("Applying " + transformer.toString());
             final List<TypeMessage> temp = new ArrayList<TypeMessage>();
             for (final TypeMessage typeMessage : result) {
@@ -52,6 +68,35 @@ public final class TypeTransformerChain implements TypeTransformer {
         return result;
     }
 
+    /**
+     * Replaces every sequence of at least two fusible transformers by a FusedFieldTransformer.
+     *
+     * @param transformers the chain of transformers.
+     * @return the fused chain.
+     */
+    private static List<TypeTransformer> fuse(final List<TypeTransformer> transformers) {
+        final List<TypeTransformer> result = new ArrayList<TypeTransformer>(transformers.size());
+        final List<AbstractTypeTransformer> fusible = new ArrayList<AbstractTypeTransformer>();
+        for (final TypeTransformer transformer : transformers) {
+            if (FusedFieldTransformer.isFusible(transformer)) {
+                fusible.add((AbstractTypeTransformer) transformer);
+            } else {
+                addFused(fusible, result);
+                result.add(transformer);
+            }
+        }
+        addFused(fusible, result);
+        return result;
+    }
+
+    private static void addFused(final List<AbstractTypeTransformer> fusible, final List<TypeTransformer> result) {
+        if (fusible.size() == 1)
+            result.add(fusible.get(0));
+        else if (fusible.size() > 1)
+            result.add(new FusedFieldTransformer(fusible));
+        fusible.clear();
+    }
+
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder();
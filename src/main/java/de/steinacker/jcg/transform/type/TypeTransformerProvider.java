@@ -6,6 +6,7 @@ import org.apache.log4j.Logger;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 
 /**
  * Provides access to all registered Transformers.
@@ -16,6 +17,8 @@ import java.util.Map;
 public final class TypeTransformerProvider {
     private final static Logger LOG = Logger.getLogger(TypeTransformerProvider.class);
     private final Map<String, TypeTransformer> transformers = new HashMap<String, TypeTransformer>();
+    // incremented whenever the registered transformers are changed:
+    private volatile int version = 0;
 
     public void setTransformers(final List<TypeTransformer> transformers) {
         for (final TypeTransformer transformer : transformers) {
@@ -24,6 +27,21 @@ public final class TypeTransformerProvider {
                 LOG.warn("Redefining Transformer " + name);
             this.transformers.put(name, transformer);
         }
+        ++version;
+    }
+
+    /**
+     * @return the version of the configuration, used to invalidate cached transformers.
+     */
+    int getVersion() {
+        return version;
+    }
+
+    /**
+     * @return the registered transformers, sorted by name.
+     */
+    Map<String, TypeTransformer> getTransformers() {
+        return new TreeMap<String, TypeTransformer>(transformers);
     }
 
     public TypeTransformer getTransformer(final String key) {
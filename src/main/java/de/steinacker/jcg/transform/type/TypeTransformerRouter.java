@@ -4,27 +4,46 @@
 
 package de.steinacker.jcg.transform.type;
 
+import de.steinacker.jcg.model.Type;
+import de.steinacker.jcg.transform.rule.CacheableSelector;
 import de.steinacker.jcg.transform.rule.TypeTransformerSelector;
 import org.apache.log4j.Logger;
 import org.springframework.beans.factory.annotation.Required;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Routes TypeMessages to one of several possible TypeTransformers.
  * The TypeTransformer is selected by a {@link TypeTransformerSelector}
+ * <p/>
+ * If the selector is a {@link CacheableSelector}, the selected transformers are cached by the
+ * routing key of the messages, so the selector is only applied once for every route. The cache
+ * is cleared, if the selector, the provider or the transformers of the provider are changed.
+ * <p/>
+ * If a {@link TransformationCache} is configured, the results of the selected transformers are cached
+ * across runs, so unchanged types are not transformed again.
  *
  * @author Guido Steinacker
  * @version %version: 28 %
  */
-public final class TypeTransformerRouter implements TypeTransformer {
+public final class TypeTransformerRouter implements TypeTransformer, Fingerprinted {
     private final static Logger LOG = Logger.getLogger(TypeTransformerRouter.class);
 
     private String name;
     private TypeTransformerSelector selector;
     private TypeTransformerProvider provider;
+    private TransformationCache cache;
+    // the selected transformers by routing key:
+    private final ConcurrentMap<Object, TypeTransformer[]> routes = new ConcurrentHashMap<Object, TypeTransformer[]>();
+    // the version of the provider's configuration, the routes were resolved with:
+    private volatile int providerVersion;
+
+    private static final int MAX_ROUTES = 1024;
 
     /**
      * @param selector the Rule used to select a transformer from the provider.
@@ -32,6 +51,7 @@ public final class TypeTransformerRouter implements TypeTransformer {
     @Required
     public void setSelector(final TypeTransformerSelector selector) {
         this.selector = selector;
+        routes.clear();
     }
 
     /**
@@ -40,6 +60,17 @@ public final class TypeTransformerRouter implements TypeTransformer {
     @Required
     public void setTransformerProvider(final TypeTransformerProvider provider) {
         this.provider = provider;
+        this.providerVersion = provider.getVersion();
+        routes.clear();
+    }
+
+    /**
+     * Optionally injects a TransformationCache. By default, types are not cached.
+     *
+     * @param cache the TransformationCache, or null.
+     */
+    public void setCache(final TransformationCache cache) {
+        this.cache = cache;
     }
 
     @Required
@@ -52,6 +83,15 @@ public final class TypeTransformerRouter implements TypeTransformer {
         return name;
     }
 
+    @Override
+    public String getFingerprint() {
+        final StringBuilder sb = new StringBuilder("selector=").append(TransformationCache.fingerprintOf(selector));
+        for (final TypeTransformer transformer : provider.getTransformers().values()) {
+            sb.append('[').append(TransformationCache.fingerprintOf(transformer)).append(']');
+        }
+        return sb.toString();
+    }
+
     /**
      * Transforms the ModelMessage into another ModelMessage,
      *
@@ -63,16 +103,33 @@ public final class TypeTransformerRouter implements TypeTransformer {
      */
     @Override
     public List<TypeMessage> transform(final TypeMessage message) {
-        final List<String> keys = this.selector.apply(message);
-        if (keys.isEmpty()) {
-            LOG.warn("No transformers returned from selector " + selector);
+        final TypeTransformer[] route = route(message);
+        final String key = cache != null ? cache.keyOf(message, Arrays.asList(route)) : null;
+        if (key == null)
+            return transform(message, route);
+        final List<Type> cachedTypes = cache.get(key);
+        if (cachedTypes != null) {
+            LOG.info("Using cached transformation of " + message.getPayload().getName());
+            final List<TypeMessage> result = new ArrayList<TypeMessage>(cachedTypes.size());
+            for (final Type type : cachedTypes) {
+                result.add(new TypeMessage(type, message.getContext()));
+            }
+            return result;
         }
+        final List<TypeMessage> result = transform(message, route);
+        final List<Type> types = new ArrayList<Type>(result.size());
+        for (final TypeMessage typeMessage : result) {
+            types.add(typeMessage.getPayload());
+        }
+        cache.put(key, types);
+        return result;
+    }
+
+    private List<TypeMessage> transform(final TypeMessage message, final TypeTransformer[] route) {
         List<TypeMessage> result = Collections.singletonList(message);
-        for (final String key : keys) {
-            // 1. select the TypeTransformer
-            final TypeTransformer typeTransformer = provider.getTransformer(key);
+        for (final TypeTransformer typeTransformer : route) {
             LOG.info("Selecting " + typeTransformer);
-            // 2. apply transformer to all messages:
+            // apply the selected transformer to all messages:
             final List<TypeMessage> messages = new ArrayList<TypeMessage>();
             for (final TypeMessage typeMessage : result) {
                 messages.addAll(typeTransformer.transform(typeMessage));
@@ -82,6 +139,45 @@ public final class TypeTransformerRouter implements TypeTransformer {
         return result;
     }
 
+    /**
+     * Returns the transformers selected for a message, using the cached routes if possible.
+     *
+     * @param message the TypeMessage
+     * @return the selected transformers
+     */
+    private TypeTransformer[] route(final TypeMessage message) {
+        final Object routingKey = selector instanceof CacheableSelector
+                ? ((CacheableSelector) selector).routingKeyOf(message)
+                : null;
+        if (routingKey == null)
+            return select(message);
+        final int version = provider.getVersion();
+        if (version != providerVersion) {
+            routes.clear();
+            providerVersion = version;
+        }
+        TypeTransformer[] route = routes.get(routingKey);
+        if (route == null) {
+            route = select(message);
+            if (routes.size() >= MAX_ROUTES)
+                routes.clear();
+            routes.put(routingKey, route);
+        }
+        return route;
+    }
+
+    private TypeTransformer[] select(final TypeMessage message) {
+        final List<String> keys = this.selector.apply(message);
+        if (keys.isEmpty()) {
+            LOG.warn("No transformers returned from selector " + selector);
+        }
+        final TypeTransformer[] transformers = new TypeTransformer[keys.size()];
+        for (int i = 0; i < transformers.length; ++i) {
+            transformers[i] = provider.getTransformer(keys.get(i));
+        }
+        return transformers;
+    }
+
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder();
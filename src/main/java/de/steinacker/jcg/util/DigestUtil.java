@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2010 by Guido Steinacker
+ */
+
+package de.steinacker.jcg.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Utilities to compute stable, hex-encoded SHA-1 digests, for example to fingerprint the
+ * configuration or the resources of a transformer.
+ *
+ * @author Guido Steinacker
+ * @version %version: 28 %
+ */
+public final class DigestUtil {
+
+    private DigestUtil() {
+    }
+
+    /**
+     * @return a new SHA-1 MessageDigest.
+     */
+    public static MessageDigest sha1() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @param digest the bytes of a digest.
+     * @return the hex-encoded digest.
+     */
+    public static String toHex(final byte[] digest) {
+        final StringBuilder sb = new StringBuilder(2 * digest.length);
+        for (final byte b : digest) {
+            sb.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @param text some text
+     * @return the hex-encoded SHA-1 digest of the UTF-8 encoded text.
+     */
+    public static String digestOf(final String text) {
+        try {
+            return toHex(sha1().digest(text.getBytes("UTF-8")));
+        } catch (IOException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Returns the digest of the content of a classpath resource, for example of a template. A leading '/'
+     * of the resource name is ignored.
+     *
+     * @param resourceName the name of the resource.
+     * @return the hex-encoded SHA-1 digest of the resource, or "missing" if the resource can not be read.
+     */
+    public static String digestOfResource(final String resourceName) {
+        final String name = resourceName.startsWith("/") ? resourceName.substring(1) : resourceName;
+        final URL resource = DigestUtil.class.getClassLoader().getResource(name);
+        return resource != null ? digestOfUrl(resource) : "missing";
+    }
+
+    /**
+     * Returns the digest of the content of an URL, for example of a resource contained in a jar.
+     *
+     * @param url the URL.
+     * @return the hex-encoded SHA-1 digest of the content, or "missing" if the content can not be read.
+     */
+    public static String digestOfUrl(final URL url) {
+        try {
+            return digestOf(url.openStream());
+        } catch (IOException e) {
+            return "missing";
+        }
+    }
+
+    /**
+     * Returns the digest of the content of a file, for example of a configuration file.
+     *
+     * @param file the file.
+     * @return the hex-encoded SHA-1 digest of the file, or "missing" if the file can not be read.
+     */
+    public static String digestOfFile(final File file) {
+        try {
+            return digestOf(new FileInputStream(file));
+        } catch (IOException e) {
+            return "missing";
+        }
+    }
+
+    private static String digestOf(final InputStream in) throws IOException {
+        final MessageDigest digest = sha1();
+        try {
+            final byte[] buffer = new byte[8192];
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, n);
+            }
+        } finally {
+            in.close();
+        }
+        return toHex(digest.digest());
+    }
+}
@@ -94,25 +94,14 @@ public final class NameUtil {
      *  "AAAa" => {"AA", "Aa"}
      */
     public static String[] splitCamelHumpName(final String name) {
-        final List<String> strings = new LinkedList<String>();
-        final char[] chars = name.toCharArray();
-        StringBuilder sb = new StringBuilder();
-        for (int i=0,n=chars.length; i<n; ++i) {
-            final char c = chars[i];
-            if (Character.isUpperCase(c)) {
-                strings.add(sb.toString());
-                sb = new StringBuilder().append(c);
-            } else {
-                sb.append(c);
+        final List<String> strings = new ArrayList<String>();
+        int start = 0;
+        for (int i=1,n=name.length(); i<=n; ++i) {
+            if (i == n || Character.isUpperCase(name.charAt(i))) {
+                strings.add(name.substring(start, i));
+                start = i;
             }
         }
-        strings.add(sb.toString());
-        final Iterator<String> iter = strings.iterator();
-        while (iter.hasNext()) {
-            final String s = iter.next();
-            if (s.isEmpty())
-                iter.remove();
-        }
         // TODO: "K", "F", "Z" wieder zusammenfassen!
         return strings.toArray(new String[strings.size()]);
     }
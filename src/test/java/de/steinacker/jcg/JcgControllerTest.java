@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2010 by Guido Steinacker
+ */
+package de.steinacker.jcg;
+
+import de.steinacker.jcg.generator.FileGenerator;
+import de.steinacker.jcg.generator.TypeSerializer;
+import de.steinacker.jcg.parse.JavaFileParser;
+import de.steinacker.jcg.transform.model.ModelTransformer;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+import org.springframework.context.support.FileSystemXmlApplicationContext;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.*;
+import java.util.Collections;
+
+import static org.testng.Assert.*;
+
+/**
+ * @author Guido Steinacker
+ * @version %version: 28 %
+ */
+public class JcgControllerTest {
+
+    private static final String SELECTOR = "RemoveSingleEmptyDefaultConstructor";
+    private static final String MODIFIED = "// modified";
+
+    private File workDir;
+    private File sourceDir;
+    private File targetDir;
+    private File configFile;
+    private File generatedFoo;
+    private JcgController controller;
+
+    @BeforeMethod
+    public void createController() throws Exception {
+        workDir = File.createTempFile("jcg-controller", "");
+        workDir.delete();
+        sourceDir = new File(workDir, "src");
+        targetDir = new File(workDir, "target");
+        new File(sourceDir, "foo").mkdirs();
+        writeFile(new File(sourceDir, "foo/Foo.java"), "package foo; public class Foo { private int a; }");
+        configFile = new File(workDir, "config.xml");
+        writeFile(configFile, "<config/>");
+        generatedFoo = new File(targetDir, "foo/Foo.java");
+
+        final ApplicationContext parent = new FileSystemXmlApplicationContext("jcg.xml");
+        final ApplicationContext applicationContext = new ClassPathXmlApplicationContext(new String[]{"jcg-test-generator.xml"}, parent);
+        final FileGenerator generator = new FileGenerator();
+        generator.setSerializer(applicationContext.getBean("typeSerializer", TypeSerializer.class));
+        controller = new JcgController();
+        controller.setParser(applicationContext.getBean("parser", JavaFileParser.class));
+        controller.setModelTransformer(applicationContext.getBean("modelTransformer", ModelTransformer.class));
+        controller.setGenerator(generator);
+        controller.setSnapshotFile(new File(workDir, "snapshot").getPath());
+        controller.setConfigFiles(Collections.singletonList(configFile.getPath()));
+    }
+
+    @AfterMethod
+    public void deleteWorkDir() {
+        delete(workDir);
+    }
+
+    @Test
+    public void testUnchangedTypesAreNotGeneratedAgain() throws Exception {
+        generate(targetDir);
+        writeFile(generatedFoo, MODIFIED);
+        generate(targetDir);
+        assertEquals(readFile(generatedFoo), MODIFIED);
+    }
+
+    @Test
+    public void testMissingGeneratedFileIsGeneratedAgain() throws Exception {
+        generate(targetDir);
+        assertTrue(generatedFoo.delete());
+        generate(targetDir);
+        assertTrue(generatedFoo.exists());
+    }
+
+    @Test
+    public void testChangedConfigFileGeneratesAllTypes() throws Exception {
+        generate(targetDir);
+        writeFile(generatedFoo, MODIFIED);
+        writeFile(configFile, "<config changed=\"true\"/>");
+        generate(targetDir);
+        assertFalse(readFile(generatedFoo).equals(MODIFIED));
+    }
+
+    @Test
+    public void testChangedTargetDirGeneratesAllTypes() throws Exception {
+        generate(targetDir);
+        final File otherTargetDir = new File(workDir, "other");
+        generate(otherTargetDir);
+        assertTrue(new File(otherTargetDir, "foo/Foo.java").exists());
+    }
+
+    private void generate(final File target) throws Exception {
+        controller.invoke(SELECTOR, sourceDir.getPath(), true, target.getPath(), null);
+    }
+
+    private static String readFile(final File file) throws IOException {
+        final BufferedReader reader = new BufferedReader(new FileReader(file));
+        try {
+            final StringBuilder sb = new StringBuilder();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (sb.length() > 0)
+                    sb.append('\n');
+                sb.append(line);
+            }
+            return sb.toString();
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static void writeFile(final File file, final String content) throws IOException {
+        final FileWriter writer = new FileWriter(file);
+        try {
+            writer.write(content);
+        } finally {
+            writer.close();
+        }
+    }
+
+    private static void delete(final File file) {
+        final File[] files = file.listFiles();
+        if (files != null) {
+            for (final File child : files) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2010 by Guido Steinacker
+ */
+package de.steinacker.jcg;
+
+import de.steinacker.jcg.exception.JcgException;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Properties;
+
+import static org.testng.Assert.*;
+
+/**
+ * @author Guido Steinacker
+ * @version %version: 28 %
+ */
+public class JcgDaemonTest {
+
+    private static final int REQUEST_TIMEOUT = 1000;
+
+    private JcgDaemon daemon;
+    private Thread daemonThread;
+    private File targetDir;
+
+    @BeforeClass
+    public void startDaemon() throws Exception {
+        daemon = new JcgDaemon(0, Collections.singletonList("jcg.xml"));
+        daemon.setRequestTimeout(REQUEST_TIMEOUT);
+        daemonThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                daemon.run();
+            }
+        });
+        daemonThread.start();
+        targetDir = File.createTempFile("jcg-daemon", "");
+        targetDir.delete();
+    }
+
+    @AfterClass
+    public void stopDaemon() throws Exception {
+        JcgDaemon.stop(daemon.getPort());
+        daemonThread.join(10000);
+        assertFalse(JcgDaemon.tokenFileOf(daemon.getPort()).exists());
+        delete(targetDir);
+    }
+
+    @Test
+    public void testForwardedRequestIsProcessed() throws Exception {
+        final JcgParameters params = newParameters();
+        params.makePathsAbsolute();
+        assertTrue(JcgDaemon.forward(params, daemon.getPort()));
+        assertTrue(new File(targetDir, "test/types/Class01.java").exists());
+        // the second request is processed using the same, warm application context:
+        assertTrue(JcgDaemon.forward(params, daemon.getPort()));
+    }
+
+    @Test(expectedExceptions = JcgException.class)
+    public void testFailingRequestIsReported() throws Exception {
+        final JcgParameters params = newParameters();
+        params.setSelector("NoSuchTransformer");
+        params.makePathsAbsolute();
+        JcgDaemon.forward(params, daemon.getPort());
+    }
+
+    @Test
+    public void testRequestWithoutTokenIsRejected() throws Exception {
+        final JcgParameters params = newParameters();
+        params.makePathsAbsolute();
+        assertEquals(sendWithToken(params.toProperties(), null), "ERROR Invalid token.");
+        assertEquals(sendWithToken(params.toProperties(), "0123456789"), "ERROR Invalid token.");
+        assertTrue(JcgDaemon.tokenFileOf(daemon.getPort()).exists());
+    }
+
+    @Test
+    public void testUnknownConfigurationIsRejected() throws Exception {
+        final JcgParameters params = newParameters();
+        params.setSpringConfig("src/test/resources/other-jcg.xml");
+        params.makePathsAbsolute();
+        try {
+            JcgDaemon.forward(params, daemon.getPort());
+            fail("configuration not specified at startup was accepted");
+        } catch (JcgException e) {
+            assertTrue(e.getMessage().contains("is not served by this daemon"), e.getMessage());
+        }
+    }
+
+    @Test
+    public void testIdleClientDoesNotBlockTheDaemon() throws Exception {
+        final Socket idleSocket = new Socket(InetAddress.getByName("127.0.0.1"), daemon.getPort());
+        try {
+            final JcgParameters params = newParameters();
+            params.makePathsAbsolute();
+            final long start = System.currentTimeMillis();
+            assertTrue(JcgDaemon.forward(params, daemon.getPort()));
+            final String response = new BufferedReader(new InputStreamReader(idleSocket.getInputStream(), "UTF-8")).readLine();
+            assertTrue(response.startsWith("ERROR"), response);
+            assertTrue(System.currentTimeMillis() - start >= REQUEST_TIMEOUT);
+        } finally {
+            idleSocket.close();
+        }
+    }
+
+    @Test
+    public void testTooLargeRequestIsRejected() throws Exception {
+        final Socket socket = new Socket(InetAddress.getByName("127.0.0.1"), daemon.getPort());
+        try {
+            final byte[] request = new byte[JcgDaemon.MAX_REQUEST_SIZE + 1];
+            Arrays.fill(request, (byte) 'x');
+            socket.getOutputStream().write(request);
+            socket.shutdownOutput();
+            final String response = new BufferedReader(new InputStreamReader(socket.getInputStream(), "UTF-8")).readLine();
+            assertEquals(response, "ERROR Request exceeds " + JcgDaemon.MAX_REQUEST_SIZE + " bytes.");
+        } finally {
+            socket.close();
+        }
+    }
+
+    @Test
+    public void testParametersAsProperties() {
+        final JcgParameters params = newParameters();
+        final JcgParameters copy = new JcgParameters(params.toProperties());
+        assertEquals(copy.getSourceDir(), params.getSourceDir());
+        assertEquals(copy.getTargetDir(), params.getTargetDir());
+        assertEquals(copy.getSelector(), params.getSelector());
+        assertEquals(copy.isRecursive(), params.isRecursive());
+        assertEquals(copy.getSpringConfig(), params.getSpringConfig());
+        assertEquals(copy.getBinDir(), params.getBinDir());
+        assertNull(copy.getSourceFile());
+    }
+
+    private JcgParameters newParameters() {
+        final JcgParameters params = new JcgParameters();
+        params.setSourceDir("src/test/java/test/types");
+        params.setRecursive(true);
+        params.setTargetDir(targetDir.getPath());
+        params.setSelector("RemoveSingleEmptyDefaultConstructor");
+        return params;
+    }
+
+    /**
+     * Sends a request to the daemon, bypassing the client, and returns the response.
+     */
+    private String sendWithToken(final Properties request, final String token) throws IOException {
+        if (token != null)
+            request.setProperty("token", token);
+        final Socket socket = new Socket(InetAddress.getByName("127.0.0.1"), daemon.getPort());
+        try {
+            request.store(socket.getOutputStream(), null);
+            socket.shutdownOutput();
+            return new BufferedReader(new InputStreamReader(socket.getInputStream(), "UTF-8")).readLine();
+        } finally {
+            socket.close();
+        }
+    }
+
+    private static void delete(final File file) {
+        final File[] files = file.listFiles();
+        if (files != null) {
+            for (final File child : files) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
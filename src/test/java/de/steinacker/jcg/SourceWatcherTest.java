@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2010 by Guido Steinacker
+ */
+package de.steinacker.jcg;
+
+import de.steinacker.jcg.generator.FileGenerator;
+import de.steinacker.jcg.generator.TypeSerializer;
+import de.steinacker.jcg.model.Type;
+import de.steinacker.jcg.parse.JavaFileParser;
+import de.steinacker.jcg.transform.model.ModelMessage;
+import de.steinacker.jcg.transform.model.ModelTransformer;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+import org.springframework.context.support.FileSystemXmlApplicationContext;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * @author Guido Steinacker
+ * @version %version: 28 %
+ */
+public class SourceWatcherTest {
+
+    private static final long TIMEOUT = 20000;
+
+    private File sourceDir;
+    private File targetDir;
+    private ApplicationContext applicationContext;
+    private Thread watchThread;
+
+    @BeforeMethod
+    public void createSources() throws Exception {
+        sourceDir = createTempDir("jcg-src");
+        targetDir = createTempDir("jcg-target");
+        new File(sourceDir, "foo").mkdirs();
+        writeFile(new File(sourceDir, "foo/Foo.java"), "package foo; public class Foo { private int a; }");
+
+        final ApplicationContext parent = new FileSystemXmlApplicationContext("jcg.xml");
+        applicationContext = new ClassPathXmlApplicationContext(new String[]{"jcg-test-generator.xml"}, parent);
+    }
+
+    private void startWatching(final ModelTransformer transformer) {
+        final FileGenerator generator = new FileGenerator();
+        generator.setSerializer(applicationContext.getBean("typeSerializer", TypeSerializer.class));
+        final JcgController controller = new JcgController();
+        controller.setParser(applicationContext.getBean("parser", JavaFileParser.class));
+        controller.setModelTransformer(transformer);
+        controller.setGenerator(generator);
+        controller.setPollInterval(50);
+        controller.setDebounceInterval(50);
+        watchThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    controller.watch("RemoveSingleEmptyDefaultConstructor", sourceDir.getPath(), true, targetDir.getPath(), null);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e.getMessage(), e);
+                }
+            }
+        });
+        watchThread.start();
+    }
+
+    private ModelTransformer modelTransformer() {
+        return applicationContext.getBean("modelTransformer", ModelTransformer.class);
+    }
+
+    @AfterMethod
+    public void stopWatching() throws Exception {
+        if (watchThread != null) {
+            watchThread.interrupt();
+            watchThread.join(TIMEOUT);
+            watchThread = null;
+        }
+        delete(sourceDir);
+        delete(targetDir);
+    }
+
+    @Test
+    public void testAddModifyAndDelete() throws Exception {
+        final File foo = new File(targetDir, "foo/Foo.java");
+        final File bar = new File(targetDir, "foo/Bar.java");
+        final File baz = new File(targetDir, "foo/Baz.java");
+        startWatching(modelTransformer());
+        assertTrue(waitFor(foo, true));
+        // add a new source file:
+        writeFile(new File(sourceDir, "foo/Bar.java"), "package foo; public class Bar { private Foo foo; }");
+        assertTrue(waitFor(bar, true));
+        // rename the type of a source file:
+        writeFile(new File(sourceDir, "foo/Bar.java"), "package foo; class Baz { private Foo foo; }");
+        assertTrue(waitFor(baz, true));
+        assertTrue(waitFor(bar, false));
+        // delete a source file:
+        assertTrue(new File(sourceDir, "foo/Bar.java").delete());
+        assertTrue(waitFor(baz, false));
+        assertTrue(foo.exists());
+        assertFalse(bar.exists());
+    }
+
+    @Test
+    public void testTypeMovedToAnotherSourceFile() throws Exception {
+        final File baz = new File(targetDir, "foo/Baz.java");
+        final File qux = new File(targetDir, "foo/Qux.java");
+        startWatching(modelTransformer());
+        writeFile(new File(sourceDir, "foo/Bar.java"), "package foo; public class Bar { } class Baz { }");
+        assertTrue(waitFor(baz, true));
+        // move Baz from Bar.java to Qux.java; both files are modified in the same batch:
+        writeFile(new File(sourceDir, "foo/Qux.java"), "package foo; public class Qux { } class Baz { }");
+        writeFile(new File(sourceDir, "foo/Bar.java"), "package foo; public class Bar { }");
+        assertTrue(waitFor(qux, true));
+        Thread.sleep(200);
+        assertTrue(baz.exists());
+    }
+
+    @Test
+    public void testModelTransformersTransformAllTypesAfterChanges() throws Exception {
+        final File bar = new File(targetDir, "foo/Bar.java");
+        writeFile(new File(sourceDir, "foo/Bar.java"), "package foo; public class Bar { private Foo foo; }");
+        final ModelTransformer modelTransformer = modelTransformer();
+        final List<Set<String>> transformedTypes = new CopyOnWriteArrayList<Set<String>>();
+        // a transformer, that is not a ModelSequencer, may depend on other types of the model:
+        startWatching(new ModelTransformer() {
+            @Override
+            public ModelMessage transform(final ModelMessage message) {
+                final Set<String> typeNames = new TreeSet<String>();
+                for (final Type type : message.getPayload().getAllTypes()) {
+                    typeNames.add(type.getName().toString());
+                }
+                transformedTypes.add(typeNames);
+                return modelTransformer.transform(message);
+            }
+
+            @Override
+            public String getName() {
+                return "recording";
+            }
+        });
+        assertTrue(waitFor(bar, true));
+        // modify Foo; Bar depends on Foo and is transformed again:
+        writeFile(new File(sourceDir, "foo/Foo.java"), "package foo; public class Foo { private long a; }");
+        final long end = System.currentTimeMillis() + TIMEOUT;
+        while (transformedTypes.size() < 2 && System.currentTimeMillis() < end) {
+            Thread.sleep(50);
+        }
+        assertEquals(transformedTypes.size(), 2);
+        assertEquals(transformedTypes.get(1), new TreeSet<String>(Arrays.asList("foo.Bar", "foo.Foo")));
+        // delete a source file:
+        assertTrue(new File(sourceDir, "foo/Bar.java").delete());
+        assertTrue(waitFor(bar, false));
+        assertTrue(new File(targetDir, "foo/Foo.java").exists());
+    }
+
+    private static boolean waitFor(final File file, final boolean exists) throws InterruptedException {
+        final long end = System.currentTimeMillis() + TIMEOUT;
+        while (file.exists() != exists && System.currentTimeMillis() < end) {
+            Thread.sleep(50);
+        }
+        return file.exists() == exists;
+    }
+
+    private static File createTempDir(final String prefix) throws Exception {
+        final File dir = File.createTempFile(prefix, "");
+        dir.delete();
+        dir.mkdirs();
+        return dir;
+    }
+
+    private static void writeFile(final File file, final String content) throws Exception {
+        final FileWriter writer = new FileWriter(file);
+        try {
+            writer.write(content);
+        } finally {
+            writer.close();
+        }
+    }
+
+    private static void delete(final File file) {
+        final File[] files = file.listFiles();
+        if (files != null) {
+            for (final File child : files) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
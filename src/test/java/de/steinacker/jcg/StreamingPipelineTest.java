@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2010 by Guido Steinacker
+ */
+package de.steinacker.jcg;
+
+import de.steinacker.jcg.generator.StringGenerator;
+import de.steinacker.jcg.generator.TypeSerializer;
+import de.steinacker.jcg.model.QualifiedName;
+import de.steinacker.jcg.parse.JavaFileParser;
+import de.steinacker.jcg.transform.model.ModelMessage;
+import de.steinacker.jcg.transform.model.ModelTransformer;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+import org.springframework.context.support.FileSystemXmlApplicationContext;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * @author Guido Steinacker
+ * @version %version: 28 %
+ */
+public class StreamingPipelineTest {
+
+    private static final String TEST_SOURCES = "src/test/java/test/types";
+    private static final String SELECTOR = "RemoveSingleEmptyDefaultConstructor";
+
+    private final ApplicationContext applicationContext;
+
+    public StreamingPipelineTest() {
+        final ApplicationContext parent = new FileSystemXmlApplicationContext("jcg.xml");
+        applicationContext = new ClassPathXmlApplicationContext(new String[]{"jcg-test-generator.xml"}, parent);
+    }
+
+    @Test
+    public void testStreamingGeneratesSameCode() throws Exception {
+        final Map<QualifiedName, String> expected = generate(false, 100);
+        assertFalse(expected.isEmpty());
+        assertEquals(generate(true, 100), expected);
+    }
+
+    @Test
+    public void testStreamingWithSingleElementQueues() throws Exception {
+        assertEquals(generate(true, 1), generate(false, 1));
+    }
+
+    @Test
+    public void testModelTransformersAreNotStreamed() throws Exception {
+        final ModelTransformer modelTransformer = applicationContext.getBean("modelTransformer", ModelTransformer.class);
+        final List<Integer> modelSizes = new ArrayList<Integer>();
+        // a transformer, that is not a ModelSequencer, may depend on other types of the model:
+        final ModelTransformer transformer = new ModelTransformer() {
+            @Override
+            public ModelMessage transform(final ModelMessage message) {
+                modelSizes.add(message.getPayload().getAllTypes().size());
+                return modelTransformer.transform(message);
+            }
+
+            @Override
+            public String getName() {
+                return "recording";
+            }
+        };
+        final Map<QualifiedName, String> expected = generate(false, 100, modelTransformer);
+        assertEquals(generate(true, 100, transformer), expected);
+        assertEquals(modelSizes.size(), 1);
+        assertTrue(modelSizes.get(0) > 1);
+    }
+
+    private Map<QualifiedName, String> generate(final boolean streaming, final int queueSize) throws Exception {
+        return generate(streaming, queueSize, applicationContext.getBean("modelTransformer", ModelTransformer.class));
+    }
+
+    private Map<QualifiedName, String> generate(final boolean streaming,
+                                                final int queueSize,
+                                                final ModelTransformer transformer) throws Exception {
+        final StringGenerator generator = new StringGenerator();
+        generator.setSerializer(applicationContext.getBean("typeSerializer", TypeSerializer.class));
+        final JcgController controller = new JcgController();
+        controller.setParser(applicationContext.getBean("parser", JavaFileParser.class));
+        controller.setModelTransformer(transformer);
+        controller.setGenerator(generator);
+        controller.setStreaming(streaming);
+        controller.setQueueSize(queueSize);
+        controller.invoke(SELECTOR, TEST_SOURCES, true, "", null);
+        return new HashMap<QualifiedName, String>(generator.getGeneratedCode());
+    }
+}
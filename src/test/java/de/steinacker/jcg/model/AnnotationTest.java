@@ -9,6 +9,7 @@ import java.util.Arrays;
 import java.util.Collections;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
 
 /**
  * @author Guido Steinacker
@@ -18,13 +19,21 @@ public class AnnotationTest {
 
     @Test
     public void testAnnotationToString() {
-        final Annotation annotation = new Annotation(QualifiedName.valueOf("test.Foo"));
+        final Annotation annotation = Annotation.valueOf(QualifiedName.valueOf("test.Foo"));
         assertEquals(annotation.toString(), "@Foo");
     }
 
+    @Test
+    public void testAnnotationWithoutParametersIsCanonical() {
+        final Annotation annotation = Annotation.valueOf(QualifiedName.valueOf("java.lang.Override"));
+        assertSame(Annotation.valueOf(QualifiedName.valueOf("java.lang.Override")), annotation);
+        assertSame(Annotation.valueOf(QualifiedName.valueOf("java.lang.Override"),
+                Collections.<AnnotationParameter>emptyList(), Collections.<AnnotationParameter>emptyList()), annotation);
+    }
+
     @Test
     public void testAnnotationWithValueParamToString() {
-        final Annotation annotation = new Annotation(
+        final Annotation annotation = Annotation.valueOf(
                 QualifiedName.valueOf("test.Foo"),
                 Collections.singletonList(new AnnotationParameter(
                         "value", false, new AnnotationValue(42L, "42"))),
@@ -34,7 +43,7 @@ public class AnnotationTest {
 
     @Test
     public void testAnnotationWithValueParamsToString() {
-        final Annotation annotation = new Annotation(
+        final Annotation annotation = Annotation.valueOf(
                 QualifiedName.valueOf("test.Foo"),
                 Collections.singletonList(new AnnotationParameter("value", false,
                         new AnnotationValue(42L, "42"),
@@ -45,7 +54,7 @@ public class AnnotationTest {
 
     @Test
     public void testAnnotationWithNamedParamToString() {
-        final Annotation annotation = new Annotation(
+        final Annotation annotation = Annotation.valueOf(
                 QualifiedName.valueOf("test.Foo"),
                 Collections.singletonList(new AnnotationParameter(
                         "bar", false, new AnnotationValue(42L, "42"))),
@@ -55,7 +64,7 @@ public class AnnotationTest {
 
     @Test
     public void testAnnotationWithNamedParamsToString() {
-        final Annotation annotation = new Annotation(
+        final Annotation annotation = Annotation.valueOf(
                 QualifiedName.valueOf("test.Foo"),
                 Arrays.asList(
                         new AnnotationParameter("bar", false, new AnnotationValue(42L, "42")),
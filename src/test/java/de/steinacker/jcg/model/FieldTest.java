@@ -19,7 +19,7 @@ public class FieldTest {
     @Test
     public void testFieldToString() {
         final Field field = new FieldBuilder()
-                .setType(new TypeSymbol(QualifiedName.valueOf("int")))
+                .setType(TypeSymbol.valueOf(QualifiedName.valueOf("int")))
                 .setName(SimpleName.valueOf("foo"))
                 .toField();
         assertEquals(field.toString(), "int foo");
@@ -28,7 +28,7 @@ public class FieldTest {
     @Test
     public void testFieldWithGenericReturnTypeToString() {
         final List<TypeParameter> typeParams = Collections.singletonList(new TypeParameter(QualifiedName.valueOf("java.lang.Number")));
-        final TypeSymbol typeSymbol = new TypeSymbol(QualifiedName.valueOf("java.util.List"), typeParams);
+        final TypeSymbol typeSymbol = TypeSymbol.valueOf(QualifiedName.valueOf("java.util.List"), typeParams);
         final Field field = new FieldBuilder()
                 .setType(typeSymbol)
                 .setName(SimpleName.valueOf("foo"))
@@ -40,7 +40,7 @@ public class FieldTest {
     @Test
     public void testFieldWithGenericTypeVarReturnTypeToString() {
         final List<TypeParameter> typeParams = Collections.singletonList(new TypeParameter(QualifiedName.valueOf("T")));
-        final TypeSymbol typeSymbol = new TypeSymbol(QualifiedName.valueOf("java.util.List"), typeParams);
+        final TypeSymbol typeSymbol = TypeSymbol.valueOf(QualifiedName.valueOf("java.util.List"), typeParams);
         final Field field = new FieldBuilder()
                 .setType(typeSymbol)
                 .setName(SimpleName.valueOf("foo"))
@@ -52,7 +52,7 @@ public class FieldTest {
     public void testFieldWithGenericBoundedReturnTypeToString() {
         final TypeParameter typeParameter = new TypeParameter(QualifiedName.valueOf("?"), Collections.singletonList(QualifiedName.valueOf("java.lang.Number")));
         final List<TypeParameter> typeParams = Collections.singletonList(typeParameter);
-        final TypeSymbol typeSymbol = new TypeSymbol(QualifiedName.valueOf("java.util.List"), typeParams);
+        final TypeSymbol typeSymbol = TypeSymbol.valueOf(QualifiedName.valueOf("java.util.List"), typeParams);
         final Field field = new FieldBuilder()
                 .setType(typeSymbol)
                 .setName(SimpleName.valueOf("foo"))
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2010 by Guido Steinacker
+ */
+package de.steinacker.jcg.model;
+
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.testng.Assert.*;
+
+/**
+ * @author Guido Steinacker
+ * @version %version: 28 %
+ */
+public class InternerTest {
+
+    private static final Interner.Factory<String> FACTORY = new Interner.Factory<String>() {
+        @Override
+        public String create(final CharSequence name, final String key) {
+            return new String(key);
+        }
+    };
+
+    @Test
+    public void testEqualNamesAreSame() {
+        final Interner<String> interner = new Interner<String>(FACTORY);
+        final String foo = interner.intern(new StringBuilder("foo"));
+        assertSame(interner.intern("foo"), foo);
+        assertNotSame(interner.intern("bar"), foo);
+        assertEquals(interner.getHits(), 1);
+        assertEquals(interner.getMisses(), 2);
+        assertEquals(interner.size(), 2);
+    }
+
+    @Test
+    public void testUnusedNamesAreCollected() throws Exception {
+        final Interner<String> interner = new Interner<String>(FACTORY);
+        for (int i = 0; i < 1000; ++i) {
+            interner.intern("name" + i);
+        }
+        for (int i = 0; i < 50 && interner.size() > 1; ++i) {
+            System.gc();
+            Thread.sleep(10);
+            interner.intern("other" + i);
+        }
+        assertTrue(interner.size() < 1000);
+    }
+
+    @Test
+    public void testConcurrentInterning() throws Exception {
+        final Interner<String> interner = new Interner<String>(FACTORY);
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<List<String>>> futures = new ArrayList<Future<List<String>>>();
+            for (int t = 0; t < 4; ++t) {
+                futures.add(executor.submit(new Callable<List<String>>() {
+                    @Override
+                    public List<String> call() {
+                        final List<String> names = new ArrayList<String>();
+                        for (int i = 0; i < 1000; ++i) {
+                            names.add(interner.intern("name" + i));
+                        }
+                        return names;
+                    }
+                }));
+            }
+            final List<String> expected = futures.get(0).get();
+            for (final Future<List<String>> future : futures) {
+                final List<String> names = future.get();
+                for (int i = 0; i < names.size(); ++i) {
+                    assertSame(names.get(i), expected.get(i));
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -27,7 +27,7 @@ public class MethodTest {
 
     @Test
     public void testMethodWithSimpleReturnTypeToString() {
-        final TypeSymbol typeSymbol = new TypeSymbol(QualifiedName.valueOf("java.util.List"));
+        final TypeSymbol typeSymbol = TypeSymbol.valueOf(QualifiedName.valueOf("java.util.List"));
         final Method method = new MethodBuilder()
                 .setName(SimpleName.valueOf("foo"))
                 .setKind(Method.Kind.METHOD)
@@ -38,7 +38,7 @@ public class MethodTest {
 
     @Test
     public void testMethodWithSimpleParamToString() {
-        final TypeSymbol typeSymbol = new TypeSymbol(QualifiedName.valueOf("java.util.List"));
+        final TypeSymbol typeSymbol = TypeSymbol.valueOf(QualifiedName.valueOf("java.util.List"));
         final Method method = new MethodBuilder()
                 .setName(SimpleName.valueOf("foo"))
                 .setKind(Method.Kind.METHOD)
@@ -53,7 +53,7 @@ public class MethodTest {
     @Test
     public void testMethodWithGenericReturnTypeToString() {
         final List<TypeParameter> typeParams = Collections.singletonList(new TypeParameter(QualifiedName.valueOf("T")));
-        final TypeSymbol typeSymbol = new TypeSymbol(QualifiedName.valueOf("java.util.List"), typeParams);
+        final TypeSymbol typeSymbol = TypeSymbol.valueOf(QualifiedName.valueOf("java.util.List"), typeParams);
         final Method method = new MethodBuilder()
                 .setName(SimpleName.valueOf("foo"))
                 .setKind(Method.Kind.METHOD)
@@ -65,7 +65,7 @@ public class MethodTest {
     @Test
     public void testMethodWithGenericTypeVarParamToString() {
         final List<TypeParameter> typeParams = Collections.singletonList(new TypeParameter(QualifiedName.valueOf("T")));
-        final TypeSymbol typeSymbol = new TypeSymbol(QualifiedName.valueOf("java.util.List"), typeParams);
+        final TypeSymbol typeSymbol = TypeSymbol.valueOf(QualifiedName.valueOf("java.util.List"), typeParams);
         final Method method = new MethodBuilder()
                 .setName(SimpleName.valueOf("foo"))
                 .setKind(Method.Kind.METHOD)
@@ -80,7 +80,7 @@ public class MethodTest {
     @Test
     public void testMethodWithGenericParamToString() {
         final List<TypeParameter> typeParams = Collections.singletonList(new TypeParameter(QualifiedName.valueOf("java.lang.Number")));
-        final TypeSymbol typeSymbol = new TypeSymbol(QualifiedName.valueOf("java.util.List"), typeParams);
+        final TypeSymbol typeSymbol = TypeSymbol.valueOf(QualifiedName.valueOf("java.util.List"), typeParams);
         final Method method = new MethodBuilder()
                 .setName(SimpleName.valueOf("foo"))
                 .setKind(Method.Kind.METHOD)
@@ -98,7 +98,7 @@ public class MethodTest {
                 QualifiedName.valueOf("?"),
                 Collections.singletonList(QualifiedName.valueOf("java.lang.Number")));
         final List<TypeParameter> typeParams = Collections.singletonList(typeParameter);
-        final TypeSymbol typeSymbol = new TypeSymbol(QualifiedName.valueOf("java.util.List"), typeParams);
+        final TypeSymbol typeSymbol = TypeSymbol.valueOf(QualifiedName.valueOf("java.util.List"), typeParams);
         final Method method = new MethodBuilder()
                 .setName(SimpleName.valueOf("foo"))
                 .setKind(Method.Kind.METHOD)
@@ -111,7 +111,7 @@ public class MethodTest {
     public void testMethodWithGenericBoundedParamToString() {
         final TypeParameter typeParameter = new TypeParameter(QualifiedName.valueOf("?"), Collections.singletonList(QualifiedName.valueOf("java.lang.Number")));
         final List<TypeParameter> typeParams = Collections.singletonList(typeParameter);
-        final TypeSymbol typeSymbol = new TypeSymbol(QualifiedName.valueOf("java.util.List"), typeParams);
+        final TypeSymbol typeSymbol = TypeSymbol.valueOf(QualifiedName.valueOf("java.util.List"), typeParams);
         final Method method = new MethodBuilder()
                 .setName(SimpleName.valueOf("foo"))
                 .setKind(Method.Kind.METHOD)
@@ -127,7 +127,7 @@ public class MethodTest {
     public void testParameterizedMethodWithGenericBoundedParamToString() {
         final TypeParameter typeParameter = new TypeParameter(QualifiedName.valueOf("T"), Collections.singletonList(QualifiedName.valueOf("java.lang.Number")));
         final List<TypeParameter> typeParams = Collections.singletonList(typeParameter);
-        final TypeSymbol typeSymbol = new TypeSymbol(QualifiedName.valueOf("T"));
+        final TypeSymbol typeSymbol = TypeSymbol.valueOf(QualifiedName.valueOf("T"));
         final Method method = new MethodBuilder()
                 .setName(SimpleName.valueOf("foo"))
                 .setKind(Method.Kind.METHOD)
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2010 by Guido Steinacker
+ */
+package de.steinacker.jcg.model;
+
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.testng.Assert.*;
+
+/**
+ * @author Guido Steinacker
+ * @version %version: 28 %
+ */
+public class ModelDiffTest {
+
+    private final Type foo = type("a.Foo", field("name", "java.lang.String"), method("getName"));
+    private final Type bar = type("a.Bar", field("foo", "a.Foo"), method("getFoo"));
+    private final Type baz = type("a.Baz", field("count", "int"), method("getCount"));
+
+    @Test
+    public void testEqualModels() {
+        final ModelDiff diff = ModelDiff.between(model(foo, bar), model(foo, bar));
+        assertTrue(diff.isEmpty());
+        assertEquals(diff.getNumberOfUnchangedTypes(), 2);
+    }
+
+    @Test
+    public void testAddedAndRemovedTypes() {
+        final ModelDiff diff = ModelDiff.between(model(foo, bar), model(foo, baz));
+        assertEquals(diff.getAddedTypes(), Arrays.asList(baz));
+        assertEquals(diff.getRemovedTypes(), Arrays.asList(bar));
+        assertTrue(diff.getChangedTypes().isEmpty());
+        assertEquals(diff.getNumberOfUnchangedTypes(), 1);
+    }
+
+    @Test
+    public void testChangedMembers() {
+        final Type changedFoo = new TypeBuilder(foo)
+                .setFields(Arrays.asList(field("name", "java.lang.CharSequence"), field("age", "int")))
+                .addAnnotation(Annotation.valueOf(QualifiedName.valueOf("a.Marker")))
+                .toType();
+        final ModelDiff diff = ModelDiff.between(model(foo, bar), model(changedFoo, bar));
+        assertEquals(diff.getChangedTypes().size(), 1);
+        final ModelDiff.TypeDiff typeDiff = diff.getChangedTypes().get(0);
+        assertEquals(typeDiff.getName(), foo.getName());
+        assertSame(typeDiff.getPrevious(), foo);
+        assertSame(typeDiff.getCurrent(), changedFoo);
+        assertEquals(typeDiff.getFieldChanges().getAdded(), Arrays.asList(changedFoo.getFields().get(1)));
+        assertEquals(typeDiff.getFieldChanges().getChanged(), Arrays.asList(changedFoo.getFields().get(0)));
+        assertTrue(typeDiff.getFieldChanges().getRemoved().isEmpty());
+        assertTrue(typeDiff.getMethodChanges().isEmpty());
+        assertEquals(typeDiff.getAnnotationChanges().getAdded().size(), 1);
+        assertFalse(typeDiff.isDeclarationChanged());
+    }
+
+    @Test
+    public void testMethodsAreMatchedBySignature() {
+        final Method overloaded = new MethodBuilder(foo.getMethods().get(0))
+                .addParameter(new Parameter(TypeSymbol.valueOf(QualifiedName.valueOf("int")),
+                        SimpleName.valueOf("i"), Collections.<Annotation>emptyList(), false, null))
+                .toMethod();
+        final Type changedFoo = new TypeBuilder(foo).setMethods(Arrays.asList(overloaded)).toType();
+        final ModelDiff.TypeDiff typeDiff = ModelDiff.between(model(foo), model(changedFoo)).getChangedTypes().get(0);
+        assertEquals(typeDiff.getMethodChanges().getAdded(), Arrays.asList(overloaded));
+        assertEquals(typeDiff.getMethodChanges().getRemoved(), foo.getMethods());
+        assertTrue(typeDiff.getFieldChanges().isEmpty());
+    }
+
+    @Test
+    public void testDeclarationChanged() {
+        final Type changedFoo = new TypeBuilder(foo).addModifier(TypeModifier.FINAL).toType();
+        final ModelDiff.TypeDiff typeDiff = ModelDiff.between(model(foo), model(changedFoo)).getChangedTypes().get(0);
+        assertTrue(typeDiff.isDeclarationChanged());
+    }
+
+    private static Model model(final Type... types) {
+        return new Model(Arrays.asList(types));
+    }
+
+    private static Type type(final String name, final Field field, final Method method) {
+        return new TypeBuilder()
+                .setName(QualifiedName.valueOf(name))
+                .setKind(Type.Kind.CLASS)
+                .addField(field)
+                .addMethod(method)
+                .toType();
+    }
+
+    private static Field field(final String name, final String type) {
+        return new FieldBuilder()
+                .setName(SimpleName.valueOf(name))
+                .setType(TypeSymbol.valueOf(QualifiedName.valueOf(type)))
+                .toField();
+    }
+
+    private static Method method(final String name) {
+        return new MethodBuilder()
+                .setName(SimpleName.valueOf(name))
+                .setKind(Method.Kind.METHOD)
+                .setMethodBody("return null;")
+                .toMethod();
+    }
+}
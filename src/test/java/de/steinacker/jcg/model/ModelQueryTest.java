@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2010 by Guido Steinacker
+ */
+package de.steinacker.jcg.model;
+
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * @author Guido Steinacker
+ * @version %version: 28 %
+ */
+public class ModelQueryTest {
+
+    private static final String IMMUTABLE = "de.steinacker.jcg.annotation.Immutable";
+
+    private final Type foo = type("a.Foo", IMMUTABLE, "java.lang.Object", "java.lang.String");
+    private final Type bar = type("a.Bar", null, "a.Foo", "b.Baz");
+    private final Type baz = type("b.Baz", IMMUTABLE, "a.Foo", "a.Foo");
+    private final Model model = new ModelBuilder().addType(foo).addType(bar).addType(baz).toModel();
+
+    @Test
+    public void testIndexes() {
+        assertEquals(model.getTypesInPackage("a").size(), 2);
+        assertEquals(model.getTypesAnnotatedWith(IMMUTABLE).size(), 2);
+        assertEquals(model.getDirectSubtypesOf("a.Foo").size(), 2);
+        assertEquals(model.getTypesWithFieldOfType("b.Baz"), Collections.singletonList(bar));
+        assertTrue(model.getTypesInPackage("c").isEmpty());
+    }
+
+    @Test
+    public void testQueryCombinesCriteria() {
+        assertEquals(model.query().inPackage("a").annotatedWith(IMMUTABLE).list(), Arrays.asList(foo));
+        assertEquals(model.query().subtypeOf("a.Foo").withFieldOfType("a.Foo").list(), Arrays.asList(baz));
+        assertTrue(model.query().inPackage("b").subtypeOf("java.lang.Object").list().isEmpty());
+        assertEquals(model.query().list().size(), 3);
+    }
+
+    private static Type type(final String name, final String annotation, final String superClass, final String fieldType) {
+        final TypeBuilder typeBuilder = new TypeBuilder()
+                .setName(QualifiedName.valueOf(name))
+                .setKind(Type.Kind.CLASS)
+                .setSuperClass(TypeSymbol.valueOf(QualifiedName.valueOf(superClass)))
+                .addField(new FieldBuilder()
+                        .setName(SimpleName.valueOf("field"))
+                        .setType(TypeSymbol.valueOf(QualifiedName.valueOf(fieldType)))
+                        .toField());
+        if (annotation != null)
+            typeBuilder.setAnnotations(Collections.singletonList(Annotation.valueOf(QualifiedName.valueOf(annotation))));
+        return typeBuilder.toType();
+    }
+}
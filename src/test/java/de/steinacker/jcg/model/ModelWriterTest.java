@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2010 by Guido Steinacker
+ */
+package de.steinacker.jcg.model;
+
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.*;
+
+import static org.testng.Assert.*;
+
+/**
+ * @author Guido Steinacker
+ * @version %version: 28 %
+ */
+public class ModelWriterTest {
+
+    private final Annotation annotation = Annotation.valueOf(
+            QualifiedName.valueOf("a.Marker"),
+            Arrays.asList(
+                    new AnnotationParameter("value", false, new AnnotationValue(42, "42")),
+                    new AnnotationParameter("names", false,
+                            new AnnotationValue("x", "\"x\""),
+                            new AnnotationValue(QualifiedName.valueOf("a.Foo"), "a.Foo.class")),
+                    new AnnotationParameter("kind", false, new AnnotationValue((short) 3, "3")),
+                    new AnnotationParameter("nested", false, new AnnotationValue(
+                            Annotation.valueOf(QualifiedName.valueOf("a.Nested"),
+                                    Collections.<AnnotationParameter>emptyList(),
+                                    Collections.<AnnotationParameter>emptyList()), "@a.Nested"))),
+            Arrays.asList(
+                    new AnnotationParameter("value", false, new AnnotationValue(42, "42")),
+                    new AnnotationParameter("flag", true, new AnnotationValue(true, "true")),
+                    new AnnotationParameter("ratio", true, new AnnotationValue(0.5d, "0.5"))));
+
+    private final Type foo = new TypeBuilder()
+            .setName(QualifiedName.valueOf("a.Foo"))
+            .setKind(Type.Kind.CLASS)
+            .addAnnotation(annotation)
+            .addModifier(TypeModifier.PUBLIC)
+            .addModifier(TypeModifier.FINAL)
+            .setComment("A foo.")
+            .addImplementedInterface(TypeSymbol.valueOf(QualifiedName.valueOf("java.io.Serializable")))
+            .addField(new FieldBuilder()
+                    .setName(SimpleName.valueOf("names"))
+                    .setType(TypeSymbol.valueOf(QualifiedName.valueOf("java.util.List"),
+                            Arrays.asList(new TypeParameter(QualifiedName.valueOf("java.lang.String")))))
+                    .setInitString("new ArrayList<String>()")
+                    .setModifiers(EnumSet.of(FieldModifier.PRIVATE, FieldModifier.FINAL))
+                    .toField())
+            .addMethod(new MethodBuilder()
+                    .setName(SimpleName.valueOf("Foo"))
+                    .setKind(Method.Kind.CONSTRUCTOR)
+                    .setReturnType(null)
+                    .addModifier(MethodModifier.PUBLIC)
+                    .setMethodBody("")
+                    .toMethod())
+            .addMethod(new MethodBuilder()
+                    .setName(SimpleName.valueOf("find"))
+                    .setKind(Method.Kind.METHOD)
+                    .addTypeParameter(new TypeParameter(QualifiedName.valueOf("T"),
+                            Arrays.asList(QualifiedName.valueOf("java.lang.Number"))))
+                    .setReturnType(TypeSymbol.valueOf(QualifiedName.valueOf("T")))
+                    .addParameter(new Parameter(TypeSymbol.valueOf(QualifiedName.valueOf("java.lang.String")),
+                            SimpleName.valueOf("name"), Arrays.asList(annotation), true, null))
+                    .addException(QualifiedName.valueOf("java.io.IOException"))
+                    .addModifier(MethodModifier.PUBLIC)
+                    .setMethodBody("return null;")
+                    .toMethod())
+            .toType();
+
+    private final Type bar = new Type(QualifiedName.valueOf("a.Bar"), Type.Kind.INTERFACE,
+            Collections.<Annotation>emptyList(), EnumSet.noneOf(TypeModifier.class), null,
+            null, Collections.<TypeSymbol>emptyList(), Collections.<TypeParameter>emptyList(),
+            Collections.<Method>emptyList(), Collections.<Field>emptyList(),
+            Collections.singleton(new Import(QualifiedName.valueOf("java.util.Collections.emptyList"), true)));
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        final Model model = new ModelBuilder().addType(foo).addType(bar).toModel();
+        final Model readModel = read(write(foo, bar)).readModel();
+        assertEquals(readModel.getAllTypes(), model.getAllTypes());
+        assertEquals(readModel.getType(QualifiedName.valueOf("a.Foo")).getMethods().get(0).getReturnType(), null);
+    }
+
+    @Test
+    public void testTypesAreReadOneAtATime() throws Exception {
+        final ModelReader reader = read(write(foo, bar));
+        assertEquals(reader.read(), foo);
+        assertEquals(reader.read(), bar);
+        assertNull(reader.read());
+        assertNull(reader.read());
+    }
+
+    @Test
+    public void testReadSymbolsAreCanonical() throws Exception {
+        final Type type = read(write(foo)).read();
+        assertSame(type.getAnnotations().get(0), annotation);
+        assertSame(type.getName(), foo.getName());
+        assertSame(type.getFields().get(0).getType(), foo.getFields().get(0).getType());
+    }
+
+    @Test
+    public void testStringsAreWrittenOnce() throws Exception {
+        final byte[] once = write(foo);
+        final byte[] twice = write(foo, foo);
+        assertTrue(twice.length - once.length < once.length / 2);
+    }
+
+    @Test
+    public void testSmallerThanSerializedTypes() throws Exception {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(new ArrayList<Type>(Arrays.asList(foo, bar)));
+        out.close();
+        assertTrue(write(foo, bar).length < bytes.size());
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void testRejectsForeignStreams() throws Exception {
+        new ModelReader(new ByteArrayInputStream("JAVA1".getBytes("UTF-8")));
+    }
+
+    private static byte[] write(final Type... types) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final ModelWriter writer = new ModelWriter(bytes);
+        try {
+            for (final Type type : types) {
+                writer.write(type);
+            }
+        } finally {
+            writer.close();
+        }
+        return bytes.toByteArray();
+    }
+
+    private static ModelReader read(final byte[] bytes) throws IOException {
+        return new ModelReader(new ByteArrayInputStream(bytes));
+    }
+}
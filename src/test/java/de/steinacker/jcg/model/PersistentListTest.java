@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2010 by Guido Steinacker
+ */
+package de.steinacker.jcg.model;
+
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.testng.Assert.*;
+
+/**
+ * @author Guido Steinacker
+ * @version %version: 28 %
+ */
+public class PersistentListTest {
+
+    @Test
+    public void testPlusKeepsOriginalList() {
+        final PersistentList<String> empty = PersistentList.empty();
+        final PersistentList<String> one = empty.plus("a");
+        final PersistentList<String> two = one.plus("b");
+        assertTrue(empty.isEmpty());
+        assertEquals(one, Arrays.asList("a"));
+        assertEquals(two, Arrays.asList("a", "b"));
+    }
+
+    @Test
+    public void testLargeLists() {
+        final List<Integer> expected = new ArrayList<Integer>();
+        PersistentList<Integer> list = PersistentList.empty();
+        for (int i = 0; i < 40000; ++i) {
+            list = list.plus(i);
+            expected.add(i);
+        }
+        assertEquals(list, expected);
+        assertEquals(PersistentList.copyOf(expected), expected);
+        assertEquals(list.hashCode(), expected.hashCode());
+    }
+
+    @Test
+    public void testCopyOfSizesAroundArrayWidth() {
+        for (final int size : new int[]{0, 1, 31, 32, 33, 64, 65, 1024, 1056, 1057}) {
+            final List<Integer> expected = new ArrayList<Integer>();
+            for (int i = 0; i < size; ++i) {
+                expected.add(i);
+            }
+            final PersistentList<Integer> list = PersistentList.copyOf(expected);
+            assertEquals(list, expected);
+            assertEquals(list.plus(-1).get(size), Integer.valueOf(-1));
+        }
+    }
+
+    @Test
+    public void testCopyOfPersistentListIsSame() {
+        final PersistentList<String> list = PersistentList.<String>empty().plus("a");
+        assertSame(PersistentList.copyOf(list), list);
+    }
+
+    @Test
+    public void testWithAndMinus() {
+        final List<Integer> expected = new ArrayList<Integer>();
+        for (int i = 0; i < 100; ++i) {
+            expected.add(i);
+        }
+        final PersistentList<Integer> list = PersistentList.copyOf(expected);
+        final PersistentList<Integer> replaced = list.with(5, -5).with(99, -99);
+        assertEquals(list, expected);
+        expected.set(5, -5);
+        expected.set(99, -99);
+        assertEquals(replaced, expected);
+        expected.remove(50);
+        assertEquals(replaced.minus(50), expected);
+    }
+
+    @Test(expectedExceptions = UnsupportedOperationException.class)
+    public void testListIsImmutable() {
+        PersistentList.<String>empty().plus("a").add("b");
+    }
+
+    @Test
+    public void testSerialization() throws Exception {
+        final PersistentList<String> list = PersistentList.copyOf(Arrays.asList("a", "b", "c"));
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(list);
+        out.close();
+        final Object copy = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+        assertTrue(copy instanceof PersistentList);
+        assertEquals(copy, list);
+    }
+}
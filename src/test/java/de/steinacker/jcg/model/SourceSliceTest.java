@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2010 by Guido Steinacker
+ */
+package de.steinacker.jcg.model;
+
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import static org.testng.Assert.*;
+
+/**
+ * @author Guido Steinacker
+ * @version %version: 28 %
+ */
+public class SourceSliceTest {
+
+    private static final String SOURCE =
+            "class Foo {\n" +
+            "    int a = 1 +2;\n" +
+            "    void foo() {\n" +
+            "        if (a > 0) {\n" +
+            "            a--;\n" +
+            "        }\n" +
+            "    }\n" +
+            "    void bar() { }\n" +
+            "}";
+
+    @Test
+    public void testSliceKeepsOriginalFormatting() {
+        final int start = SOURCE.indexOf("1 +2");
+        assertEquals(SourceSlice.of(SOURCE, start, start + 4).toString(), "1 +2");
+    }
+
+    @Test
+    public void testBlockIsUnindented() {
+        final int start = SOURCE.indexOf("{\n        if");
+        final int end = SOURCE.indexOf("    void bar") - 1;
+        assertEquals(SourceSlice.ofBlock(SOURCE, start, end).toString(), "if (a > 0) {\n    a--;\n}");
+    }
+
+    @Test
+    public void testEmptyBlock() {
+        final int start = SOURCE.indexOf("{ }");
+        assertEquals(SourceSlice.ofBlock(SOURCE, start, start + 3).toString(), "");
+    }
+
+    @Test
+    public void testComparingFieldsDoesNotMaterializeSlices() {
+        final int start = SOURCE.indexOf("1 +2");
+        final SourceSlice slice = SourceSlice.of(SOURCE, start, start + 4);
+        final SourceSlice sameRange = SourceSlice.of(SOURCE, start, start + 4);
+        final Field field = newField(slice);
+        final Field sameField = newField(sameRange);
+        assertEquals(field, sameField);
+        assertEquals(field.hashCode(), sameField.hashCode());
+        assertFalse(slice.isMaterialized());
+        assertFalse(sameRange.isMaterialized());
+        // a slice of a different source is still equal to a String having the same content:
+        assertEquals(newField("1 +2"), field);
+        assertEquals(newField("1 +2").hashCode(), field.hashCode());
+        assertFalse(newField("1 + 2").equals(field));
+    }
+
+    @Test
+    public void testContentHashOfBlockEqualsHashOfString() {
+        final int start = SOURCE.indexOf("{\n        if");
+        final int end = SOURCE.indexOf("    void bar") - 1;
+        final SourceSlice block = SourceSlice.ofBlock(SOURCE, start, end);
+        assertEquals(SourceSlice.contentHashOf(block), SourceSlice.contentHashOf("if (a > 0) {\n    a--;\n}"));
+        assertFalse(block.isMaterialized());
+        assertTrue(SourceSlice.contentEquals(block, "if (a > 0) {\n    a--;\n}"));
+        assertTrue(SourceSlice.contentEquals(null, null));
+        assertFalse(SourceSlice.contentEquals(block, null));
+    }
+
+    private static Field newField(final CharSequence initString) {
+        return new FieldBuilder()
+                .setType(TypeSymbol.valueOf(QualifiedName.valueOf("int")))
+                .setName(SimpleName.valueOf("a"))
+                .setInitString(initString)
+                .toField();
+    }
+
+    @Test
+    public void testSerializedSliceIsString() throws Exception {
+        final int start = SOURCE.indexOf("1 +2");
+        final Field field = new FieldBuilder()
+                .setType(TypeSymbol.valueOf(QualifiedName.valueOf("int")))
+                .setName(SimpleName.valueOf("a"))
+                .setInitString(SourceSlice.of(SOURCE, start, start + 4))
+                .toField();
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(field);
+        out.close();
+        final Field copy = (Field) new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+        assertEquals(copy, field);
+        assertEquals(copy.toString(), "int a = 1 +2");
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2010 by Guido Steinacker
+ */
+package de.steinacker.jcg.model;
+
+import org.testng.annotations.Test;
+
+import java.util.*;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * @author Guido Steinacker
+ * @version %version: 28 %
+ */
+public class TypeDependencyGraphTest {
+
+    @Test
+    public void testTypesAreGroupedIntoWaves() {
+        final Model model = new Model(Arrays.asList(
+                type("a.Order", null, "a.Customer", "java.util.List<a.OrderItem>"),
+                type("a.OrderItem", "a.Entity", "java.lang.String"),
+                type("a.Customer", "a.Entity", "a.Customer"),
+                type("a.Entity", null),
+                type("a.Unrelated", "java.lang.Object")));
+        final TypeDependencyGraph graph = new TypeDependencyGraph(model);
+        assertEquals(graph.getDependencies(QualifiedName.valueOf("a.Order")),
+                new HashSet<QualifiedName>(Arrays.asList(QualifiedName.valueOf("a.Customer"), QualifiedName.valueOf("a.OrderItem"))));
+        assertTrue(graph.getDependencies(QualifiedName.valueOf("a.Customer")).contains(QualifiedName.valueOf("a.Entity")));
+        assertEquals(graph.getDependencies(QualifiedName.valueOf("a.Customer")).size(), 1);
+        assertEquals(namesOf(graph.getWaves()), Arrays.asList(
+                Arrays.asList("a.Entity", "a.Unrelated"),
+                Arrays.asList("a.OrderItem", "a.Customer"),
+                Arrays.asList("a.Order")));
+        assertTrue(graph.getCycles().isEmpty());
+    }
+
+    @Test
+    public void testCyclicDependenciesAreTransformedInTheSameWave() {
+        final Model model = new Model(Arrays.asList(
+                type("a.Invoice", null, "a.Order"),
+                type("a.Order", "a.Base", "a.Customer"),
+                type("a.Customer", null, "java.util.List<a.Order>"),
+                type("a.Base", null)));
+        final TypeDependencyGraph graph = new TypeDependencyGraph(model);
+        assertEquals(namesOf(graph.getCycles()), Arrays.asList(Arrays.asList("a.Order", "a.Customer")));
+        assertEquals(namesOf(graph.getComponents()), Arrays.asList(
+                Arrays.asList("a.Base"),
+                Arrays.asList("a.Order", "a.Customer"),
+                Arrays.asList("a.Invoice")));
+        assertEquals(namesOf(graph.getWaves()), Arrays.asList(
+                Arrays.asList("a.Base"),
+                Arrays.asList("a.Order", "a.Customer"),
+                Arrays.asList("a.Invoice")));
+    }
+
+    @Test
+    public void testLongChainsOfDependencies() {
+        final List<Type> types = new ArrayList<Type>();
+        for (int i = 0; i < 10000; ++i) {
+            types.add(type("a.Type" + i, i > 0 ? "a.Type" + (i - 1) : null));
+        }
+        final TypeDependencyGraph graph = new TypeDependencyGraph(new Model(types));
+        assertEquals(graph.getWaves().size(), 10000);
+        assertEquals(graph.getWaves().get(9999).get(0).getName().toString(), "a.Type9999");
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testDependenciesOfUnknownType() {
+        new TypeDependencyGraph(new Model(Collections.singletonList(type("a.Foo", null))))
+                .getDependencies(QualifiedName.valueOf("a.Bar"));
+    }
+
+    private static List<List<String>> namesOf(final List<List<Type>> groups) {
+        final List<List<String>> result = new ArrayList<List<String>>();
+        for (final List<Type> group : groups) {
+            final List<String> names = new ArrayList<String>();
+            for (final Type type : group) {
+                names.add(type.getName().toString());
+            }
+            result.add(names);
+        }
+        return result;
+    }
+
+    private static Type type(final String name, final String superClass, final String... fieldTypes) {
+        final TypeBuilder typeBuilder = new TypeBuilder()
+                .setName(QualifiedName.valueOf(name))
+                .setKind(Type.Kind.CLASS);
+        if (superClass != null)
+            typeBuilder.setSuperClass(TypeSymbol.valueOf(QualifiedName.valueOf(superClass)));
+        int i = 0;
+        for (final String fieldType : fieldTypes) {
+            final int typeArgument = fieldType.indexOf('<');
+            final TypeSymbol typeSymbol = typeArgument < 0
+                    ? TypeSymbol.valueOf(QualifiedName.valueOf(fieldType))
+                    : TypeSymbol.valueOf(QualifiedName.valueOf(fieldType.substring(0, typeArgument)),
+                    Collections.singletonList(new TypeParameter(
+                            QualifiedName.valueOf(fieldType.substring(typeArgument + 1, fieldType.length() - 1)))));
+            typeBuilder.addField(new FieldBuilder()
+                    .setName(SimpleName.valueOf("field" + i++))
+                    .setType(typeSymbol)
+                    .toField());
+        }
+        return typeBuilder.toType();
+    }
+}
@@ -5,10 +5,15 @@ package de.steinacker.jcg.model;
 
 import org.testng.annotations.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
-import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.*;
 
 /**
  * @author Guido Steinacker
@@ -18,14 +23,14 @@ public class TypeSymbolTest {
 
     @Test
     public void testTypeSymbolToString() {
-        final TypeSymbol typeSymbol = new TypeSymbol(QualifiedName.valueOf("java.util.List"));
+        final TypeSymbol typeSymbol = TypeSymbol.valueOf(QualifiedName.valueOf("java.util.List"));
         assertEquals(typeSymbol.toString(), "List");
     }
 
     @Test
     public void testTypeSymbolWithTypeParamToString() {
         final List<TypeParameter> typeParams = Collections.singletonList(new TypeParameter(QualifiedName.valueOf("T")));
-        final TypeSymbol typeSymbol = new TypeSymbol(QualifiedName.valueOf("java.util.List"), typeParams);
+        final TypeSymbol typeSymbol = TypeSymbol.valueOf(QualifiedName.valueOf("java.util.List"), typeParams);
         assertEquals(typeSymbol.toString(), "List<T>");
     }
 
@@ -33,7 +38,27 @@ public class TypeSymbolTest {
     public void testTypeSymbolWithBoundedTypeParamToString() {
         final TypeParameter typeParameter = new TypeParameter(QualifiedName.valueOf("?"), Collections.singletonList(QualifiedName.valueOf("java.lang.Number")));
         final List<TypeParameter> typeParams = Collections.singletonList(typeParameter);
-        final TypeSymbol typeSymbol = new TypeSymbol(QualifiedName.valueOf("java.util.List"), typeParams);
+        final TypeSymbol typeSymbol = TypeSymbol.valueOf(QualifiedName.valueOf("java.util.List"), typeParams);
         assertEquals(typeSymbol.toString(), "List<? extends Number>");
     }
+
+    @Test
+    public void testEqualTypeSymbolsAreCanonical() {
+        final List<TypeParameter> typeParams = Collections.singletonList(new TypeParameter(QualifiedName.valueOf("T")));
+        final TypeSymbol typeSymbol = TypeSymbol.valueOf(QualifiedName.valueOf("java.util.List"), typeParams);
+        assertSame(TypeSymbol.valueOf(QualifiedName.valueOf("java.util.List"), typeParams), typeSymbol);
+        assertNotSame(TypeSymbol.valueOf(QualifiedName.valueOf("java.util.List")), typeSymbol);
+        // an equal list of TypeParameters yields the same instance:
+        assertSame(TypeSymbol.valueOf(QualifiedName.valueOf("java.util.List"), new ArrayList<TypeParameter>(typeParams)), typeSymbol);
+    }
+
+    @Test
+    public void testDeserializedTypeSymbolIsCanonical() throws Exception {
+        final TypeSymbol typeSymbol = TypeSymbol.valueOf(QualifiedName.valueOf("java.lang.String"));
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(typeSymbol);
+        out.close();
+        assertSame(new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject(), typeSymbol);
+    }
 }
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2010 by Guido Steinacker
+ */
+package de.steinacker.jcg.parse;
+
+import de.steinacker.jcg.model.Model;
+import de.steinacker.jcg.model.QualifiedName;
+import org.testng.annotations.Test;
+
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.FileWriter;
+
+import static org.testng.Assert.*;
+
+/**
+ * @author Guido Steinacker
+ * @version %version: 28 %
+ */
+public class FileManagerPoolTest {
+
+    @Test
+    public void testReleasedFileManagerIsReused() {
+        final FileManagerPool pool = new FileManagerPool(ToolProvider.getSystemJavaCompiler());
+        final StandardJavaFileManager fileManager = pool.acquire();
+        assertNotSame(pool.acquire(), fileManager);
+        pool.release(fileManager);
+        assertSame(pool.acquire(), fileManager);
+        pool.close();
+    }
+
+    @Test
+    public void testModifiedSourceIsParsedAgain() throws Exception {
+        final File dir = File.createTempFile("jcg-pool", "");
+        dir.delete();
+        dir.mkdirs();
+        final File sourceFile = new File(dir, "Foo.java");
+        final JavaFileParser parser = new JavaFileParser();
+        parser.setAnalyzeOnly(true);
+        try {
+            writeFile(sourceFile, "public class Foo { private int a; }");
+            final Model model = parser.parse(sourceFile.getPath(), null);
+            assertEquals(model.getType(QualifiedName.valueOf("Foo")).getFields().size(), 1);
+            writeFile(sourceFile, "public class Foo { private int a; private int b; }");
+            final Model modifiedModel = parser.parse(sourceFile.getPath(), null);
+            assertEquals(modifiedModel.getType(QualifiedName.valueOf("Foo")).getFields().size(), 2);
+        } finally {
+            parser.close();
+            sourceFile.delete();
+            dir.delete();
+        }
+    }
+
+    private static void writeFile(final File file, final String content) throws Exception {
+        final FileWriter writer = new FileWriter(file);
+        try {
+            writer.write(content);
+        } finally {
+            writer.close();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2010 by Guido Steinacker
+ */
+package de.steinacker.jcg.parse;
+
+import de.steinacker.jcg.model.Model;
+import de.steinacker.jcg.model.QualifiedName;
+import de.steinacker.jcg.model.Type;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.testng.Assert.*;
+
+/**
+ * @author Guido Steinacker
+ * @version %version: 28 %
+ */
+public class JavaFileParserTest {
+
+    private static final String TEST_SOURCES = "src/test/java/test";
+    private static final String SHARDED_SOURCES = "src/test/java/test/shards";
+
+    private File binDir;
+
+    @BeforeMethod
+    public void createBinDir() throws Exception {
+        binDir = File.createTempFile("jcg-bin", "");
+        binDir.delete();
+        binDir.mkdirs();
+    }
+
+    @AfterMethod
+    public void deleteBinDir() {
+        delete(binDir);
+    }
+
+    @Test
+    public void testParsingInShardsEqualsParsingInOneTask() {
+        final Map<QualifiedName, Type> expected = typesOf(newParser(1).parse(TEST_SOURCES, true, binDir.getPath()));
+        assertTrue(expected.containsKey(QualifiedName.valueOf("test.shards.orders.Order")));
+        assertTrue(expected.containsKey(QualifiedName.valueOf("test.types.Class01")));
+        assertEquals(typesOf(newParser(4).parse(TEST_SOURCES, true, binDir.getPath())), expected);
+    }
+
+    @Test
+    public void testTypesOfOtherShardsAreResolved() {
+        // every package of the directory is parsed in a shard of its own:
+        final Map<QualifiedName, Type> types = typesOf(newParser(3).parse(SHARDED_SOURCES, true, binDir.getPath()));
+        assertEquals(types, typesOf(newParser(1).parse(SHARDED_SOURCES, true, binDir.getPath())));
+        assertEquals(types.size(), 3);
+        final Type order = types.get(QualifiedName.valueOf("test.shards.orders.Order"));
+        final Type customer = types.get(QualifiedName.valueOf("test.shards.customers.Customer"));
+        assertEquals(order.getSuperClass().getQualifiedName().toString(), "test.shards.base.Entity");
+        assertEquals(order.getFields().get(0).getType().getQualifiedName().toString(), "test.shards.customers.Customer");
+        assertEquals(customer.getSuperClass().getQualifiedName().toString(), "test.shards.base.Entity");
+        assertEquals(customer.getFields().get(0).getType().getTypeParameters().get(0).getParamName().toString(),
+                "test.shards.orders.Order");
+    }
+
+    @Test
+    public void testAnalyzeOnlyEqualsFullCompile() {
+        final Map<QualifiedName, Type> expected = typesOf(newParser(1).parse(TEST_SOURCES, true, binDir.getPath()));
+        assertTrue(countClassFiles(binDir) > 0);
+        delete(binDir);
+        binDir.mkdirs();
+        final JavaFileParser parser = newParser(1);
+        parser.setAnalyzeOnly(true);
+        assertEquals(typesOf(parser.parse(TEST_SOURCES, true, binDir.getPath())), expected);
+        assertEquals(countClassFiles(binDir), 0);
+    }
+
+    private static JavaFileParser newParser(final int threads) {
+        final JavaFileParser parser = new JavaFileParser();
+        parser.setThreads(threads);
+        return parser;
+    }
+
+    private static Map<QualifiedName, Type> typesOf(final Model model) {
+        final Map<QualifiedName, Type> types = new HashMap<QualifiedName, Type>();
+        for (final Type type : model) {
+            assertNull(types.put(type.getName(), type), "duplicate type " + type.getName());
+        }
+        return types;
+    }
+
+    private static int countClassFiles(final File dir) {
+        int count = 0;
+        final File[] files = dir.listFiles();
+        if (files != null) {
+            for (final File file : files) {
+                count += file.isDirectory() ? countClassFiles(file) : (file.getName().endsWith(".class") ? 1 : 0);
+            }
+        }
+        return count;
+    }
+
+    private static void delete(final File file) {
+        final File[] files = file.listFiles();
+        if (files != null) {
+            for (final File child : files) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2010 by Guido Steinacker
+ */
+package de.steinacker.jcg.parse;
+
+import de.steinacker.jcg.model.Model;
+import de.steinacker.jcg.model.QualifiedName;
+import de.steinacker.jcg.model.Type;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.util.Collections;
+import java.util.List;
+
+import static org.testng.Assert.*;
+
+/**
+ * @author Guido Steinacker
+ * @version %version: 28 %
+ */
+public class ParseCacheTest {
+
+    private static final String TEST_SOURCES = "src/test/java/test/types";
+
+    private File cacheDir;
+
+    @BeforeMethod
+    public void createCacheDir() throws Exception {
+        cacheDir = File.createTempFile("jcg-cache", "");
+        cacheDir.delete();
+    }
+
+    @AfterMethod
+    public void deleteCacheDir() {
+        final File[] files = cacheDir.listFiles();
+        if (files != null) {
+            for (final File file : files) {
+                file.delete();
+            }
+        }
+        cacheDir.delete();
+    }
+
+    @Test
+    public void testCachedModelEqualsParsedModel() {
+        final Model parsedModel = newParser().parse(TEST_SOURCES, true, null);
+        assertTrue(cacheDir.list().length > 0);
+        final Model cachedModel = newParser().parse(TEST_SOURCES, true, null);
+        int numberOfTypes = 0;
+        for (final Type type : parsedModel) {
+            assertEquals(cachedModel.getType(type.getName()), type);
+            ++numberOfTypes;
+        }
+        for (final Type ignored : cachedModel) {
+            --numberOfTypes;
+        }
+        assertEquals(numberOfTypes, 0);
+    }
+
+    @Test
+    public void testCachedNamesAreInterned() {
+        final File sourceFile = new File(TEST_SOURCES, "Class01.java");
+        final ParseCache cache = new ParseCache(cacheDir.getPath());
+        final Type type = newParser().parse(sourceFile.getPath(), null).getAllTypes().iterator().next();
+        final List<Type> cachedTypes = new ParseCache(cacheDir.getPath()).get(keyOf(cache, sourceFile));
+        assertNotNull(cachedTypes);
+        assertSame(cachedTypes.get(0).getName(), type.getName());
+        assertSame(cachedTypes.get(0).getName(), QualifiedName.valueOf(type.getName().toString()));
+    }
+
+    @Test
+    public void testMissingEntry() {
+        final ParseCache cache = new ParseCache(cacheDir.getPath());
+        assertNull(cache.get(keyOf(cache, new File(TEST_SOURCES, "Class01.java"))));
+    }
+
+    @Test
+    public void testKeyDependsOnContent() throws Exception {
+        final ParseCache cache = new ParseCache(cacheDir.getPath());
+        final File sourceFile = new File(cacheDir, "Foo.java");
+        writeFile(sourceFile, "class Foo {}");
+        final String key = cache.keyOf(sourceFile);
+        assertEquals(cache.keyOf(sourceFile), key);
+        writeFile(sourceFile, "class Foo { int i; }");
+        assertFalse(cache.keyOf(sourceFile).equals(key));
+    }
+
+    @Test
+    public void testPutAndGet() {
+        final ParseCache cache = new ParseCache(cacheDir.getPath());
+        cache.put("foo", Collections.<Type>emptyList());
+        assertEquals(cache.get("foo"), Collections.<Type>emptyList());
+    }
+
+    private JavaFileParser newParser() {
+        final JavaFileParser parser = new JavaFileParser();
+        parser.setAnalyzeOnly(true);
+        parser.setCache(new ParseCache(cacheDir.getPath()));
+        return parser;
+    }
+
+    private static String keyOf(final ParseCache cache, final File sourceFile) {
+        try {
+            return cache.keyOf(sourceFile);
+        } catch (Exception e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    private static void writeFile(final File file, final String content) throws Exception {
+        final FileWriter writer = new FileWriter(file);
+        try {
+            writer.write(content);
+        } finally {
+            writer.close();
+        }
+    }
+}
@@ -3,6 +3,7 @@
  */
 package de.steinacker.jcg.parse;
 
+import de.steinacker.jcg.model.Method;
 import de.steinacker.jcg.model.Model;
 import de.steinacker.jcg.model.QualifiedName;
 import de.steinacker.jcg.model.Type;
@@ -19,6 +20,7 @@ public final class ParseClassesTest extends AbstractJcgTest {
     private static final QualifiedName QN_CLASS03 = QualifiedName.valueOf("test.types.Class03");
     private static final QualifiedName QN_ENUMTYPE01 = QualifiedName.valueOf("test.types.EnumType01");
     private static final QualifiedName QN_ENUMTYPE02 = QualifiedName.valueOf("test.types.EnumType02");
+    private static final QualifiedName QN_GENERICTYPE02 = QualifiedName.valueOf("test.types.GenericType02");
 
     @Test
     public void testExistenceOfClasses() {
@@ -62,6 +64,15 @@ public final class ParseClassesTest extends AbstractJcgTest {
         assertTrue(type.getMethods().get(0).getMethodBody().isEmpty());
     }
 
+    @Test
+    public void methodBodyFromSource() {
+        final Type type = getParsedModel().getType(QN_GENERICTYPE02);
+        for (final Method method : type.getMethods()) {
+            if (!method.isConstructor())
+                assertEquals(method.getMethodBody(), "return t.longValue();");
+        }
+    }
+
     @Test
     public void classWithInheritance() {
         final Model model = getParsedModel();
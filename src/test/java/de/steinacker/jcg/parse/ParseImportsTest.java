@@ -45,6 +45,18 @@ public final class ParseImportsTest extends AbstractJcgTest {
         assertFalse(imports.contains(new Import(QualifiedName.valueOf("java.lang.*"))));
     }
 
+    @Test
+    public void importsAreComputedOnce() {
+        final Type type = getParsedModel().getType(QN_CLASS01);
+        assertSame(type.getImports(), type.getImports());
+    }
+
+    @Test(expectedExceptions = UnsupportedOperationException.class)
+    public void importsAreUnmodifiable() {
+        final Type type = getParsedModel().getType(QN_CLASS01);
+        type.getImports().add(new Import(QualifiedName.valueOf("java.util.Map")));
+    }
+
     @Override
     protected String selectTransformer() {
         return "RemoveSingleEmptyDefaultConstructor";
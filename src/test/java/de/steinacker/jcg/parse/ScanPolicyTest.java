@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2010 by Guido Steinacker
+ */
+package de.steinacker.jcg.parse;
+
+import de.steinacker.jcg.model.Model;
+import de.steinacker.jcg.model.QualifiedName;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+
+import static org.testng.Assert.*;
+
+/**
+ * @author Guido Steinacker
+ * @version %version: 28 %
+ */
+public class ScanPolicyTest {
+
+    private static final String TEST_SOURCES = "src/test/java/test/annotations";
+
+    @Test
+    public void testAllTypesAreScannedByDefault() {
+        final JavaFileParser parser = new JavaFileParser();
+        parser.setAnalyzeOnly(true);
+        try {
+            final Model model = parser.parse(TEST_SOURCES, true, null);
+            assertNotNull(model.getType(QualifiedName.valueOf("test.annotations.Annotated01")));
+        } finally {
+            parser.close();
+        }
+    }
+
+    @Test
+    public void testUnselectedTypesAreSkipped() {
+        final ScanPolicy scanPolicy = new ScanPolicy();
+        scanPolicy.setAnnotationNames(Arrays.asList("java.lang.SuppressWarnings"));
+        final JavaFileParser parser = new JavaFileParser();
+        parser.setAnalyzeOnly(true);
+        parser.setScanPolicy(scanPolicy);
+        try {
+            final Model model = parser.parse(TEST_SOURCES, true, null);
+            assertEquals(model.getAllTypes().size(), 1);
+            assertNotNull(model.getType(QualifiedName.valueOf("test.annotations.Annotated01")));
+        } finally {
+            parser.close();
+        }
+    }
+}
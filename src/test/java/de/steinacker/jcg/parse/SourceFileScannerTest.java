@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2010 by Guido Steinacker
+ */
+package de.steinacker.jcg.parse;
+
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.testng.Assert.*;
+
+/**
+ * @author Guido Steinacker
+ * @version %version: 28 %
+ */
+public class SourceFileScannerTest {
+
+    private static final List<String> ALL_JAVA_FILES = Collections.singletonList("**/*.java");
+
+    @Test
+    public void testGlobToRegex() {
+        assertTrue("Foo.java".matches(SourceFileScanner.toRegex("*.java")));
+        assertFalse("foo/Foo.java".matches(SourceFileScanner.toRegex("*.java")));
+        assertTrue("Foo.java".matches(SourceFileScanner.toRegex("**/*.java")));
+        assertTrue("foo/bar/Foo.java".matches(SourceFileScanner.toRegex("**/*.java")));
+        assertTrue("foo/Foo.java".matches(SourceFileScanner.toRegex("foo/F?o.java")));
+        assertFalse("foo/Foo.javax".matches(SourceFileScanner.toRegex("**/*.java")));
+        assertTrue("a/generated/b/Foo.java".matches(SourceFileScanner.toRegex("**/generated/**")));
+    }
+
+    @Test
+    public void testExcludedDirectory() {
+        final SourceFileScanner scanner = new SourceFileScanner(
+                ALL_JAVA_FILES, Arrays.asList("**/generated/**"), 1);
+        assertTrue(scanner.isExcludedDirectory("src/generated"));
+        assertTrue(scanner.isExcludedDirectory("generated"));
+        assertFalse(scanner.isExcludedDirectory("src/main"));
+        assertFalse(scanner.isIncluded("src/generated/Foo.java"));
+        assertTrue(scanner.isIncluded("src/main/Foo.java"));
+    }
+
+    @Test
+    public void testScanIsSortedAndIndependentOfThreads() {
+        final File dir = new File("src/test/java/test");
+        final List<File> files = new SourceFileScanner(ALL_JAVA_FILES, Collections.<String>emptyList(), 1).scan(dir, true);
+        assertFalse(files.isEmpty());
+        for (int i = 1; i < files.size(); ++i) {
+            assertTrue(files.get(i - 1).compareTo(files.get(i)) < 0);
+        }
+        assertEquals(new SourceFileScanner(ALL_JAVA_FILES, Collections.<String>emptyList(), 4).scan(dir, true), files);
+    }
+
+    @Test
+    public void testScanWithExcludes() {
+        final File dir = new File("src/test/java/test");
+        final List<File> files = new SourceFileScanner(ALL_JAVA_FILES, Arrays.asList("types/**"), 2).scan(dir, true);
+        assertFalse(files.isEmpty());
+        for (final File file : files) {
+            assertFalse(file.getParentFile().getName().equals("types"));
+        }
+    }
+
+    @Test
+    public void testNonRecursiveScan() {
+        final File dir = new File("src/test/java/test/types");
+        final List<File> files = new SourceFileScanner(ALL_JAVA_FILES, Collections.<String>emptyList(), 1).scan(dir, false);
+        assertFalse(files.isEmpty());
+        assertTrue(new SourceFileScanner(ALL_JAVA_FILES, Collections.<String>emptyList(), 1).scan(dir.getParentFile(), false).isEmpty());
+    }
+}
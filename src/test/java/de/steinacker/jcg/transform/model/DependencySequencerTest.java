@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2010 by Guido Steinacker
+ */
+package de.steinacker.jcg.transform.model;
+
+import de.steinacker.jcg.Context;
+import de.steinacker.jcg.model.*;
+import de.steinacker.jcg.transform.type.TypeMessage;
+import de.steinacker.jcg.transform.type.TypeTransformer;
+import org.testng.annotations.Test;
+
+import java.util.*;
+
+import static org.testng.Assert.*;
+
+/**
+ * @author Guido Steinacker
+ * @version %version: 28 %
+ */
+public class DependencySequencerTest {
+
+    @Test
+    public void testDependenciesAreTransformedFirst() {
+        final List<Type> types = new ArrayList<Type>();
+        // every type extends the type declared before; only Type0 and Type1 are independent of each other:
+        for (int i = 0; i < 20; ++i) {
+            final TypeBuilder typeBuilder = new TypeBuilder()
+                    .setName(QualifiedName.valueOf("a.Type" + i))
+                    .setKind(Type.Kind.CLASS);
+            if (i > 1)
+                typeBuilder.setSuperClass(TypeSymbol.valueOf(QualifiedName.valueOf("a.Type" + (i - 1))));
+            types.add(typeBuilder.toType());
+        }
+        final Map<String, Object> parameters = Collections.<String, Object>singletonMap("foo", "bar");
+        final ModelMessage result = newSequencer(4).transform(new ModelMessage(new Model(types), new Context(parameters)));
+        final Model model = result.getPayload();
+        assertEquals(model.getAllTypes().size(), 20);
+        for (int i = 0; i < 20; ++i) {
+            final Type type = model.getType(QualifiedName.valueOf("a.Type" + i));
+            // the comment of a type contains the comment of its supertype:
+            final String expected = i > 1
+                    ? model.getType(QualifiedName.valueOf("a.Type" + (i - 1))).getComment() + "/" + i
+                    : "" + i;
+            assertEquals(type.getComment(), expected);
+        }
+        assertEquals(result.getContext().getParameters(), parameters);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testThreadsMustBePositive() {
+        new DependencySequencer().setThreads(0);
+    }
+
+    /**
+     * Creates a sequencer with a transformer, appending the number of the type to the comment of
+     * the transformed supertype.
+     */
+    private static DependencySequencer newSequencer(final int threads) {
+        final DependencySequencer sequencer = new DependencySequencer();
+        sequencer.setThreads(threads);
+        sequencer.setTypeTransformer(new TypeTransformer() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public List<TypeMessage> transform(final TypeMessage message) {
+                final Type type = message.getPayload();
+                final Map<QualifiedName, List<Type>> transformedTypes = (Map<QualifiedName, List<Type>>)
+                        message.getContext().getParameters().get(DependencySequencer.CTX_PARAM_TRANSFORMED_TYPES);
+                final String number = type.getName().getSimpleName().toString().substring(4);
+                String comment = number;
+                if (type.getSuperClass().getQualifiedName().getPackage().equals("a")) {
+                    final List<Type> superClass = transformedTypes.get(type.getSuperClass().getQualifiedName());
+                    assertNotNull(superClass, "supertype of " + type.getName() + " is not yet transformed");
+                    comment = superClass.get(0).getComment() + "/" + number;
+                    // only the direct dependencies are passed to the transformer:
+                    assertEquals(transformedTypes.size(), 1);
+                } else {
+                    assertTrue(transformedTypes.isEmpty());
+                }
+                final Type transformedType = new TypeBuilder(type).setComment(comment).toType();
+                return Collections.singletonList(new TypeMessage(transformedType, message.getContext()));
+            }
+
+            @Override
+            public String getName() {
+                return "comment";
+            }
+        });
+        return sequencer;
+    }
+}
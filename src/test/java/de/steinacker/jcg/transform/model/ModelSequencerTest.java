@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2010 by Guido Steinacker
+ */
+package de.steinacker.jcg.transform.model;
+
+import de.steinacker.jcg.Context;
+import de.steinacker.jcg.model.*;
+import de.steinacker.jcg.transform.type.TypeMessage;
+import de.steinacker.jcg.transform.type.TypeTransformer;
+import org.testng.annotations.Test;
+
+import java.util.*;
+
+import static org.testng.Assert.assertEquals;
+
+/**
+ * @author Guido Steinacker
+ * @version %version: 28 %
+ */
+public class ModelSequencerTest {
+
+    @Test
+    public void testConcurrentTransformationKeepsTheOrderOfTypes() {
+        final List<Type> types = new ArrayList<Type>();
+        for (int i = 0; i < 50; ++i) {
+            types.add(new TypeBuilder().setName(QualifiedName.valueOf("a.Type" + i)).setKind(Type.Kind.CLASS).toType());
+        }
+        final ModelMessage message = new ModelMessage(new Model(types), new Context(Collections.<String, Object>emptyMap()));
+        final Model sequential = newSequencer(1).transform(message).getPayload();
+        final Model concurrent = newSequencer(8).transform(message).getPayload();
+        assertEquals(new ArrayList<Type>(concurrent.getAllTypes()), new ArrayList<Type>(sequential.getAllTypes()));
+        assertEquals(concurrent.getAllTypes().size(), 100);
+    }
+
+    @Test(expectedExceptions = UnsupportedOperationException.class)
+    public void testExceptionsOfTheTransformerArePropagated() {
+        final ModelSequencer sequencer = new ModelSequencer();
+        sequencer.setThreads(4);
+        sequencer.setTypeTransformer(new TypeTransformer() {
+            @Override
+            public List<TypeMessage> transform(final TypeMessage message) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public String getName() {
+                return "failing";
+            }
+        });
+        final List<Type> types = Arrays.asList(
+                new TypeBuilder().setName(QualifiedName.valueOf("a.Foo")).setKind(Type.Kind.CLASS).toType(),
+                new TypeBuilder().setName(QualifiedName.valueOf("a.Bar")).setKind(Type.Kind.CLASS).toType());
+        sequencer.transform(new ModelMessage(new Model(types), new Context(Collections.<String, Object>emptyMap())));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testThreadsMustBePositive() {
+        new ModelSequencer().setThreads(0);
+    }
+
+    /**
+     * Creates a sequencer with a transformer returning every type and an additional interface,
+     * taking a random amount of time.
+     */
+    private static ModelSequencer newSequencer(final int threads) {
+        final ModelSequencer sequencer = new ModelSequencer();
+        sequencer.setThreads(threads);
+        sequencer.setTypeTransformer(new TypeTransformer() {
+            @Override
+            public List<TypeMessage> transform(final TypeMessage message) {
+                try {
+                    Thread.sleep((long) (Math.random() * 5));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                final Type type = message.getPayload();
+                final Type extractedInterface = new TypeBuilder(type)
+                        .setName(QualifiedName.valueOf(type.getName() + "Interface"))
+                        .setKind(Type.Kind.INTERFACE)
+                        .toType();
+                return Arrays.asList(message, new TypeMessage(extractedInterface, message.getContext()));
+            }
+
+            @Override
+            public String getName() {
+                return "extract";
+            }
+        });
+        return sequencer;
+    }
+}
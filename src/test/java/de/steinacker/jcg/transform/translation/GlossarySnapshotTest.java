@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2010 by Guido Steinacker
+ */
+package de.steinacker.jcg.transform.translation;
+
+import de.steinacker.jcg.util.DigestUtil;
+import org.testng.annotations.Test;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.Locale;
+
+import static org.testng.Assert.*;
+
+/**
+ * @author Guido Steinacker
+ * @version %version: 28 %
+ */
+public class GlossarySnapshotTest {
+
+    @Test
+    public void testSnapshotEqualsGlossary() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        GlossarySnapshot.write(glossaryBuilder(), out);
+        final Glossary glossary = GlossarySnapshot.read(ByteBuffer.wrap(out.toByteArray()));
+
+        assertEquals(glossary.getSourceLanguage(), Locale.GERMAN);
+        assertEquals(glossary.getTargetLanguage(), Locale.ENGLISH);
+        assertTrue(glossary.hasEntry("order item", Locale.ENGLISH));
+        assertTrue(glossary.hasEntry("Kunden", Locale.GERMAN));
+        assertFalse(glossary.hasEntry("Kund", Locale.GERMAN));
+        assertFalse(glossary.hasEntry("Kundennummer", Locale.GERMAN));
+        assertFalse(glossary.hasEntry("Customer", Locale.GERMAN));
+        assertFalse(glossary.hasEntry("Kunde", Locale.FRENCH));
+        assertEquals(glossary.getTranslation("Bestellposition", Locale.GERMAN), "order item");
+        assertEquals(glossary.getTranslation("bestell Positionen", Locale.GERMAN), "order items");
+        assertEquals(glossary.getShortDescription("customers", Locale.ENGLISH), "Ein Kunde");
+        assertFalse(glossary.hasTranslation("Notiz", Locale.GERMAN));
+        assertTrue(glossary.hasEntry("Notizen", Locale.GERMAN));
+        assertEquals(glossary.findTranslation("getKundeName", 3, 8, Locale.GERMAN), "customer");
+        assertEquals(glossary.getVersion(), glossaryBuilder().toGlossary().getVersion());
+    }
+
+    @Test
+    public void testMappedGlossaryFactory() throws IOException {
+        final File glossaryFile = new File("src/main/resources/glossary/glossary.xml");
+        final File snapshotFile = writeSnapshot(DigestUtil.digestOfFile(glossaryFile));
+        try {
+            final MappedGlossaryFactory factory = new MappedGlossaryFactory();
+            factory.setSnapshotFile(snapshotFile.getPath());
+            factory.setGlossaryFile(glossaryFile.getPath());
+            // the modification time is not relevant, as long as the digest of the xml is unchanged:
+            snapshotFile.setLastModified(glossaryFile.lastModified() - 60000L);
+            assertEquals(factory.glossary().getTranslation("Kunde", Locale.GERMAN), "customer");
+            // only contained in the snapshot:
+            assertTrue(factory.glossary().hasEntry("Notizen", Locale.GERMAN));
+            assertSame(factory.glossary(), factory.glossary());
+        } finally {
+            snapshotFile.delete();
+        }
+    }
+
+    @Test
+    public void testMappedGlossaryFactoryIgnoresSnapshotOfDifferentXml() throws IOException {
+        final File glossaryFile = new File("src/main/resources/glossary/glossary.xml");
+        final File snapshotFile = writeSnapshot(DigestUtil.digestOf("another glossary"));
+        try {
+            final MappedGlossaryFactory factory = new MappedGlossaryFactory();
+            factory.setSnapshotFile(snapshotFile.getPath());
+            factory.setGlossaryFile(glossaryFile.getPath());
+            snapshotFile.setLastModified(glossaryFile.lastModified() + 60000L);
+            assertEquals(factory.glossary().getTranslation("Kunde", Locale.GERMAN), "customer");
+            assertFalse(factory.glossary().hasEntry("Notizen", Locale.GERMAN));
+        } finally {
+            snapshotFile.delete();
+        }
+    }
+
+    private static File writeSnapshot(final String sourceDigest) throws IOException {
+        final File snapshotFile = File.createTempFile("glossary", ".jcgg");
+        final OutputStream out = new FileOutputStream(snapshotFile);
+        try {
+            GlossarySnapshot.write(glossaryBuilder(), sourceDigest, out);
+        } finally {
+            out.close();
+        }
+        return snapshotFile;
+    }
+
+    private static GlossaryBuilder glossaryBuilder() {
+        return new GlossaryBuilder(Locale.GERMAN, Locale.ENGLISH)
+                .addEntry("Kunde", "Kunden", "customer", "customers", "Ein Kunde", "")
+                .addEntry("Bestellposition", "Bestellpositionen", "order item", "order items", "", "")
+                .addEntry("Notiz", "Notizen", "", "", "", "");
+    }
+}
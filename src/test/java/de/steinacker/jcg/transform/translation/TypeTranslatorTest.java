@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2010 by Guido Steinacker
+ */
+package de.steinacker.jcg.transform.translation;
+
+import de.steinacker.jcg.model.QualifiedName;
+import de.steinacker.jcg.model.SimpleName;
+import org.testng.annotations.Test;
+
+import java.util.Locale;
+
+import static org.testng.Assert.*;
+
+/**
+ * @author Guido Steinacker
+ * @version %version: 28 %
+ */
+public class TypeTranslatorTest {
+
+    @Test
+    public void testGlossaryLookup() {
+        final Glossary glossary = glossary();
+        assertTrue(glossary.hasEntry("order item", Locale.ENGLISH));
+        assertTrue(glossary.hasEntry("OrderItems", Locale.ENGLISH));
+        assertFalse(glossary.hasEntry("Customer", Locale.GERMAN));
+        assertEquals(glossary.getTranslation("Bestellposition", Locale.GERMAN), "order item");
+        assertEquals(glossary.getTranslation("bestellPositionen", Locale.GERMAN), "order items");
+        assertEquals(glossary.getShortDescription("Kunde", Locale.GERMAN), "Ein Kunde");
+        assertFalse(glossary.hasTranslation("Notiz", Locale.GERMAN));
+    }
+
+    @Test
+    public void testTranslateNames() {
+        final TypeTranslator translator = new TypeTranslator();
+        translator.setName("translator");
+        translator.setGlossary(glossary());
+        assertEquals(translator.translateQualifiedName(QualifiedName.valueOf("a.Kunde")).toString(), "a.Customer");
+        assertEquals(translator.translateSimpleName("kunde").toString(), "customer");
+        assertEquals(translator.translateCamelHumpName("getKundeBestellpositionen").toString(), "getCustomerOrderItems");
+        assertEquals(translator.translateCamelHumpName("isNotiz").toString(), "isNotiz");
+        assertEquals(translator.translateCamelHumpName("kunde").toString(), "customer");
+        final SimpleName name = translator.translateCamelHumpName("setKunde");
+        assertSame(translator.translateCamelHumpName(SimpleName.valueOf("setKunde")), name);
+    }
+
+    private static Glossary glossary() {
+        return new GlossaryBuilder(Locale.GERMAN, Locale.ENGLISH)
+                .addEntry("Kunde", "Kunden", "customer", "customers", "Ein Kunde", "")
+                .addEntry("Bestellposition", "Bestellpositionen", "order item", "order items", "", "")
+                .addEntry("Notiz", "Notizen", "", "", "", "")
+                .toGlossary();
+    }
+}
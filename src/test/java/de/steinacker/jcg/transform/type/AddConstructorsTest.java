@@ -69,8 +69,8 @@ public class AddConstructorsTest {
                     .toField())
             .toType();
     private AddConstructors transformer;
-    private static final TypeSymbol TYPESYMBOL_JAVA_LANG_STRING = new TypeSymbol(QualifiedName.valueOf("java.lang.String"));
-    private static final TypeSymbol TYPESYMBOL_JAVA_UTIL_LIST = new TypeSymbol(QualifiedName.valueOf("java.util.List"),
+    private static final TypeSymbol TYPESYMBOL_JAVA_LANG_STRING = TypeSymbol.valueOf(QualifiedName.valueOf("java.lang.String"));
+    private static final TypeSymbol TYPESYMBOL_JAVA_UTIL_LIST = TypeSymbol.valueOf(QualifiedName.valueOf("java.util.List"),
             Collections.singletonList(new TypeParameter(QualifiedName.valueOf("T"), Collections.singletonList(QualifiedName.valueOf("java.lang.Number")))));
 
     @BeforeMethod
@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2010 by Guido Steinacker
+ */
+package de.steinacker.jcg.transform.type;
+
+import de.steinacker.jcg.Context;
+import de.steinacker.jcg.model.*;
+import de.steinacker.jcg.transform.rule.TypeTransformerSelector;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+
+import static org.testng.Assert.*;
+
+/**
+ * @author Guido Steinacker
+ * @version %version: 28 %
+ */
+public class TransformationCacheTest {
+
+    private File cacheDir;
+
+    @BeforeMethod
+    public void createCacheDir() throws IOException {
+        cacheDir = File.createTempFile("jcg-cache", "");
+        cacheDir.delete();
+    }
+
+    @AfterMethod
+    public void deleteCacheDir() {
+        final File[] files = cacheDir.listFiles();
+        if (files != null) {
+            for (final File file : files) {
+                file.delete();
+            }
+        }
+        cacheDir.delete();
+    }
+
+    @Test
+    public void testCachedTypesAreNotTransformedAgain() {
+        final Renaming renaming = new Renaming("-a");
+        final List<TypeMessage> first = newRouter(renaming).transform(message("x.Foo"));
+        // a new router and cache, as used by the next run of jcg:
+        final List<TypeMessage> second = newRouter(renaming).transform(message("x.Foo"));
+        assertEquals(renaming.calls, 1);
+        assertEquals(second.size(), 2);
+        assertEquals(second.get(0).getPayload(), first.get(0).getPayload());
+        assertEquals(second.get(1).getPayload().getName().toString(), "x.Foo-a");
+        assertEquals(second.get(0).getContext(), message("x.Foo").getContext());
+
+        newRouter(renaming).transform(message("x.Bar"));
+        assertEquals(renaming.calls, 2);
+    }
+
+    @Test
+    public void testChangedConfigurationInvalidatesEntries() {
+        final Renaming renaming = new Renaming("-a");
+        newRouter(renaming).transform(message("x.Foo"));
+        renaming.suffix = "-b";
+        final List<TypeMessage> result = newRouter(renaming).transform(message("x.Foo"));
+        assertEquals(renaming.calls, 2);
+        assertEquals(result.get(1).getPayload().getName().toString(), "x.Foo-b");
+    }
+
+    @Test
+    public void testChangedDependencyInvalidatesEntries() {
+        final Renaming renaming = new Renaming("-a");
+        final Type dependency = new TypeBuilder()
+                .setName(QualifiedName.valueOf("x.Bar"))
+                .setKind(Type.Kind.CLASS)
+                .addField(new FieldBuilder().setName(SimpleName.valueOf("a")).setType(TypeSymbol.valueOf(QualifiedName.valueOf("int"))).toField())
+                .toType();
+        newRouter(renaming).transform(message("x.Foo", dependency));
+        newRouter(renaming).transform(message("x.Foo", dependency));
+        assertEquals(renaming.calls, 1);
+        // a changed member of the dependency is not part of its toString():
+        final Type changedDependency = new TypeBuilder(dependency)
+                .addField(new FieldBuilder().setName(SimpleName.valueOf("b")).setType(TypeSymbol.valueOf(QualifiedName.valueOf("int"))).toField())
+                .toType();
+        assertEquals(changedDependency.toString(), dependency.toString());
+        newRouter(renaming).transform(message("x.Foo", changedDependency));
+        assertEquals(renaming.calls, 2);
+    }
+
+    @Test
+    public void testParametersWithoutStableEncodingAreNotCached() {
+        final Renaming renaming = new Renaming("-a");
+        final TypeMessage message = message("x.Foo");
+        final Map<String, Object> parameters = new HashMap<String, Object>(message.getContext().getParameters());
+        parameters.put("unknown", Collections.singletonList(new Object()));
+        final TypeMessage messageWithUnknownParameter = new TypeMessage(message.getPayload(), new Context(parameters));
+        newRouter(renaming).transform(messageWithUnknownParameter);
+        newRouter(renaming).transform(messageWithUnknownParameter);
+        assertEquals(renaming.calls, 2);
+        assertNull(new TransformationCache(cacheDir.getPath()).keyOf(messageWithUnknownParameter,
+                Collections.singletonList(renaming)));
+        assertEquals(cacheDir.list().length, 0);
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEntriesAreEvicted() {
+        final TransformationCache cache = new TransformationCache(cacheDir.getPath(), 1000);
+        final List<Type> types = Collections.singletonList(message("x.Foo").getPayload());
+        for (int i = 0; i < 100; ++i) {
+            cache.put("entry" + i, types);
+        }
+        assertTrue(cache.getSize() <= 1000);
+        assertTrue(cacheDir.list().length < 100);
+        assertEquals(cache.get("entry99"), types);
+        assertEquals(new TransformationCache(cacheDir.getPath(), 1000).getSize(), cache.getSize());
+    }
+
+    private TypeTransformerRouter newRouter(final TypeTransformer transformer) {
+        final TypeTransformerProvider provider = new TypeTransformerProvider();
+        provider.setTransformers(Arrays.asList(transformer));
+        final TypeTransformerRouter router = new TypeTransformerRouter();
+        router.setName("router");
+        router.setSelector(new TypeTransformerSelector() {
+            @Override
+            public List<String> apply(final TypeMessage message) {
+                return Collections.singletonList("renaming");
+            }
+        });
+        router.setTransformerProvider(provider);
+        router.setCache(new TransformationCache(cacheDir.getPath()));
+        return router;
+    }
+
+    private static TypeMessage message(final String typeName) {
+        final Type type = new TypeBuilder()
+                .setName(QualifiedName.valueOf(typeName))
+                .setKind(Type.Kind.CLASS)
+                .toType();
+        return new TypeMessage(type, new Context(Collections.<String, Object>singletonMap("selector", "renaming")));
+    }
+
+    private static TypeMessage message(final String typeName, final Type dependency) {
+        final Map<String, Object> parameters = new HashMap<String, Object>(message(typeName).getContext().getParameters());
+        parameters.put("transformedTypes", Collections.singletonMap(dependency.getName(),
+                Collections.singletonList(dependency)));
+        return new TypeMessage(message(typeName).getPayload(), new Context(parameters));
+    }
+
+    /**
+     * Returns the type and a copy of the type, whose name has the configured suffix.
+     */
+    private static final class Renaming implements TypeTransformer, Fingerprinted {
+        private String suffix;
+        private int calls = 0;
+
+        private Renaming(final String suffix) {
+            this.suffix = suffix;
+        }
+
+        @Override
+        public List<TypeMessage> transform(final TypeMessage message) {
+            ++calls;
+            final Type type = new TypeBuilder(message.getPayload())
+                    .setName(QualifiedName.valueOf(message.getPayload().getName() + suffix))
+                    .toType();
+            return Arrays.asList(message, new TypeMessage(type, message.getContext()));
+        }
+
+        @Override
+        public String getName() {
+            return "renaming";
+        }
+
+        @Override
+        public String getFingerprint() {
+            return "suffix=" + suffix;
+        }
+    }
+}
@@ -8,7 +8,11 @@ import de.steinacker.jcg.model.Type;
 import de.steinacker.jcg.test.AbstractJcgTest;
 import org.testng.annotations.Test;
 
+import java.util.Properties;
+
+import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertSame;
 
 
 public final class TypeMapperTest extends AbstractJcgTest {
@@ -46,6 +50,41 @@ public final class TypeMapperTest extends AbstractJcgTest {
         */
     }
 
+    @Test
+    public void testMostSpecificPatternIsUsed() {
+        final TypeMapper mapper = typeMapper(
+                "a\\.(.*)", "x.%s",
+                "a\\.b\\.(.*)", "y.%s",
+                ".*\\.Foo", "z.Foo");
+        assertEquals(mapper.translateQualifiedName(QualifiedName.valueOf("a.b.C")).toString(), "y.C");
+        assertEquals(mapper.translateQualifiedName(QualifiedName.valueOf("a.c.C")).toString(), "x.c.C");
+        assertEquals(mapper.translateQualifiedName(QualifiedName.valueOf("b.Foo")).toString(), "z.Foo");
+        final QualifiedName unmapped = QualifiedName.valueOf("c.C");
+        assertSame(mapper.translateQualifiedName(unmapped), unmapped);
+        assertSame(mapper.translateQualifiedName(QualifiedName.valueOf("a.b.C")),
+                mapper.translateQualifiedName(QualifiedName.valueOf("a.b.C")));
+    }
+
+    @Test
+    public void testLiteralPrefixOf() {
+        assertEquals(TypeMapper.literalPrefixOf("test\\.(.*)"), "test.");
+        assertEquals(TypeMapper.literalPrefixOf("com\\.examples?\\..*"), "com.example");
+        assertEquals(TypeMapper.literalPrefixOf("a\\.b|c\\.d"), "");
+        assertEquals(TypeMapper.literalPrefixOf("a\\.(b|c)\\.d"), "a.");
+        assertEquals(TypeMapper.literalPrefixOf(".*Foo"), "");
+    }
+
+    private static TypeMapper typeMapper(final String... patterns) {
+        final Properties properties = new Properties();
+        for (int i = 0; i < patterns.length; i += 2) {
+            properties.setProperty(patterns[i], patterns[i + 1]);
+        }
+        final TypeMapper mapper = new TypeMapper();
+        mapper.setName("TypeMapper");
+        mapper.setMappingPatterns(properties);
+        return mapper;
+    }
+
     @Override
     protected String selectTransformer() {
         return "TypeMapper";
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2010 by Guido Steinacker
+ */
+package de.steinacker.jcg.transform.type;
+
+import de.steinacker.jcg.Context;
+import de.steinacker.jcg.codegen.ProcessingContext;
+import de.steinacker.jcg.codegen.TemplateProcessor;
+import de.steinacker.jcg.model.*;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.*;
+
+import static org.testng.Assert.assertEquals;
+
+/**
+ * @author Guido Steinacker
+ * @version %version: 28 %
+ */
+public class TypeTransformerChainTest {
+
+    @Test
+    public void testFusedChainEqualsSequentialTransformation() {
+        final List<TypeTransformer> transformers = Arrays.<TypeTransformer>asList(
+                new PrivatizeFields(), addSetters(), new FinalizeFields(), addGetters());
+        final TypeTransformerChain chain = new TypeTransformerChain();
+        chain.setName("chain");
+        chain.setTransformerChain(transformers);
+
+        final TypeMessage message = new TypeMessage(type(), new Context(Collections.<String, Object>emptyMap()));
+        TypeMessage expected = message;
+        for (final TypeTransformer transformer : transformers) {
+            expected = transformer.transform(expected).get(0);
+        }
+        final List<TypeMessage> result = chain.transform(message);
+        assertEquals(result.size(), 1);
+        final Type transformedType = result.get(0).getPayload();
+        final Type expectedType = expected.getPayload();
+        assertEquals(transformedType.getFields(), expectedType.getFields());
+        assertEquals(transformedType.getAdditionalImports(), expectedType.getAdditionalImports());
+        // the generated methods have no kind, so they are compared by their signature and body:
+        assertEquals(transformedType.getMethods().size(), expectedType.getMethods().size());
+        for (int i = 0; i < expectedType.getMethods().size(); ++i) {
+            final Method method = transformedType.getMethods().get(i);
+            final Method expectedMethod = expectedType.getMethods().get(i);
+            assertEquals(method.toString(), expectedMethod.toString());
+            assertEquals(method.getModifiers(), expectedMethod.getModifiers());
+            assertEquals(method.getMethodBody(), expectedMethod.getMethodBody());
+        }
+        // two setters, followed by three getters:
+        assertEquals(transformedType.getMethods().size(), 6);
+        assertEquals(transformedType.getMethods().get(1).getName().toString(), "setName");
+        assertEquals(transformedType.getMethods().get(3).getName().toString(), "getName");
+    }
+
+    private static Type type() {
+        return new TypeBuilder()
+                .setName(QualifiedName.valueOf("a.Person"))
+                .setKind(Type.Kind.CLASS)
+                .addMethod(new MethodBuilder()
+                        .setName(SimpleName.valueOf("toString"))
+                        .setKind(Method.Kind.METHOD)
+                        .setReturnType(TypeSymbol.valueOf(QualifiedName.valueOf("java.lang.String")))
+                        .setMethodBody("return name;")
+                        .toMethod())
+                .addField(field("name", "java.lang.String"))
+                .addField(field("age", "int"))
+                .addField(new FieldBuilder(field("id", "long")).setModifiers(EnumSet.of(FieldModifier.FINAL)).toField())
+                .toType();
+    }
+
+    private static Field field(final String name, final String type) {
+        return new FieldBuilder()
+                .setName(SimpleName.valueOf(name))
+                .setType(TypeSymbol.valueOf(QualifiedName.valueOf(type)))
+                .toField();
+    }
+
+    private static AddGetters addGetters() {
+        final AddGetters addGetters = new AddGetters();
+        addGetters.setName("addGetters");
+        addGetters.setTemplateName("getter");
+        addGetters.setTemplateProcessor(new EchoTemplateProcessor());
+        return addGetters;
+    }
+
+    private static AddSetters addSetters() {
+        final AddSetters addSetters = new AddSetters();
+        addSetters.setName("addSetters");
+        addSetters.setTemplateName("setter");
+        addSetters.setTemplateProcessor(new EchoTemplateProcessor());
+        return addSetters;
+    }
+
+    /**
+     * Appends the name of the template and the field, and adds an import for the type of the field.
+     */
+    private static final class EchoTemplateProcessor implements TemplateProcessor {
+        @Override
+        public void process(final ProcessingContext ctx,
+                            final String template,
+                            final Appendable appendable,
+                            final Map<String, ?> arguments) {
+            final Field field = (Field) arguments.get("field");
+            if (!field.getType().getQualifiedName().isPrimitive())
+                ctx.addImport(field.getType().getQualifiedName().toString());
+            try {
+                appendable.append(template).append(' ').append(field.toString());
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
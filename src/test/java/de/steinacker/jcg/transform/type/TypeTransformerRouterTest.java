@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2010 by Guido Steinacker
+ */
+package de.steinacker.jcg.transform.type;
+
+import de.steinacker.jcg.Context;
+import de.steinacker.jcg.model.*;
+import de.steinacker.jcg.transform.rule.AnnotationSelector;
+import de.steinacker.jcg.transform.rule.CacheableSelector;
+import de.steinacker.jcg.transform.rule.ContextParamSelector;
+import de.steinacker.jcg.transform.rule.Rule;
+import de.steinacker.jcg.transform.rule.TransformerSelectors;
+import org.testng.annotations.Test;
+
+import java.util.*;
+
+import static org.testng.Assert.assertEquals;
+
+/**
+ * @author Guido Steinacker
+ * @version %version: 28 %
+ */
+public class TypeTransformerRouterTest {
+
+    private static final String TRANSFORM_WITH = "de.steinacker.jcg.annotation.TransformWith";
+
+    @Test
+    public void testSelectorIsAppliedOncePerRoute() {
+        final CountingSelector selector = new CountingSelector(newSelectors());
+        final TypeTransformerProvider provider = newProvider("a", "b");
+        final TypeTransformerRouter router = newRouter(selector, provider);
+
+        assertEquals(names(router.transform(message("x.Foo", "a"))), Arrays.asList("x.Foo-a"));
+        assertEquals(names(router.transform(message("x.Bar", "a"))), Arrays.asList("x.Bar-a"));
+        assertEquals(names(router.transform(message("x.Baz", "b"))), Arrays.asList("x.Baz-b"));
+        assertEquals(names(router.transform(message("x.Qux", null))), Arrays.asList("x.Qux-a-b"));
+        assertEquals(names(router.transform(message("x.Quux", null))), Arrays.asList("x.Quux-a-b"));
+        assertEquals(selector.calls, 3);
+    }
+
+    @Test
+    public void testRoutesAreInvalidatedByTheProvider() {
+        final CountingSelector selector = new CountingSelector(newSelectors());
+        final TypeTransformerProvider provider = newProvider("a", "b");
+        final TypeTransformerRouter router = newRouter(selector, provider);
+
+        router.transform(message("x.Foo", "a"));
+        provider.setTransformers(Arrays.<TypeTransformer>asList(new Renaming("a", "-new")));
+        assertEquals(names(router.transform(message("x.Bar", "a"))), Arrays.asList("x.Bar-new"));
+        assertEquals(selector.calls, 2);
+    }
+
+    private static TypeTransformerRouter newRouter(final CacheableSelector selector,
+                                                   final TypeTransformerProvider provider) {
+        final TypeTransformerRouter router = new TypeTransformerRouter();
+        router.setName("router");
+        router.setSelector(selector);
+        router.setTransformerProvider(provider);
+        return router;
+    }
+
+    private static TransformerSelectors newSelectors() {
+        final AnnotationSelector annotationSelector = new AnnotationSelector();
+        annotationSelector.setAnnotationNames(Arrays.<CharSequence>asList(TRANSFORM_WITH));
+        final ContextParamSelector contextParamSelector = new ContextParamSelector();
+        contextParamSelector.setCtxParam("selector");
+        final TransformerSelectors selectors = new TransformerSelectors();
+        selectors.setRules(Arrays.<Rule<TypeMessage, List<String>>>asList(annotationSelector, contextParamSelector));
+        return selectors;
+    }
+
+    private static TypeTransformerProvider newProvider(final String... names) {
+        final List<TypeTransformer> transformers = new ArrayList<TypeTransformer>();
+        for (final String name : names) {
+            transformers.add(new Renaming(name, "-" + name));
+        }
+        final TypeTransformerProvider provider = new TypeTransformerProvider();
+        provider.setTransformers(transformers);
+        return provider;
+    }
+
+    /**
+     * Creates a message for a type, that is annotated with @TransformWith(transformWith), if transformWith
+     * is not null. The context selects the transformers "a" and "b".
+     */
+    private static TypeMessage message(final String typeName, final String transformWith) {
+        final TypeBuilder builder = new TypeBuilder()
+                .setName(QualifiedName.valueOf(typeName))
+                .setKind(Type.Kind.CLASS);
+        if (transformWith != null) {
+            final List<AnnotationParameter> parameters = Arrays.asList(
+                    new AnnotationParameter("value", false, new AnnotationValue(transformWith, "\"" + transformWith + "\"")));
+            builder.addAnnotation(Annotation.valueOf(QualifiedName.valueOf(TRANSFORM_WITH), parameters, parameters));
+        }
+        return new TypeMessage(builder.toType(), new Context(Collections.<String, Object>singletonMap("selector", "a, b")));
+    }
+
+    private static List<String> names(final List<TypeMessage> messages) {
+        final List<String> names = new ArrayList<String>();
+        for (final TypeMessage message : messages) {
+            names.add(message.getPayload().getName().toString());
+        }
+        return names;
+    }
+
+    private static final class CountingSelector implements CacheableSelector {
+        private final CacheableSelector delegate;
+        private int calls = 0;
+
+        private CountingSelector(final CacheableSelector delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Object routingKeyOf(final TypeMessage message) {
+            return delegate.routingKeyOf(message);
+        }
+
+        @Override
+        public List<String> apply(final TypeMessage message) {
+            ++calls;
+            return delegate.apply(message);
+        }
+    }
+
+    /**
+     * Appends a suffix to the name of the type.
+     */
+    private static final class Renaming implements TypeTransformer {
+        private final String name;
+        private final String suffix;
+
+        private Renaming(final String name, final String suffix) {
+            this.name = name;
+            this.suffix = suffix;
+        }
+
+        @Override
+        public List<TypeMessage> transform(final TypeMessage message) {
+            final Type type = new TypeBuilder(message.getPayload())
+                    .setName(QualifiedName.valueOf(message.getPayload().getName() + suffix))
+                    .toType();
+            return Collections.singletonList(new TypeMessage(type, message.getContext()));
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+    }
+}
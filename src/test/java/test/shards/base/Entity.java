@@ -0,0 +1,15 @@
+/*
+ * Copyright (c) 2010 by Guido Steinacker
+ */
+package test.shards.base;
+
+/**
+ * Base class of types in other packages, used to test parsing in several shards.
+ *
+ * @author Guido Steinacker
+ */
+public abstract class Entity {
+
+    private long id;
+
+}
@@ -0,0 +1,23 @@
+/*
+ * Copyright (c) 2010 by Guido Steinacker
+ */
+package test.shards.customers;
+
+import test.shards.base.Entity;
+import test.shards.orders.Order;
+
+import java.util.List;
+
+/**
+ * References types of other packages, used to test parsing in several shards.
+ *
+ * @author Guido Steinacker
+ */
+public class Customer extends Entity {
+
+    private List<Order> orders;
+
+    public List<Order> getOrders() {
+        return orders;
+    }
+}
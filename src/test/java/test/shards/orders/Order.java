@@ -0,0 +1,21 @@
+/*
+ * Copyright (c) 2010 by Guido Steinacker
+ */
+package test.shards.orders;
+
+import test.shards.base.Entity;
+import test.shards.customers.Customer;
+
+/**
+ * References types of other packages, used to test parsing in several shards.
+ *
+ * @author Guido Steinacker
+ */
+public class Order extends Entity {
+
+    private Customer customer;
+
+    public Customer getCustomer() {
+        return customer;
+    }
+}